@@ -0,0 +1,29 @@
+package org.tbox.dapper.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 方法追踪注解
+ * 标注在Spring Bean的方法（或类，表示所有public方法）上，调用时在当前追踪上下文下创建一个子Span；
+ * 没有追踪上下文或未采样时直接调用原方法
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Traced {
+
+    /**
+     * Span名称，默认为"类名.方法名"
+     */
+    String value() default "";
+
+    /**
+     * 记录为Span附加信息的参数，格式为"名称=#参数名"或"名称=#p下标"，如 {"orderId=#orderId", "type=#p1"}，
+     * 值为参数的toString()，只在采样时计算
+     */
+    String[] tags() default {};
+}
@@ -0,0 +1,112 @@
+package org.tbox.dapper.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TraceSnapshot;
+import org.tbox.dapper.span.ClientSpan;
+import org.tbox.dapper.span.SpanComponent;
+
+import java.net.URI;
+
+/**
+ * 一次HTTP客户端请求的追踪状态，由各客户端拦截器共用
+ * 有追踪上下文时生成子Span传递给下游（下游的父Span即此客户端Span），
+ * 采样时记录客户端Span；无论是否有追踪上下文都计入 {@link HttpClientStats}
+ */
+final class HttpClientCall {
+    private static final Logger log = LoggerFactory.getLogger(HttpClientCall.class);
+
+    private final String host;
+    private final String route;
+    private final TraceSnapshot span;
+    private final ClientSpan clientSpan;
+    private final long startNanos = System.nanoTime();
+    private boolean ended;
+
+    private HttpClientCall(String host, String route, TraceSnapshot span, ClientSpan clientSpan) {
+        this.host = host;
+        this.route = route;
+        this.span = span;
+        this.clientSpan = clientSpan;
+    }
+
+    /**
+     * 开始一次请求
+     *
+     * @param method  HTTP方法
+     * @param host    目标主机
+     * @param port    目标端口，默认端口（或未知）时传-1
+     * @param path    请求路径（可带查询参数）
+     * @param appName 当前应用名称
+     */
+    static HttpClientCall start(String method, String host, int port, String path, String appName) {
+        String target = HttpClientStats.host(host, port);
+        String route = HttpClientStats.route(method, target, path);
+        TraceSnapshot span = null;
+        ClientSpan clientSpan = null;
+        if (TraceContext.getCurrentContext() != null) {
+            span = TraceContext.nextSpan(appName);
+            clientSpan = ClientSpan.start(SpanComponent.HTTP, method, route, span);
+        }
+        return new HttpClientCall(target, route, span, clientSpan);
+    }
+
+    /**
+     * 以请求URI开始一次请求，http/https的默认端口不计入主机名称
+     */
+    static HttpClientCall start(String method, URI uri, String appName) {
+        return start(method, uri.getHost(), effectivePort(uri.getScheme(), uri.getPort()), uri.getRawPath(), appName);
+    }
+
+    /**
+     * 端口未指定或为协议默认端口时返回-1
+     */
+    static int effectivePort(String scheme, int port) {
+        if (port <= 0 || (port == 80 && "http".equalsIgnoreCase(scheme))
+                || (port == 443 && "https".equalsIgnoreCase(scheme))) {
+            return -1;
+        }
+        return port;
+    }
+
+    /**
+     * 需要传递给下游的子Span，没有追踪上下文时返回null
+     */
+    TraceSnapshot getSpan() {
+        return span;
+    }
+
+    String getHost() {
+        return host;
+    }
+
+    /**
+     * 结束请求，重复调用时只有第一次生效（如响应式客户端在成功后又收到取消信号）
+     *
+     * @param status 响应状态码，没有响应时为-1
+     * @param error  请求异常，没有时为null
+     */
+    void end(int status, Throwable error) {
+        if (ended) {
+            return;
+        }
+        ended = true;
+        long nanos = System.nanoTime() - startNanos;
+        HttpClientStats.record(host, route, status, nanos);
+        if (clientSpan != null) {
+            if (status > 0) {
+                clientSpan.setTag("status", String.valueOf(status));
+            }
+            if (error != null) {
+                clientSpan.setError(error);
+            } else if (status >= 400) {
+                clientSpan.setError("HTTP " + status);
+            }
+            clientSpan.finish(nanos);
+        } else if (log.isDebugEnabled()) {
+            log.debug("HTTP client request completed: route={}, status={}, duration={}us, error={}",
+                    route, status, nanos / 1000, error != null ? error.getClass().getSimpleName() : null);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.tbox.dapper.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将HTTP客户端统计注册为Micrometer指标
+ * 主机统计使用 {@code tbox.http.client.host.*}（标签host），路由统计使用 {@code tbox.http.client.route.*}（标签route）；
+ * 所有指标均为函数式指标，只在抓取时读取统计数据，启动后新登记的主机和路由在登记时补充注册
+ */
+public class HttpClientMetricsBinder implements MeterBinder {
+
+    private static final String PREFIX = "tbox.http.client";
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        HttpClientStats.forEachInstance(stats -> register(registry, stats));
+    }
+
+    private static void register(MeterRegistry registry, HttpClientStats stats) {
+        String name = PREFIX + (stats.isRoute() ? ".route" : ".host");
+        Tags tags = Tags.of(stats.isRoute() ? "route" : "host", stats.getName());
+
+        FunctionTimer.builder(name + ".requests", stats, HttpClientStats::getCount,
+                        HttpClientStats::getTotalNanos, TimeUnit.NANOSECONDS)
+                .tags(tags).description("请求耗时").register(registry);
+        TimeGauge.builder(name + ".requests.p99", stats, TimeUnit.NANOSECONDS,
+                        s -> s.getLatency().getPercentileNanos(99))
+                .tags(tags).register(registry);
+        TimeGauge.builder(name + ".requests.max", stats, TimeUnit.NANOSECONDS,
+                        s -> s.getLatency().getMaxNanos())
+                .tags(tags).register(registry);
+
+        for (int i = 1; i <= 5; i++) {
+            int statusClass = i;
+            FunctionCounter.builder(name + ".responses", stats, s -> s.getStatusCount(statusClass))
+                    .tags(tags).tag("status", statusClass + "xx").description("按状态码类别统计的响应数").register(registry);
+        }
+        FunctionCounter.builder(name + ".errors", stats, HttpClientStats::getErrors)
+                .tags(tags).description("没有收到响应的请求数").register(registry);
+
+        if (!stats.isRoute()) {
+            FunctionCounter.builder(name + ".connections", stats, HttpClientStats::getReusedConnections)
+                    .tags(tags).tag("reused", "true").description("获取的连接数").register(registry);
+            FunctionCounter.builder(name + ".connections", stats, HttpClientStats::getNewConnections)
+                    .tags(tags).tag("reused", "false").description("获取的连接数").register(registry);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package org.tbox.dapper.client;
+
+import org.tbox.dapper.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * HTTP客户端调用统计，分别按目标主机和路由（方法 + 主机 + 路径模板）汇总
+ * 路径中的数字、UUID等标识段替换为 {@code {id}}；主机和路由的登记数量都有上限，超出后计入 {@link #OTHER}，
+ * 内存占用不随请求的URL数量增长。请求路径上只有直方图记录和LongAdder累加，不加锁
+ */
+public final class HttpClientStats {
+
+    /**
+     * 超出上限后的新主机或路由统一计入此项
+     */
+    public static final String OTHER = "<other>";
+
+    /**
+     * 路径中标识段的占位符
+     */
+    static final String ID_PLACEHOLDER = "{id}";
+
+    private static final ConcurrentMap<String, HttpClientStats> HOSTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, HttpClientStats> ROUTES = new ConcurrentHashMap<>();
+    private static final Collection<Consumer<HttpClientStats>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static volatile int maxHosts = 100;
+    private static volatile int maxRoutes = 500;
+
+    private final String name;
+    private final boolean route;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    // 1xx ~ 5xx
+    private final LongAdder[] statuses = new LongAdder[5];
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder reusedConnections = new LongAdder();
+    private final LongAdder newConnections = new LongAdder();
+
+    private HttpClientStats(String name, boolean route) {
+        this.name = name;
+        this.route = route;
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次请求
+     *
+     * @param host   目标主机（host或host:port）
+     * @param route  路由，见 {@link #route(String, String, String)}
+     * @param status 响应状态码，请求异常（无响应）时为-1
+     * @param nanos  耗时（纳秒）
+     */
+    static void record(String host, String route, int status, long nanos) {
+        of(HOSTS, host, maxHosts, false).record(status, nanos);
+        of(ROUTES, route, maxRoutes, true).record(status, nanos);
+    }
+
+    /**
+     * 记录一次连接获取
+     *
+     * @param reused 是否复用了连接池中的连接
+     */
+    static void recordConnection(String host, boolean reused) {
+        HttpClientStats stats = of(HOSTS, host, maxHosts, false);
+        (reused ? stats.reusedConnections : stats.newConnections).increment();
+    }
+
+    /**
+     * 生成主机名称，非默认端口时带上端口
+     *
+     * @param port 端口，默认端口（或未知）时传-1
+     */
+    static String host(String host, int port) {
+        if (host == null || host.isEmpty()) {
+            return "unknown";
+        }
+        return port > 0 ? host + ':' + port : host;
+    }
+
+    /**
+     * 生成路由名称：{@code GET api.example.com/users/{id}}
+     */
+    static String route(String method, String host, String path) {
+        return method + ' ' + host + normalizePath(path);
+    }
+
+    /**
+     * 去掉查询参数，并将数字、UUID、长十六进制串等标识段替换为 {@code {id}}
+     */
+    static String normalizePath(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        int end = path.indexOf('?');
+        if (end < 0) {
+            end = path.length();
+        }
+        StringBuilder sb = null;
+        int segmentStart = 0;
+        for (int i = 0; i <= end; i++) {
+            if (i == end || path.charAt(i) == '/') {
+                if (isIdentifier(path, segmentStart, i)) {
+                    if (sb == null) {
+                        sb = new StringBuilder(end).append(path, 0, segmentStart);
+                    }
+                    sb.append(ID_PLACEHOLDER);
+                } else if (sb != null) {
+                    sb.append(path, segmentStart, i);
+                }
+                if (sb != null && i < end) {
+                    sb.append('/');
+                }
+                segmentStart = i + 1;
+            }
+        }
+        String normalized = sb != null ? sb.toString() : path.substring(0, end);
+        if (normalized.isEmpty()) {
+            return "/";
+        }
+        return normalized.charAt(0) == '/' ? normalized : '/' + normalized;
+    }
+
+    private static boolean isIdentifier(String path, int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return false;
+        }
+        boolean allDigits = true;
+        boolean hasDigit = false;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if ((c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == '-') {
+                allDigits = false;
+            } else {
+                return false;
+            }
+        }
+        // 纯数字，或16位以上含数字的十六进制串（UUID、哈希值等）
+        return allDigits || (hasDigit && length >= 16);
+    }
+
+    private static HttpClientStats of(ConcurrentMap<String, HttpClientStats> registry, String name,
+                                      int max, boolean route) {
+        HttpClientStats stats = registry.get(name);
+        if (stats != null) {
+            return stats;
+        }
+        String key = registry.size() >= max ? OTHER : name;
+        synchronized (LISTENERS) {
+            stats = registry.get(key);
+            if (stats == null) {
+                stats = new HttpClientStats(key, route);
+                registry.put(key, stats);
+                for (Consumer<HttpClientStats> listener : LISTENERS) {
+                    listener.accept(stats);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 对已有统计及之后新登记的统计执行回调，用于注册指标
+     */
+    public static void forEachInstance(Consumer<HttpClientStats> listener) {
+        synchronized (LISTENERS) {
+            LISTENERS.add(listener);
+            HOSTS.values().forEach(listener);
+            ROUTES.values().forEach(listener);
+        }
+    }
+
+    /**
+     * 获取所有按主机汇总的统计
+     */
+    public static Collection<HttpClientStats> hosts() {
+        return Collections.unmodifiableCollection(HOSTS.values());
+    }
+
+    /**
+     * 按累计耗时从高到低取前limit个路由
+     */
+    public static List<HttpClientStats> topRoutes(int limit) {
+        List<HttpClientStats> list = new ArrayList<>(ROUTES.values());
+        list.sort(Comparator.comparingLong(HttpClientStats::getTotalNanos).reversed());
+        return list.size() > limit ? new ArrayList<>(list.subList(0, limit)) : list;
+    }
+
+    /**
+     * 查找指定主机的统计，不存在时返回null
+     */
+    public static HttpClientStats findHost(String host) {
+        return HOSTS.get(host);
+    }
+
+    /**
+     * 查找指定路由的统计，不存在时返回null
+     */
+    public static HttpClientStats findRoute(String route) {
+        return ROUTES.get(route);
+    }
+
+    /**
+     * 设置登记的主机和路由数量上限
+     */
+    public static void setLimits(int maxHosts, int maxRoutes) {
+        HttpClientStats.maxHosts = Math.max(1, maxHosts);
+        HttpClientStats.maxRoutes = Math.max(1, maxRoutes);
+    }
+
+    /**
+     * 清空所有统计（已注册的指标不会随之移除）
+     */
+    public static void reset() {
+        synchronized (LISTENERS) {
+            HOSTS.clear();
+            ROUTES.clear();
+        }
+    }
+
+    private void record(int status, long nanos) {
+        latency.record(nanos);
+        int statusClass = status / 100;
+        if (statusClass >= 1 && statusClass <= statuses.length) {
+            statuses[statusClass - 1].increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    /**
+     * 主机或路由名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 是否为按路由汇总的统计
+     */
+    public boolean isRoute() {
+        return route;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getTotalNanos() {
+        return latency.getTotalNanos();
+    }
+
+    /**
+     * 指定状态码类别（1~5，即1xx~5xx）的响应数
+     */
+    public long getStatusCount(int statusClass) {
+        return statusClass >= 1 && statusClass <= statuses.length ? statuses[statusClass - 1].sum() : 0L;
+    }
+
+    /**
+     * 没有收到响应（连接失败、超时等）的请求数
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * 复用连接池中连接的次数，只对主机统计记录
+     */
+    public long getReusedConnections() {
+        return reusedConnections.sum();
+    }
+
+    /**
+     * 新建连接的次数，只对主机统计记录
+     */
+    public long getNewConnections() {
+        return newConnections.sum();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * 汇总信息，耗时单位为毫秒
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", name);
+        map.put("count", getCount());
+        Map<String, Long> statusMap = new LinkedHashMap<>();
+        for (int i = 1; i <= statuses.length; i++) {
+            statusMap.put(i + "xx", getStatusCount(i));
+        }
+        map.put("status", statusMap);
+        map.put("errors", getErrors());
+        if (!route) {
+            map.put("reusedConnections", getReusedConnections());
+            map.put("newConnections", getNewConnections());
+        }
+        map.put("latency", latency.snapshot().toMillisMap());
+        return map;
+    }
+}
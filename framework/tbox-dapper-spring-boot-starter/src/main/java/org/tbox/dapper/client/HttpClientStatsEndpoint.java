@@ -0,0 +1,35 @@
+package org.tbox.dapper.client;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * HTTP客户端统计端点：/actuator/tboxhttpclients，列出各主机统计及累计耗时最高的路由
+ */
+@Endpoint(id = "tboxhttpclients")
+public class HttpClientStatsEndpoint {
+
+    private static final int LIMIT = 100;
+
+    @ReadOperation
+    public Map<String, Object> clients() {
+        Map<String, Object> hosts = new TreeMap<>();
+        for (HttpClientStats stats : HttpClientStats.hosts()) {
+            hosts.put(stats.getName(), stats.toMap());
+        }
+        List<Map<String, Object>> routes = new ArrayList<>();
+        for (HttpClientStats stats : HttpClientStats.topRoutes(LIMIT)) {
+            routes.add(stats.toMap());
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hosts", hosts);
+        result.put("routes", routes);
+        return result;
+    }
+}
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -48,6 +49,12 @@ public class TracerClientAutoConfiguration {
             log.debug("创建TracerOkHttpInterceptor bean");
             return new TracerOkHttpInterceptor(properties);
         }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public TracerOkHttpEventListenerFactory tracerOkHttpEventListenerFactory() {
+            return new TracerOkHttpEventListenerFactory();
+        }
     }
     
     /**
@@ -65,4 +72,53 @@ public class TracerClientAutoConfiguration {
             return new TracerHttpClientInterceptor(properties);
         }
     }
+
+    /**
+     * 配置WebClient过滤器，通过WebClientCustomizer加入容器中的WebClient.Builder
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.web.reactive.function.client.WebClient")
+    public static class WebClientConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public TracerWebClientFilter tracerWebClientFilter(TracerProperties properties) {
+            log.debug("创建TracerWebClientFilter bean");
+            return new TracerWebClientFilter(properties);
+        }
+
+        @Bean
+        public WebClientCustomizer tracerWebClientCustomizer(TracerWebClientFilter tracerWebClientFilter) {
+            return builder -> builder.filter(tracerWebClientFilter);
+        }
+    }
+
+    /**
+     * Micrometer指标，存在micrometer-core时生效
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class HttpClientMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public HttpClientMetricsBinder httpClientMetricsBinder() {
+            log.debug("Registering http client metrics binder");
+            return new HttpClientMetricsBinder();
+        }
+    }
+
+    /**
+     * 统计端点，存在spring-boot-actuator时生效
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class HttpClientEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public HttpClientStatsEndpoint httpClientStatsEndpoint() {
+            return new HttpClientStatsEndpoint();
+        }
+    }
 } 
\ No newline at end of file
@@ -1,37 +1,39 @@
 package org.tbox.dapper.client;
 
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpConnectionMetrics;
 import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.execchain.ClientExecChain;
 import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.tbox.dapper.context.TraceContext;
-import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.context.TracePropagation;
 import org.tbox.dapper.config.TracerProperties;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
+import java.net.URI;
 
 /**
  * Apache HttpClient追踪拦截器
- * 用于在HttpClient请求中添加追踪头信息，实现分布式追踪
+ * 为每个请求生成客户端子Span并通过请求头传递给下游，按主机和路由记录耗时、状态码与连接复用情况，实现分布式追踪。
+ * 推荐使用 {@link #newClientBuilder()} 创建HttpClient：请求异常（连接失败、超时等没有响应的情况）时HttpClient不会调用响应拦截器，
+ * 构建器在执行链上捕获异常并结束请求；手动注册请求和响应拦截器时，失败的请求在同一HttpContext发起下一次请求（如重试）时才结束
  */
 public class TracerHttpClientInterceptor {
     private static final Logger log = LoggerFactory.getLogger(TracerHttpClientInterceptor.class);
     
-    // 用于存储请求开始时间的上下文属性名
-    private static final String CONTEXT_START_TIME = "tbox.tracer.start_time";
-    private static final String CONTEXT_URL = "tbox.tracer.url";
-    private static final String CONTEXT_METHOD = "tbox.tracer.method";
-    private static final String CONTEXT_TRACE_CONTEXT = "tbox.tracer.context";
+    // 用于在请求和响应拦截器之间传递请求状态的上下文属性名
+    private static final String CONTEXT_CALL = "tbox.tracer.call";
     
     private final TracerProperties properties;
-
-    // 存储进行中的请求，用于异常情况下的清理（key为HttpContext hashCode）
-    private final ConcurrentHashMap<Integer, TraceContext> activeRequests = new ConcurrentHashMap<>();
     
     public TracerHttpClientInterceptor(TracerProperties properties) {
         this.properties = properties;
@@ -47,46 +49,22 @@ public class TracerHttpClientInterceptor {
                 if (!properties.isEnabled()) {
                     return;
                 }
+                // 上一次请求（如被重试的请求）没有收到响应
+                fail(context, null);
                 
-                // 尝试从请求的URI中提取URL
-                String url = "unknown";
-                if (request.getRequestLine() != null && request.getRequestLine().getUri() != null) {
-                    url = request.getRequestLine().getUri();
-                }
-                
-                // 获取HTTP方法
-                String method = "unknown";
-                if (request.getRequestLine() != null && request.getRequestLine().getMethod() != null) {
-                    method = request.getRequestLine().getMethod();
-                }
-                
-                // 保存URL和方法到上下文中，以便在响应拦截器中使用
-                context.setAttribute(CONTEXT_URL, url);
-                context.setAttribute(CONTEXT_METHOD, method);
+                HttpClientCall call = start(request, context);
+                context.setAttribute(CONTEXT_CALL, call);
                 
-                // 获取当前追踪上下文
-                TraceContext traceContext = TraceContext.getCurrentContext();
-                
-                if (traceContext != null) {
+                if (call.getSpan() != null) {
                     // 添加追踪头信息到请求中
-                    request.addHeader(TracerConstants.HEADER_TRACE_ID, traceContext.getTraceId());
-                    request.addHeader(TracerConstants.HEADER_SPAN_ID, traceContext.getSpanId());
-                    if (traceContext.getParentSpanId() != null) {
-                        request.addHeader(TracerConstants.HEADER_PARENT_SPAN_ID, traceContext.getParentSpanId());
-                    }
-                    request.addHeader(TracerConstants.HEADER_APP_NAME, properties.getApplicationName());
+                    TracePropagation.inject(TracePropagation.getHttpFormat(), call.getSpan(),
+                            properties.getApplicationName(), request, HttpRequest::setHeader);
                     
                     if (log.isDebugEnabled()) {
                         log.debug("Added trace headers to HttpClient request: traceId={}, spanId={}, url={}",
-                                traceContext.getTraceId(), traceContext.getSpanId(), url);
+                                call.getSpan().getTraceId(), call.getSpan().getSpanId(),
+                                request.getRequestLine().getUri());
                     }
-                    
-                    // 记录请求开始时间和追踪上下文
-                    context.setAttribute(CONTEXT_START_TIME, System.currentTimeMillis());
-                    context.setAttribute(CONTEXT_TRACE_CONTEXT, traceContext);
-                    activeRequests.put(context.hashCode(), traceContext);
-                } else {
-                    log.debug("No active trace context found for HttpClient request to: {}", url);
                 }
             }
         };
@@ -99,38 +77,100 @@ public class TracerHttpClientInterceptor {
         return new HttpResponseInterceptor() {
             @Override
             public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
-                if (!properties.isEnabled() ) {
+                Object attribute = context.getAttribute(CONTEXT_CALL);
+                if (!(attribute instanceof HttpClientCall)) {
                     return;
                 }
+                context.removeAttribute(CONTEXT_CALL);
+                HttpClientCall call = (HttpClientCall) attribute;
                 
-                // 从上下文中获取必要信息
-                Long startTime = (Long) context.getAttribute(CONTEXT_START_TIME);
-                String url = (String) context.getAttribute(CONTEXT_URL);
-                String method = (String) context.getAttribute(CONTEXT_METHOD);
-                TraceContext traceContext = (TraceContext) context.getAttribute(CONTEXT_TRACE_CONTEXT);
-                
-                if (startTime != null && traceContext != null) {
-                    long duration = System.currentTimeMillis() - startTime;
-                    int statusCode = response.getStatusLine() != null ? response.getStatusLine().getStatusCode() : -1;
-                    boolean hasException = statusCode >= 400;
-
-                    if (log.isDebugEnabled()) {
-                        log.debug("HttpClient request completed: url={}, status={}, duration={}ms, hasError={}",
-                                url, statusCode, duration, hasException);
+                // 连接上发送过的请求数大于1即为复用的连接
+                Object connection = context.getAttribute(HttpCoreContext.HTTP_CONNECTION);
+                if (connection instanceof HttpConnection) {
+                    HttpConnectionMetrics metrics = ((HttpConnection) connection).getMetrics();
+                    if (metrics != null) {
+                        HttpClientStats.recordConnection(call.getHost(), metrics.getRequestCount() > 1);
                     }
-                    
-                    // 清理活动请求
-                    activeRequests.remove(context.hashCode());
                 }
+                
+                int statusCode = response.getStatusLine() != null ? response.getStatusLine().getStatusCode() : -1;
+                call.end(statusCode, null);
+            }
+        };
+    }
+    
+    /**
+     * 创建已注册请求/响应拦截器的HttpClient构建器，执行链抛出异常时以该异常结束请求
+     */
+    public HttpClientBuilder newClientBuilder() {
+        return new HttpClientBuilder() {
+            @Override
+            protected ClientExecChain decorateProtocolExec(ClientExecChain protocolExec) {
+                return decorate(protocolExec);
+            }
+        }.addInterceptorLast(getRequestInterceptor()).addInterceptorFirst(getResponseInterceptor());
+    }
+
+    /**
+     * 包装协议执行链（请求拦截器、发送请求、响应拦截器），重试时每次尝试分别结束
+     */
+    ClientExecChain decorate(ClientExecChain exec) {
+        return (route, request, context, execAware) -> {
+            try {
+                return exec.execute(route, request, context, execAware);
+            } catch (IOException | HttpException | RuntimeException e) {
+                fail(context, e);
+                throw e;
             }
         };
     }
+
+    /**
+     * 结束上下文中尚未收到响应的请求
+     */
+    private static void fail(HttpContext context, Exception error) {
+        Object attribute = context.getAttribute(CONTEXT_CALL);
+        if (attribute instanceof HttpClientCall) {
+            context.removeAttribute(CONTEXT_CALL);
+            ((HttpClientCall) attribute).end(-1, error != null ? error : new IOException("No response received"));
+        }
+    }
+
+    /**
+     * 从请求和上下文中解析目标主机和路径，开始一次请求
+     * 经过HttpClient内部处理后请求URI通常是相对路径，目标主机从上下文中获取
+     */
+    private HttpClientCall start(HttpRequest request, HttpContext context) {
+        String method = request.getRequestLine().getMethod();
+        URI uri = null;
+        if (request instanceof HttpUriRequest) {
+            uri = ((HttpUriRequest) request).getURI();
+        } else {
+            try {
+                uri = URI.create(request.getRequestLine().getUri());
+            } catch (IllegalArgumentException e) {
+                log.debug("Unparseable HttpClient request uri: {}", request.getRequestLine().getUri());
+            }
+        }
+        if (uri != null && uri.getHost() != null) {
+            return HttpClientCall.start(method, uri, properties.getApplicationName());
+        }
+        HttpHost target = HttpCoreContext.adapt(context).getTargetHost();
+        String path = uri != null ? uri.getRawPath() : null;
+        if (target == null) {
+            return HttpClientCall.start(method, null, -1, path, properties.getApplicationName());
+        }
+        return HttpClientCall.start(method, target.getHostName(),
+                HttpClientCall.effectivePort(target.getSchemeName(), target.getPort()),
+                path, properties.getApplicationName());
+    }
     
     /**
-     * 清理所有活动请求（通常在关闭应用时调用）
+     * 请求状态只保存在各自的HttpContext中，随请求结束回收，无需清理
+     *
+     * @deprecated 不再保存全局请求状态，调用无效果
      */
+    @Deprecated
     public void cleanup() {
-        activeRequests.clear();
-        log.debug("Cleaned up all active HttpClient requests");
     }
-} 
\ No newline at end of file
+}
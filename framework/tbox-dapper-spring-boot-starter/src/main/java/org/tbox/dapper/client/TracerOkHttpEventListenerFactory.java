@@ -0,0 +1,41 @@
+package org.tbox.dapper.client;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+/**
+ * OkHttp事件监听器工厂，按目标主机记录连接复用情况
+ * 获取连接前没有发生建连（connectStart）即视为复用了连接池中的连接。
+ * 使用方式：{@code new OkHttpClient.Builder().eventListenerFactory(factory)}
+ */
+public class TracerOkHttpEventListenerFactory implements EventListener.Factory {
+
+    @Override
+    public EventListener create(Call call) {
+        return new ConnectionListener();
+    }
+
+    private static final class ConnectionListener extends EventListener {
+        // 同一个Call的事件按顺序在执行请求的线程上回调
+        private boolean connecting;
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connecting = true;
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            // 使用连接的实际地址，重定向到其他主机时也能正确归属
+            HttpUrl url = connection.route().address().url();
+            HttpClientStats.recordConnection(HttpClientStats.host(url.host(),
+                    url.port() != HttpUrl.defaultPort(url.scheme()) ? url.port() : -1), !connecting);
+            connecting = false;
+        }
+    }
+}
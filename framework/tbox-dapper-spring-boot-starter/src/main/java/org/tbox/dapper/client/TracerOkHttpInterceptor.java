@@ -1,19 +1,20 @@
 package org.tbox.dapper.client;
 
+import okhttp3.HttpUrl;
 import okhttp3.Interceptor;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.tbox.dapper.context.TraceContext;
-import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.context.TracePropagation;
 import org.tbox.dapper.config.TracerProperties;
 
 import java.io.IOException;
 
 /**
  * OkHttp追踪拦截器
- * 用于在OkHttp请求中添加追踪头信息，实现分布式追踪
+ * 为每个请求生成客户端子Span并通过请求头传递给下游，按主机和路由记录耗时与状态码，实现分布式追踪。
+ * 连接复用情况需要同时注册 {@link TracerOkHttpEventListenerFactory}
  */
 public class TracerOkHttpInterceptor implements Interceptor {
     private static final Logger log = LoggerFactory.getLogger(TracerOkHttpInterceptor.class);
@@ -31,57 +32,38 @@ public class TracerOkHttpInterceptor implements Interceptor {
         }
         
         Request originalRequest = chain.request();
-        String url = originalRequest.url().toString();
-        String method = originalRequest.method();
+        HttpUrl url = originalRequest.url();
+        HttpClientCall call = HttpClientCall.start(originalRequest.method(), url.host(),
+                url.port() != HttpUrl.defaultPort(url.scheme()) ? url.port() : -1,
+                url.encodedPath(), properties.getApplicationName());
         
-        // 获取当前追踪上下文
-        TraceContext context = TraceContext.getCurrentContext();
-        
-        Request.Builder requestBuilder = originalRequest.newBuilder();
-        
-        if (context != null) {
+        Request newRequest = originalRequest;
+        if (call.getSpan() != null) {
             // 添加追踪头信息到请求中
-            requestBuilder.header(TracerConstants.HEADER_TRACE_ID, context.getTraceId())
-                        .header(TracerConstants.HEADER_SPAN_ID, context.getSpanId());
-            
-            if (context.getParentSpanId() != null) {
-                requestBuilder.header(TracerConstants.HEADER_PARENT_SPAN_ID, context.getParentSpanId());
-            }
-            
-            requestBuilder.header(TracerConstants.HEADER_APP_NAME, properties.getApplicationName());
+            Request.Builder requestBuilder = originalRequest.newBuilder();
+            TracePropagation.inject(TracePropagation.getHttpFormat(), call.getSpan(),
+                    properties.getApplicationName(), requestBuilder, Request.Builder::header);
+            newRequest = requestBuilder.build();
             
             if (log.isDebugEnabled()) {
                 log.debug("Added trace headers to OkHttp request: traceId={}, spanId={}, url={}",
-                        context.getTraceId(), context.getSpanId(), url);
+                        call.getSpan().getTraceId(), call.getSpan().getSpanId(), url);
             }
-            
-
-        } else {
-            log.debug("No active trace context found for OkHttp request to: {}", url);
         }
         
-        Request newRequest = requestBuilder.build();
-        long startTime = System.currentTimeMillis();
-        Response response = null;
-        boolean hasException = false;
-        
+        int status = -1;
+        Exception failure = null;
         try {
             // 执行请求
-            response = chain.proceed(newRequest);
+            Response response = chain.proceed(newRequest);
+            status = response.code();
             return response;
-        } catch (Exception e) {
-            hasException = true;
+        } catch (IOException | RuntimeException e) {
+            failure = e;
             log.debug("Exception during OkHttp request to {}: {}", url, e.getMessage());
             throw e;
         } finally {
-            if (context != null) {
-                long duration = System.currentTimeMillis() - startTime;
-                int statusCode = response != null ? response.code() : -1;
-                if (log.isDebugEnabled()) {
-                    log.debug("OkHttp request completed: url={}, status={}, duration={}ms, hasError={}",
-                            url, statusCode, duration, hasException);
-                }
-            }
+            call.end(status, failure);
         }
     }
-} 
\ No newline at end of file
+}
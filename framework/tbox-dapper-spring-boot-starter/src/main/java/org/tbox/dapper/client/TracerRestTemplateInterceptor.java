@@ -2,19 +2,20 @@ package org.tbox.dapper.client;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
-import org.tbox.dapper.context.TraceContext;
-import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.context.TracePropagation;
 import org.tbox.dapper.config.TracerProperties;
 
 import java.io.IOException;
 
 /**
  * RestTemplate追踪拦截器
- * 用于在RestTemplate请求中添加追踪头信息，实现分布式追踪
+ * 为每个请求生成客户端子Span并通过请求头传递给下游，按主机和路由记录耗时与状态码，实现分布式追踪。
+ * RestTemplate不暴露底层连接，不记录连接复用情况
  */
 public class TracerRestTemplateInterceptor implements ClientHttpRequestInterceptor {
     private static final Logger log = LoggerFactory.getLogger(TracerRestTemplateInterceptor.class);
@@ -31,56 +32,33 @@ public class TracerRestTemplateInterceptor implements ClientHttpRequestIntercept
             return execution.execute(request, body);
         }
         
-        String url = request.getURI().toString();
-        String method = request.getMethod().toString();
+        HttpClientCall call = HttpClientCall.start(request.getMethodValue(), request.getURI(),
+                properties.getApplicationName());
         
-        // 获取当前追踪上下文
-        TraceContext context = TraceContext.getCurrentContext();
-        
-        if (context != null) {
+        if (call.getSpan() != null) {
             // 添加追踪头信息到请求中
-            request.getHeaders().add(TracerConstants.HEADER_TRACE_ID, context.getTraceId());
-            request.getHeaders().add(TracerConstants.HEADER_SPAN_ID, context.getSpanId());
-            
-            if (context.getParentSpanId() != null) {
-                request.getHeaders().add(TracerConstants.HEADER_PARENT_SPAN_ID, context.getParentSpanId());
-            }
-            
-            request.getHeaders().add(TracerConstants.HEADER_APP_NAME, properties.getApplicationName());
+            TracePropagation.inject(TracePropagation.getHttpFormat(), call.getSpan(),
+                    properties.getApplicationName(), request.getHeaders(), HttpHeaders::set);
             
             if (log.isDebugEnabled()) {
                 log.debug("Added trace headers to RestTemplate request: traceId={}, spanId={}, url={}",
-                        context.getTraceId(), context.getSpanId(), url);
+                        call.getSpan().getTraceId(), call.getSpan().getSpanId(), request.getURI());
             }
-
-        } else {
-            log.debug("No active trace context found for RestTemplate request to: {}", url);
         }
         
-        long startTime = System.currentTimeMillis();
-        ClientHttpResponse response = null;
-        boolean hasException = false;
-        
+        int status = -1;
+        Exception failure = null;
         try {
             // 执行请求
-            response = execution.execute(request, body);
+            ClientHttpResponse response = execution.execute(request, body);
+            status = response.getRawStatusCode();
             return response;
-        } catch (Exception e) {
-            hasException = true;
-            log.debug("Exception during RestTemplate request to {}: {}", url, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            log.debug("Exception during RestTemplate request to {}: {}", request.getURI(), e.getMessage());
             throw e;
         } finally {
-            if (context != null) {
-                long duration = System.currentTimeMillis() - startTime;
-                int statusCode = response != null ? response.getStatusCode().value() : -1;
-                
-
-                
-                if (log.isDebugEnabled()) {
-                    log.debug("RestTemplate request completed: url={}, status={}, duration={}ms, hasError={}",
-                            url, statusCode, duration, hasException);
-                }
-            }
+            call.end(status, failure);
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package org.tbox.dapper.client;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.context.TracePropagation;
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+import org.tbox.dapper.reactive.ReactorTraceContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebClient追踪过滤器
+ * 父Span优先取Reactor Context中的快照（WebFlux请求），没有时取订阅线程的追踪上下文（在阻塞代码中使用WebClient）；
+ * 只在生成子Span时短暂激活快照，请求头写入后立即恢复，按主机和路由记录耗时与状态码
+ */
+public class TracerWebClientFilter implements ExchangeFilterFunction {
+
+    private final TracerProperties properties;
+
+    public TracerWebClientFilter(TracerProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!properties.isEnabled()) {
+            return next.exchange(request);
+        }
+        return Mono.deferContextual(context -> {
+            TraceSnapshot parent = ReactorTraceContext.get(context);
+            if (parent == null) {
+                parent = TraceSnapshot.capture();
+            }
+            HttpClientCall call = start(request, parent);
+            ClientRequest traced = request;
+            if (call.getSpan() != null) {
+                // 添加追踪头信息到请求中
+                ClientRequest.Builder builder = ClientRequest.from(request);
+                TracePropagation.inject(TracePropagation.getHttpFormat(), call.getSpan(),
+                        properties.getApplicationName(), builder, (b, name, value) -> b.header(name, value));
+                traced = builder.build();
+            }
+            return next.exchange(traced)
+                    .doOnSuccess(response -> call.end(response != null ? response.rawStatusCode() : -1, null))
+                    .doOnError(e -> call.end(-1, e))
+                    .doOnCancel(() -> call.end(-1, null));
+        });
+    }
+
+    private HttpClientCall start(ClientRequest request, TraceSnapshot parent) {
+        String method = request.method().name();
+        if (parent == null) {
+            return HttpClientCall.start(method, request.url(), properties.getApplicationName());
+        }
+        try (TraceScope ignored = parent.activate()) {
+            return HttpClientCall.start(method, request.url(), properties.getApplicationName());
+        }
+    }
+}
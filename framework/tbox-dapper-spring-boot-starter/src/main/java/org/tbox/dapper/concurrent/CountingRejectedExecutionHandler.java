@@ -0,0 +1,39 @@
+package org.tbox.dapper.concurrent;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 统计拒绝次数的拒绝策略包装，实际处理仍交给原拒绝策略
+ */
+public class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+
+    private final RejectedExecutionHandler delegate;
+    private final ExecutorTaskStats stats;
+
+    public CountingRejectedExecutionHandler(RejectedExecutionHandler delegate, ExecutorTaskStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    public RejectedExecutionHandler getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+        stats.recordRejected();
+        delegate.rejectedExecution(r, executor);
+    }
+
+    /**
+     * 关联线程池并包装其拒绝策略，重复调用不会重复包装
+     */
+    static void instrument(ThreadPoolExecutor executor, ExecutorTaskStats stats) {
+        stats.bind(executor);
+        RejectedExecutionHandler handler = executor.getRejectedExecutionHandler();
+        if (!(handler instanceof CountingRejectedExecutionHandler)) {
+            executor.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(handler, stats));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.tbox.dapper.concurrent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将线程池统计注册为Micrometer指标
+ * 所有指标均为函数式指标，只在抓取时读取统计数据，不影响任务路径；
+ * 启动后新登记的线程池在下一次采样时补充注册
+ */
+public class ExecutorMetricsBinder implements MeterBinder, ExecutorStatsListener {
+
+    private static final String PREFIX = "tbox.executor";
+
+    private final Set<String> bound = ConcurrentHashMap.newKeySet();
+    private volatile MeterRegistry registry;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        onSample(ExecutorTaskStats.all());
+    }
+
+    @Override
+    public void onSample(Collection<ExecutorTaskStats> stats) {
+        MeterRegistry current = registry;
+        if (current == null) {
+            return;
+        }
+        for (ExecutorTaskStats s : stats) {
+            if (bound.add(s.getName())) {
+                register(current, s);
+            }
+        }
+    }
+
+    private static void register(MeterRegistry registry, ExecutorTaskStats stats) {
+        Tags tags = Tags.of("name", stats.getName());
+
+        FunctionCounter.builder(PREFIX + ".submitted", stats, ExecutorTaskStats::getSubmitted)
+                .tags(tags).description("提交的任务数").register(registry);
+        FunctionCounter.builder(PREFIX + ".rejected", stats, ExecutorTaskStats::getRejected)
+                .tags(tags).description("被拒绝的任务数").register(registry);
+
+        Gauge.builder(PREFIX + ".active", stats, ExecutorTaskStats::getActiveCount)
+                .tags(tags).description("活跃线程数（定期采样）").register(registry);
+        Gauge.builder(PREFIX + ".queued", stats, ExecutorTaskStats::getQueueDepth)
+                .tags(tags).description("队列中的任务数（定期采样）").register(registry);
+        Gauge.builder(PREFIX + ".pool.size", stats, ExecutorTaskStats::getPoolSize)
+                .tags(tags).description("线程数（定期采样）").register(registry);
+        Gauge.builder(PREFIX + ".throughput", stats, ExecutorTaskStats::getTasksPerSecond)
+                .tags(tags).baseUnit("tasks/s").description("每秒完成的任务数").register(registry);
+
+        FunctionTimer.builder(PREFIX + ".queue.wait", stats,
+                        s -> s.getQueueWait().getCount(), s -> s.getQueueWait().getTotalNanos(), TimeUnit.NANOSECONDS)
+                .tags(tags).description("任务排队等待时间").register(registry);
+        FunctionTimer.builder(PREFIX + ".execution", stats,
+                        s -> s.getExecution().getCount(), s -> s.getExecution().getTotalNanos(), TimeUnit.NANOSECONDS)
+                .tags(tags).description("任务执行时间").register(registry);
+
+        registerPercentiles(registry, PREFIX + ".queue.wait", tags, stats, true);
+        registerPercentiles(registry, PREFIX + ".execution", tags, stats, false);
+    }
+
+    private static void registerPercentiles(MeterRegistry registry, String name, Tags tags,
+                                            ExecutorTaskStats stats, boolean queueWait) {
+        TimeGauge.builder(name + ".p99", stats, TimeUnit.NANOSECONDS,
+                        s -> (queueWait ? s.getQueueWait() : s.getExecution()).getPercentileNanos(99))
+                .tags(tags).register(registry);
+        TimeGauge.builder(name + ".max", stats, TimeUnit.NANOSECONDS,
+                        s -> (queueWait ? s.getQueueWait() : s.getExecution()).getMaxNanos())
+                .tags(tags).register(registry);
+    }
+}
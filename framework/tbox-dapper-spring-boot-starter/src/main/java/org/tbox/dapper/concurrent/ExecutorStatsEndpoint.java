@@ -0,0 +1,30 @@
+package org.tbox.dapper.concurrent;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 线程池统计端点：/actuator/tboxexecutors
+ */
+@Endpoint(id = "tboxexecutors")
+public class ExecutorStatsEndpoint {
+
+    @ReadOperation
+    public Map<String, Object> executors() {
+        Map<String, Object> result = new TreeMap<>();
+        for (ExecutorTaskStats stats : ExecutorTaskStats.all()) {
+            result.put(stats.getName(), stats.toMap());
+        }
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> executor(@Selector String name) {
+        ExecutorTaskStats stats = ExecutorTaskStats.find(name);
+        return stats != null ? stats.toMap() : null;
+    }
+}
@@ -0,0 +1,16 @@
+package org.tbox.dapper.concurrent;
+
+import java.util.Collection;
+
+/**
+ * 线程池统计采样监听器，每次采样完成后回调，可用于将新登记的线程池注册到监控系统
+ */
+public interface ExecutorStatsListener {
+
+    /**
+     * 采样完成
+     *
+     * @param stats 所有已登记的线程池统计
+     */
+    void onSample(Collection<ExecutorTaskStats> stats);
+}
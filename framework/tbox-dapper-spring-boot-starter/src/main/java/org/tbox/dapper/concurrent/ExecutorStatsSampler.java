@@ -0,0 +1,69 @@
+package org.tbox.dapper.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池统计采样器
+ * 使用单个守护线程定期采样所有已登记线程池的活跃线程数、队列深度并计算吞吐量，任务路径上不做任何采样工作
+ */
+public class ExecutorStatsSampler implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutorStatsSampler.class);
+
+    private final long intervalMillis;
+    private final List<ExecutorStatsListener> listeners;
+    private ScheduledExecutorService scheduler;
+
+    public ExecutorStatsSampler(long intervalMillis, List<ExecutorStatsListener> listeners) {
+        this.intervalMillis = intervalMillis;
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (intervalMillis <= 0L) {
+            log.debug("线程池统计采样已关闭");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tbox-executor-stats-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 立即采样一次
+     */
+    public void sample() {
+        try {
+            long now = System.nanoTime();
+            Collection<ExecutorTaskStats> all = ExecutorTaskStats.all();
+            for (ExecutorTaskStats stats : all) {
+                stats.sample(now);
+            }
+            for (ExecutorStatsListener listener : listeners) {
+                listener.onSample(all);
+            }
+        } catch (Exception e) {
+            log.warn("线程池统计采样失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.tbox.dapper.concurrent;
+
+import org.tbox.dapper.metrics.LatencyHistogram;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程池任务统计
+ * 按线程池名称（通常为Bean名称）登记，记录任务排队等待时间（提交到开始执行）和执行时间的直方图、拒绝次数，
+ * 活跃线程数、队列深度和吞吐量由 {@link ExecutorStatsSampler} 定期采样。
+ * 任务路径上只有直方图记录和LongAdder累加，不加锁
+ */
+public final class ExecutorTaskStats {
+
+    private static final ConcurrentMap<String, ExecutorTaskStats> REGISTRY = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram execution = new LatencyHistogram();
+
+    private volatile ExecutorService executor;
+
+    // 以下字段只由采样线程写入
+    private volatile int activeCount;
+    private volatile int queueDepth;
+    private volatile int poolSize;
+    private volatile double tasksPerSecond;
+    private long lastCompleted;
+    private long lastSampleNanos;
+
+    private ExecutorTaskStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 获取（或创建）指定线程池的统计
+     */
+    public static ExecutorTaskStats of(String name) {
+        return REGISTRY.computeIfAbsent(name, ExecutorTaskStats::new);
+    }
+
+    /**
+     * 查找指定线程池的统计，不存在时返回null
+     */
+    public static ExecutorTaskStats find(String name) {
+        return REGISTRY.get(name);
+    }
+
+    /**
+     * 获取所有已登记的线程池统计
+     */
+    public static Collection<ExecutorTaskStats> all() {
+        return Collections.unmodifiableCollection(REGISTRY.values());
+    }
+
+    /**
+     * 关联实际的线程池（ThreadPoolExecutor或ForkJoinPool），用于采样活跃线程数和队列深度
+     */
+    void bind(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    void recordSubmit() {
+        submitted.increment();
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    void recordQueueWait(long nanos) {
+        queueWait.record(nanos);
+    }
+
+    void recordExecution(long nanos) {
+        execution.record(nanos);
+    }
+
+    /**
+     * 采样线程池状态并计算吞吐量，由采样线程调用
+     */
+    synchronized void sample(long nowNanos) {
+        ExecutorService current = executor;
+        if (current instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) current;
+            activeCount = pool.getActiveCount();
+            queueDepth = pool.getQueue().size();
+            poolSize = pool.getPoolSize();
+        } else if (current instanceof ForkJoinPool) {
+            ForkJoinPool pool = (ForkJoinPool) current;
+            activeCount = pool.getActiveThreadCount();
+            queueDepth = (int) Math.min(Integer.MAX_VALUE, pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount());
+            poolSize = pool.getPoolSize();
+        }
+        long completed = execution.getCount();
+        if (lastSampleNanos != 0L && nowNanos > lastSampleNanos) {
+            tasksPerSecond = (completed - lastCompleted) * 1_000_000_000D / (nowNanos - lastSampleNanos);
+        }
+        lastCompleted = completed;
+        lastSampleNanos = nowNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getCompleted() {
+        return execution.getCount();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getQueueWaitNanos() {
+        return queueWait.getTotalNanos();
+    }
+
+    public long getExecutionNanos() {
+        return execution.getTotalNanos();
+    }
+
+    public long getMaxQueueWaitNanos() {
+        return queueWait.getMaxNanos();
+    }
+
+    public long getMaxExecutionNanos() {
+        return execution.getMaxNanos();
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    public LatencyHistogram getExecution() {
+        return execution;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public double getTasksPerSecond() {
+        return tasksPerSecond;
+    }
+
+    /**
+     * 汇总信息，耗时单位为毫秒
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("submitted", getSubmitted());
+        map.put("completed", getCompleted());
+        map.put("rejected", getRejected());
+        map.put("activeCount", activeCount);
+        map.put("queueDepth", queueDepth);
+        map.put("poolSize", poolSize);
+        map.put("tasksPerSecond", tasksPerSecond);
+        map.put("queueWait", queueWait.snapshot().toMillisMap());
+        map.put("execution", execution.snapshot().toMillisMap());
+        return map;
+    }
+}
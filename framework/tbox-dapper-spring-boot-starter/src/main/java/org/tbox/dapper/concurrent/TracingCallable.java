@@ -0,0 +1,77 @@
+package org.tbox.dapper.concurrent;
+
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * 携带追踪快照的Callable，行为与 {@link TracingRunnable} 一致
+ */
+public final class TracingCallable<V> implements Callable<V> {
+
+    private final Callable<V> delegate;
+    private final TraceSnapshot snapshot;
+    private final ExecutorTaskStats stats;
+    private final long submitNanos;
+
+    TracingCallable(Callable<V> delegate, TraceSnapshot snapshot, ExecutorTaskStats stats, long submitNanos) {
+        this.delegate = delegate;
+        this.snapshot = snapshot;
+        this.stats = stats;
+        this.submitNanos = submitNanos;
+    }
+
+    static <V> Callable<V> wrap(Callable<V> task, ExecutorTaskStats stats) {
+        return wrap(task, stats, 0L);
+    }
+
+    /**
+     * 包装延迟任务，排队时间从预定触发时间（提交时间+delayNanos）开始计算
+     */
+    static <V> Callable<V> wrap(Callable<V> task, ExecutorTaskStats stats, long delayNanos) {
+        if (task == null || task instanceof TracingCallable) {
+            return task;
+        }
+        TraceSnapshot snapshot = TraceSnapshot.capture();
+        if (stats == null) {
+            return snapshot != null ? new TracingCallable<>(task, snapshot, null, 0L) : task;
+        }
+        stats.recordSubmit();
+        return new TracingCallable<>(task, snapshot, stats, System.nanoTime() + delayNanos);
+    }
+
+    /**
+     * 批量包装，同一批任务共享同一个快照
+     */
+    static <V> List<Callable<V>> wrapAll(Collection<? extends Callable<V>> tasks, ExecutorTaskStats stats) {
+        List<Callable<V>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<V> task : tasks) {
+            wrapped.add(wrap(task, stats));
+        }
+        return wrapped;
+    }
+
+    @Override
+    public V call() throws Exception {
+        long start = 0L;
+        if (stats != null) {
+            start = System.nanoTime();
+            stats.recordQueueWait(start - submitNanos);
+        }
+        TraceScope scope = snapshot != null ? snapshot.activate() : null;
+        try {
+            return delegate.call();
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+            if (stats != null) {
+                stats.recordExecution(System.nanoTime() - start);
+            }
+        }
+    }
+}
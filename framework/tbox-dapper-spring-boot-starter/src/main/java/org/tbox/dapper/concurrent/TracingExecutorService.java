@@ -0,0 +1,118 @@
+package org.tbox.dapper.concurrent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 追踪ExecutorService包装器
+ * 提交任务时捕获追踪快照，在执行线程中激活，并记录任务排队与执行耗时
+ */
+public class TracingExecutorService implements ExecutorService {
+
+    protected final ExecutorService delegate;
+    protected final ExecutorTaskStats stats;
+
+    /**
+     * @param delegate 被包装的线程池
+     * @param name     统计名称，为null时不记录耗时统计
+     */
+    public TracingExecutorService(ExecutorService delegate, String name) {
+        this.delegate = delegate;
+        this.stats = name != null ? ExecutorTaskStats.of(name) : null;
+        if (stats != null) {
+            if (delegate instanceof ThreadPoolExecutor) {
+                CountingRejectedExecutionHandler.instrument((ThreadPoolExecutor) delegate, stats);
+            } else {
+                stats.bind(delegate);
+            }
+        }
+    }
+
+    /**
+     * 获取被包装的线程池
+     */
+    public ExecutorService getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 获取耗时统计，未开启时返回null
+     */
+    public ExecutorTaskStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(TracingRunnable.wrap(command, stats, false));
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return delegate.submit(TracingRunnable.wrap(task, stats, false));
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        return delegate.submit(TracingRunnable.wrap(task, stats, false), result);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return delegate.submit(TracingCallable.wrap(task, stats));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        return delegate.invokeAll(TracingCallable.wrapAll(tasks, stats));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return delegate.invokeAll(TracingCallable.wrapAll(tasks, stats), timeout, unit);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        return delegate.invokeAny(TracingCallable.wrapAll(tasks, stats));
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return delegate.invokeAny(TracingCallable.wrapAll(tasks, stats), timeout, unit);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,148 @@
+package org.tbox.dapper.concurrent;
+
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 追踪线程池与任务包装工具类
+ *
+ * <pre>
+ * // CompletableFuture默认使用公共池，会丢失追踪上下文，改为显式传入
+ * CompletableFuture.supplyAsync(supplier, TracingExecutors.commonPool());
+ *
+ * // 并行流的元素在公共池中处理，按元素包装
+ * list.parallelStream().map(TracingExecutors.wrapFunction(this::convert)).collect(...);
+ * </pre>
+ */
+public final class TracingExecutors {
+
+    private static final String COMMON_POOL_NAME = "forkJoinCommonPool";
+
+    private static volatile TracingExecutorService commonPool;
+
+    private TracingExecutors() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * 包装ForkJoinPool.commonPool()，统计名称为forkJoinCommonPool
+     */
+    public static ExecutorService commonPool() {
+        TracingExecutorService pool = commonPool;
+        if (pool == null) {
+            synchronized (TracingExecutors.class) {
+                pool = commonPool;
+                if (pool == null) {
+                    pool = new TracingExecutorService(ForkJoinPool.commonPool(), COMMON_POOL_NAME);
+                    commonPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 包装ExecutorService
+     *
+     * @param name 统计名称，为null时只传递追踪上下文
+     */
+    public static ExecutorService wrap(ExecutorService executor, String name) {
+        if (executor instanceof TracingExecutorService) {
+            return executor;
+        }
+        if (executor instanceof ScheduledExecutorService) {
+            return new TracingScheduledExecutorService((ScheduledExecutorService) executor, name);
+        }
+        return new TracingExecutorService(executor, name);
+    }
+
+    /**
+     * 包装ScheduledExecutorService
+     */
+    public static ScheduledExecutorService wrap(ScheduledExecutorService executor, String name) {
+        if (executor instanceof TracingScheduledExecutorService) {
+            return executor;
+        }
+        return new TracingScheduledExecutorService(executor, name);
+    }
+
+    /**
+     * 包装普通Executor
+     */
+    public static Executor wrap(Executor executor, String name) {
+        if (executor instanceof ExecutorService) {
+            return wrap((ExecutorService) executor, name);
+        }
+        ExecutorTaskStats stats = name != null ? ExecutorTaskStats.of(name) : null;
+        return command -> executor.execute(TracingRunnable.wrap(command, stats, false));
+    }
+
+    /**
+     * 包装Runnable，传递当前追踪上下文
+     */
+    public static Runnable wrap(Runnable task) {
+        return TracingRunnable.wrap(task, null, false);
+    }
+
+    /**
+     * 包装Callable，传递当前追踪上下文
+     */
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        return TracingCallable.wrap(task, null);
+    }
+
+    /**
+     * 包装Supplier，适用于CompletableFuture.supplyAsync
+     */
+    public static <T> Supplier<T> wrapSupplier(Supplier<T> supplier) {
+        TraceSnapshot snapshot = TraceSnapshot.capture();
+        if (snapshot == null) {
+            return supplier;
+        }
+        return () -> {
+            try (TraceScope ignored = snapshot.activate()) {
+                return supplier.get();
+            }
+        };
+    }
+
+    /**
+     * 包装Function，适用于并行流的map等操作
+     * 在提交线程中执行时快照激活为空操作，不产生额外开销
+     */
+    public static <T, R> Function<T, R> wrapFunction(Function<T, R> function) {
+        TraceSnapshot snapshot = TraceSnapshot.capture();
+        if (snapshot == null) {
+            return function;
+        }
+        return value -> {
+            try (TraceScope ignored = snapshot.activate()) {
+                return function.apply(value);
+            }
+        };
+    }
+
+    /**
+     * 包装Consumer，适用于并行流的forEach等操作
+     */
+    public static <T> Consumer<T> wrapConsumer(Consumer<T> consumer) {
+        TraceSnapshot snapshot = TraceSnapshot.capture();
+        if (snapshot == null) {
+            return consumer;
+        }
+        return value -> {
+            try (TraceScope ignored = snapshot.activate()) {
+                consumer.accept(value);
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package org.tbox.dapper.concurrent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+
+/**
+ * 追踪ForkJoinPool
+ * 仍然是真正的ForkJoinPool，因此ForkJoinPool.managedBlock的线程补偿、ForkJoinTask的fork/join都照常工作；
+ * 以Runnable/Callable提交的任务（包括CompletableFuture.supplyAsync(supplier, pool)）会传递追踪上下文。
+ *
+ * 注意：直接提交的ForkJoinTask以及任务内部fork出的子任务不做包装，
+ * 并行流中的逐元素处理可使用 {@link TracingExecutors#wrapFunction(java.util.function.Function)} 等方法包装。
+ */
+public class TracingForkJoinPool extends ForkJoinPool {
+
+    private final ExecutorTaskStats stats;
+
+    public TracingForkJoinPool(String name) {
+        super();
+        this.stats = bindStats(name);
+    }
+
+    public TracingForkJoinPool(int parallelism, String name) {
+        super(parallelism);
+        this.stats = bindStats(name);
+    }
+
+    public TracingForkJoinPool(int parallelism, ForkJoinWorkerThreadFactory factory,
+                               Thread.UncaughtExceptionHandler handler, boolean asyncMode, String name) {
+        super(parallelism, factory, handler, asyncMode);
+        this.stats = bindStats(name);
+    }
+
+    private ExecutorTaskStats bindStats(String name) {
+        if (name == null) {
+            return null;
+        }
+        ExecutorTaskStats taskStats = ExecutorTaskStats.of(name);
+        taskStats.bind(this);
+        return taskStats;
+    }
+
+    public ExecutorTaskStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        super.execute(TracingRunnable.wrap(task, stats, false));
+    }
+
+    @Override
+    public ForkJoinTask<?> submit(Runnable task) {
+        return super.submit(TracingRunnable.wrap(task, stats, false));
+    }
+
+    @Override
+    public <T> ForkJoinTask<T> submit(Runnable task, T result) {
+        return super.submit(TracingRunnable.wrap(task, stats, false), result);
+    }
+
+    @Override
+    public <T> ForkJoinTask<T> submit(Callable<T> task) {
+        return super.submit(TracingCallable.wrap(task, stats));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) {
+        return super.invokeAll(TracingCallable.wrapAll(tasks, stats));
+    }
+}
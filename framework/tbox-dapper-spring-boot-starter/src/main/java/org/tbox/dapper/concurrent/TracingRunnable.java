@@ -0,0 +1,68 @@
+package org.tbox.dapper.concurrent;
+
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+
+/**
+ * 携带追踪快照的Runnable
+ * 除被包装任务外只持有一个快照引用和提交时间，执行时激活快照并记录排队/执行耗时
+ */
+public final class TracingRunnable implements Runnable {
+
+    private final Runnable delegate;
+    private final TraceSnapshot snapshot;
+    private final ExecutorTaskStats stats;
+    private final long submitNanos;
+
+    TracingRunnable(Runnable delegate, TraceSnapshot snapshot, ExecutorTaskStats stats, long submitNanos) {
+        this.delegate = delegate;
+        this.snapshot = snapshot;
+        this.stats = stats;
+        this.submitNanos = submitNanos;
+    }
+
+    /**
+     * 包装任务：捕获当前追踪快照，stats不为空时记录提交时间
+     * 周期任务的排队时间没有意义，传入periodic=true时只记录执行时间
+     */
+    static Runnable wrap(Runnable task, ExecutorTaskStats stats, boolean periodic) {
+        return wrap(task, stats, periodic, 0L);
+    }
+
+    /**
+     * 包装延迟任务，排队时间从预定触发时间（提交时间+delayNanos）开始计算
+     */
+    static Runnable wrap(Runnable task, ExecutorTaskStats stats, boolean periodic, long delayNanos) {
+        if (task == null || task instanceof TracingRunnable) {
+            return task;
+        }
+        TraceSnapshot snapshot = TraceSnapshot.capture();
+        if (stats == null) {
+            return snapshot != null ? new TracingRunnable(task, snapshot, null, 0L) : task;
+        }
+        stats.recordSubmit();
+        return new TracingRunnable(task, snapshot, stats, periodic ? 0L : System.nanoTime() + delayNanos);
+    }
+
+    @Override
+    public void run() {
+        long start = 0L;
+        if (stats != null) {
+            start = System.nanoTime();
+            if (submitNanos != 0L) {
+                stats.recordQueueWait(start - submitNanos);
+            }
+        }
+        TraceScope scope = snapshot != null ? snapshot.activate() : null;
+        try {
+            delegate.run();
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+            if (stats != null) {
+                stats.recordExecution(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.tbox.dapper.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 追踪ScheduledExecutorService包装器
+ * 延迟任务的排队时间从预定触发时间开始计算，周期任务只记录执行时间
+ */
+public class TracingScheduledExecutorService extends TracingExecutorService implements ScheduledExecutorService {
+
+    private final ScheduledExecutorService scheduledDelegate;
+
+    public TracingScheduledExecutorService(ScheduledExecutorService delegate, String name) {
+        super(delegate, name);
+        this.scheduledDelegate = delegate;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return scheduledDelegate.schedule(TracingRunnable.wrap(command, stats, false, unit.toNanos(delay)), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return scheduledDelegate.schedule(TracingCallable.wrap(callable, stats, unit.toNanos(delay)), delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return scheduledDelegate.scheduleAtFixedRate(TracingRunnable.wrap(command, stats, true), initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        return scheduledDelegate.scheduleWithFixedDelay(TracingRunnable.wrap(command, stats, true), initialDelay, delay, unit);
+    }
+}
@@ -1,43 +1,35 @@
 package org.tbox.dapper.concurrent;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.core.task.TaskDecorator;
-import org.tbox.dapper.context.TraceContext;
 
 /**
  * 线程池追踪任务装饰器
  * 负责在任务执行时传递追踪上下文到异步线程
+ * 提交时只捕获一次快照，执行线程各自激活独立的上下文，执行结束后恢复线程原有的上下文
+ * 指定统计对象时同时记录任务的排队时间和执行时间
  */
 public class TracingTaskDecorator implements TaskDecorator {
 
-    private static final Logger log = LoggerFactory.getLogger(TracingTaskDecorator.class);
+    private final ExecutorTaskStats stats;
 
     public TracingTaskDecorator() {
-        // 不需要任何参数
+        this(null);
     }
 
-    @Override
-    public Runnable decorate(Runnable runnable) {
-        if (runnable == null) {
-            return null;
-        }
-
-        // 获取当前线程的追踪上下文
-        TraceContext currentContext = TraceContext.getCurrentContext();
-        return () -> {
+    /**
+     * @param stats 线程池统计，为null时只传递追踪上下文
+     */
+    public TracingTaskDecorator(ExecutorTaskStats stats) {
+        this.stats = stats;
+    }
 
-            try {
-                // 恢复捕获的追踪上下文
-                if (currentContext != null) {
-                    TraceContext.setCurrentContext(currentContext);
-                }
+    public ExecutorTaskStats getStats() {
+        return stats;
+    }
 
-                // 执行原始任务
-                runnable.run();
-            } finally {
-                TraceContext.removeContext();
-            }
-        };
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        // 没有追踪上下文且不需要统计时直接返回原任务
+        return TracingRunnable.wrap(runnable, stats, false);
     }
-} 
\ No newline at end of file
+}
@@ -2,11 +2,17 @@ package org.tbox.dapper.concurrent;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.tbox.dapper.config.TracerProperties;
+
+import java.util.stream.Collectors;
 
 /**
  * 线程池追踪自动配置类
@@ -14,6 +20,7 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
  */
 @Configuration
 @ConditionalOnClass(ThreadPoolTaskExecutor.class)
+@EnableConfigurationProperties(TracerProperties.class)
 public class TracingThreadPoolAutoConfiguration {
     
     private static final Logger log = LoggerFactory.getLogger(TracingThreadPoolAutoConfiguration.class);
@@ -27,4 +34,43 @@ public class TracingThreadPoolAutoConfiguration {
     public TracingThreadPoolBeanPostProcessor tracingThreadPoolBeanPostProcessor(TaskDecorator tracingTaskDecorator) {
         return new TracingThreadPoolBeanPostProcessor(tracingTaskDecorator);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 线程池状态采样器
+     */
+    @Bean
+    public ExecutorStatsSampler executorStatsSampler(TracerProperties properties,
+                                                     ObjectProvider<ExecutorStatsListener> listeners) {
+        return new ExecutorStatsSampler(properties.getExecutor().getSampleIntervalMillis(),
+                listeners.orderedStream().collect(Collectors.toList()));
+    }
+
+    /**
+     * Micrometer指标，存在micrometer-core时生效
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class ExecutorMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ExecutorMetricsBinder executorMetricsBinder() {
+            log.debug("Registering executor metrics binder");
+            return new ExecutorMetricsBinder();
+        }
+    }
+
+    /**
+     * 统计端点，存在spring-boot-actuator时生效
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class ExecutorEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ExecutorStatsEndpoint executorStatsEndpoint() {
+            return new ExecutorStatsEndpoint();
+        }
+    }
+}
@@ -3,25 +3,53 @@ package org.tbox.dapper.concurrent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 线程池追踪Bean后处理器
- * 负责自动为Spring容器中的线程池添加追踪功能
+ * 负责自动为Spring容器中的线程池添加追踪功能：
+ * 1. ThreadPoolTaskExecutor：设置按线程池命名统计的追踪装饰器，与已有装饰器组合，初始化后关联线程池并统计拒绝次数
+ * 2. 以Executor/ExecutorService/ScheduledExecutorService接口类型声明的@Bean：替换为追踪包装
+ * 3. 其他Executor Bean（@Component、声明为ThreadPoolExecutor等具体类型、ThreadPoolTaskScheduler）：
+ *    替换会导致按具体类型注入失败，且没有可安装的任务装饰点，不传递追踪上下文并以INFO日志说明；
+ *    底层为ThreadPoolExecutor时仍关联统计，采样活跃线程数、队列深度并统计拒绝次数
  */
-public class TracingThreadPoolBeanPostProcessor implements BeanPostProcessor {
+public class TracingThreadPoolBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
     
     private static final Logger log = LoggerFactory.getLogger(TracingThreadPoolBeanPostProcessor.class);
+
+    private static final Field TASK_DECORATOR_FIELD = findTaskDecoratorField();
     
     private final TaskDecorator tracingTaskDecorator;
+
+    private ConfigurableListableBeanFactory beanFactory;
     
     public TracingThreadPoolBeanPostProcessor(TaskDecorator tracingTaskDecorator) {
         this.tracingTaskDecorator = tracingTaskDecorator;
     }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (beanFactory instanceof ConfigurableListableBeanFactory) {
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+    }
     
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
@@ -30,10 +58,18 @@ public class TracingThreadPoolBeanPostProcessor implements BeanPostProcessor {
             
             // 使用反射获取原有的装饰器（如果有）
             TaskDecorator existingDecorator = getExistingTaskDecorator(executor);
-            
+            if (existingDecorator instanceof TracingTaskDecorator) {
+                return bean;
+            }
+
+            // 每个线程池使用独立的装饰器，统计按Bean名称区分
+            TaskDecorator decorator = beanName != null
+                    ? new TracingTaskDecorator(ExecutorTaskStats.of(beanName))
+                    : tracingTaskDecorator;
+
             if (existingDecorator == null) {
                 // 如果没有现有装饰器，直接设置追踪装饰器
-                executor.setTaskDecorator(tracingTaskDecorator);
+                executor.setTaskDecorator(decorator);
 
             } else if (existingDecorator != tracingTaskDecorator) {
                 // 如果已经有装饰器但不是追踪装饰器，创建复合装饰器
@@ -41,35 +77,123 @@ public class TracingThreadPoolBeanPostProcessor implements BeanPostProcessor {
                     // 先应用已有装饰器
                     Runnable decoratedByExisting = existingDecorator.decorate(task);
                     // 再应用追踪装饰器
-                    return tracingTaskDecorator.decorate(decoratedByExisting);
+                    return decorator.decorate(decoratedByExisting);
                 });
             }
         }
         
         return bean;
     }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof ThreadPoolTaskExecutor && beanName != null) {
+            // 初始化后才能拿到实际的ThreadPoolExecutor，用于采样活跃线程数、队列深度并统计拒绝次数
+            try {
+                CountingRejectedExecutionHandler.instrument(
+                        ((ThreadPoolTaskExecutor) bean).getThreadPoolExecutor(), ExecutorTaskStats.of(beanName));
+            } catch (IllegalStateException e) {
+                log.debug("线程池未初始化，跳过统计绑定: {}", beanName);
+            }
+            return bean;
+        }
+        if (bean instanceof ThreadPoolTaskScheduler && beanName != null) {
+            // Spring 5的ThreadPoolTaskScheduler不支持TaskDecorator
+            try {
+                CountingRejectedExecutionHandler.instrument(
+                        ((ThreadPoolTaskScheduler) bean).getScheduledThreadPoolExecutor(), ExecutorTaskStats.of(beanName));
+            } catch (IllegalStateException e) {
+                log.debug("线程池未初始化，跳过统计绑定: {}", beanName);
+            }
+            log.info("ThreadPoolTaskScheduler不支持任务装饰，只统计线程池状态，提交的任务不传递追踪上下文: {}", beanName);
+            return bean;
+        }
+        if (!(bean instanceof Executor) || bean instanceof TaskExecutor
+                || bean instanceof TracingExecutorService || bean instanceof TracingForkJoinPool) {
+            return bean;
+        }
+        Class<?> declaredType = getDeclaredReturnType(beanName);
+        if (declaredType == ScheduledExecutorService.class) {
+            log.debug("为线程池Bean添加追踪包装: {}", beanName);
+            return new TracingScheduledExecutorService((ScheduledExecutorService) bean, beanName);
+        }
+        if (declaredType == ExecutorService.class && bean instanceof ExecutorService) {
+            log.debug("为线程池Bean添加追踪包装: {}", beanName);
+            return TracingExecutors.wrap((ExecutorService) bean, beanName);
+        }
+        if (declaredType == Executor.class) {
+            log.debug("为线程池Bean添加追踪包装: {}", beanName);
+            return TracingExecutors.wrap((Executor) bean, beanName);
+        }
+        skip(bean, beanName, declaredType);
+        return bean;
+    }
+
+    /**
+     * 不能替换为追踪包装的线程池：底层为ThreadPoolExecutor时关联统计，并说明原因
+     */
+    private void skip(Object bean, String beanName, Class<?> declaredType) {
+        String type = (declaredType != null ? declaredType : bean.getClass()).getName();
+        if (bean instanceof ThreadPoolExecutor && beanName != null) {
+            CountingRejectedExecutionHandler.instrument((ThreadPoolExecutor) bean, ExecutorTaskStats.of(beanName));
+            log.info("线程池Bean按具体类型 {} 声明，替换后按该类型注入会失败，只统计线程池状态，提交的任务不传递追踪上下文，"
+                    + "可使用TracingExecutors.wrap包装后再提交: {}", type, beanName);
+        } else {
+            log.info("线程池Bean按具体类型 {} 声明，替换后按该类型注入会失败，不传递追踪上下文，"
+                    + "可使用TracingExecutors.wrap包装后再提交: {}", type, beanName);
+        }
+    }
+
+    /**
+     * 获取@Bean工厂方法声明的返回类型，无法确定时返回null
+     */
+    private Class<?> getDeclaredReturnType(String beanName) {
+        if (beanFactory == null || beanName == null || !beanFactory.containsBeanDefinition(beanName)) {
+            return null;
+        }
+        BeanDefinition definition = beanFactory.getMergedBeanDefinition(beanName);
+        if (definition instanceof RootBeanDefinition) {
+            Method factoryMethod = ((RootBeanDefinition) definition).getResolvedFactoryMethod();
+            if (factoryMethod != null) {
+                return factoryMethod.getReturnType();
+            }
+        }
+        return null;
+    }
     
     /**
-     * 使用反射获取ThreadPoolTaskExecutor已配置的TaskDecorator
-     * 由于某些版本的Spring中ThreadPoolTaskExecutor没有提供getTaskDecorator()方法，所以使用反射
+     * 获取ThreadPoolTaskExecutor已配置的TaskDecorator
      */
     private TaskDecorator getExistingTaskDecorator(ThreadPoolTaskExecutor executor) {
+        if (TASK_DECORATOR_FIELD == null) {
+            return null;
+        }
+        try {
+            return (TaskDecorator) TASK_DECORATOR_FIELD.get(executor);
+        } catch (IllegalAccessException e) {
+            log.warn("无法访问ThreadPoolTaskExecutor的taskDecorator字段: {}", e.getMessage());
+            if (log.isDebugEnabled()) {
+                log.debug("反射访问异常详情", e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 由于某些版本的Spring中ThreadPoolTaskExecutor没有提供getTaskDecorator()方法，所以使用反射
+     * 字段只查找一次
+     */
+    private static Field findTaskDecoratorField() {
         try {
             Field taskDecoratorField = ThreadPoolTaskExecutor.class.getDeclaredField("taskDecorator");
             taskDecoratorField.setAccessible(true);
-            return (TaskDecorator) taskDecoratorField.get(executor);
+            return taskDecoratorField;
         } catch (NoSuchFieldException e) {
             log.warn("无法通过反射获取ThreadPoolTaskExecutor的taskDecorator字段，可能是Spring版本不同: {}", e.getMessage());
             if (log.isDebugEnabled()) {
                 log.debug("反射异常详情", e);
             }
             return null;
-        } catch (IllegalAccessException e) {
-            log.warn("无法访问ThreadPoolTaskExecutor的taskDecorator字段: {}", e.getMessage());
-            if (log.isDebugEnabled()) {
-                log.debug("反射访问异常详情", e);
-            }
-            return null;
         }
     }
-} 
\ No newline at end of file
+}
@@ -2,10 +2,16 @@ package org.tbox.dapper.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -14,9 +20,26 @@ import org.springframework.context.annotation.Import;
 import org.springframework.core.Ordered;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.tbox.dapper.client.HttpClientStats;
 import org.tbox.dapper.client.TracerClientAutoConfiguration;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TracePropagation;
+import org.tbox.dapper.governor.TracingGovernorMonitor;
+import org.tbox.dapper.jdbc.SqlStatementStats;
+import org.tbox.dapper.metrics.ContextMapMetricsBinder;
+import org.tbox.dapper.method.TracedMethodInterceptor;
+import org.tbox.dapper.reactive.TracerWebFilter;
+import org.tbox.dapper.scheduler.JobExecutionStats;
+import org.tbox.dapper.span.SpanReporter;
+import org.tbox.dapper.span.SpanReporterRegistrar;
+import org.tbox.dapper.store.TraceStore;
+import org.tbox.dapper.store.TraceStoreEndpoint;
+import org.tbox.dapper.utils.CompiledPathMatcher;
 import org.tbox.dapper.web.TracerWebInterceptor;
 import org.tbox.dapper.web.aspect.WebTraceAspect;
+import org.tbox.dapper.web.payload.AsyncPayloadLogger;
+import org.tbox.dapper.web.payload.PayloadCaptureFilter;
+import org.tbox.dapper.web.payload.PayloadSampler;
 
 import javax.annotation.PostConstruct;
 
@@ -49,36 +72,175 @@ public class TracerAutoConfiguration {
             properties.setApplicationName(applicationName);
             log.debug("Set tracer application name to: {}", applicationName);
         }
+        TraceContext.setMdcEnabled(properties.isMdcEnabled());
+        TraceContext.setSpanIdFormat(properties.getSpanIdFormat());
+        TracePropagation.setHttpFormat(properties.getPropagation().getHttp());
+        TracePropagation.setKafkaFormat(properties.getPropagation().getKafka());
+        TracePropagation.setRocketmqFormat(properties.getPropagation().getRocketmq());
+        SqlStatementStats.setMaxStatements(properties.getJdbc().getMaxStatements());
+        HttpClientStats.setLimits(properties.getHttpClient().getMaxHosts(), properties.getHttpClient().getMaxRoutes());
+        JobExecutionStats.setMaxJobs(properties.getScheduler().getMaxJobs());
+        TracerProperties.TraceStoreConfig store = properties.getTraceStore();
+        TraceStore.configure(store.isEnabled(), store.getMaxEndpoints(), store.getWindowMinutes(), store.getTopK(),
+                store.getErrorCapacity());
     }
 
     /**
-     * 注册接口出入参日志记录切面
+     * 排除路径匹配器，启动时编译一次，拦截器与切面共用
+     */
+    @Bean
+    public CompiledPathMatcher tracerExcludePathMatcher() {
+        return new CompiledPathMatcher(properties.getAllExcludePaths());
+    }
+
+    /**
+     * 出入参日志采样
      */
     @Bean
     @ConditionalOnProperty(prefix = "tbox.tracer", name = "printPayload", havingValue = "true", matchIfMissing = true)
-    public WebTraceAspect webTraceAspect() {
-        log.debug("Registering web trace aspect for request/response logging");
-        return new WebTraceAspect();
+    public PayloadSampler payloadSampler() {
+        TracerProperties.PayloadConfig payload = properties.getPayload();
+        return new PayloadSampler(payload.getSamplingRules(), payload.getDefaultSampleRate());
+    }
+
+    /**
+     * 异步出入参日志
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tbox.tracer.payload", name = "async", havingValue = "true")
+    public AsyncPayloadLogger asyncPayloadLogger() {
+        log.debug("Registering async payload logger");
+        return new AsyncPayloadLogger(LoggerFactory.getLogger(WebTraceAspect.class),
+                properties.getPayload().getQueueCapacity());
+    }
+
+    /**
+     * 注册容器中的客户端Span接收方（{@link SpanReporter} Bean）
+     */
+    @Bean
+    public SpanReporterRegistrar spanReporterRegistrar(ObjectProvider<SpanReporter> spanReporters) {
+        return new SpanReporterRegistrar(spanReporters);
     }
 
     /**
-     * 注册Web配置，添加拦截器
+     * 追踪开销自动降级，负载过高时逐级关闭出入参日志、降低采样率、只保留MDC中的ID
      */
     @Bean
-    public WebMvcConfigurer tracerWebMvcConfigurer() {
-        return new WebMvcConfigurer() {
-            @Override
-            public void addInterceptors(InterceptorRegistry registry) {
-                log.debug("Registering tracer web interceptor");
-
-                TracerWebInterceptor interceptor = new TracerWebInterceptor(properties);
-                registry.addInterceptor(interceptor)
-                        .addPathPatterns("/**")
-                        .order(Ordered.HIGHEST_PRECEDENCE + 10);
-            }
-        };
+    @ConditionalOnProperty(prefix = "tbox.tracer.governor", name = "enabled", havingValue = "true")
+    public TracingGovernorMonitor tracingGovernorMonitor(ObjectProvider<AsyncPayloadLogger> asyncPayloadLogger) {
+        log.debug("Registering tracing governor");
+        return new TracingGovernorMonitor(properties.getGovernor(), asyncPayloadLogger.getIfAvailable());
     }
 
+    /**
+     * Servlet Web入口追踪：拦截器、出入参日志切面和原始出入参采集，存在Servlet和Spring MVC时生效
+     */
+    @Configuration
+    @ConditionalOnClass(name = {"javax.servlet.Filter", "org.springframework.web.servlet.HandlerInterceptor"})
+    static class ServletWebConfiguration {
+
+        /**
+         * 注册接口出入参日志记录切面
+         */
+        @Bean
+        @ConditionalOnProperty(prefix = "tbox.tracer", name = "printPayload", havingValue = "true", matchIfMissing = true)
+        public WebTraceAspect webTraceAspect() {
+            log.debug("Registering web trace aspect for request/response logging");
+            return new WebTraceAspect();
+        }
+
+        /**
+         * 原始出入参采集过滤器（capture-mode=RAW），在拦截器创建追踪上下文之前包装请求和响应
+         */
+        @Bean
+        @ConditionalOnProperty(prefix = "tbox.tracer.payload", name = "capture-mode", havingValue = "RAW")
+        public FilterRegistrationBean<PayloadCaptureFilter> payloadCaptureFilter(TracerProperties properties,
+                                                                                 CompiledPathMatcher tracerExcludePathMatcher,
+                                                                                 ObjectProvider<PayloadSampler> payloadSampler) {
+            log.debug("Registering raw payload capture filter");
+            FilterRegistrationBean<PayloadCaptureFilter> registration = new FilterRegistrationBean<>(
+                    new PayloadCaptureFilter(properties, tracerExcludePathMatcher, payloadSampler.getIfAvailable()));
+            registration.addUrlPatterns("/*");
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+            return registration;
+        }
 
+        /**
+         * 注册Web配置，添加拦截器
+         */
+        @Bean
+        public WebMvcConfigurer tracerWebMvcConfigurer(TracerProperties properties,
+                                                       CompiledPathMatcher tracerExcludePathMatcher) {
+            return new WebMvcConfigurer() {
+                @Override
+                public void addInterceptors(InterceptorRegistry registry) {
+                    log.debug("Registering tracer web interceptor");
+
+                    TracerWebInterceptor interceptor = new TracerWebInterceptor(properties, tracerExcludePathMatcher);
+                    registry.addInterceptor(interceptor)
+                            .addPathPatterns("/**")
+                            .order(Ordered.HIGHEST_PRECEDENCE + 10);
+                }
+            };
+        }
+    }
 
-} 
\ No newline at end of file
+    /**
+     * WebFlux入口追踪，响应式Web应用中生效
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnClass(name = "org.springframework.web.server.WebFilter")
+    static class ReactiveWebConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public TracerWebFilter tracerWebFilter(TracerProperties properties, CompiledPathMatcher tracerExcludePathMatcher) {
+            log.debug("Registering tracer web filter");
+            return new TracerWebFilter(properties, tracerExcludePathMatcher);
+        }
+    }
+
+    /**
+     * 关联表指标，存在micrometer-core时生效
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class ContextMapMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ContextMapMetricsBinder contextMapMetricsBinder() {
+            return new ContextMapMetricsBinder();
+        }
+    }
+
+    /**
+     * {@link org.tbox.dapper.annotation.Traced} 方法追踪，标注在方法或类上均可
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.aopalliance.intercept.MethodInterceptor")
+    static class TracedMethodConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(name = "tracedMethodAdvisor")
+        public Advisor tracedMethodAdvisor() {
+            return new DefaultPointcutAdvisor(TracedMethodInterceptor.pointcut(), new TracedMethodInterceptor());
+        }
+    }
+
+    /**
+     * 追踪记录查询端点，存在spring-boot-actuator时生效
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    @ConditionalOnProperty(prefix = "tbox.tracer.trace-store", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class TraceStoreEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public TraceStoreEndpoint traceStoreEndpoint() {
+            return new TraceStoreEndpoint();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.tbox.dapper.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.tbox.dapper.context.PropagationFormat;
+import org.tbox.dapper.context.SpanIdFormat;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -31,6 +33,17 @@ public class TracerProperties {
      * 响应结果最大长度，日志记录超过此长度会被截断
      */
     private int maxResponseLength = 2048;
+
+    /**
+     * 是否将traceId/spanId等写入MDC
+     * 关闭后需在日志模板中使用TraceIdConverter/SpanIdConverter（logback-base.xml已默认配置）
+     */
+    private boolean mdcEnabled = true;
+
+    /**
+     * Span ID格式：RANDOM（固定16位十六进制，默认）或 DOTTED（父SpanId.序号）
+     */
+    private SpanIdFormat spanIdFormat = SpanIdFormat.RANDOM;
     
 
     /**
@@ -42,6 +55,56 @@ public class TracerProperties {
      * 调度任务追踪配置
      */
     private SchedulerConfig scheduler = new SchedulerConfig();
+
+    /**
+     * 线程池统计配置
+     */
+    private ExecutorConfig executor = new ExecutorConfig();
+
+    /**
+     * 出入参日志配置
+     */
+    private PayloadConfig payload = new PayloadConfig();
+
+    /**
+     * 消息队列追踪配置
+     */
+    private MqConfig mq = new MqConfig();
+
+    /**
+     * 追踪信息传递格式配置
+     */
+    private PropagationConfig propagation = new PropagationConfig();
+
+    /**
+     * Redis客户端追踪配置
+     */
+    private RedisConfig redis = new RedisConfig();
+
+    /**
+     * JDBC追踪配置
+     */
+    private JdbcConfig jdbc = new JdbcConfig();
+
+    /**
+     * HTTP客户端统计配置
+     */
+    private HttpClientConfig httpClient = new HttpClientConfig();
+
+    /**
+     * 调试日志缓冲配置
+     */
+    private DebugBufferConfig debugBuffer = new DebugBufferConfig();
+
+    /**
+     * 进程内追踪记录存储配置
+     */
+    private TraceStoreConfig traceStore = new TraceStoreConfig();
+
+    /**
+     * 追踪开销自动降级配置
+     */
+    private GovernorConfig governor = new GovernorConfig();
     
     public boolean isEnabled() {
         return enabled;
@@ -75,6 +138,22 @@ public class TracerProperties {
         this.maxResponseLength = maxResponseLength;
     }
 
+    public boolean isMdcEnabled() {
+        return mdcEnabled;
+    }
+
+    public void setMdcEnabled(boolean mdcEnabled) {
+        this.mdcEnabled = mdcEnabled;
+    }
+
+    public SpanIdFormat getSpanIdFormat() {
+        return spanIdFormat;
+    }
+
+    public void setSpanIdFormat(SpanIdFormat spanIdFormat) {
+        this.spanIdFormat = spanIdFormat;
+    }
+
     /**
      * 获取用户配置的额外排除路径
      */
@@ -103,6 +182,146 @@ public class TracerProperties {
         this.scheduler = scheduler;
     }
 
+    /**
+     * 获取线程池统计配置
+     */
+    public ExecutorConfig getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 设置线程池统计配置
+     */
+    public void setExecutor(ExecutorConfig executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 获取出入参日志配置
+     */
+    public PayloadConfig getPayload() {
+        return payload;
+    }
+
+    /**
+     * 设置出入参日志配置
+     */
+    public void setPayload(PayloadConfig payload) {
+        this.payload = payload;
+    }
+
+    /**
+     * 获取消息队列追踪配置
+     */
+    public MqConfig getMq() {
+        return mq;
+    }
+
+    /**
+     * 设置消息队列追踪配置
+     */
+    public void setMq(MqConfig mq) {
+        this.mq = mq;
+    }
+
+    /**
+     * 获取追踪信息传递格式配置
+     */
+    public PropagationConfig getPropagation() {
+        return propagation;
+    }
+
+    /**
+     * 设置追踪信息传递格式配置
+     */
+    public void setPropagation(PropagationConfig propagation) {
+        this.propagation = propagation;
+    }
+
+    /**
+     * 获取Redis客户端追踪配置
+     */
+    public RedisConfig getRedis() {
+        return redis;
+    }
+
+    /**
+     * 设置Redis客户端追踪配置
+     */
+    public void setRedis(RedisConfig redis) {
+        this.redis = redis;
+    }
+
+    /**
+     * 获取JDBC追踪配置
+     */
+    public JdbcConfig getJdbc() {
+        return jdbc;
+    }
+
+    /**
+     * 设置JDBC追踪配置
+     */
+    public void setJdbc(JdbcConfig jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * 获取HTTP客户端统计配置
+     */
+    public HttpClientConfig getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * 设置HTTP客户端统计配置
+     */
+    public void setHttpClient(HttpClientConfig httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * 获取调试日志缓冲配置
+     */
+    public DebugBufferConfig getDebugBuffer() {
+        return debugBuffer;
+    }
+
+    /**
+     * 设置调试日志缓冲配置
+     */
+    public void setDebugBuffer(DebugBufferConfig debugBuffer) {
+        this.debugBuffer = debugBuffer;
+    }
+
+    /**
+     * 获取进程内追踪记录存储配置
+     */
+    public TraceStoreConfig getTraceStore() {
+        return traceStore;
+    }
+
+    /**
+     * 设置进程内追踪记录存储配置
+     */
+    public void setTraceStore(TraceStoreConfig traceStore) {
+        this.traceStore = traceStore;
+    }
+
+    /**
+     * 获取追踪开销自动降级配置
+     */
+    public GovernorConfig getGovernor() {
+        return governor;
+    }
+
+    /**
+     * 设置追踪开销自动降级配置
+     */
+    public void setGovernor(GovernorConfig governor) {
+        this.governor = governor;
+    }
+
     /**
      * 获取合并后的所有排除路径（默认路径+用户配置路径）
      */
@@ -144,6 +363,11 @@ public class TracerProperties {
          * 是否启用Quartz任务追踪
          */
         private boolean quartzEnabled = true;
+
+        /**
+         * 按任务汇总执行统计的最大任务数，超出后新任务计入 &lt;other&gt;
+         */
+        private int maxJobs = 200;
         
         public boolean isSpringScheduledEnabled() {
             return springScheduledEnabled;
@@ -168,5 +392,608 @@ public class TracerProperties {
         public void setQuartzEnabled(boolean quartzEnabled) {
             this.quartzEnabled = quartzEnabled;
         }
+
+        public int getMaxJobs() {
+            return maxJobs;
+        }
+
+        public void setMaxJobs(int maxJobs) {
+            this.maxJobs = maxJobs;
+        }
+    }
+
+    /**
+     * 线程池统计配置
+     */
+    public static class ExecutorConfig {
+        /**
+         * 活跃线程数、队列深度、吞吐量的采样间隔（毫秒），小于等于0时不采样
+         */
+        private long sampleIntervalMillis = 10000;
+
+        public long getSampleIntervalMillis() {
+            return sampleIntervalMillis;
+        }
+
+        public void setSampleIntervalMillis(long sampleIntervalMillis) {
+            this.sampleIntervalMillis = sampleIntervalMillis;
+        }
+    }
+
+    /**
+     * 追踪信息传递格式配置，按传输方式分别设置
+     * 接收方总是同时识别所有格式，可以先升级所有接收方，再逐个切换发送方的格式
+     */
+    public static class PropagationConfig {
+        /**
+         * HTTP客户端（RestTemplate / OkHttp / HttpClient）写入的格式
+         */
+        private PropagationFormat http = PropagationFormat.LEGACY;
+
+        /**
+         * Kafka消息头写入的格式
+         */
+        private PropagationFormat kafka = PropagationFormat.LEGACY;
+
+        /**
+         * RocketMQ消息属性写入的格式
+         */
+        private PropagationFormat rocketmq = PropagationFormat.LEGACY;
+
+        public PropagationFormat getHttp() {
+            return http;
+        }
+
+        public void setHttp(PropagationFormat http) {
+            this.http = http;
+        }
+
+        public PropagationFormat getKafka() {
+            return kafka;
+        }
+
+        public void setKafka(PropagationFormat kafka) {
+            this.kafka = kafka;
+        }
+
+        public PropagationFormat getRocketmq() {
+            return rocketmq;
+        }
+
+        public void setRocketmq(PropagationFormat rocketmq) {
+            this.rocketmq = rocketmq;
+        }
+    }
+
+    /**
+     * Redis客户端追踪配置
+     */
+    public static class RedisConfig {
+        /**
+         * 是否为RedisTemplate和Redisson的调用创建客户端Span
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * JDBC追踪配置
+     */
+    public static class JdbcConfig {
+        /**
+         * 是否包装DataSource，为每条SQL语句创建客户端Span
+         */
+        private boolean enabled = false;
+
+        /**
+         * 按SQL指纹汇总统计的最大指纹数，超出后新指纹计入 &lt;other&gt;
+         */
+        private int maxStatements = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxStatements() {
+            return maxStatements;
+        }
+
+        public void setMaxStatements(int maxStatements) {
+            this.maxStatements = maxStatements;
+        }
+    }
+
+    /**
+     * HTTP客户端统计配置
+     */
+    public static class HttpClientConfig {
+        /**
+         * 按目标主机汇总统计的最大主机数，超出后新主机计入 &lt;other&gt;
+         */
+        private int maxHosts = 100;
+
+        /**
+         * 按路由（方法 + 主机 + 路径模板）汇总统计的最大路由数，超出后新路由计入 &lt;other&gt;
+         */
+        private int maxRoutes = 500;
+
+        public int getMaxHosts() {
+            return maxHosts;
+        }
+
+        public void setMaxHosts(int maxHosts) {
+            this.maxHosts = maxHosts;
+        }
+
+        public int getMaxRoutes() {
+            return maxRoutes;
+        }
+
+        public void setMaxRoutes(int maxRoutes) {
+            this.maxRoutes = maxRoutes;
+        }
+    }
+
+    /**
+     * 调试日志缓冲配置
+     */
+    public static class DebugBufferConfig {
+        /**
+         * 是否按请求缓冲未输出的DEBUG/TRACE日志，请求失败或过慢时输出
+         */
+        private boolean enabled = false;
+
+        /**
+         * 每个请求最多缓冲的条数，超出后覆盖最旧的
+         */
+        private int maxEventsPerTrace = 256;
+
+        /**
+         * 所有线程合计最多缓冲的条数
+         */
+        private int maxTotalEvents = 65536;
+
+        /**
+         * 请求耗时达到此值（毫秒）时也输出缓冲的日志，小于等于0表示只在失败时输出
+         */
+        private long slowThresholdMillis = 3000L;
+
+        /**
+         * 缓冲的Logger名称前缀（如业务包名），这些Logger的isDebugEnabled()在缓冲激活时返回true；
+         * 为空时缓冲所有Logger未加判断的调试日志，isDebugEnabled()保持原结果
+         */
+        private String[] loggerPrefixes = {};
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEventsPerTrace() {
+            return maxEventsPerTrace;
+        }
+
+        public void setMaxEventsPerTrace(int maxEventsPerTrace) {
+            this.maxEventsPerTrace = maxEventsPerTrace;
+        }
+
+        public int getMaxTotalEvents() {
+            return maxTotalEvents;
+        }
+
+        public void setMaxTotalEvents(int maxTotalEvents) {
+            this.maxTotalEvents = maxTotalEvents;
+        }
+
+        public long getSlowThresholdMillis() {
+            return slowThresholdMillis;
+        }
+
+        public void setSlowThresholdMillis(long slowThresholdMillis) {
+            this.slowThresholdMillis = slowThresholdMillis;
+        }
+
+        public String[] getLoggerPrefixes() {
+            return loggerPrefixes;
+        }
+
+        public void setLoggerPrefixes(String[] loggerPrefixes) {
+            this.loggerPrefixes = loggerPrefixes;
+        }
+    }
+
+    /**
+     * 进程内追踪记录存储配置
+     */
+    public static class TraceStoreConfig {
+        /**
+         * 是否在内存中保留慢请求和失败请求的记录
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最多统计的接口数，超出后新接口计入 &lt;other&gt;
+         */
+        private int maxEndpoints = 100;
+
+        /**
+         * 保留最近多少分钟的慢请求
+         */
+        private int windowMinutes = 10;
+
+        /**
+         * 每个接口每分钟保留的慢请求数
+         */
+        private int topK = 10;
+
+        /**
+         * 保留的最近失败请求数
+         */
+        private int errorCapacity = 256;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEndpoints() {
+            return maxEndpoints;
+        }
+
+        public void setMaxEndpoints(int maxEndpoints) {
+            this.maxEndpoints = maxEndpoints;
+        }
+
+        public int getWindowMinutes() {
+            return windowMinutes;
+        }
+
+        public void setWindowMinutes(int windowMinutes) {
+            this.windowMinutes = windowMinutes;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        public int getErrorCapacity() {
+            return errorCapacity;
+        }
+
+        public void setErrorCapacity(int errorCapacity) {
+            this.errorCapacity = errorCapacity;
+        }
+    }
+
+    /**
+     * 追踪开销自动降级配置
+     * 任一指标达到上限时逐级降级：关闭出入参日志 → 降低采样率 → 只保留MDC中的ID；
+     * 所有指标低于上限×recover-ratio 并持续 recover-checks 次检查后逐级恢复。各上限为0时不检查该指标
+     */
+    public static class GovernorConfig {
+        /**
+         * 是否启用自动降级
+         */
+        private boolean enabled = false;
+
+        /**
+         * 检查间隔（毫秒）
+         */
+        private long checkIntervalMillis = 1000;
+
+        /**
+         * 每秒请求数上限
+         */
+        private double maxRequestsPerSecond = 0;
+
+        /**
+         * 日志队列（异步出入参日志和Logback AsyncAppender）使用率上限，0~1
+         */
+        private double maxLogQueueUsage = 0.8D;
+
+        /**
+         * 检查间隔内GC耗时占比上限，0~1
+         */
+        private double maxGcTimeRatio = 0;
+
+        /**
+         * 进程CPU使用率上限，0~1
+         */
+        private double maxCpuLoad = 0;
+
+        /**
+         * 降低采样率级别下新追踪的采样率
+         */
+        private double reducedSampleRate = 0.1D;
+
+        /**
+         * 连续多少次检查超过上限后降一级
+         */
+        private int degradeChecks = 1;
+
+        /**
+         * 连续多少次检查低于恢复线后恢复一级
+         */
+        private int recoverChecks = 5;
+
+        /**
+         * 恢复线占上限的比例
+         */
+        private double recoverRatio = 0.7D;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getCheckIntervalMillis() {
+            return checkIntervalMillis;
+        }
+
+        public void setCheckIntervalMillis(long checkIntervalMillis) {
+            this.checkIntervalMillis = checkIntervalMillis;
+        }
+
+        public double getMaxRequestsPerSecond() {
+            return maxRequestsPerSecond;
+        }
+
+        public void setMaxRequestsPerSecond(double maxRequestsPerSecond) {
+            this.maxRequestsPerSecond = maxRequestsPerSecond;
+        }
+
+        public double getMaxLogQueueUsage() {
+            return maxLogQueueUsage;
+        }
+
+        public void setMaxLogQueueUsage(double maxLogQueueUsage) {
+            this.maxLogQueueUsage = maxLogQueueUsage;
+        }
+
+        public double getMaxGcTimeRatio() {
+            return maxGcTimeRatio;
+        }
+
+        public void setMaxGcTimeRatio(double maxGcTimeRatio) {
+            this.maxGcTimeRatio = maxGcTimeRatio;
+        }
+
+        public double getMaxCpuLoad() {
+            return maxCpuLoad;
+        }
+
+        public void setMaxCpuLoad(double maxCpuLoad) {
+            this.maxCpuLoad = maxCpuLoad;
+        }
+
+        public double getReducedSampleRate() {
+            return reducedSampleRate;
+        }
+
+        public void setReducedSampleRate(double reducedSampleRate) {
+            this.reducedSampleRate = reducedSampleRate;
+        }
+
+        public int getDegradeChecks() {
+            return degradeChecks;
+        }
+
+        public void setDegradeChecks(int degradeChecks) {
+            this.degradeChecks = degradeChecks;
+        }
+
+        public int getRecoverChecks() {
+            return recoverChecks;
+        }
+
+        public void setRecoverChecks(int recoverChecks) {
+            this.recoverChecks = recoverChecks;
+        }
+
+        public double getRecoverRatio() {
+            return recoverRatio;
+        }
+
+        public void setRecoverRatio(double recoverRatio) {
+            this.recoverRatio = recoverRatio;
+        }
+    }
+
+    /**
+     * 消息队列追踪配置
+     */
+    public static class MqConfig {
+        /**
+         * 批量消费时是否为整批消息创建一个Span，并以Span链接关联各条消息的追踪
+         */
+        private boolean batchSpan = true;
+
+        /**
+         * 每个批量Span最多记录的链接数，超出部分只计数
+         */
+        private int maxSpanLinks = 128;
+
+        public boolean isBatchSpan() {
+            return batchSpan;
+        }
+
+        public void setBatchSpan(boolean batchSpan) {
+            this.batchSpan = batchSpan;
+        }
+
+        public int getMaxSpanLinks() {
+            return maxSpanLinks;
+        }
+
+        public void setMaxSpanLinks(int maxSpanLinks) {
+            this.maxSpanLinks = maxSpanLinks;
+        }
+    }
+
+    /**
+     * 出入参日志配置
+     */
+    public static class PayloadConfig {
+        /**
+         * 采集方式：ARGS（默认，序列化Controller参数和返回值）或 RAW（过滤器直接采集原始请求/响应体）
+         */
+        private CaptureMode captureMode = CaptureMode.ARGS;
+
+        /**
+         * RAW模式下不采集的Content-Type前缀（文件上传、二进制、流式响应等）
+         */
+        private List<String> bypassContentTypes = new ArrayList<>(Arrays.asList(
+                "multipart/", "application/octet-stream", "text/event-stream", "application/x-ndjson",
+                "image/", "audio/", "video/", "application/pdf", "application/zip"));
+
+        /**
+         * 是否异步输出：请求线程按长度上限序列化后入队，日志输出在后台线程完成，队列满时丢弃
+         */
+        private boolean async = false;
+
+        /**
+         * 异步队列容量
+         */
+        private int queueCapacity = 1024;
+
+        /**
+         * 请求参数最大长度，超过时停止序列化并截断，小于等于0表示不限制
+         */
+        private int maxRequestLength = 2048;
+
+        /**
+         * 默认采样率（0~1）
+         */
+        private double defaultSampleRate = 1.0D;
+
+        /**
+         * 按接口路径的采样规则，按顺序匹配第一个
+         */
+        private List<SamplingRule> samplingRules = new ArrayList<>();
+
+        public CaptureMode getCaptureMode() {
+            return captureMode;
+        }
+
+        public void setCaptureMode(CaptureMode captureMode) {
+            this.captureMode = captureMode;
+        }
+
+        public List<String> getBypassContentTypes() {
+            return bypassContentTypes;
+        }
+
+        public void setBypassContentTypes(List<String> bypassContentTypes) {
+            this.bypassContentTypes = bypassContentTypes;
+        }
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxRequestLength() {
+            return maxRequestLength;
+        }
+
+        public void setMaxRequestLength(int maxRequestLength) {
+            this.maxRequestLength = maxRequestLength;
+        }
+
+        public double getDefaultSampleRate() {
+            return defaultSampleRate;
+        }
+
+        public void setDefaultSampleRate(double defaultSampleRate) {
+            this.defaultSampleRate = defaultSampleRate;
+        }
+
+        public List<SamplingRule> getSamplingRules() {
+            return samplingRules;
+        }
+
+        public void setSamplingRules(List<SamplingRule> samplingRules) {
+            this.samplingRules = samplingRules;
+        }
+    }
+
+    /**
+     * 出入参采集方式
+     */
+    public enum CaptureMode {
+        /**
+         * 切面序列化Controller参数和返回值
+         */
+        ARGS,
+        /**
+         * 过滤器采集原始请求体和响应体字节
+         */
+        RAW
+    }
+
+    /**
+     * 采样规则
+     */
+    public static class SamplingRule {
+        /**
+         * 路径模式，支持 * / ** 通配符
+         */
+        private String pattern;
+
+        /**
+         * 采样率（0~1）
+         */
+        private double rate = 1.0D;
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package org.tbox.dapper.context;
+
+/**
+ * 追踪信息在进程间传递的格式
+ */
+public enum PropagationFormat {
+
+    /**
+     * 多个头：X-Trace-ID / X-Span-ID / X-Parent-Span-ID / X-App-Name，可携带任意格式的ID
+     */
+    LEGACY,
+
+    /**
+     * W3C Trace Context：单个 traceparent 头，如 00-{32位traceId}-{16位spanId}-01
+     */
+    W3C,
+
+    /**
+     * B3 单头格式：单个 b3 头，如 {16位traceId}-{16位spanId}-1-{16位parentSpanId}
+     */
+    B3
+}
@@ -0,0 +1,17 @@
+package org.tbox.dapper.context;
+
+/**
+ * 子Span ID格式
+ */
+public enum SpanIdFormat {
+
+    /**
+     * 固定16位十六进制的64位随机数，长度不随调用层级增长，父子关系由parentSpanId表示
+     */
+    RANDOM,
+
+    /**
+     * 父SpanId.序号（如 123.1.2），便于按前缀检索日志，但长度随调用层级增长
+     */
+    DOTTED
+}
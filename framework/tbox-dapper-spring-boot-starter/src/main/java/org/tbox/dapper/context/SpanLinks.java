@@ -0,0 +1,152 @@
+package org.tbox.dapper.context;
+
+import java.util.Arrays;
+
+/**
+ * Span链接
+ * 批量消费等一个Span对应多条上游追踪的场景下，批量Span不能同时成为多个上游的子Span，
+ * 改为记录与各上游Span的链接。链接以并列数组保存，不为每条链接创建对象；
+ * 数量超过上限时只计数，避免超大批次占用过多内存
+ */
+public final class SpanLinks {
+
+    /**
+     * 空链接
+     */
+    public static final SpanLinks EMPTY = new SpanLinks(new String[0], new String[0], 0, 0);
+
+    private final String[] traceIds;
+    private final String[] spanIds;
+    private final int size;
+    private final int dropped;
+
+    private SpanLinks(String[] traceIds, String[] spanIds, int size, int dropped) {
+        this.traceIds = traceIds;
+        this.spanIds = spanIds;
+        this.size = size;
+        this.dropped = dropped;
+    }
+
+    public static Builder builder(int maxLinks) {
+        return new Builder(maxLinks);
+    }
+
+    /**
+     * 第index条链接的traceId
+     */
+    public String getTraceId(int index) {
+        checkIndex(index);
+        return traceIds[index];
+    }
+
+    /**
+     * 第index条链接的spanId
+     */
+    public String getSpanId(int index) {
+        checkIndex(index);
+        return spanIds[index];
+    }
+
+    /**
+     * 超过上限未记录的链接数
+     */
+    public int getDropped() {
+        return dropped;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0 && dropped == 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    /**
+     * 格式：traceId:spanId,traceId:spanId(+N)，用于日志输出
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(size * 40);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(traceIds[i]).append(':').append(spanIds[i]);
+        }
+        if (dropped > 0) {
+            sb.append("(+").append(dropped).append(')');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 链接构建器，非线程安全
+     */
+    public static final class Builder {
+        private final int maxLinks;
+        private String[] traceIds;
+        private String[] spanIds;
+        private int size;
+        private int dropped;
+
+        private Builder(int maxLinks) {
+            this.maxLinks = Math.max(0, maxLinks);
+        }
+
+        /**
+         * 添加链接，null忽略
+         */
+        public Builder add(TraceSnapshot link) {
+            if (link != null) {
+                add(link.getTraceId(), link.getSpanId());
+            }
+            return this;
+        }
+
+        /**
+         * 添加链接，traceId或spanId为空时忽略
+         */
+        public Builder add(String traceId, String spanId) {
+            if (traceId == null || traceId.isEmpty() || spanId == null || spanId.isEmpty()) {
+                return this;
+            }
+            if (size >= maxLinks) {
+                dropped++;
+                return this;
+            }
+            if (traceIds == null) {
+                int capacity = Math.min(maxLinks, 16);
+                traceIds = new String[capacity];
+                spanIds = new String[capacity];
+            } else if (size == traceIds.length) {
+                int capacity = Math.min(maxLinks, size * 2);
+                traceIds = Arrays.copyOf(traceIds, capacity);
+                spanIds = Arrays.copyOf(spanIds, capacity);
+            }
+            traceIds[size] = traceId;
+            spanIds[size] = spanId;
+            size++;
+            return this;
+        }
+
+        /**
+         * 构建链接，构建后不应继续添加
+         */
+        public SpanLinks build() {
+            if (size == 0 && dropped == 0) {
+                return EMPTY;
+            }
+            if (size == 0) {
+                return new SpanLinks(EMPTY.traceIds, EMPTY.spanIds, 0, dropped);
+            }
+            return new SpanLinks(traceIds, spanIds, size, dropped);
+        }
+    }
+}
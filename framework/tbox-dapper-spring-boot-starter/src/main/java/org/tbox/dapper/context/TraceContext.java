@@ -3,11 +3,14 @@ package org.tbox.dapper.context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.tbox.dapper.governor.TracingGovernor;
+import org.tbox.dapper.span.ClientSpan;
+import org.tbox.dapper.span.SpanTimings;
 import org.tbox.dapper.utils.DapperIdUtils;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * 追踪上下文，用于存储和传递追踪信息
@@ -22,6 +25,12 @@ public class TraceContext {
     public static final String MDC_SPAN_ID = "spanId";
     public static final String MDC_PARENT_SPAN_ID = "parentSpanId";
     public static final String MDC_APP_NAME = "appName";
+
+    // 是否写入MDC
+    private static volatile boolean mdcEnabled = true;
+
+    // Span ID格式
+    private static volatile SpanIdFormat spanIdFormat = SpanIdFormat.RANDOM;
     
     // 追踪ID
     private String traceId;
@@ -31,14 +40,29 @@ public class TraceContext {
     private String parentSpanId;
     // 应用名称
     private String appName;
-    // 请求开始时间
+    // 请求开始时间（毫秒时间戳），用于展示和按时间查询
     private long startTime;
+    // 请求开始时的System.nanoTime()，用于计算耗时，不受系统时钟调整影响
+    private long startNanos;
     // 是否已完成
     private boolean completed = false;
-    // 额外属性
-    private Map<String, String> attributes = new HashMap();
-    // 子Span计数器
-    private final AtomicInteger childCounter = new AtomicInteger(0);
+    // 采样标记，随追踪传递给下游
+    private boolean sampled = true;
+    // 额外属性，首次写入时才创建
+    private Map<String, String> attributes;
+    // 子Span计数器，捕获快照后改用快照上的计数器
+    private volatile int childCounter;
+    // 跨线程传递用的快照，首次获取时创建
+    private TraceSnapshot snapshot;
+    // 关联的上游Span（如批量消费），没有时为null
+    private SpanLinks links;
+    // 下游调用耗时汇总，同一根Span下的子上下文和快照共享，首次使用时创建
+    private SpanTimings timings;
+    // 本线程正在执行的 @Traced 方法Span，期间开始的客户端Span以它为父Span，没有时为null
+    private ClientSpan activeSpan;
+
+    private static final AtomicIntegerFieldUpdater<TraceContext> CHILD_COUNTER =
+            AtomicIntegerFieldUpdater.newUpdater(TraceContext.class, "childCounter");
     
     /**
      * 创建一个根追踪上下文
@@ -46,10 +70,12 @@ public class TraceContext {
     public static TraceContext createRootContext(String appName) {
         TraceContext context = new TraceContext();
         context.traceId = DapperIdUtils.generateTraceId();
-        context.spanId = DapperIdUtils.generateSpanId();
+        context.spanId = newSpanId();
         context.parentSpanId = null;
         context.appName = appName;
-        context.startTime = System.currentTimeMillis();
+        context.markStart();
+        // 负载过高降级时按降级采样率采样
+        context.sampled = TracingGovernor.sampleNewTrace();
         
         CONTEXT_HOLDER.set(context);
         updateMDC(context);
@@ -57,6 +83,54 @@ public class TraceContext {
         return context;
     }
     
+    /**
+     * 按当前格式生成新的根Span ID
+     */
+    private static String newSpanId() {
+        return spanIdFormat == SpanIdFormat.RANDOM
+                ? DapperIdUtils.generateHexSpanId() : DapperIdUtils.generateSpanId();
+    }
+
+    /**
+     * 按当前格式生成子Span ID
+     */
+    private static String childSpanId(TraceContext parent) {
+        if (spanIdFormat == SpanIdFormat.RANDOM) {
+            // 固定长度的随机Span ID，父子关系由parentSpanId表示
+            return DapperIdUtils.generateHexSpanId();
+        }
+        // 生成子Span ID（格式: 父SpanId.计数），已有快照时使用快照上共享的计数器
+        TraceSnapshot shared = parent.snapshot;
+        int childIndex = shared != null ? shared.nextChildIndex() : CHILD_COUNTER.incrementAndGet(parent);
+        return parent.spanId + "." + childIndex;
+    }
+
+    /**
+     * 为发往下游的调用（如消息发送）生成新的Span，不绑定当前线程、不写MDC
+     * 当前线程有追踪上下文时作为其子Span，否则开启一条新的追踪
+     *
+     * @param appName 当前线程没有追踪上下文时使用的应用名称
+     */
+    public static TraceSnapshot nextSpan(String appName) {
+        TraceContext parent = getCurrentContext();
+        if (parent != null) {
+            // 在 @Traced 方法中发起的调用以方法Span为父Span
+            String parentSpanId = parent.activeSpan != null ? parent.activeSpan.getSpanId() : parent.spanId;
+            return new TraceSnapshot(parent.traceId, childSpanId(parent), parentSpanId, parent.appName, parent.sampled);
+        }
+        return new TraceSnapshot(DapperIdUtils.generateTraceId(), newSpanId(), null, appName);
+    }
+
+    /**
+     * 为上游传入的Span（如消息携带的追踪信息）生成子Span，不绑定当前线程
+     * 上游的Span可能被多个进程同时作为父Span，DOTTED格式下子Span使用新的根格式ID以免序号重复
+     *
+     * @param appName 当前应用名称
+     */
+    public static TraceSnapshot nextSpan(TraceSnapshot parent, String appName) {
+        return new TraceSnapshot(parent.getTraceId(), newSpanId(), parent.getSpanId(), appName, parent.isSampled());
+    }
+
     /**
      * 从现有上下文创建子Span
      */
@@ -71,12 +145,12 @@ public class TraceContext {
         child.traceId = parent.traceId;
         child.parentSpanId = parent.spanId;
         
-        // 生成子Span ID（格式: 父SpanId.计数）
-        int childIndex = parent.childCounter.incrementAndGet();
-        child.spanId = parent.spanId + "." + childIndex;
+        child.spanId = childSpanId(parent);
         
         child.appName = parent.appName;
-        child.startTime = System.currentTimeMillis();
+        child.sampled = parent.sampled;
+        child.timings = parent.getTimings();
+        child.markStart();
         
         CONTEXT_HOLDER.set(child);
         updateMDC(child);
@@ -100,10 +174,10 @@ public class TraceContext {
         
         TraceContext context = new TraceContext();
         context.traceId = traceId;
-        context.spanId = spanId != null ? spanId : DapperIdUtils.generateSpanId();
+        context.spanId = spanId != null ? spanId : newSpanId();
         context.parentSpanId = parentSpanId;
         context.appName = appName;
-        context.startTime = System.currentTimeMillis();
+        context.markStart();
         
         CONTEXT_HOLDER.set(context);
         updateMDC(context);
@@ -116,6 +190,73 @@ public class TraceContext {
         return context;
     }
     
+    /**
+     * 为非阻塞入口（如WebFlux请求）创建根Span的追踪上下文，不绑定当前线程、不写MDC
+     * 有上游追踪信息时沿用其ID，与 {@link #createFromExternalContext} 一致；
+     * 通过 {@link #snapshot()} 取得快照在响应式链路中传递，下游调用耗时汇总在该上下文上
+     *
+     * @param upstream 上游传递的追踪信息，没有时为null
+     * @param appName  当前应用名称
+     */
+    public static TraceContext detached(TraceSnapshot upstream, String appName) {
+        TraceContext context = new TraceContext();
+        if (upstream != null) {
+            context.traceId = upstream.getTraceId();
+            context.spanId = upstream.getSpanId();
+            context.parentSpanId = upstream.getParentSpanId();
+            // 只保留ID时不再采样上游已采样的请求
+            context.sampled = upstream.isSampled() && TracingGovernor.isSamplingAllowed();
+        } else {
+            context.traceId = DapperIdUtils.generateTraceId();
+            context.spanId = newSpanId();
+            context.sampled = TracingGovernor.sampleNewTrace();
+        }
+        context.appName = appName;
+        context.markStart();
+        return context;
+    }
+
+    /**
+     * 从快照激活上下文，不生成ID也不打印日志
+     * 新上下文复用快照实例，后续再次捕获快照时无需重新分配
+     */
+    static TraceContext activateSnapshot(TraceSnapshot snapshot) {
+        TraceContext context = new TraceContext();
+        context.traceId = snapshot.getTraceId();
+        context.spanId = snapshot.getSpanId();
+        context.parentSpanId = snapshot.getParentSpanId();
+        context.appName = snapshot.getAppName();
+        context.sampled = snapshot.isSampled();
+        context.timings = snapshot.getTimings();
+        // 激活路径只读取nanoTime，毫秒时间戳在读取时换算
+        context.startNanos = System.nanoTime();
+        context.snapshot = snapshot;
+
+        CONTEXT_HOLDER.set(context);
+        updateMDC(context);
+        return context;
+    }
+
+    /**
+     * 获取当前上下文的快照，同一上下文多次调用返回同一实例
+     */
+    public TraceSnapshot snapshot() {
+        TraceSnapshot current = this.snapshot;
+        if (current == null) {
+            // 之后的子Span改由快照分配序号，与快照激活的上下文共用同一个计数器
+            current = new TraceSnapshot(traceId, spanId, parentSpanId, appName, sampled, getTimings(), childCounter);
+            this.snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * 是否由指定快照激活（或已捕获过该快照）
+     */
+    boolean hasSnapshot(TraceSnapshot snapshot) {
+        return this.snapshot == snapshot;
+    }
+
     /**
      * 获取当前线程上下文
      */
@@ -174,6 +315,9 @@ public class TraceContext {
      */
     public void setAttribute(String key, String value) {
         if (key != null && value != null) {
+            if (this.attributes == null) {
+                this.attributes = new HashMap<>();
+            }
             this.attributes.put(key, value);
         }
     }
@@ -182,45 +326,136 @@ public class TraceContext {
      * 获取属性
      */
     public String getAttribute(String key) {
-        return this.attributes.get(key);
+        return this.attributes != null ? this.attributes.get(key) : null;
     }
     
+    /**
+     * 设置关联的上游Span
+     */
+    public void setLinks(SpanLinks links) {
+        this.links = links;
+    }
+
+    /**
+     * 获取关联的上游Span，没有时返回 {@link SpanLinks#EMPTY}
+     */
+    public SpanLinks getLinks() {
+        return links != null ? links : SpanLinks.EMPTY;
+    }
+
+    /**
+     * 获取下游调用耗时汇总，子上下文和由本上下文快照激活的上下文共享同一实例
+     */
+    public SpanTimings getTimings() {
+        SpanTimings current = this.timings;
+        if (current == null) {
+            current = new SpanTimings();
+            this.timings = current;
+        }
+        return current;
+    }
+
+    /**
+     * 是否已创建下游调用耗时汇总
+     */
+    public boolean hasTimings() {
+        return timings != null;
+    }
+
+    /**
+     * 正在执行的方法Span，没有时返回null
+     */
+    public ClientSpan getActiveSpan() {
+        return activeSpan;
+    }
+
+    /**
+     * 设置正在执行的方法Span，由方法拦截器在调用前设置、结束后恢复为之前的值
+     */
+    public void setActiveSpan(ClientSpan activeSpan) {
+        this.activeSpan = activeSpan;
+    }
+
     /**
      * 获取所有属性
      */
     public Map<String, String> getAttributes() {
-        return new HashMap(this.attributes);
+        return this.attributes != null ? new HashMap<>(this.attributes) : new HashMap<>();
     }
     
     /**
-     * 更新MDC值
+     * 设置是否将追踪信息写入MDC
+     * 关闭后日志模板需使用TraceIdConverter/SpanIdConverter直接从TraceContext读取
+     */
+    public static void setMdcEnabled(boolean enabled) {
+        mdcEnabled = enabled;
+    }
+
+    public static boolean isMdcEnabled() {
+        return mdcEnabled;
+    }
+
+    /**
+     * 设置新建Span ID的格式，默认为RANDOM
+     */
+    public static void setSpanIdFormat(SpanIdFormat format) {
+        spanIdFormat = format != null ? format : SpanIdFormat.RANDOM;
+    }
+
+    public static SpanIdFormat getSpanIdFormat() {
+        return spanIdFormat;
+    }
+
+    /**
+     * 更新MDC值，只写入发生变化的键
+     * Logback的MDC.get()不会把Map标记为已读，因此一次更新中只有第一次put/remove在日志输出后复制Map，其余键原地修改
      */
     private static void updateMDC(TraceContext context) {
-        if (context != null) {
-            MDC.put(MDC_TRACE_ID, context.traceId);
-            MDC.put(MDC_SPAN_ID, context.spanId);
-            if (context.parentSpanId != null) {
-                MDC.put(MDC_PARENT_SPAN_ID, context.parentSpanId);
-            }
-            if (context.appName != null) {
-                MDC.put(MDC_APP_NAME, context.appName);
+        if (context == null || !mdcEnabled) {
+            return;
+        }
+        putIfChanged(MDC_TRACE_ID, context.traceId);
+        putIfChanged(MDC_SPAN_ID, context.spanId);
+        putIfChanged(MDC_PARENT_SPAN_ID, context.parentSpanId);
+        putIfChanged(MDC_APP_NAME, context.appName);
+    }
+
+    /**
+     * 值未变化时跳过写入，值为null时移除旧值，避免残留上一个上下文的parentSpanId
+     */
+    private static void putIfChanged(String key, String value) {
+        String current = MDC.get(key);
+        if (value == null) {
+            if (current != null) {
+                MDC.remove(key);
             }
+        } else if (!value.equals(current)) {
+            MDC.put(key, value);
         }
     }
-    
+
     /**
-     * 清除MDC值
+     * 清除MDC值，只移除实际存在的键
      */
     private static void clearMDC() {
-        MDC.remove(MDC_TRACE_ID);
-        MDC.remove(MDC_SPAN_ID);
-        MDC.remove(MDC_PARENT_SPAN_ID);
-        MDC.remove(MDC_APP_NAME);
+        removeIfPresent(MDC_TRACE_ID);
+        removeIfPresent(MDC_SPAN_ID);
+        removeIfPresent(MDC_PARENT_SPAN_ID);
+        removeIfPresent(MDC_APP_NAME);
+    }
+
+    private static void removeIfPresent(String key) {
+        if (MDC.get(key) != null) {
+            MDC.remove(key);
+        }
     }
     
     /**
      * 拷贝当前上下文到新线程
+     *
+     * @deprecated 每次调用都会分配Map，请使用 {@link TraceSnapshot#capture()}
      */
+    @Deprecated
     public static Map<String, String> getContextForAsync() {
         TraceContext current = getCurrentContext();
         if (current == null) {
@@ -242,7 +477,10 @@ public class TraceContext {
     
     /**
      * 从异步上下文映射中还原上下文
+     *
+     * @deprecated 请使用 {@link TraceSnapshot#activate()}
      */
+    @Deprecated
     public static TraceContext restoreFromAsync(Map<String, String> contextMap) {
         if (contextMap == null || contextMap.isEmpty()) {
             return null;
@@ -273,18 +511,63 @@ public class TraceContext {
         return appName;
     }
     
+    /**
+     * 开始时间（毫秒时间戳）
+     */
     public long getStartTime() {
+        if (startTime == 0L) {
+            startTime = System.currentTimeMillis() - (System.nanoTime() - startNanos) / 1_000_000L;
+        }
         return startTime;
     }
+
+    /**
+     * 开始时的 {@link System#nanoTime()}，只用于计算耗时
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
     
+    /**
+     * 是否采样
+     */
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * 设置采样标记（如从上游的traceparent恢复）
+     */
+    public void setSampled(boolean sampled) {
+        if (this.sampled != sampled) {
+            this.sampled = sampled;
+            this.snapshot = null;
+        }
+    }
+
     public boolean isCompleted() {
         return completed;
     }
     
     /**
-     * 获取当前追踪的运行时间（毫秒）
+     * 获取当前追踪的运行时间（毫秒），按单调时钟计算
      */
     public long getDuration() {
-        return System.currentTimeMillis() - startTime;
+        return getDurationNanos() / 1_000_000L;
+    }
+
+    /**
+     * 获取当前追踪的运行时间（纳秒），按单调时钟计算
+     */
+    public long getDurationNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 同时记录开始的毫秒时间戳和单调时钟
+     */
+    private void markStart() {
+        this.startTime = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,497 @@
+package org.tbox.dapper.context;
+
+import org.tbox.dapper.core.TracerConstants;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 追踪信息的进程间传递
+ * 写入时按各传输方式配置的格式编码，紧凑格式的编码结果缓存在快照上，同一上下文多次发送只编码一次；
+ * 读取时依次识别 traceparent、b3 和多头格式，与上游使用哪种格式无关。
+ *
+ * <p>本组件生成的十进制traceId编码为高位补零的十六进制，解析时还原为十进制，日志中的traceId在上下游保持一致；
+ * SpanId解析时无法还原原始形式，只有16位十六进制的SpanId写入紧凑格式，其他SpanId（如DOTTED格式的十进制或带序号的ID、
+ * 外部传入的非十六进制ID）自动退回多头格式，保证下游的parentSpanId与上游日志中的spanId相同。
+ */
+public final class TracePropagation {
+
+    /**
+     * W3C Trace Context头
+     */
+    public static final String HEADER_TRACEPARENT = "traceparent";
+
+    /**
+     * B3单头格式的头
+     */
+    public static final String HEADER_B3 = "b3";
+
+    private static final int TRACEPARENT_LENGTH = 55;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final Encoded UNSUPPORTED = new Encoded(null);
+
+    private static volatile PropagationFormat httpFormat = PropagationFormat.LEGACY;
+    private static volatile PropagationFormat kafkaFormat = PropagationFormat.LEGACY;
+    private static volatile PropagationFormat rocketmqFormat = PropagationFormat.LEGACY;
+
+    /**
+     * 写入载体的方式
+     */
+    public interface Setter<C> {
+        void set(C carrier, String key, String value);
+    }
+
+    /**
+     * 从载体读取的方式
+     */
+    public interface Getter<C> {
+        String get(C carrier, String key);
+    }
+
+    private TracePropagation() {
+        // 工具类禁止实例化
+    }
+
+    public static PropagationFormat getHttpFormat() {
+        return httpFormat;
+    }
+
+    public static void setHttpFormat(PropagationFormat format) {
+        httpFormat = format != null ? format : PropagationFormat.LEGACY;
+    }
+
+    public static PropagationFormat getKafkaFormat() {
+        return kafkaFormat;
+    }
+
+    public static void setKafkaFormat(PropagationFormat format) {
+        kafkaFormat = format != null ? format : PropagationFormat.LEGACY;
+    }
+
+    public static PropagationFormat getRocketmqFormat() {
+        return rocketmqFormat;
+    }
+
+    public static void setRocketmqFormat(PropagationFormat format) {
+        rocketmqFormat = format != null ? format : PropagationFormat.LEGACY;
+    }
+
+    /**
+     * 紧凑格式对应的头名称，LEGACY返回null
+     */
+    public static String headerName(PropagationFormat format) {
+        switch (format) {
+            case W3C:
+                return HEADER_TRACEPARENT;
+            case B3:
+                return HEADER_B3;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 按格式写入追踪信息
+     *
+     * @param appName 多头格式中写入的应用名称，可以为null
+     */
+    public static <C> void inject(PropagationFormat format, TraceSnapshot span, String appName,
+                                  C carrier, Setter<C> setter) {
+        if (format != PropagationFormat.LEGACY) {
+            String value = encode(span, format);
+            if (value != null) {
+                setter.set(carrier, headerName(format), value);
+                return;
+            }
+        }
+        setter.set(carrier, TracerConstants.HEADER_TRACE_ID, span.getTraceId());
+        setter.set(carrier, TracerConstants.HEADER_SPAN_ID, span.getSpanId());
+        if (span.getParentSpanId() != null) {
+            setter.set(carrier, TracerConstants.HEADER_PARENT_SPAN_ID, span.getParentSpanId());
+        }
+        if (appName != null) {
+            setter.set(carrier, TracerConstants.HEADER_APP_NAME, appName);
+        }
+    }
+
+    /**
+     * 读取上游传递的追踪信息，依次识别 traceparent、b3 和多头格式
+     *
+     * @param appName 当前应用名称
+     * @return 快照，没有有效的追踪信息时返回null
+     */
+    public static <C> TraceSnapshot extract(C carrier, Getter<C> getter, String appName) {
+        String value = getter.get(carrier, HEADER_TRACEPARENT);
+        if (value != null) {
+            TraceSnapshot span = parseTraceparent(value, appName);
+            if (span != null) {
+                return span;
+            }
+        }
+        value = getter.get(carrier, HEADER_B3);
+        if (value != null) {
+            TraceSnapshot span = parseB3(value, appName);
+            if (span != null) {
+                return span;
+            }
+        }
+        return TraceSnapshot.of(
+                getter.get(carrier, TracerConstants.HEADER_TRACE_ID),
+                getter.get(carrier, TracerConstants.HEADER_SPAN_ID),
+                getter.get(carrier, TracerConstants.HEADER_PARENT_SPAN_ID),
+                appName);
+    }
+
+    /**
+     * 读取上游Span并添加为链接
+     * 多头格式直接使用载体中已有的字符串，不创建快照
+     */
+    public static <C> void extractLink(C carrier, Getter<C> getter, SpanLinks.Builder links) {
+        String value = getter.get(carrier, HEADER_TRACEPARENT);
+        TraceSnapshot span = value != null ? parseTraceparent(value, null) : null;
+        if (span == null) {
+            value = getter.get(carrier, HEADER_B3);
+            span = value != null ? parseB3(value, null) : null;
+        }
+        if (span != null) {
+            links.add(span);
+            return;
+        }
+        links.add(getter.get(carrier, TracerConstants.HEADER_TRACE_ID),
+                getter.get(carrier, TracerConstants.HEADER_SPAN_ID));
+    }
+
+    /**
+     * 编码为紧凑格式的头值，结果缓存在快照上
+     *
+     * @return 头值，格式为LEGACY或ID无法用该格式表示时返回null
+     */
+    public static String encode(TraceSnapshot span, PropagationFormat format) {
+        Encoded encoded = encoded(span, format);
+        return encoded != null ? encoded.value : null;
+    }
+
+    /**
+     * 编码为紧凑格式的头值字节（ASCII），结果缓存在快照上，调用方不得修改返回的数组
+     *
+     * @return 头值字节，格式为LEGACY或ID无法用该格式表示时返回null
+     */
+    public static byte[] encodeBytes(TraceSnapshot span, PropagationFormat format) {
+        Encoded encoded = encoded(span, format);
+        return encoded != null ? encoded.bytes : null;
+    }
+
+    private static Encoded encoded(TraceSnapshot span, PropagationFormat format) {
+        Encoded encoded;
+        switch (format) {
+            case W3C:
+                encoded = span.getW3c();
+                if (encoded == null) {
+                    encoded = Encoded.of(encodeTraceparent(span));
+                    span.setW3c(encoded);
+                }
+                break;
+            case B3:
+                encoded = span.getB3();
+                if (encoded == null) {
+                    encoded = Encoded.of(encodeB3(span));
+                    span.setB3(encoded);
+                }
+                break;
+            default:
+                return null;
+        }
+        return encoded != UNSUPPORTED ? encoded : null;
+    }
+
+    private static String encodeTraceparent(TraceSnapshot span) {
+        String traceId = span.getTraceId();
+        String spanId = span.getSpanId();
+        if (!isEncodableTraceId(traceId) || !isEncodableSpanId(spanId)) {
+            return null;
+        }
+        char[] chars = new char[TRACEPARENT_LENGTH];
+        chars[0] = '0';
+        chars[1] = '0';
+        chars[2] = '-';
+        if (traceId.length() == 32) {
+            traceId.getChars(0, 32, chars, 3);
+        } else {
+            writeHex(0L, chars, 3);
+            writeHex(Long.parseUnsignedLong(traceId), chars, 19);
+        }
+        chars[35] = '-';
+        writeSpanId(spanId, chars, 36);
+        chars[52] = '-';
+        chars[53] = '0';
+        chars[54] = span.isSampled() ? '1' : '0';
+        return new String(chars);
+    }
+
+    private static String encodeB3(TraceSnapshot span) {
+        String traceId = span.getTraceId();
+        String spanId = span.getSpanId();
+        if (!isEncodableTraceId(traceId) || !isEncodableSpanId(spanId)) {
+            return null;
+        }
+        String parentSpanId = span.getParentSpanId();
+        boolean withParent = parentSpanId != null && isEncodableSpanId(parentSpanId);
+        int traceLength = traceId.length() == 32 ? 32 : 16;
+        char[] chars = new char[traceLength + 19 + (withParent ? 17 : 0)];
+        if (traceLength == 32) {
+            traceId.getChars(0, 32, chars, 0);
+        } else {
+            writeHex(Long.parseUnsignedLong(traceId), chars, 0);
+        }
+        int pos = traceLength;
+        chars[pos++] = '-';
+        writeSpanId(spanId, chars, pos);
+        pos += 16;
+        chars[pos++] = '-';
+        chars[pos++] = span.isSampled() ? '1' : '0';
+        if (withParent) {
+            chars[pos++] = '-';
+            writeSpanId(parentSpanId, chars, pos);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 解析 traceparent 头值
+     *
+     * @return 快照，格式不合法时返回null
+     */
+    public static TraceSnapshot parseTraceparent(CharSequence value, String appName) {
+        return parseTraceparent(value, null, value.length(), appName);
+    }
+
+    /**
+     * 直接从头值字节解析 traceparent，不创建中间字符串
+     *
+     * @return 快照，格式不合法时返回null
+     */
+    public static TraceSnapshot parseTraceparent(byte[] value, String appName) {
+        return parseTraceparent(null, value, value.length, appName);
+    }
+
+    private static TraceSnapshot parseTraceparent(CharSequence s, byte[] b, int length, String appName) {
+        if (length < TRACEPARENT_LENGTH || !isHex(s, b, 0, 2)) {
+            return null;
+        }
+        int version = (int) parseHex(s, b, 0, 2);
+        // 版本ff非法；版本00长度固定，更高版本允许在末尾追加字段
+        if (version == 0xff || (version == 0 && length != TRACEPARENT_LENGTH)
+                || (length > TRACEPARENT_LENGTH && charAt(s, b, TRACEPARENT_LENGTH) != '-')) {
+            return null;
+        }
+        if (charAt(s, b, 2) != '-' || charAt(s, b, 35) != '-' || charAt(s, b, 52) != '-'
+                || !isHex(s, b, 3, 32) || !isHex(s, b, 36, 16) || !isHex(s, b, 53, 2)) {
+            return null;
+        }
+        long traceHigh = parseHex(s, b, 3, 16);
+        long traceLow = parseHex(s, b, 19, 16);
+        long spanId = parseHex(s, b, 36, 16);
+        if ((traceHigh == 0L && traceLow == 0L) || spanId == 0L) {
+            return null;
+        }
+        boolean sampled = (parseHex(s, b, 53, 2) & 0x01) != 0;
+        String traceId = traceHigh == 0L ? Long.toUnsignedString(traceLow) : substring(s, b, 3, 32);
+        return new TraceSnapshot(traceId, substring(s, b, 36, 16), null, appName, sampled);
+    }
+
+    /**
+     * 解析 b3 单头格式的头值
+     *
+     * @return 快照，格式不合法或只有采样标记时返回null
+     */
+    public static TraceSnapshot parseB3(CharSequence value, String appName) {
+        return parseB3(value, null, value.length(), appName);
+    }
+
+    /**
+     * 直接从头值字节解析 b3 单头格式，不创建中间字符串
+     *
+     * @return 快照，格式不合法或只有采样标记时返回null
+     */
+    public static TraceSnapshot parseB3(byte[] value, String appName) {
+        return parseB3(null, value, value.length, appName);
+    }
+
+    private static TraceSnapshot parseB3(CharSequence s, byte[] b, int length, String appName) {
+        int traceLength;
+        if (length >= 33 && charAt(s, b, 16) == '-') {
+            traceLength = 16;
+        } else if (length >= 49 && charAt(s, b, 32) == '-') {
+            traceLength = 32;
+        } else {
+            return null;
+        }
+        int spanStart = traceLength + 1;
+        int spanEnd = spanStart + 16;
+        if (!isHex(s, b, 0, traceLength) || !isHex(s, b, spanStart, 16)) {
+            return null;
+        }
+        boolean sampled = true;
+        String parentSpanId = null;
+        if (length > spanEnd) {
+            // -{采样标记}[-{parentSpanId}]
+            if (charAt(s, b, spanEnd) != '-' || length < spanEnd + 2) {
+                return null;
+            }
+            char flag = charAt(s, b, spanEnd + 1);
+            if (flag == '0') {
+                sampled = false;
+            } else if (flag != '1' && flag != 'd') {
+                return null;
+            }
+            int parentStart = spanEnd + 3;
+            if (length > spanEnd + 2) {
+                if (length != parentStart + 16 || charAt(s, b, spanEnd + 2) != '-' || !isHex(s, b, parentStart, 16)) {
+                    return null;
+                }
+                parentSpanId = substring(s, b, parentStart, 16);
+            }
+        }
+        if (parseHex(s, b, spanStart, 16) == 0L) {
+            return null;
+        }
+        String traceId;
+        if (traceLength == 16) {
+            long trace = parseHex(s, b, 0, 16);
+            if (trace == 0L) {
+                return null;
+            }
+            traceId = Long.toUnsignedString(trace);
+        } else {
+            long traceHigh = parseHex(s, b, 0, 16);
+            long traceLow = parseHex(s, b, 16, 16);
+            if (traceHigh == 0L && traceLow == 0L) {
+                return null;
+            }
+            traceId = traceHigh == 0L ? Long.toUnsignedString(traceLow) : substring(s, b, 0, 32);
+        }
+        return new TraceSnapshot(traceId, substring(s, b, spanStart, 16), parentSpanId, appName, sampled);
+    }
+
+    /**
+     * 十进制的64位无符号整数（本组件生成的traceId）或32位小写十六进制
+     */
+    private static boolean isEncodableTraceId(String traceId) {
+        int length = traceId.length();
+        if (length == 32) {
+            return isLowerHex(traceId) && !isAllZero(traceId);
+        }
+        return isUnsignedDecimal(traceId) && !isAllZero(traceId);
+    }
+
+    /**
+     * 非零的16位小写十六进制；十进制的SpanId编码后接收方无法还原，不视为可编码
+     */
+    private static boolean isEncodableSpanId(String spanId) {
+        return spanId.length() == 16 && isLowerHex(spanId) && !isAllZero(spanId);
+    }
+
+    private static void writeSpanId(String spanId, char[] chars, int offset) {
+        spanId.getChars(0, 16, chars, offset);
+    }
+
+    private static boolean isUnsignedDecimal(String value) {
+        int length = value.length();
+        if (length == 0 || length > 20) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        // 20位时可能超出64位
+        return length < 20 || value.compareTo("18446744073709551615") <= 0;
+    }
+
+    private static boolean isLowerHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (hexValue(value.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAllZero(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeHex(long value, char[] chars, int offset) {
+        for (int i = offset + 15; i >= offset; i--) {
+            chars[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static char charAt(CharSequence s, byte[] b, int index) {
+        return b != null ? (char) (b[index] & 0xff) : s.charAt(index);
+    }
+
+    private static boolean isHex(CharSequence s, byte[] b, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (hexValue(charAt(s, b, i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解析不超过16位的十六进制，调用前已校验字符合法
+     */
+    private static long parseHex(CharSequence s, byte[] b, int offset, int length) {
+        long value = 0L;
+        for (int i = offset; i < offset + length; i++) {
+            value = (value << 4) | hexValue(charAt(s, b, i));
+        }
+        return value;
+    }
+
+    /**
+     * 小写十六进制字符的值，其他字符返回-1（W3C规范要求小写）
+     */
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    private static String substring(CharSequence s, byte[] b, int offset, int length) {
+        if (b != null) {
+            return new String(b, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        return s.subSequence(offset, offset + length).toString();
+    }
+
+    /**
+     * 编码结果，字段均为final，可在线程间安全共享
+     */
+    static final class Encoded {
+        final String value;
+        final byte[] bytes;
+
+        private Encoded(String value) {
+            this.value = value;
+            this.bytes = value != null ? value.getBytes(StandardCharsets.US_ASCII) : null;
+        }
+
+        static Encoded of(String value) {
+            return value != null ? new Encoded(value) : UNSUPPORTED;
+        }
+    }
+}
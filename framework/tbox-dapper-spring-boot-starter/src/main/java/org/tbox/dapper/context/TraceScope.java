@@ -0,0 +1,37 @@
+package org.tbox.dapper.context;
+
+/**
+ * 追踪上下文激活作用域
+ * 配合try-with-resources使用，关闭时恢复激活前的上下文，激活前没有上下文则清除
+ */
+public final class TraceScope implements AutoCloseable {
+
+    /**
+     * 无需恢复的空作用域
+     */
+    static final TraceScope NOOP = new TraceScope(null, true);
+
+    private final TraceContext previous;
+    private final boolean noop;
+
+    TraceScope(TraceContext previous) {
+        this(previous, false);
+    }
+
+    private TraceScope(TraceContext previous, boolean noop) {
+        this.previous = previous;
+        this.noop = noop;
+    }
+
+    @Override
+    public void close() {
+        if (noop) {
+            return;
+        }
+        if (previous != null) {
+            TraceContext.setCurrentContext(previous);
+        } else {
+            TraceContext.removeContext();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.tbox.dapper.context;
+
+import org.tbox.dapper.span.SpanTimings;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 追踪上下文的快照，用于跨线程传递
+ * 在提交任务时捕获一次，执行时通过 {@link #activate()} 在工作线程中恢复，
+ * 同一上下文多次捕获得到同一实例，大量任务扇出时不会为每个任务分配Map。
+ * ID和采样标记不可变；快照还与捕获它的上下文共享下游调用耗时汇总和子Span计数器，并延迟缓存传递格式的编码结果
+ *
+ * <pre>
+ * TraceSnapshot snapshot = TraceSnapshot.capture();
+ * executor.execute(() -&gt; {
+ *     try (TraceScope ignored = snapshot.activate()) {
+ *         doWork();
+ *     }
+ * });
+ * </pre>
+ */
+public final class TraceSnapshot {
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String appName;
+    private final boolean sampled;
+
+    // 所属追踪的下游调用耗时汇总，与捕获该快照的上下文共享，来自上游的快照为null
+    private final SpanTimings timings;
+    // 紧凑传递格式的编码缓存，由TracePropagation首次编码时写入；Encoded字段均为final，并发编码只会重复计算
+    private TracePropagation.Encoded w3c;
+    private TracePropagation.Encoded b3;
+    // 子Span计数器，捕获该快照的上下文和由它激活的所有上下文共享，DOTTED格式下兄弟Span ID不会重复
+    private volatile int childCounter;
+
+    private static final AtomicIntegerFieldUpdater<TraceSnapshot> CHILD_COUNTER =
+            AtomicIntegerFieldUpdater.newUpdater(TraceSnapshot.class, "childCounter");
+
+    TraceSnapshot(String traceId, String spanId, String parentSpanId, String appName) {
+        this(traceId, spanId, parentSpanId, appName, true);
+    }
+
+    TraceSnapshot(String traceId, String spanId, String parentSpanId, String appName, boolean sampled) {
+        this(traceId, spanId, parentSpanId, appName, sampled, null, 0);
+    }
+
+    /**
+     * 捕获本进程的上下文
+     *
+     * @param timings      上下文的下游调用耗时汇总
+     * @param childCounter 上下文已分配的子Span序号，之后由快照继续分配
+     */
+    TraceSnapshot(String traceId, String spanId, String parentSpanId, String appName, boolean sampled,
+                  SpanTimings timings, int childCounter) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.appName = appName;
+        this.sampled = sampled;
+        this.timings = timings;
+        this.childCounter = childCounter;
+    }
+
+    /**
+     * 由传播过来的追踪信息（如消息头）构建快照
+     *
+     * @return 快照，traceId或spanId为空时返回null
+     */
+    public static TraceSnapshot of(String traceId, String spanId, String parentSpanId, String appName) {
+        if (traceId == null || traceId.isEmpty() || spanId == null || spanId.isEmpty()) {
+            return null;
+        }
+        return new TraceSnapshot(traceId, spanId,
+                parentSpanId == null || parentSpanId.isEmpty() ? null : parentSpanId, appName);
+    }
+
+    /**
+     * 捕获当前线程的追踪快照
+     *
+     * @return 快照，当前线程没有追踪上下文时返回null
+     */
+    public static TraceSnapshot capture() {
+        TraceContext current = TraceContext.getCurrentContext();
+        return current != null ? current.snapshot() : null;
+    }
+
+    /**
+     * 在当前线程激活快照，关闭返回的作用域时恢复激活前的上下文（而不是清空）
+     * 如果当前线程已经处于该快照对应的上下文中（如CallerRunsPolicy），则不做任何修改
+     */
+    public TraceScope activate() {
+        TraceContext previous = TraceContext.getCurrentContext();
+        if (previous != null && previous.hasSnapshot(this)) {
+            return TraceScope.NOOP;
+        }
+        TraceContext.activateSnapshot(this);
+        return new TraceScope(previous);
+    }
+
+    /**
+     * 分配下一个子Span序号
+     */
+    int nextChildIndex() {
+        return CHILD_COUNTER.incrementAndGet(this);
+    }
+
+    SpanTimings getTimings() {
+        return timings;
+    }
+
+    TracePropagation.Encoded getW3c() {
+        return w3c;
+    }
+
+    void setW3c(TracePropagation.Encoded w3c) {
+        this.w3c = w3c;
+    }
+
+    TracePropagation.Encoded getB3() {
+        return b3;
+    }
+
+    void setB3(TracePropagation.Encoded b3) {
+        this.b3 = b3;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getAppName() {
+        return appName;
+    }
+
+    /**
+     * 上游的采样标记，多头格式传递的追踪默认采样
+     */
+    public boolean isSampled() {
+        return sampled;
+    }
+}
@@ -117,7 +117,7 @@ public final class TracerConstants {
 
     
     /**
-     * 持续时间属性，记录操作执行的时长（毫秒）
+     * 持续时间属性，记录操作执行的时长（毫秒，保留3位小数）
      */
     public static final String DURATION = "duration";
     
@@ -0,0 +1,96 @@
+package org.tbox.dapper.governor;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 追踪开销降级开关
+ * 拦截器、切面等热点路径只读取一个volatile级别；级别由 {@link TracingGovernorMonitor} 在后台线程定期计算后写入
+ */
+public final class TracingGovernor {
+
+    private static volatile TracingLevel level = TracingLevel.FULL;
+    private static volatile double reducedSampleRate = 0.1D;
+    // 只有配置了每秒请求数上限时才计数
+    private static volatile boolean countRequests;
+    private static final LongAdder REQUESTS = new LongAdder();
+
+    private TracingGovernor() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * 当前追踪级别
+     */
+    public static TracingLevel level() {
+        return level;
+    }
+
+    /**
+     * 是否输出出入参日志
+     */
+    public static boolean isPayloadEnabled() {
+        return level == TracingLevel.FULL;
+    }
+
+    /**
+     * 是否记录请求属性、追踪记录和调试日志缓冲
+     */
+    public static boolean isRecordingEnabled() {
+        return level != TracingLevel.IDS_ONLY;
+    }
+
+    /**
+     * 上游传入的采样标记是否保留，只保留ID时一律不采样
+     */
+    public static boolean isSamplingAllowed() {
+        return level != TracingLevel.IDS_ONLY;
+    }
+
+    /**
+     * 新开启的追踪是否采样
+     */
+    public static boolean sampleNewTrace() {
+        TracingLevel current = level;
+        if (current.ordinal() < TracingLevel.REDUCED_SAMPLING.ordinal()) {
+            return true;
+        }
+        return current == TracingLevel.REDUCED_SAMPLING
+                && ThreadLocalRandom.current().nextDouble() < reducedSampleRate;
+    }
+
+    /**
+     * 请求入口计数，用于计算每秒请求数
+     */
+    public static void recordRequest() {
+        if (countRequests) {
+            REQUESTS.increment();
+        }
+    }
+
+    /**
+     * 取出并清零请求计数
+     */
+    static long drainRequests() {
+        return REQUESTS.sumThenReset();
+    }
+
+    static void setLevel(TracingLevel newLevel) {
+        level = newLevel;
+    }
+
+    static void configure(double sampleRate, boolean requestCounting) {
+        reducedSampleRate = Math.max(0D, Math.min(1D, sampleRate));
+        countRequests = requestCounting;
+        REQUESTS.reset();
+    }
+
+    /**
+     * 恢复为完整追踪并停止计数
+     */
+    static void reset() {
+        level = TracingLevel.FULL;
+        countRequests = false;
+        REQUESTS.reset();
+    }
+}
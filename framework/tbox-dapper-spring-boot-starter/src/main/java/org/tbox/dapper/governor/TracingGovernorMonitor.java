@@ -0,0 +1,190 @@
+package org.tbox.dapper.governor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.logback.LogbackQueueSupport;
+import org.tbox.dapper.web.payload.AsyncPayloadLogger;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 追踪开销降级检查
+ * 使用单个守护线程定期采集每秒请求数、日志队列使用率以及（可选）GC耗时占比和进程CPU使用率，
+ * 以各指标与上限之比的最大值作为负载：连续 degrade-checks 次达到1时降一级，
+ * 连续 recover-checks 次低于 recover-ratio 时恢复一级，介于两者之间时保持不变。
+ * 每次级别变化输出一条日志并发布 {@link TracingLevelChangedEvent}
+ */
+public class TracingGovernorMonitor implements InitializingBean, DisposableBean, ApplicationEventPublisherAware {
+
+    private static final Logger log = LoggerFactory.getLogger(TracingGovernorMonitor.class);
+
+    private final TracerProperties.GovernorConfig config;
+    private final AsyncPayloadLogger payloadLogger;
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    private ApplicationEventPublisher publisher;
+    private ScheduledExecutorService scheduler;
+
+    // 以下字段只由检查线程访问
+    private long lastCheckNanos;
+    private long lastGcMillis;
+    private int highChecks;
+    private int lowChecks;
+    private double requestsPerSecond;
+    private double logQueueUsage;
+    private double gcTimeRatio;
+    private double cpuLoad;
+
+    /**
+     * @param config        降级配置
+     * @param payloadLogger 异步出入参日志，未开启时为null
+     */
+    public TracingGovernorMonitor(TracerProperties.GovernorConfig config, AsyncPayloadLogger payloadLogger) {
+        this.config = config;
+        this.payloadLogger = payloadLogger;
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        TracingGovernor.configure(config.getReducedSampleRate(), config.getMaxRequestsPerSecond() > 0);
+        lastCheckNanos = System.nanoTime();
+        lastGcMillis = totalGcMillis();
+        long interval = Math.max(config.getCheckIntervalMillis(), 100L);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tbox-tracing-governor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 立即检查一次
+     */
+    public void check() {
+        try {
+            sample();
+            TracingLevel current = TracingGovernor.level();
+            TracingLevel next = evaluate(current, pressure());
+            if (next != current) {
+                changeLevel(current, next);
+            }
+        } catch (Exception e) {
+            log.warn("追踪降级检查失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 采集各项指标
+     */
+    private void sample() {
+        long now = System.nanoTime();
+        double elapsedMillis = Math.max((now - lastCheckNanos) / 1_000_000D, 1D);
+        lastCheckNanos = now;
+
+        requestsPerSecond = TracingGovernor.drainRequests() * 1000D / elapsedMillis;
+
+        double queueUsage = LogbackQueueSupport.maxAsyncQueueUsage();
+        if (payloadLogger != null) {
+            queueUsage = Math.max(queueUsage, payloadLogger.getQueueUsage());
+        }
+        logQueueUsage = queueUsage;
+
+        if (config.getMaxGcTimeRatio() > 0) {
+            long gcMillis = totalGcMillis();
+            gcTimeRatio = (gcMillis - lastGcMillis) / elapsedMillis;
+            lastGcMillis = gcMillis;
+        }
+        if (config.getMaxCpuLoad() > 0 && os instanceof com.sun.management.OperatingSystemMXBean) {
+            cpuLoad = Math.max(((com.sun.management.OperatingSystemMXBean) os).getProcessCpuLoad(), 0D);
+        }
+    }
+
+    /**
+     * 负载：各指标与上限之比的最大值，未配置上限的指标不参与
+     */
+    private double pressure() {
+        double pressure = ratio(requestsPerSecond, config.getMaxRequestsPerSecond());
+        pressure = Math.max(pressure, ratio(logQueueUsage, config.getMaxLogQueueUsage()));
+        pressure = Math.max(pressure, ratio(gcTimeRatio, config.getMaxGcTimeRatio()));
+        return Math.max(pressure, ratio(cpuLoad, config.getMaxCpuLoad()));
+    }
+
+    private static double ratio(double value, double max) {
+        return max > 0 ? value / max : 0D;
+    }
+
+    /**
+     * 根据负载计算下一个级别，每次最多变化一级
+     */
+    TracingLevel evaluate(TracingLevel current, double pressure) {
+        if (pressure >= 1D) {
+            lowChecks = 0;
+            if (++highChecks >= Math.max(config.getDegradeChecks(), 1)) {
+                highChecks = 0;
+                return current.degrade();
+            }
+        } else if (pressure < config.getRecoverRatio()) {
+            highChecks = 0;
+            if (++lowChecks >= Math.max(config.getRecoverChecks(), 1)) {
+                lowChecks = 0;
+                return current.recover();
+            }
+        } else {
+            highChecks = 0;
+            lowChecks = 0;
+        }
+        return current;
+    }
+
+    private void changeLevel(TracingLevel previous, TracingLevel next) {
+        TracingGovernor.setLevel(next);
+        String reason = String.format(Locale.ROOT,
+                "requestsPerSecond=%.1f, logQueueUsage=%.2f, gcTimeRatio=%.2f, cpuLoad=%.2f",
+                requestsPerSecond, logQueueUsage, gcTimeRatio, cpuLoad);
+        if (next.ordinal() > previous.ordinal()) {
+            log.warn("追踪降级: {} -> {} ({})", previous, next, reason);
+        } else {
+            log.info("追踪恢复: {} -> {} ({})", previous, next, reason);
+        }
+        if (publisher != null) {
+            publisher.publishEvent(new TracingLevelChangedEvent(this, previous, next, reason));
+        }
+    }
+
+    private long totalGcMillis() {
+        long total = 0L;
+        for (GarbageCollectorMXBean collector : collectors) {
+            long time = collector.getCollectionTime();
+            if (time > 0) {
+                total += time;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        TracingGovernor.reset();
+    }
+}
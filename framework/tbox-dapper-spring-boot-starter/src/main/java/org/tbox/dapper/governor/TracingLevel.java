@@ -0,0 +1,41 @@
+package org.tbox.dapper.governor;
+
+/**
+ * 追踪级别，由 {@link TracingGovernor} 根据系统负载逐级调整，级别越高开销越小
+ */
+public enum TracingLevel {
+
+    /**
+     * 完整追踪：出入参日志、子Span、追踪记录全部开启
+     */
+    FULL,
+
+    /**
+     * 关闭出入参日志，其余不变
+     */
+    NO_PAYLOAD,
+
+    /**
+     * 关闭出入参日志，新追踪按降级采样率采样，未采样的请求不记录子Span
+     */
+    REDUCED_SAMPLING,
+
+    /**
+     * 只在MDC中保留traceId/spanId：不采样、不记录请求属性、追踪记录和调试日志缓冲
+     */
+    IDS_ONLY;
+
+    /**
+     * 下一个降级级别，已是最低级别时返回自身
+     */
+    TracingLevel degrade() {
+        return this == IDS_ONLY ? this : values()[ordinal() + 1];
+    }
+
+    /**
+     * 上一个恢复级别，已是完整追踪时返回自身
+     */
+    TracingLevel recover() {
+        return this == FULL ? this : values()[ordinal() - 1];
+    }
+}
@@ -0,0 +1,47 @@
+package org.tbox.dapper.governor;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 追踪级别变化事件，每次降级或恢复发布一次
+ */
+public class TracingLevelChangedEvent extends ApplicationEvent {
+
+    private final TracingLevel previousLevel;
+    private final TracingLevel level;
+    private final String reason;
+
+    public TracingLevelChangedEvent(Object source, TracingLevel previousLevel, TracingLevel level, String reason) {
+        super(source);
+        this.previousLevel = previousLevel;
+        this.level = level;
+        this.reason = reason;
+    }
+
+    public TracingLevel getPreviousLevel() {
+        return previousLevel;
+    }
+
+    public TracingLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * 是否为降级
+     */
+    public boolean isDegraded() {
+        return level.ordinal() > previousLevel.ordinal();
+    }
+
+    /**
+     * 触发变化时各指标的取值，如 logQueueUsage=0.93
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "TracingLevelChangedEvent{" + previousLevel + " -> " + level + ", " + reason + '}';
+    }
+}
@@ -0,0 +1,130 @@
+package org.tbox.dapper.jdbc;
+
+import org.tbox.dapper.span.ClientSpan;
+import org.tbox.dapper.span.SpanComponent;
+
+/**
+ * 一次语句执行的耗时与行数记录
+ * 执行时间为execute调用本身，读取时间为ResultSet#next累计耗时（不含业务处理结果的时间），
+ * 查询在结果集关闭（或语句关闭、再次执行）时结束，更新在取得影响行数时结束。
+ * 只在执行语句的线程内使用
+ */
+final class SqlExecution {
+
+    private final SqlFingerprint fingerprint;
+    private final ClientSpan span;
+    private final long startNanos;
+    private long executeNanos = -1;
+    private long fetchNanos;
+    private long rows = -1;
+    private boolean error;
+    private boolean finished;
+
+    private SqlExecution(SqlFingerprint fingerprint, ClientSpan span) {
+        this.fingerprint = fingerprint;
+        this.span = span;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * 开始一次执行，当前线程需要记录Span时同时开始客户端Span
+     */
+    static SqlExecution start(SqlFingerprint fingerprint) {
+        return new SqlExecution(fingerprint,
+                ClientSpan.start(SpanComponent.DB, fingerprint.getOperation(), fingerprint.getValue()));
+    }
+
+    /**
+     * execute调用返回
+     */
+    void executed() {
+        if (executeNanos < 0) {
+            executeNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    /**
+     * 更新类语句取得影响行数，结束本次执行
+     */
+    void updated(long count) {
+        executed();
+        rows = count;
+        finish();
+    }
+
+    /**
+     * 批量执行返回，影响行数为各条之和（驱动返回SUCCESS_NO_INFO等负数时不计）
+     */
+    void batched(int[] counts) {
+        long total = 0;
+        if (counts != null) {
+            for (int count : counts) {
+                total += Math.max(0, count);
+            }
+        }
+        updated(total);
+    }
+
+    void batched(long[] counts) {
+        long total = 0;
+        if (counts != null) {
+            for (long count : counts) {
+                total += Math.max(0L, count);
+            }
+        }
+        updated(total);
+    }
+
+    /**
+     * 读取一行结果
+     *
+     * @param nanos  本次next的耗时
+     * @param hasRow 是否读到一行
+     */
+    void fetched(long nanos, boolean hasRow) {
+        fetchNanos += nanos;
+        if (rows < 0) {
+            rows = 0;
+        }
+        if (hasRow) {
+            rows++;
+        }
+    }
+
+    /**
+     * 执行失败，结束本次执行
+     */
+    <E extends Throwable> E failed(E e) {
+        executed();
+        error = true;
+        if (span != null) {
+            span.setError(e);
+        }
+        finish();
+        return e;
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * 结束本次执行：记录指纹统计并结束客户端Span，重复调用无效
+     */
+    void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        executed();
+        SqlStatementStats.of(fingerprint).record(executeNanos, fetchNanos, rows, error);
+        if (span != null) {
+            if (rows >= 0) {
+                span.setTag("rows", String.valueOf(rows));
+            }
+            span.setTag("execute.us", String.valueOf(executeNanos / 1000));
+            span.setTag("fetch.us", String.valueOf(fetchNanos / 1000));
+            span.finish(executeNanos + fetchNanos);
+        }
+    }
+}
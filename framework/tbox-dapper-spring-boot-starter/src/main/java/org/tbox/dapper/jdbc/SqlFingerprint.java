@@ -0,0 +1,250 @@
+package org.tbox.dapper.jdbc;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL指纹：去掉字面量和格式差异后的语句，同一条语句的不同参数得到同一个指纹
+ * <ul>
+ *     <li>字符串和数字字面量替换为 ?，注释去掉，连续空白合并为一个空格</li>
+ *     <li>只含占位符的括号合并为 (?)，如 IN (?, ?, ?) 与批量 VALUES (?, ?), (?, ?) 不因参数个数产生不同指纹</li>
+ *     <li>超过 {@link #MAX_LENGTH} 的部分截断</li>
+ * </ul>
+ * 预编译语句（MyBatis等）的SQL文本种类有限，按原始SQL缓存计算结果，缓存满后不再缓存
+ */
+public final class SqlFingerprint {
+
+    /**
+     * 指纹最大长度
+     */
+    static final int MAX_LENGTH = 512;
+
+    private static final int MAX_CACHED = 2048;
+
+    private static final Map<String, SqlFingerprint> CACHE = new ConcurrentHashMap<>();
+
+    private final String value;
+    private final String operation;
+
+    private SqlFingerprint(String value, String operation) {
+        this.value = value;
+        this.operation = operation;
+    }
+
+    /**
+     * 获取SQL的指纹
+     */
+    public static SqlFingerprint of(String sql) {
+        if (sql == null) {
+            return new SqlFingerprint("", "UNKNOWN");
+        }
+        SqlFingerprint fingerprint = CACHE.get(sql);
+        if (fingerprint == null) {
+            String value = normalize(sql);
+            fingerprint = new SqlFingerprint(value, operationOf(value));
+            if (CACHE.size() < MAX_CACHED) {
+                CACHE.put(sql, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 指纹文本
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 语句类型（第一个关键字大写，如 SELECT / INSERT）
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    static String normalize(String sql) {
+        int length = sql.length();
+        StringBuilder out = new StringBuilder(Math.min(length, MAX_LENGTH));
+        // 当前括号在输出中的起始位置，-1表示括号内已出现占位符以外的内容
+        int[] groupStarts = new int[8];
+        int depth = 0;
+        int i = 0;
+        while (i < length && out.length() < MAX_LENGTH) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipQuoted(sql, i);
+                appendPlaceholder(out);
+                continue;
+            }
+            if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+                appendSpace(out);
+                continue;
+            }
+            if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                appendSpace(out);
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                appendSpace(out);
+                i++;
+                continue;
+            }
+            if (isNumberStart(sql, i)) {
+                i = skipNumber(sql, i);
+                appendPlaceholder(out);
+                continue;
+            }
+            if (c == '(') {
+                if (depth < groupStarts.length) {
+                    groupStarts[depth] = out.length();
+                }
+                depth++;
+                out.append(c);
+                i++;
+                continue;
+            }
+            if (c == ')' && depth > 0) {
+                depth--;
+                out.append(c);
+                if (depth < groupStarts.length) {
+                    collapseGroup(out, groupStarts[depth]);
+                }
+                i++;
+                continue;
+            }
+            out.append(c);
+            i++;
+        }
+        int end = out.length();
+        while (end > 0 && out.charAt(end - 1) == ' ') {
+            end--;
+        }
+        int start = 0;
+        while (start < end && out.charAt(start) == ' ') {
+            start++;
+        }
+        return out.substring(start, Math.min(end, start + MAX_LENGTH));
+    }
+
+    /**
+     * 括号内只有占位符、逗号和空格且至少有一个占位符时合并为 (?)，并与紧邻的前一个 (?) 组合并（批量 VALUES）；
+     * 空括号（如 NOW()）保持不变
+     */
+    private static void collapseGroup(StringBuilder out, int start) {
+        int end = out.length() - 1;
+        boolean placeholder = false;
+        for (int i = start + 1; i < end; i++) {
+            char c = out.charAt(i);
+            if (c == '?') {
+                placeholder = true;
+            } else if (c != ',' && c != ' ') {
+                return;
+            }
+        }
+        if (!placeholder) {
+            return;
+        }
+        out.setLength(start);
+        // 前面是 "(?), " 或 "(?)," 时去掉重复的组
+        int prev = start;
+        while (prev > 0 && out.charAt(prev - 1) == ' ') {
+            prev--;
+        }
+        if (prev > 0 && out.charAt(prev - 1) == ',') {
+            int before = prev - 1;
+            while (before > 0 && out.charAt(before - 1) == ' ') {
+                before--;
+            }
+            if (before >= 3 && out.charAt(before - 1) == ')' && out.charAt(before - 2) == '?'
+                    && out.charAt(before - 3) == '(') {
+                out.setLength(before);
+                return;
+            }
+        }
+        out.append("(?)");
+    }
+
+    private static void appendSpace(StringBuilder out) {
+        if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+            out.append(' ');
+        }
+    }
+
+    private static void appendPlaceholder(StringBuilder out) {
+        out.append('?');
+    }
+
+    private static int skipQuoted(String sql, int start) {
+        int i = start + 1;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '\'') {
+                if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    /**
+     * 数字字面量：数字开头，且不是标识符的一部分（如 t1、col_2）
+     */
+    private static boolean isNumberStart(String sql, int i) {
+        char c = sql.charAt(i);
+        if (c < '0' || c > '9') {
+            return false;
+        }
+        if (i == 0) {
+            return true;
+        }
+        char prev = sql.charAt(i - 1);
+        return !Character.isLetterOrDigit(prev) && prev != '_' && prev != '$' && prev != '.' && prev != '`';
+    }
+
+    private static int skipNumber(String sql, int i) {
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '.') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static String operationOf(String value) {
+        int i = 0;
+        int length = value.length();
+        while (i < length && !Character.isLetter(value.charAt(i))) {
+            i++;
+        }
+        int start = i;
+        while (i < length && Character.isLetter(value.charAt(i))) {
+            i++;
+        }
+        return start < i ? value.substring(start, i).toUpperCase(Locale.ROOT) : "UNKNOWN";
+    }
+}
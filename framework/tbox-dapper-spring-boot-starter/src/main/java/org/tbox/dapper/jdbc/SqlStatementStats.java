@@ -0,0 +1,161 @@
+package org.tbox.dapper.jdbc;
+
+import org.tbox.dapper.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按SQL指纹汇总的执行统计
+ * 登记的指纹数量有上限（默认500），超出后新指纹的执行计入 {@link #OTHER}，不会因拼接SQL等原因无限增长。
+ * 执行路径上只有直方图记录和LongAdder累加，不加锁。
+ * 只统计采样请求中的语句：{@link TracingDataSource} 为未采样的请求返回原始连接，次数约为实际执行次数乘以采样率
+ */
+public final class SqlStatementStats {
+
+    /**
+     * 超出上限后的新指纹统一计入此项
+     */
+    public static final String OTHER = "<other>";
+
+    private static final ConcurrentMap<String, SqlStatementStats> REGISTRY = new ConcurrentHashMap<>();
+
+    private static volatile int maxStatements = 500;
+
+    private final String fingerprint;
+    private final String operation;
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder executeNanos = new LongAdder();
+    private final LongAdder fetchNanos = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private SqlStatementStats(String fingerprint, String operation) {
+        this.fingerprint = fingerprint;
+        this.operation = operation;
+    }
+
+    /**
+     * 获取（或创建）指定指纹的统计，数量达到上限时返回 {@link #OTHER}
+     */
+    static SqlStatementStats of(SqlFingerprint fingerprint) {
+        SqlStatementStats stats = REGISTRY.get(fingerprint.getValue());
+        if (stats != null) {
+            return stats;
+        }
+        if (REGISTRY.size() >= maxStatements) {
+            return REGISTRY.computeIfAbsent(OTHER, key -> new SqlStatementStats(OTHER, "UNKNOWN"));
+        }
+        return REGISTRY.computeIfAbsent(fingerprint.getValue(),
+                key -> new SqlStatementStats(key, fingerprint.getOperation()));
+    }
+
+    /**
+     * 查找指定指纹的统计，不存在时返回null
+     */
+    public static SqlStatementStats find(String fingerprint) {
+        return REGISTRY.get(fingerprint);
+    }
+
+    /**
+     * 获取所有已登记的统计
+     */
+    public static Collection<SqlStatementStats> all() {
+        return Collections.unmodifiableCollection(REGISTRY.values());
+    }
+
+    /**
+     * 按累计耗时从高到低取前limit条
+     */
+    public static List<SqlStatementStats> top(int limit) {
+        List<SqlStatementStats> list = new ArrayList<>(REGISTRY.values());
+        list.sort(Comparator.comparingLong(SqlStatementStats::getTotalNanos).reversed());
+        return list.size() > limit ? new ArrayList<>(list.subList(0, limit)) : list;
+    }
+
+    /**
+     * 设置登记的指纹数量上限
+     */
+    public static void setMaxStatements(int max) {
+        maxStatements = Math.max(1, max);
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public static void reset() {
+        REGISTRY.clear();
+    }
+
+    void record(long executeNanos, long fetchNanos, long rows, boolean error) {
+        this.executeNanos.add(executeNanos);
+        this.fetchNanos.add(fetchNanos);
+        if (rows > 0) {
+            this.rows.add(rows);
+        }
+        if (error) {
+            errors.increment();
+        }
+        latency.record(executeNanos + fetchNanos);
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getExecuteNanos() {
+        return executeNanos.sum();
+    }
+
+    public long getFetchNanos() {
+        return fetchNanos.sum();
+    }
+
+    public long getTotalNanos() {
+        return latency.getTotalNanos();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * 汇总信息，耗时单位为毫秒
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("fingerprint", fingerprint);
+        map.put("operation", operation);
+        map.put("count", getCount());
+        map.put("errors", getErrors());
+        map.put("rows", getRows());
+        map.put("executeMs", getExecuteNanos() / 1_000_000L);
+        map.put("fetchMs", getFetchNanos() / 1_000_000L);
+        map.put("latency", latency.snapshot().toMillisMap());
+        return map;
+    }
+}
@@ -0,0 +1,26 @@
+package org.tbox.dapper.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL指纹统计端点：/actuator/tboxsql，按累计耗时从高到低列出
+ */
+@Endpoint(id = "tboxsql")
+public class SqlStatsEndpoint {
+
+    private static final int LIMIT = 100;
+
+    @ReadOperation
+    public List<Map<String, Object>> statements() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SqlStatementStats stats : SqlStatementStats.top(LIMIT)) {
+            result.add(stats.toMap());
+        }
+        return result;
+    }
+}
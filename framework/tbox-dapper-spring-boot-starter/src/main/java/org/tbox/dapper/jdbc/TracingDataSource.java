@@ -0,0 +1,81 @@
+package org.tbox.dapper.jdbc;
+
+import org.tbox.dapper.span.ClientSpan;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+/**
+ * 带追踪的数据源
+ * 获取连接时当前线程没有追踪上下文或未采样，直接返回连接池的原始连接，语句执行不经过任何包装；
+ * 否则返回的连接为每条语句记录客户端Span（SQL指纹、执行/读取耗时和行数），并按指纹汇总到 {@link SqlStatementStats}。
+ * 包装类直接委托，不使用反射
+ */
+public class TracingDataSource implements DataSource {
+
+    private final DataSource delegate;
+
+    public TracingDataSource(DataSource delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 被包装的原始数据源
+     */
+    public DataSource getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(delegate.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(delegate.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return connection != null && ClientSpan.isActive() ? new TracingConnection(connection) : connection;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(delegate) ? iface.cast(delegate) : delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+}
@@ -0,0 +1,27 @@
+package org.tbox.dapper.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * 数据源追踪Bean后处理器
+ * 把DataSource Bean替换为 {@link TracingDataSource}，注入点需声明为 DataSource 接口类型；
+ * 连接池的具体类型可以通过 unwrap 获取（Spring Boot的连接池指标即通过unwrap识别）
+ */
+public class TracingDataSourceBeanPostProcessor implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(TracingDataSourceBeanPostProcessor.class);
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof DataSource && !(bean instanceof TracingDataSource)) {
+            log.debug("JDBC tracing enabled for data source: {}", beanName);
+            return new TracingDataSource((DataSource) bean);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,41 @@
+package org.tbox.dapper.jdbc;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDBC追踪自动配置类
+ * 需要设置 tbox.tracer.jdbc.enabled=true 开启，开启后所有DataSource Bean替换为 {@link TracingDataSource}
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tbox.tracer", name = "enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnClass(name = "javax.sql.DataSource")
+public class TracingJdbcAutoConfiguration {
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "tbox.tracer.jdbc", name = "enabled", havingValue = "true")
+    static class DataSourceTracingConfiguration {
+
+        @Bean
+        public static TracingDataSourceBeanPostProcessor tracingDataSourceBeanPostProcessor() {
+            return new TracingDataSourceBeanPostProcessor();
+        }
+
+        /**
+         * 统计端点，存在spring-boot-actuator时生效
+         */
+        @Configuration
+        @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+        static class SqlStatsEndpointConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public SqlStatsEndpoint sqlStatsEndpoint() {
+                return new SqlStatsEndpoint();
+            }
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package org.tbox.dapper.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ * 带追踪的Statement
+ * 每次执行按SQL指纹记录执行耗时、读取耗时和行数：查询在结果集关闭时结束，
+ * 更新在取得影响行数时结束，未关闭结果集的执行在语句关闭或再次执行时结束
+ *
+ * @param <S> 被包装的语句类型
+ */
+class TracingStatement<S extends Statement> implements Statement {
+
+    protected final S delegate;
+    private final TracingConnection connection;
+    // 尚未结束的执行
+    private SqlExecution current;
+    // 批量执行的指纹，取第一条加入的SQL
+    private SqlFingerprint batchFingerprint;
+
+    TracingStatement(S delegate, TracingConnection connection) {
+        this.delegate = delegate;
+        this.connection = connection;
+    }
+
+    /**
+     * 开始一次执行，结束上一次未结束的执行
+     */
+    final SqlExecution begin(SqlFingerprint fingerprint) {
+        finishCurrent();
+        SqlExecution execution = SqlExecution.start(fingerprint);
+        current = execution;
+        return execution;
+    }
+
+    private void finishCurrent() {
+        SqlExecution execution = current;
+        if (execution != null) {
+            current = null;
+            execution.finish();
+        }
+    }
+
+    /**
+     * 查询返回，包装结果集以记录读取耗时和行数
+     */
+    final ResultSet query(SqlExecution execution, ResultSet resultSet) {
+        execution.executed();
+        return resultSet != null ? new TracingResultSet(resultSet, this, execution) : null;
+    }
+
+    /**
+     * execute返回，没有结果集时等待getUpdateCount取得影响行数
+     */
+    final boolean executed(SqlExecution execution, boolean hasResultSet) {
+        execution.executed();
+        return hasResultSet;
+    }
+
+    final int updated(SqlExecution execution, int count) {
+        execution.updated(count);
+        return count;
+    }
+
+    final long updated(SqlExecution execution, long count) {
+        execution.updated(count);
+        return count;
+    }
+
+    final void setBatchFingerprint(SqlFingerprint fingerprint) {
+        if (batchFingerprint == null) {
+            batchFingerprint = fingerprint;
+        }
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return query(execution, delegate.executeQuery(sql));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return updated(execution, delegate.executeUpdate(sql));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return updated(execution, delegate.executeUpdate(sql, autoGeneratedKeys));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return updated(execution, delegate.executeUpdate(sql, columnIndexes));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return updated(execution, delegate.executeUpdate(sql, columnNames));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return updated(execution, delegate.executeLargeUpdate(sql));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return updated(execution, delegate.executeLargeUpdate(sql, autoGeneratedKeys));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return updated(execution, delegate.executeLargeUpdate(sql, columnIndexes));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return updated(execution, delegate.executeLargeUpdate(sql, columnNames));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return executed(execution, delegate.execute(sql));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return executed(execution, delegate.execute(sql, autoGeneratedKeys));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return executed(execution, delegate.execute(sql, columnIndexes));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        SqlExecution execution = begin(SqlFingerprint.of(sql));
+        try {
+            return executed(execution, delegate.execute(sql, columnNames));
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        }
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        delegate.addBatch(sql);
+        setBatchFingerprint(SqlFingerprint.of(sql));
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        delegate.clearBatch();
+        batchFingerprint = null;
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        SqlExecution execution = begin(batchFingerprint());
+        try {
+            int[] counts = delegate.executeBatch();
+            execution.batched(counts);
+            return counts;
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        } finally {
+            resetBatch();
+        }
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        SqlExecution execution = begin(batchFingerprint());
+        try {
+            long[] counts = delegate.executeLargeBatch();
+            execution.batched(counts);
+            return counts;
+        } catch (SQLException e) {
+            throw execution.failed(e);
+        } catch (RuntimeException e) {
+            throw execution.failed(e);
+        } finally {
+            resetBatch();
+        }
+    }
+
+    SqlFingerprint batchFingerprint() {
+        return batchFingerprint != null ? batchFingerprint : SqlFingerprint.of("BATCH");
+    }
+
+    void resetBatch() {
+        batchFingerprint = null;
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        ResultSet resultSet = delegate.getResultSet();
+        SqlExecution execution = current;
+        if (resultSet == null || execution == null || execution.isFinished()) {
+            return resultSet;
+        }
+        return new TracingResultSet(resultSet, this, execution);
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        int count = delegate.getUpdateCount();
+        SqlExecution execution = current;
+        if (count >= 0 && execution != null) {
+            current = null;
+            execution.updated(count);
+        }
+        return count;
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        long count = delegate.getLargeUpdateCount();
+        SqlExecution execution = current;
+        if (count >= 0 && execution != null) {
+            current = null;
+            execution.updated(count);
+        }
+        return count;
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        finishCurrent();
+        return delegate.getMoreResults();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        finishCurrent();
+        return delegate.getMoreResults(current);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        finishCurrent();
+        delegate.close();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(delegate) ? iface.cast(delegate) : delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+    }
+
+    // 以下方法直接委托
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return delegate.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        delegate.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return delegate.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        delegate.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        delegate.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return delegate.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        delegate.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        delegate.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        delegate.setCursorName(name);
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        delegate.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return delegate.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        delegate.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return delegate.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return delegate.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return delegate.getResultSetType();
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return delegate.getGeneratedKeys();
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return delegate.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        delegate.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return delegate.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        delegate.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return delegate.isCloseOnCompletion();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        delegate.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return delegate.getLargeMaxRows();
+    }
+}
@@ -0,0 +1,62 @@
+package org.tbox.dapper.logback;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AsyncAppenderBase;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+
+/**
+ * Logback异步Appender队列使用情况
+ * 遍历所有Logger上挂载的 {@link AsyncAppenderBase}，只在后台检查时调用
+ */
+public final class LogbackQueueSupport {
+
+    private static final boolean LOGBACK_PRESENT = isLogbackPresent();
+
+    private LogbackQueueSupport() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * 所有异步Appender中最高的队列使用率（0~1），没有Logback或异步Appender时返回0
+     */
+    public static double maxAsyncQueueUsage() {
+        if (!LOGBACK_PRESENT) {
+            return 0D;
+        }
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (!(factory instanceof LoggerContext)) {
+            return 0D;
+        }
+        double max = 0D;
+        for (Logger logger : ((LoggerContext) factory).getLoggerList()) {
+            Iterator<Appender<ILoggingEvent>> appenders = logger.iteratorForAppenders();
+            while (appenders.hasNext()) {
+                Appender<ILoggingEvent> appender = appenders.next();
+                if (appender instanceof AsyncAppenderBase) {
+                    AsyncAppenderBase<?> async = (AsyncAppenderBase<?>) appender;
+                    int capacity = async.getQueueSize();
+                    if (capacity > 0) {
+                        max = Math.max(max, (capacity - async.getRemainingCapacity()) / (double) capacity);
+                    }
+                }
+            }
+        }
+        return max;
+    }
+
+    private static boolean isLogbackPresent() {
+        try {
+            Class.forName("ch.qos.logback.classic.LoggerContext", false,
+                    LogbackQueueSupport.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
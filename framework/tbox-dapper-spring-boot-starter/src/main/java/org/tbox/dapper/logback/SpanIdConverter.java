@@ -0,0 +1,25 @@
+package org.tbox.dapper.logback;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.tbox.dapper.context.TraceContext;
+
+import java.util.Map;
+
+/**
+ * Logback spanId转换器
+ * 与TraceIdConverter相同，优先读取当前线程的TraceContext，其次回退到MDC
+ */
+public class SpanIdConverter extends ClassicConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        TraceContext context = TraceContext.getCurrentContext();
+        if (context != null) {
+            return context.getSpanId();
+        }
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        String spanId = mdc != null ? mdc.get(TraceContext.MDC_SPAN_ID) : null;
+        return spanId != null ? spanId : "";
+    }
+}
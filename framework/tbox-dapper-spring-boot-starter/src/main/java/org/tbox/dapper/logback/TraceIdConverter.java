@@ -0,0 +1,31 @@
+package org.tbox.dapper.logback;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.tbox.dapper.context.TraceContext;
+
+import java.util.Map;
+
+/**
+ * Logback traceId转换器
+ * 直接从当前线程的TraceContext读取traceId，不依赖MDC写入；
+ * 使用异步Appender时转换发生在其他线程，此时回退读取事件中的MDC
+ *
+ * 使用方式：
+ * <pre>
+ * &lt;conversionRule conversionWord="traceId" converterClass="org.tbox.dapper.logback.TraceIdConverter"/&gt;
+ * </pre>
+ */
+public class TraceIdConverter extends ClassicConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        TraceContext context = TraceContext.getCurrentContext();
+        if (context != null) {
+            return context.getTraceId();
+        }
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        String traceId = mdc != null ? mdc.get(TraceContext.MDC_TRACE_ID) : null;
+        return traceId != null ? traceId : "";
+    }
+}
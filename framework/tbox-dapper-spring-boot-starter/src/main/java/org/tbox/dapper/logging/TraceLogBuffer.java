@@ -0,0 +1,292 @@
+package org.tbox.dapper.logging;
+
+import org.tbox.dapper.governor.TracingGovernor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按追踪缓冲的调试日志
+ * 请求（根Span）开始时在当前线程激活环形缓冲，未达到日志级别的DEBUG/TRACE日志只写入缓冲，不格式化、不输出；
+ * 请求正常结束时丢弃，失败或耗时超过阈值时按原顺序交给 {@link Sink} 重放到原有的Appender。
+ * 每个追踪最多缓冲 maxEventsPerTrace 条（写满后覆盖最旧的），所有线程合计最多 maxTotalEvents 条。
+ * 日志参数按引用保存，重放时才格式化，请求中被修改的参数对象输出的是重放时的内容
+ */
+public final class TraceLogBuffer {
+
+    /**
+     * 重放缓冲日志的实现（如Logback）
+     */
+    public interface Sink {
+        /**
+         * 重放一条缓冲的日志，在结束请求的线程上按写入顺序调用
+         */
+        void replay(Event event);
+
+        /**
+         * 重放前调用一次，可输出说明
+         *
+         * @param count   将要重放的条数
+         * @param dropped 因超过上限被覆盖或丢弃的条数
+         */
+        void beforeReplay(int count, long dropped);
+    }
+
+    /**
+     * 缓冲的日志，槽位复用，只在 {@link Sink#replay(Event)} 调用期间有效
+     */
+    public static final class Event {
+        Object logger;
+        Object level;
+        String format;
+        Object[] params;
+        Throwable throwable;
+        long timestamp;
+
+        public Object getLogger() {
+            return logger;
+        }
+
+        public Object getLevel() {
+            return level;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public Object[] getParams() {
+            return params;
+        }
+
+        public Throwable getThrowable() {
+            return throwable;
+        }
+
+        /**
+         * 写入缓冲的时间（毫秒时间戳）
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        void clear() {
+            logger = null;
+            level = null;
+            format = null;
+            params = null;
+            throwable = null;
+        }
+    }
+
+    // 全局额度按块申请，减少原子操作
+    private static final int RESERVE_CHUNK = 16;
+
+    private static final ThreadLocal<TraceLogBuffer> BUFFER = new ThreadLocal<>();
+    private static final AtomicInteger TOTAL = new AtomicInteger();
+    private static final LongAdder FLUSHED = new LongAdder();
+    private static final LongAdder DISCARDED = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+
+    private static volatile Sink sink;
+    private static volatile int maxEventsPerTrace = 256;
+    private static volatile int maxTotalEvents = 65536;
+    private static volatile long slowThresholdMillis = 3000L;
+
+    private Event[] ring;
+    // 已写入的条数，超过容量后继续增长，用于定位最旧的一条
+    private long written;
+    // 当前占用的全局额度
+    private int reserved;
+    private long dropped;
+    private int depth;
+
+    private TraceLogBuffer() {
+    }
+
+    /**
+     * 安装重放实现并启用缓冲
+     *
+     * @param maxEventsPerTrace   每个追踪最多缓冲的条数
+     * @param maxTotalEvents      所有线程合计最多缓冲的条数
+     * @param slowThresholdMillis 请求耗时达到此值时也重放，小于等于0表示只在失败时重放
+     */
+    public static void install(Sink sink, int maxEventsPerTrace, int maxTotalEvents, long slowThresholdMillis) {
+        TraceLogBuffer.maxEventsPerTrace = Math.max(1, maxEventsPerTrace);
+        TraceLogBuffer.maxTotalEvents = Math.max(1, maxTotalEvents);
+        TraceLogBuffer.slowThresholdMillis = slowThresholdMillis;
+        TraceLogBuffer.sink = sink;
+    }
+
+    /**
+     * 停用缓冲，已激活的缓冲在请求结束时丢弃
+     */
+    public static void uninstall(Sink sink) {
+        if (TraceLogBuffer.sink == sink) {
+            TraceLogBuffer.sink = null;
+        }
+    }
+
+    public static boolean isInstalled() {
+        return sink != null;
+    }
+
+    /**
+     * 请求（根Span）开始时调用，在当前线程激活缓冲；嵌套调用只有最外层生效，降级为只保留ID时不激活
+     */
+    public static void begin() {
+        if (sink == null || !TracingGovernor.isRecordingEnabled()) {
+            return;
+        }
+        TraceLogBuffer buffer = BUFFER.get();
+        if (buffer == null) {
+            buffer = new TraceLogBuffer();
+            BUFFER.set(buffer);
+        }
+        buffer.depth++;
+    }
+
+    /**
+     * 请求结束时调用，失败或耗时达到阈值时重放缓冲的日志，否则丢弃
+     *
+     * @param error          请求是否失败
+     * @param durationMillis 请求耗时（毫秒）
+     */
+    public static void end(boolean error, long durationMillis) {
+        TraceLogBuffer buffer = BUFFER.get();
+        if (buffer == null || buffer.depth == 0 || --buffer.depth > 0) {
+            return;
+        }
+        long threshold = slowThresholdMillis;
+        Sink current = sink;
+        if (current != null && (error || (threshold > 0 && durationMillis >= threshold))) {
+            buffer.flush(current);
+        } else {
+            buffer.discard();
+        }
+    }
+
+    /**
+     * 当前线程已激活的缓冲，没有时返回null
+     */
+    public static TraceLogBuffer active() {
+        TraceLogBuffer buffer = BUFFER.get();
+        return buffer != null && buffer.depth > 0 ? buffer : null;
+    }
+
+    /**
+     * 写入一条日志，写满后覆盖最旧的一条，全局额度用尽时同样覆盖本追踪最旧的一条或丢弃
+     */
+    public void record(Object logger, Object level, String format, Object[] params, Throwable throwable) {
+        int capacity = maxEventsPerTrace;
+        if (ring == null || ring.length != capacity) {
+            if (written > 0) {
+                // 运行中调整了容量，从下一个请求开始生效
+                capacity = ring.length;
+            } else {
+                ring = new Event[capacity];
+            }
+        }
+        // 额度用完时按块申请；已开始覆盖后不再申请，保证环形顺序不变
+        if (written == reserved && reserved < capacity && !reserve(capacity) && written == 0) {
+            dropped++;
+            return;
+        }
+        int limit = reserved;
+        if (written >= limit) {
+            dropped++;
+        }
+        int index = (int) (written % limit);
+        Event event = ring[index];
+        if (event == null) {
+            event = new Event();
+            ring[index] = event;
+        }
+        event.logger = logger;
+        event.level = level;
+        event.format = format;
+        event.params = params;
+        event.throwable = throwable;
+        event.timestamp = System.currentTimeMillis();
+        written++;
+    }
+
+    private boolean reserve(int capacity) {
+        int chunk = Math.min(RESERVE_CHUNK, capacity - reserved);
+        if (TOTAL.addAndGet(chunk) > maxTotalEvents) {
+            TOTAL.addAndGet(-chunk);
+            return false;
+        }
+        reserved += chunk;
+        return true;
+    }
+
+    private void flush(Sink current) {
+        int count = (int) Math.min(written, reserved);
+        if (count == 0) {
+            reset();
+            return;
+        }
+        FLUSHED.increment();
+        // 此时缓冲已不处于激活状态，重放期间产生的调试日志不会再写入缓冲
+        try {
+            current.beforeReplay(count, dropped);
+            for (long i = written - count; i < written; i++) {
+                current.replay(ring[(int) (i % reserved)]);
+            }
+        } finally {
+            reset();
+        }
+    }
+
+    private void discard() {
+        if (written > 0) {
+            DISCARDED.increment();
+        }
+        reset();
+    }
+
+    private void reset() {
+        int count = (int) Math.min(written, reserved);
+        for (int i = 0; i < count; i++) {
+            ring[i].clear();
+        }
+        if (dropped > 0) {
+            DROPPED.add(dropped);
+        }
+        if (reserved > 0) {
+            TOTAL.addAndGet(-reserved);
+        }
+        written = 0;
+        reserved = 0;
+        dropped = 0;
+    }
+
+    /**
+     * 当前所有线程缓冲的条数（按申请的额度计）
+     */
+    public static int getBufferedCount() {
+        return TOTAL.get();
+    }
+
+    /**
+     * 重放过缓冲日志的请求数
+     */
+    public static long getFlushedCount() {
+        return FLUSHED.sum();
+    }
+
+    /**
+     * 丢弃缓冲日志的请求数
+     */
+    public static long getDiscardedCount() {
+        return DISCARDED.sum();
+    }
+
+    /**
+     * 因超过上限被覆盖或丢弃的日志条数
+     */
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+}
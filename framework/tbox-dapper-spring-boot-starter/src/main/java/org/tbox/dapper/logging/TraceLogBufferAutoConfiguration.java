@@ -0,0 +1,70 @@
+package org.tbox.dapper.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.tbox.dapper.config.TracerProperties;
+
+/**
+ * 调试日志缓冲自动配置类
+ * 需要设置 tbox.tracer.debug-buffer.enabled=true 开启，目前只支持Logback
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tbox.tracer", name = "enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnClass(name = "ch.qos.logback.classic.LoggerContext")
+public class TraceLogBufferAutoConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(TraceLogBufferAutoConfiguration.class);
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "tbox.tracer.debug-buffer", name = "enabled", havingValue = "true")
+    static class LogbackBufferConfiguration {
+
+        @Bean
+        public TraceLogBufferInstaller traceLogBufferInstaller(TracerProperties properties) {
+            return new TraceLogBufferInstaller(properties.getDebugBuffer());
+        }
+    }
+
+    /**
+     * 应用启动时注册TurboFilter，关闭时移除
+     * 在日志系统初始化之后注册，运行中重新加载日志配置（如scan）会清除TurboFilter
+     */
+    static class TraceLogBufferInstaller implements InitializingBean, DisposableBean {
+
+        private final TracerProperties.DebugBufferConfig config;
+        private TraceLogBufferTurboFilter filter;
+
+        TraceLogBufferInstaller(TracerProperties.DebugBufferConfig config) {
+            this.config = config;
+        }
+
+        @Override
+        public void afterPropertiesSet() {
+            ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+            if (!(factory instanceof LoggerContext)) {
+                log.warn("Debug log buffer requires Logback, current logger factory: {}", factory.getClass().getName());
+                return;
+            }
+            filter = new TraceLogBufferTurboFilter((LoggerContext) factory);
+            filter.install(config.getMaxEventsPerTrace(), config.getMaxTotalEvents(), config.getSlowThresholdMillis(),
+                    config.getLoggerPrefixes());
+            log.debug("Installed debug log buffer: maxEventsPerTrace={}, maxTotalEvents={}",
+                    config.getMaxEventsPerTrace(), config.getMaxTotalEvents());
+        }
+
+        @Override
+        public void destroy() {
+            if (filter != null) {
+                filter.uninstall();
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.tbox.dapper.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+/**
+ * Logback接入 {@link TraceLogBuffer}
+ * 当前线程的缓冲已激活、且日志级别低于Logger的有效级别时，DEBUG/TRACE日志写入缓冲后拒绝，不创建LoggingEvent。
+ * INFO及以上级别、已按原级别输出的日志和未激活缓冲的线程不受影响。
+ * 重放时直接交给原Logger的Appender，输出格式与正常日志相同
+ *
+ * <p>{@code isDebugEnabled()} 等判断只对配置的Logger前缀（如业务包名）返回true，使调用方继续输出到缓冲；
+ * 判断若对所有Logger返回true，框架和第三方库中受判断保护的调试代码（拼接字符串、序列化参数等）都会在请求中执行。
+ * 未配置前缀时判断保持原结果，只缓冲未加判断直接调用的调试日志；配置前缀后只缓冲这些Logger的日志
+ */
+public class TraceLogBufferTurboFilter extends TurboFilter implements TraceLogBuffer.Sink {
+
+    private static final String FQCN = Logger.class.getName();
+
+    private final LoggerContext loggerContext;
+    private final Logger replayLogger;
+    private String[] loggerPrefixes = new String[0];
+
+    public TraceLogBufferTurboFilter(LoggerContext loggerContext) {
+        this.loggerContext = loggerContext;
+        this.replayLogger = loggerContext.getLogger(TraceLogBufferTurboFilter.class);
+        setContext(loggerContext);
+        setName("tboxTraceLogBuffer");
+    }
+
+    /**
+     * 注册到LoggerContext并启用缓冲，缓冲所有Logger未加判断的调试日志
+     */
+    public void install(int maxEventsPerTrace, int maxTotalEvents, long slowThresholdMillis) {
+        install(maxEventsPerTrace, maxTotalEvents, slowThresholdMillis, null);
+    }
+
+    /**
+     * 注册到LoggerContext并启用缓冲
+     *
+     * @param loggerPrefixes 只缓冲这些Logger名称前缀（按包层级匹配）下的日志，为空时缓冲所有Logger未加判断的调试日志
+     */
+    public void install(int maxEventsPerTrace, int maxTotalEvents, long slowThresholdMillis, String[] loggerPrefixes) {
+        this.loggerPrefixes = loggerPrefixes != null ? loggerPrefixes.clone() : new String[0];
+        start();
+        loggerContext.addTurboFilter(this);
+        TraceLogBuffer.install(this, maxEventsPerTrace, maxTotalEvents, slowThresholdMillis);
+    }
+
+    /**
+     * 停用缓冲并从LoggerContext移除
+     */
+    public void uninstall() {
+        TraceLogBuffer.uninstall(this);
+        loggerContext.getTurboFilterList().remove(this);
+        stop();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.levelInt >= Level.INFO_INT) {
+            return FilterReply.NEUTRAL;
+        }
+        TraceLogBuffer buffer = TraceLogBuffer.active();
+        if (buffer == null || level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        // isDebugEnabled()等判断
+        boolean guard = format == null && params == null && t == null;
+        if (loggerPrefixes.length == 0) {
+            if (guard) {
+                return FilterReply.NEUTRAL;
+            }
+        } else if (!matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        } else if (guard) {
+            return FilterReply.ACCEPT;
+        }
+        buffer.record(logger, level, format, params, t);
+        return FilterReply.DENY;
+    }
+
+    /**
+     * Logger名称等于前缀或位于前缀的子包中
+     */
+    private boolean matches(String name) {
+        for (String prefix : loggerPrefixes) {
+            if (name.startsWith(prefix)
+                    && (name.length() == prefix.length() || name.charAt(prefix.length()) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void beforeReplay(int count, long dropped) {
+        LoggingEvent event = new LoggingEvent(FQCN, replayLogger, Level.INFO,
+                "Replaying {} buffered debug log events of failed or slow request, {} dropped",
+                null, new Object[]{count, dropped});
+        replayLogger.callAppenders(event);
+    }
+
+    @Override
+    public void replay(TraceLogBuffer.Event buffered) {
+        Logger logger = (Logger) buffered.getLogger();
+        LoggingEvent event = new LoggingEvent(FQCN, logger, (Level) buffered.getLevel(),
+                buffered.getFormat(), buffered.getThrowable(), buffered.getParams());
+        event.setTimeStamp(buffered.getTimestamp());
+        logger.callAppenders(event);
+    }
+}
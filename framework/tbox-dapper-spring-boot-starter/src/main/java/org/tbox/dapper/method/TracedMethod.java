@@ -0,0 +1,120 @@
+package org.tbox.dapper.method;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.tbox.dapper.annotation.Traced;
+import org.tbox.dapper.span.ClientSpan;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 标注了 {@link Traced} 的方法的Span名称和附加信息提取规则，每个方法只解析一次
+ */
+final class TracedMethod {
+    private static final Logger log = LoggerFactory.getLogger(TracedMethod.class);
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final Class<?> targetClass;
+    private final String name;
+    private final String[] tagNames;
+    private final int[] tagArgs;
+
+    private TracedMethod(Class<?> targetClass, String name, String[] tagNames, int[] tagArgs) {
+        this.targetClass = targetClass;
+        this.name = name;
+        this.tagNames = tagNames;
+        this.tagArgs = tagArgs;
+    }
+
+    /**
+     * 解析方法上（或类上）的 {@link Traced}，方法上的优先
+     */
+    static TracedMethod resolve(Method method, Class<?> targetClass) {
+        Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+        Traced traced = AnnotatedElementUtils.findMergedAnnotation(specific, Traced.class);
+        if (traced == null) {
+            traced = AnnotatedElementUtils.findMergedAnnotation(ClassUtils.getUserClass(targetClass), Traced.class);
+        }
+        String name = traced != null && !traced.value().isEmpty() ? traced.value()
+                : ClassUtils.getUserClass(targetClass).getSimpleName() + "." + method.getName();
+
+        List<String> names = new ArrayList<>();
+        List<Integer> args = new ArrayList<>();
+        if (traced != null && traced.tags().length > 0) {
+            String[] parameterNames = PARAMETER_NAMES.getParameterNames(specific);
+            for (String tag : traced.tags()) {
+                int index = parseTag(tag, parameterNames, specific.getParameterCount());
+                if (index < 0) {
+                    log.warn("Ignoring invalid @Traced tag '{}' on {}", tag, specific);
+                    continue;
+                }
+                names.add(tag.substring(0, tag.indexOf('=')).trim());
+                args.add(index);
+            }
+        }
+        int[] tagArgs = new int[args.size()];
+        for (int i = 0; i < tagArgs.length; i++) {
+            tagArgs[i] = args.get(i);
+        }
+        return new TracedMethod(targetClass, name, names.toArray(new String[0]), tagArgs);
+    }
+
+    /**
+     * 解析"名称=#参数名"或"名称=#p下标"，返回参数下标，无效时返回-1
+     */
+    private static int parseTag(String tag, String[] parameterNames, int parameterCount) {
+        int eq = tag.indexOf('=');
+        if (eq <= 0) {
+            return -1;
+        }
+        String ref = tag.substring(eq + 1).trim();
+        if (!ref.startsWith("#") || ref.length() < 2) {
+            return -1;
+        }
+        ref = ref.substring(1);
+        if (parameterNames != null) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (parameterNames[i].equals(ref)) {
+                    return i;
+                }
+            }
+        }
+        if (ref.charAt(0) == 'p' || ref.charAt(0) == 'a') {
+            try {
+                int index = Integer.parseInt(ref.substring(1));
+                return index >= 0 && index < parameterCount ? index : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * 把参数写入Span附加信息
+     */
+    void applyTags(ClientSpan span, Object[] args) {
+        for (int i = 0; i < tagArgs.length; i++) {
+            int index = tagArgs[i];
+            if (index < args.length && args[index] != null) {
+                span.setTag(tagNames[i], String.valueOf(args[index]));
+            }
+        }
+    }
+}
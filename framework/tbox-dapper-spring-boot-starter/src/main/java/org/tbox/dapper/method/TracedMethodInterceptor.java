@@ -0,0 +1,85 @@
+package org.tbox.dapper.method;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.StaticMethodMatcher;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.core.MethodClassKey;
+import org.springframework.util.ReflectionUtils;
+import org.tbox.dapper.annotation.Traced;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.span.ClientSpan;
+import org.tbox.dapper.span.SpanComponent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link Traced} 方法拦截器
+ * 没有追踪上下文或未采样时只读取一次ThreadLocal后直接调用原方法；
+ * 采样时以 {@link SpanComponent#METHOD} 创建子Span，名称和附加信息提取规则按方法缓存，不在每次调用时拼接字符串；
+ * 方法执行期间该Span为上下文的当前方法Span，方法内的Redis、SQL、HTTP等调用和嵌套的 @Traced 方法以它为父Span，
+ * 不为每次调用创建子上下文，也不改写MDC
+ */
+public class TracedMethodInterceptor implements MethodInterceptor {
+
+    private final ConcurrentMap<Method, TracedMethod> methods = new ConcurrentHashMap<>();
+    // 同一个方法被多个目标类继承时，非首个目标类的解析结果
+    private final ConcurrentMap<MethodClassKey, TracedMethod> inherited = new ConcurrentHashMap<>();
+
+    /**
+     * 匹配标注了 {@link Traced} 的方法，以及标注了 {@link Traced} 的类中除Object方法（包括重写的toString、equals、hashCode）以外的方法
+     */
+    public static Pointcut pointcut() {
+        MethodMatcher notObjectMethod = new StaticMethodMatcher() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return !ReflectionUtils.isObjectMethod(method);
+            }
+        };
+        return new ComposablePointcut(new AnnotationMatchingPointcut(Traced.class, true))
+                .intersection(notObjectMethod)
+                .union(new AnnotationMatchingPointcut(null, Traced.class, true));
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        TraceContext context = TraceContext.getCurrentContext();
+        if (context == null || !context.isSampled()) {
+            return invocation.proceed();
+        }
+        TracedMethod traced = resolve(invocation);
+        ClientSpan span = ClientSpan.start(context, SpanComponent.METHOD, traced.getName(), traced.getName());
+        traced.applyTags(span, invocation.getArguments());
+        ClientSpan previous = context.getActiveSpan();
+        context.setActiveSpan(span);
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            context.setActiveSpan(previous);
+            span.finish();
+        }
+    }
+
+    private TracedMethod resolve(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Object target = invocation.getThis();
+        Class<?> targetClass = target != null ? target.getClass() : method.getDeclaringClass();
+        TracedMethod traced = methods.get(method);
+        if (traced == null) {
+            traced = methods.computeIfAbsent(method, m -> TracedMethod.resolve(m, targetClass));
+        }
+        if (traced.getTargetClass() == targetClass) {
+            return traced;
+        }
+        return inherited.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> TracedMethod.resolve(method, targetClass));
+    }
+}
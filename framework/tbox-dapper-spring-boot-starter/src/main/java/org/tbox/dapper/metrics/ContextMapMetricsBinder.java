@@ -0,0 +1,32 @@
+package org.tbox.dapper.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.tbox.dapper.utils.BoundedContextMap;
+
+/**
+ * 将 {@link BoundedContextMap} 的容量与淘汰情况注册为Micrometer指标
+ * 包括注册之后才创建的实例；淘汰计数持续增长说明调用方存在未正常结束的关联（如消费未完成、回调丢失）
+ */
+public class ContextMapMetricsBinder implements MeterBinder {
+
+    private static final String PREFIX = "tbox.context.map";
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        BoundedContextMap.forEachInstance(map -> {
+            Tags tags = Tags.of("name", map.getName());
+            Gauge.builder(PREFIX + ".size", map, BoundedContextMap::size)
+                    .tags(tags).description("当前条目数").register(registry);
+            Gauge.builder(PREFIX + ".max", map, BoundedContextMap::getMaxSize)
+                    .tags(tags).description("最大条目数").register(registry);
+            FunctionCounter.builder(PREFIX + ".evicted", map, BoundedContextMap::getEvictedCount)
+                    .tags(tags).description("因超过容量被淘汰的条目数").register(registry);
+            FunctionCounter.builder(PREFIX + ".expired", map, BoundedContextMap::getExpiredCount)
+                    .tags(tags).description("因超时被淘汰的条目数").register(registry);
+        });
+    }
+}
@@ -0,0 +1,192 @@
+package org.tbox.dapper.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定内存的无锁耗时直方图
+ * 参考HdrHistogram的对数-线性分桶：以微秒为单位，0~15微秒每微秒一个桶，
+ * 之后每个2的幂区间再均分为8个子桶，相对误差不超过12.5%，最大覆盖2^41微秒（约25天），超出的值计入最后一个桶。
+ * 记录路径只有一次数组自增、一次LongAdder累加和一次最大值CAS，不加锁、不分配对象。
+ */
+public final class LatencyHistogram {
+
+    private static final long NANOS_PER_UNIT = 1000L;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+    private static final int LINEAR_EXPONENT = 4;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_EXPONENT - LINEAR_EXPONENT + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 纳秒，负数按0处理
+     */
+    public void record(long nanos) {
+        if (nanos < 0L) {
+            nanos = 0L;
+        }
+        buckets.incrementAndGet(bucketIndex(nanos));
+        totalNanos.add(nanos);
+        long current = maxNanos.get();
+        while (nanos > current && !maxNanos.compareAndSet(current, nanos)) {
+            current = maxNanos.get();
+        }
+    }
+
+    static int bucketIndex(long nanos) {
+        long micros = nanos / NANOS_PER_UNIT;
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return LINEAR_LIMIT + (exponent - LINEAR_EXPONENT) * SUB_BUCKET_COUNT + sub;
+    }
+
+    /**
+     * 桶的上界（纳秒，不含）
+     */
+    static long bucketUpperBoundNanos(int index) {
+        if (index < LINEAR_LIMIT) {
+            return ((long) index + 1) * NANOS_PER_UNIT;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int exponent = offset / SUB_BUCKET_COUNT + LINEAR_EXPONENT;
+        int sub = offset % SUB_BUCKET_COUNT;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (1L << exponent) + sub * width;
+        return (lower + width) * NANOS_PER_UNIT;
+    }
+
+    /**
+     * 记录次数
+     */
+    public long getCount() {
+        long count = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * 累计耗时（纳秒）
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * 最大耗时（纳秒）
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * 获取分位值（纳秒），返回所在桶的上界且不超过最大值，没有记录时返回0
+     *
+     * @param percentile 0~100
+     */
+    public long getPercentileNanos(double percentile) {
+        return snapshot().getPercentileNanos(percentile);
+    }
+
+    /**
+     * 获取当前数据的一致性副本，用于一次性计算多个分位值
+     * 并发记录时各字段可能有极少量偏差
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long c = buckets.get(i);
+            counts[i] = c;
+            count += c;
+        }
+        return new Snapshot(counts, count, totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * 直方图快照
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0L ? 0L : totalNanos / count;
+        }
+
+        public long getPercentileNanos(double percentile) {
+            if (count == 0L) {
+                return 0L;
+            }
+            long rank = (long) Math.ceil(count * Math.min(Math.max(percentile, 0D), 100D) / 100D);
+            if (rank < 1L) {
+                rank = 1L;
+            }
+            long seen = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBoundNanos(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        /**
+         * 转换为毫秒单位的汇总信息，用于端点输出
+         */
+        public Map<String, Object> toMillisMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", count);
+            map.put("mean", toMillis(getMeanNanos()));
+            map.put("p50", toMillis(getPercentileNanos(50)));
+            map.put("p90", toMillis(getPercentileNanos(90)));
+            map.put("p99", toMillis(getPercentileNanos(99)));
+            map.put("max", toMillis(maxNanos));
+            return map;
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000D;
+        }
+    }
+}
@@ -3,13 +3,22 @@ package org.tbox.dapper.mq;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.support.ProducerListener;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.mq.kafka.TracingKafkaBatchInterceptor;
 import org.tbox.dapper.mq.kafka.TracingKafkaConsumerInterceptor;
 import org.tbox.dapper.mq.kafka.TracingKafkaProducerInterceptor;
+import org.tbox.dapper.mq.kafka.TracingKafkaProducerListener;
+import org.tbox.dapper.mq.kafka.TracingKafkaRecordInterceptor;
 import org.tbox.dapper.mq.rocketmq.TracingRocketMQConsumerHook;
 import org.tbox.dapper.mq.rocketmq.TracingRocketMQConsumerInterceptor;
 import org.tbox.dapper.mq.rocketmq.TracingRocketMQProducerHook;
@@ -21,6 +30,8 @@ import org.tbox.dapper.mq.rocketmq.TracingRocketMQProducerInterceptor;
  */
 @Configuration
 @ConditionalOnProperty(prefix = "tbox.tracer", name = "enabled", havingValue = "true", matchIfMissing = true)
+@AutoConfigureBefore(name = "org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration")
+@EnableConfigurationProperties(TracerProperties.class)
 public class TracingMQAutoConfiguration {
 
     private static final Logger log = LoggerFactory.getLogger(TracingMQAutoConfiguration.class);
@@ -45,9 +56,10 @@ public class TracingMQAutoConfiguration {
         
         @Bean
         @ConditionalOnMissingBean
-        public TracingRocketMQConsumerInterceptor tracingRocketMQConsumerInterceptor() {
+        public TracingRocketMQConsumerInterceptor tracingRocketMQConsumerInterceptor(TracerProperties properties) {
             log.debug("自动注册RocketMQ消费者追踪拦截器");
-            return new TracingRocketMQConsumerInterceptor(applicationName);
+            return new TracingRocketMQConsumerInterceptor(applicationName,
+                    properties.getMq().isBatchSpan(), properties.getMq().getMaxSpanLinks());
         }
         
         @Bean
@@ -89,4 +101,42 @@ public class TracingMQAutoConfiguration {
             return new TracingKafkaConsumerInterceptor(applicationName);
         }
     }
+
+    /**
+     * spring-kafka追踪配置
+     * 未自定义ProducerListener时替换默认的LoggingProducerListener（仍委托其记录错误），
+     * 使KafkaTemplate发送回调中的日志带有发送时的traceId；
+     * 未自定义RecordInterceptor时由Spring Boot自动设置到监听容器，处理每条消息时激活其追踪上下文
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.kafka.support.ProducerListener")
+    public static class SpringKafkaTracingConfiguration {
+
+        @Value("${spring.application.name:unknown-service}")
+        private String applicationName;
+
+        @Bean
+        @ConditionalOnMissingBean(RecordInterceptor.class)
+        public RecordInterceptor<Object, Object> tracingKafkaRecordInterceptor() {
+            log.debug("自动注册Kafka消息监听追踪拦截器");
+            return new TracingKafkaRecordInterceptor<>(applicationName);
+        }
+
+        /**
+         * 批量监听追踪拦截器，需通过 ConcurrentKafkaListenerContainerFactory#setBatchInterceptor 设置
+         */
+        @Bean
+        @ConditionalOnMissingBean(BatchInterceptor.class)
+        @ConditionalOnProperty(prefix = "tbox.tracer.mq", name = "batch-span", havingValue = "true", matchIfMissing = true)
+        public BatchInterceptor<Object, Object> tracingKafkaBatchInterceptor(TracerProperties properties) {
+            return new TracingKafkaBatchInterceptor<>(applicationName, properties.getMq().getMaxSpanLinks());
+        }
+
+        @Bean
+        @ConditionalOnMissingBean(ProducerListener.class)
+        public ProducerListener<Object, Object> tracingKafkaProducerListener() {
+            log.debug("自动注册Kafka发送结果追踪监听器");
+            return new TracingKafkaProducerListener<>();
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,76 @@
+package org.tbox.dapper.mq.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tbox.dapper.context.SpanLinks;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+
+/**
+ * Kafka消费端追踪工具
+ * 拉取消息时不做任何处理，消息头在开始处理某条消息时才解析并激活，
+ * 被过滤或未处理的消息没有任何开销
+ *
+ * <pre>
+ * for (ConsumerRecord&lt;String, String&gt; record : records) {
+ *     try (TraceScope ignored = KafkaRecordTracing.activate(record, applicationName)) {
+ *         handle(record);
+ *     }
+ * }
+ * </pre>
+ */
+public final class KafkaRecordTracing {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaRecordTracing.class);
+
+    private KafkaRecordTracing() {
+        // 工具类禁止实例化
+    }
+
+    /**
+     * 在当前线程激活消费消息的Span，关闭返回的作用域时恢复激活前的上下文
+     * 消费Span是消息头携带的生产者Span的子Span；消息头中没有追踪信息时创建新的Span（当前线程有上下文时为其子Span，如批量Span）
+     *
+     * @param applicationName 当前应用名称
+     */
+    public static TraceScope activate(ConsumerRecord<?, ?> record, String applicationName) {
+        TraceSnapshot upstream = KafkaTracingContext.extract(record.headers(), applicationName);
+        TraceSnapshot span = upstream != null
+                ? TraceContext.nextSpan(upstream, applicationName)
+                : TraceContext.nextSpan(applicationName);
+        if (log.isDebugEnabled()) {
+            log.debug("激活Kafka消息追踪上下文: topic={}, partition={}, offset={}, traceId={}",
+                    record.topic(), record.partition(), record.offset(), span.getTraceId());
+        }
+        return span.activate();
+    }
+
+    /**
+     * 为整批消息激活一个批量Span，并链接各条消息携带的上游Span
+     *
+     * @param maxLinks 最多记录的链接数
+     */
+    public static TraceScope activateBatch(Iterable<? extends ConsumerRecord<?, ?>> records,
+                                           String applicationName, int maxLinks) {
+        SpanLinks links = links(records, maxLinks);
+        TraceScope scope = TraceContext.nextSpan(applicationName).activate();
+        TraceContext.getCurrentContext().setLinks(links);
+        if (log.isDebugEnabled()) {
+            log.debug("激活Kafka批量消费追踪上下文: links={}", links);
+        }
+        return scope;
+    }
+
+    /**
+     * 收集消息携带的上游Span
+     */
+    public static SpanLinks links(Iterable<? extends ConsumerRecord<?, ?>> records, int maxLinks) {
+        SpanLinks.Builder builder = SpanLinks.builder(maxLinks);
+        for (ConsumerRecord<?, ?> record : records) {
+            builder.add(KafkaTracingContext.extract(record.headers()));
+        }
+        return builder.build();
+    }
+}
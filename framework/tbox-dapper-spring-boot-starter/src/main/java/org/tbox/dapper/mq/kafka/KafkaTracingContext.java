@@ -1,76 +1,122 @@
 package org.tbox.dapper.mq.kafka;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tbox.dapper.context.PropagationFormat;
 import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TracePropagation;
+import org.tbox.dapper.context.TraceSnapshot;
+import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.utils.BoundedContextMap;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Kafka追踪上下文管理器
- * 用于存储Kafka消息与追踪上下文之间的关系
+ * 生产端的Span通过消息头随消息本身传递，发送回调直接从消息头读取，不再使用全局Map关联；
+ * 消费端在处理消息时由 {@link KafkaRecordTracing} 解析消息头并激活；
+ * 兼容保留的按消息关联的上下文保存在有界、按时间淘汰的 {@link BoundedContextMap} 中
  */
 public class KafkaTracingContext {
     private static final Logger log = LoggerFactory.getLogger(KafkaTracingContext.class);
-    
-    // 生产者上下文映射：记录追踪上下文与消息的关联
-    private static final Map<String, TraceContext> PRODUCER_CONTEXTS = new ConcurrentHashMap<>();
-    
-    // 消费者上下文映射：记录消费者组处理的消息上下文
-    private static final Map<String, TraceContext> CONSUMER_CONTEXT_MAP = new ConcurrentHashMap<>();
+
+    // 消费者上下文映射：记录消费者组处理的消息上下文，超过容量或5分钟未完成的条目会被淘汰
+    private static final BoundedContextMap<String, TraceContext> CONSUMER_CONTEXT_MAP =
+            new BoundedContextMap<>("kafka.consumer", 10000, 5, TimeUnit.MINUTES);
     
     private KafkaTracingContext() {
         // 工具类禁止实例化
     }
-    
+
     /**
-     * 设置当前生产者消息的追踪上下文，用于在onAcknowledgement中获取
-     * 
-     * @param record 生产者记录
-     * @param context 对应的追踪上下文
+     * 按配置的格式将Span写入消息头，已存在的追踪头会被替换（如业务重发同一条消息）
+     * 紧凑格式只写一个头，头值字节在快照上缓存
      */
-    public static <K, V> void setCurrentContext(ProducerRecord<K, V> record, TraceContext context) {
-        if (record == null || context == null) {
-            return;
+    public static void inject(Headers headers, TraceSnapshot span, String applicationName) {
+        headers.remove(TracePropagation.HEADER_TRACEPARENT);
+        headers.remove(TracePropagation.HEADER_B3);
+        headers.remove(TracerConstants.HEADER_TRACE_ID);
+        headers.remove(TracerConstants.HEADER_SPAN_ID);
+        headers.remove(TracerConstants.HEADER_PARENT_SPAN_ID);
+        headers.remove(TracerConstants.HEADER_APP_NAME);
+        PropagationFormat format = TracePropagation.getKafkaFormat();
+        if (format != PropagationFormat.LEGACY) {
+            byte[] value = TracePropagation.encodeBytes(span, format);
+            if (value != null) {
+                headers.add(TracePropagation.headerName(format), value);
+                return;
+            }
+        }
+        headers.add(TracerConstants.HEADER_TRACE_ID, span.getTraceId().getBytes(StandardCharsets.UTF_8));
+        headers.add(TracerConstants.HEADER_SPAN_ID, span.getSpanId().getBytes(StandardCharsets.UTF_8));
+        String parentSpanId = span.getParentSpanId();
+        headers.add(TracerConstants.HEADER_PARENT_SPAN_ID,
+                (parentSpanId != null ? parentSpanId : "").getBytes(StandardCharsets.UTF_8));
+        if (applicationName != null) {
+            headers.add(TracerConstants.HEADER_APP_NAME, applicationName.getBytes(StandardCharsets.UTF_8));
         }
-        String key = generateProducerKey(record);
-        PRODUCER_CONTEXTS.put(key, context);
     }
-    
+
     /**
-     * 获取生产者消息对应的追踪上下文
-     * 
-     * @param metadata 消息元数据
-     * @return 对应的追踪上下文，如果不存在则返回null
+     * 从消息头读取Span
+     *
+     * @return Span快照，消息头中没有追踪信息时返回null
      */
-    public static TraceContext getCurrentContext(RecordMetadata metadata) {
-        if (metadata == null) {
+    public static TraceSnapshot extract(Headers headers) {
+        if (headers == null) {
             return null;
         }
-        String key = generateProducerKey(metadata);
-        return PRODUCER_CONTEXTS.get(key);
+        return extract(headers, headerValue(headers, TracerConstants.HEADER_APP_NAME));
     }
-    
+
     /**
-     * 移除生产者消息对应的追踪上下文
-     * 
-     * @param metadata 消息元数据
+     * 从消息头读取Span，依次识别 traceparent、b3 和多头格式，应用名称使用消费方自身的名称
+     *
+     * @return Span快照，消息头中没有追踪信息时返回null
      */
-    public static void removeCurrentContext(RecordMetadata metadata) {
-        if (metadata == null) {
-            return;
+    public static TraceSnapshot extract(Headers headers, String applicationName) {
+        if (headers == null) {
+            return null;
+        }
+        Header header = headers.lastHeader(TracePropagation.HEADER_TRACEPARENT);
+        if (header != null && header.value() != null) {
+            TraceSnapshot span = TracePropagation.parseTraceparent(header.value(), applicationName);
+            if (span != null) {
+                return span;
+            }
         }
-        String key = generateProducerKey(metadata);
-        PRODUCER_CONTEXTS.remove(key);
+        header = headers.lastHeader(TracePropagation.HEADER_B3);
+        if (header != null && header.value() != null) {
+            TraceSnapshot span = TracePropagation.parseB3(header.value(), applicationName);
+            if (span != null) {
+                return span;
+            }
+        }
+        return TraceSnapshot.of(
+                headerValue(headers, TracerConstants.HEADER_TRACE_ID),
+                headerValue(headers, TracerConstants.HEADER_SPAN_ID),
+                headerValue(headers, TracerConstants.HEADER_PARENT_SPAN_ID),
+                applicationName);
+    }
+
+    private static String headerValue(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        if (header != null && header.value() != null) {
+            return new String(header.value(), StandardCharsets.UTF_8);
+        }
+        return null;
     }
     
     /**
      * 设置消费者消息对应的追踪上下文
+     *
+     * @deprecated 拦截器不再预先为每条消息创建上下文，使用 {@link KafkaRecordTracing#activate}
      */
+    @Deprecated
     public static void setConsumerContext(ConsumerRecord<?, ?> record, String consumerGroup, TraceContext context) {
         if (record == null || context == null) {
             return;
@@ -86,7 +132,10 @@ public class KafkaTracingContext {
     
     /**
      * 获取消费者消息对应的追踪上下文
+     *
+     * @deprecated 拦截器不再预先为每条消息创建上下文，使用 {@link KafkaRecordTracing#activate}
      */
+    @Deprecated
     public static TraceContext getConsumerContext(ConsumerRecord<?, ?> record, String consumerGroup) {
         if (record == null) {
             return null;
@@ -108,7 +157,10 @@ public class KafkaTracingContext {
     
     /**
      * 完成消费者消息的追踪上下文并移除
+     *
+     * @deprecated 拦截器不再预先为每条消息创建上下文，使用 {@link KafkaRecordTracing#activate}
      */
+    @Deprecated
     public static void completeConsumerContext(ConsumerRecord<?, ?> record, String consumerGroup, String status) {
         if (record == null) {
             return;
@@ -127,37 +179,27 @@ public class KafkaTracingContext {
             }
         }
     }
+
+    /**
+     * 当前保存的消费者上下文数量
+     */
+    public static int consumerContextSize() {
+        return CONSUMER_CONTEXT_MAP.size();
+    }
     
     /**
      * 清理所有上下文
      */
     public static void cleanup() {
-        int size = PRODUCER_CONTEXTS.size() + CONSUMER_CONTEXT_MAP.size();
-        PRODUCER_CONTEXTS.clear();
+        int size = CONSUMER_CONTEXT_MAP.size();
         CONSUMER_CONTEXT_MAP.clear();
         log.debug("清理Kafka追踪上下文，数量: {}", size);
     }
     
-    /**
-     * 生成生产者消息唯一键
-     */
-    private static <K, V> String generateProducerKey(ProducerRecord<K, V> record) {
-        return record.topic() + "-" + 
-               (record.partition() != null ? record.partition() : "null") + "-" + 
-               System.identityHashCode(record);
-    }
-    
-    /**
-     * 生成生产者元数据唯一键
-     */
-    private static String generateProducerKey(RecordMetadata metadata) {
-        return metadata.topic() + "-" + metadata.partition() + "-" + metadata.offset();
-    }
-    
     /**
      * 构建用于存储的key
      */
     private static String buildKey(String topic, int partition, long offset, String consumerGroup) {
-        return String.format("%s-%d-%d-%s", topic, partition, offset, consumerGroup);
+        return topic + '-' + partition + '-' + offset + '-' + consumerGroup;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package org.tbox.dapper.mq.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.tbox.dapper.context.TraceScope;
+
+/**
+ * spring-kafka批量消息监听追踪拦截器
+ * 为整批消息创建一个批量Span并链接各条消息的上游Span；
+ * 需要按消息区分traceId时，在监听器中对每条消息调用 {@link KafkaRecordTracing#activate}
+ */
+public class TracingKafkaBatchInterceptor<K, V> implements BatchInterceptor<K, V> {
+
+    private static final ThreadLocal<TraceScope> SCOPE = new ThreadLocal<>();
+
+    private final String applicationName;
+    private final int maxLinks;
+
+    /**
+     * @param maxLinks 每批最多记录的链接数
+     */
+    public TracingKafkaBatchInterceptor(String applicationName, int maxLinks) {
+        this.applicationName = applicationName;
+        this.maxLinks = maxLinks;
+    }
+
+    @Override
+    public ConsumerRecords<K, V> intercept(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        closeScope();
+        SCOPE.set(KafkaRecordTracing.activateBatch(records, applicationName, maxLinks));
+        return records;
+    }
+
+    @Override
+    public void success(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        closeScope();
+    }
+
+    @Override
+    public void failure(ConsumerRecords<K, V> records, Exception exception, Consumer<K, V> consumer) {
+        closeScope();
+    }
+
+    @Override
+    public void clearThreadState(Consumer<?, ?> consumer) {
+        closeScope();
+    }
+
+    private static void closeScope() {
+        TraceScope scope = SCOPE.get();
+        if (scope != null) {
+            SCOPE.remove();
+            scope.close();
+        }
+    }
+}
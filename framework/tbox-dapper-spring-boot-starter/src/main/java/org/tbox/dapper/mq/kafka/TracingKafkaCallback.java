@@ -0,0 +1,64 @@
+package org.tbox.dapper.mq.kafka;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+
+/**
+ * 激活发送Span的Kafka发送回调
+ * 回调在生产者I/O线程中执行，包装后回调内的日志带有本次发送的Span（由 {@link TracingKafkaProducerInterceptor}
+ * 写入消息头）；消息头中没有追踪信息时（未配置拦截器）使用发送方线程的上下文
+ *
+ * <pre>
+ * producer.send(record, TracingKafkaCallback.wrap(record, (metadata, e) -&gt; ...));
+ * </pre>
+ */
+public final class TracingKafkaCallback implements Callback {
+
+    private static final Logger log = LoggerFactory.getLogger(TracingKafkaCallback.class);
+
+    private final ProducerRecord<?, ?> record;
+    private final Callback delegate;
+    private final TraceSnapshot caller;
+
+    private TracingKafkaCallback(ProducerRecord<?, ?> record, Callback delegate, TraceSnapshot caller) {
+        this.record = record;
+        this.delegate = delegate;
+        this.caller = caller;
+    }
+
+    /**
+     * 包装回调，delegate可以为null
+     * 拦截器在send()中才写入消息头，因此在回调执行时再从消息头读取Span
+     *
+     * @param record 要发送的消息
+     */
+    public static Callback wrap(ProducerRecord<?, ?> record, Callback delegate) {
+        return new TracingKafkaCallback(record, delegate, TraceSnapshot.capture());
+    }
+
+    @Override
+    public void onCompletion(RecordMetadata metadata, Exception exception) {
+        TraceSnapshot span = KafkaTracingContext.extract(record.headers());
+        if (span == null) {
+            span = caller;
+        }
+        TraceScope scope = span != null ? span.activate() : null;
+        try {
+            if (exception != null) {
+                log.warn("Kafka消息发送失败: topic={}, error={}", record.topic(), exception.getMessage());
+            }
+            if (delegate != null) {
+                delegate.onCompletion(metadata, exception);
+            }
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.tbox.dapper.mq.kafka;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.LoggingProducerListener;
+import org.springframework.kafka.support.ProducerListener;
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+
+/**
+ * spring-kafka发送结果监听器
+ * 从消息头读取发送时生成的Span并在回调线程中激活，回调日志带有对应的traceId/spanId；
+ * Span随消息本身传递，不依赖任何全局Map
+ */
+public class TracingKafkaProducerListener<K, V> implements ProducerListener<K, V> {
+
+    private static final Logger log = LoggerFactory.getLogger(TracingKafkaProducerListener.class);
+
+    private final ProducerListener<K, V> delegate;
+
+    public TracingKafkaProducerListener() {
+        this(new LoggingProducerListener<>());
+    }
+
+    /**
+     * @param delegate 实际处理发送结果的监听器
+     */
+    public TracingKafkaProducerListener(ProducerListener<K, V> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onSuccess(ProducerRecord<K, V> record, RecordMetadata metadata) {
+        TraceSnapshot span = KafkaTracingContext.extract(record.headers());
+        if (span == null) {
+            delegate.onSuccess(record, metadata);
+            return;
+        }
+        try (TraceScope ignored = span.activate()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Kafka消息发送完成: topic={}, partition={}, offset={}",
+                        metadata.topic(), metadata.partition(), metadata.offset());
+            }
+            delegate.onSuccess(record, metadata);
+        }
+    }
+
+    @Override
+    public void onError(ProducerRecord<K, V> record, RecordMetadata metadata, Exception exception) {
+        TraceSnapshot span = KafkaTracingContext.extract(record.headers());
+        if (span == null) {
+            delegate.onError(record, metadata, exception);
+            return;
+        }
+        try (TraceScope ignored = span.activate()) {
+            delegate.onError(record, metadata, exception);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.tbox.dapper.mq.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.tbox.dapper.context.TraceScope;
+
+/**
+ * spring-kafka单条消息监听追踪拦截器
+ * 在监听器处理每条消息前激活消息携带的追踪上下文，处理结束后恢复
+ */
+public class TracingKafkaRecordInterceptor<K, V> implements RecordInterceptor<K, V> {
+
+    private static final ThreadLocal<TraceScope> SCOPE = new ThreadLocal<>();
+
+    private final String applicationName;
+
+    public TracingKafkaRecordInterceptor(String applicationName) {
+        this.applicationName = applicationName;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record) {
+        return record;
+    }
+
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        // 上一条消息被其他拦截器过滤时可能没有回调afterRecord，先关闭遗留的作用域
+        closeScope();
+        SCOPE.set(KafkaRecordTracing.activate(record, applicationName));
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        closeScope();
+    }
+
+    @Override
+    public void clearThreadState(Consumer<?, ?> consumer) {
+        closeScope();
+    }
+
+    private static void closeScope() {
+        TraceScope scope = SCOPE.get();
+        if (scope != null) {
+            SCOPE.remove();
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.tbox.dapper.mq.rocketmq;
+
+import org.apache.rocketmq.common.message.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tbox.dapper.context.SpanLinks;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TracePropagation;
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+
+import java.util.List;
+
+/**
+ * RocketMQ消费端追踪工具
+ * 批量消费时由 {@link TracingRocketMQConsumerInterceptor} 为整批消息激活一个批量Span，
+ * 需要按消息区分traceId的处理逻辑在循环中逐条激活：
+ *
+ * <pre>
+ * for (MessageExt msg : msgs) {
+ *     try (TraceScope ignored = RocketMQMessageTracing.activate(msg, applicationName)) {
+ *         handle(msg);
+ *     }
+ * }
+ * </pre>
+ */
+public final class RocketMQMessageTracing {
+
+    private static final Logger log = LoggerFactory.getLogger(RocketMQMessageTracing.class);
+
+    private RocketMQMessageTracing() {
+        // 工具类禁止实例化
+    }
+
+    /**
+     * 在当前线程激活消费消息的Span，关闭返回的作用域时恢复激活前的上下文（如批量Span）
+     * 消费Span是消息携带的上游Span的子Span；消息中没有追踪信息时创建新的Span（当前线程有上下文时为其子Span）
+     *
+     * @param applicationName 当前应用名称
+     */
+    public static TraceScope activate(Message msg, String applicationName) {
+        TraceSnapshot upstream = TracePropagation.extract(msg, Message::getUserProperty, applicationName);
+        TraceSnapshot span = upstream != null
+                ? TraceContext.nextSpan(upstream, applicationName)
+                : TraceContext.nextSpan(applicationName);
+        if (log.isDebugEnabled()) {
+            log.debug("激活RocketMQ消息追踪上下文: traceId={}, parentSpanId={}",
+                    span.getTraceId(), span.getParentSpanId());
+        }
+        return span.activate();
+    }
+
+    /**
+     * 激活消费单条消息的Span，与 {@link #activate} 相同
+     */
+    static TraceScope activateSingle(Message msg, String applicationName) {
+        return activate(msg, applicationName);
+    }
+
+    /**
+     * 为整批消息激活一个批量Span，并链接各条消息携带的上游Span
+     * 每条消息只读取追踪属性，不创建上下文
+     *
+     * @param maxLinks 最多记录的链接数
+     */
+    public static TraceScope activateBatch(List<? extends Message> msgs, String applicationName, int maxLinks) {
+        SpanLinks links = links(msgs, maxLinks);
+        TraceScope scope = TraceContext.nextSpan(applicationName).activate();
+        TraceContext.getCurrentContext().setLinks(links);
+        if (log.isDebugEnabled()) {
+            log.debug("激活RocketMQ批量消费追踪上下文: size={}, links={}", msgs.size(), links);
+        }
+        return scope;
+    }
+
+    /**
+     * 收集消息携带的上游Span
+     */
+    public static SpanLinks links(List<? extends Message> msgs, int maxLinks) {
+        SpanLinks.Builder builder = SpanLinks.builder(maxLinks);
+        for (int i = 0; i < msgs.size(); i++) {
+            TracePropagation.extractLink(msgs.get(i), Message::getUserProperty, builder);
+        }
+        return builder.build();
+    }
+}
@@ -2,11 +2,13 @@ package org.tbox.dapper.mq.rocketmq;
 
 import org.apache.rocketmq.client.hook.ConsumeMessageContext;
 import org.apache.rocketmq.client.hook.ConsumeMessageHook;
+import org.apache.rocketmq.common.message.Message;
 import org.apache.rocketmq.common.message.MessageExt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tbox.dapper.context.TraceContext;
-import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.context.TracePropagation;
+import org.tbox.dapper.context.TraceSnapshot;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -86,17 +88,17 @@ public class TracingRocketMQConsumerHook implements ConsumeMessageHook {
      */
     private void processMessage(MessageExt msg, String consumerGroup) {
         try {
-            String traceId = getHeaderValue(msg, TracerConstants.HEADER_TRACE_ID);
-            String spanId = getHeaderValue(msg, TracerConstants.HEADER_SPAN_ID);
-            String parentSpanId = getHeaderValue(msg, TracerConstants.HEADER_PARENT_SPAN_ID);
+            TraceSnapshot upstream = TracePropagation.extract(msg, Message::getUserProperty, applicationName);
             
             TraceContext context;
             
-            if (traceId != null && spanId != null) {
+            if (upstream != null) {
                 // 使用消息中的追踪信息创建子上下文
-                context = TraceContext.createFromExternalContext(traceId, spanId, parentSpanId, applicationName);
+                context = TraceContext.createFromExternalContext(upstream.getTraceId(), upstream.getSpanId(),
+                        upstream.getParentSpanId(), applicationName);
+                context.setSampled(upstream.isSampled());
                 log.debug("从RocketMQ消息创建追踪上下文: topic={}, msgId={}, traceId={}", 
-                        msg.getTopic(), msg.getMsgId(), traceId);
+                        msg.getTopic(), msg.getMsgId(), upstream.getTraceId());
             } else {
                 // 没有追踪信息，创建新的根上下文
                 context = TraceContext.createRootContext(applicationName);
@@ -120,23 +122,4 @@ public class TracingRocketMQConsumerHook implements ConsumeMessageHook {
                     msg.getTopic(), msg.getMsgId(), e);
         }
     }
-    
-    /**
-     * 从消息属性中获取值
-     */
-    private String getHeaderValue(MessageExt msg, String key) {
-        // 直接获取属性值，因为getUserProperty返回的就是String
-        String value = msg.getProperty(key);
-        if (value != null) {
-            return value;
-        }
-
-        // 尝试使用getUserProperty获取
-        value = msg.getUserProperty(key);
-        if (value != null) {
-            return value;
-        }
-        
-        return null;
-    }
 } 
\ No newline at end of file
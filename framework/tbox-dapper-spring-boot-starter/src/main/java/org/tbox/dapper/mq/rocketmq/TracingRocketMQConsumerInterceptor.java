@@ -1,28 +1,31 @@
 package org.tbox.dapper.mq.rocketmq;
 
-import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyContext;
-import org.apache.rocketmq.client.consumer.listener.ConsumeOrderlyContext;
 import org.apache.rocketmq.client.hook.ConsumeMessageContext;
 import org.apache.rocketmq.client.hook.ConsumeMessageHook;
 import org.apache.rocketmq.common.message.MessageExt;
-import org.apache.rocketmq.common.message.MessageQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tbox.dapper.context.TraceContext;
-import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.context.TraceScope;
 
 import java.util.List;
 import java.util.Map;
 
 /**
  * RocketMQ消费者拦截器
- * 负责从接收的消息中提取追踪上下文信息并恢复到当前线程
+ * 负责从接收的消息中提取追踪上下文信息并恢复到当前线程：
+ * 单条消息时继续上游追踪；批量消费（consumeMessageBatchMaxSize &gt; 1）时为整批消息创建一个批量Span，
+ * 并以Span链接关联每条消息的上游追踪，不为每条消息创建上下文。
+ * 处理逻辑需要按消息区分traceId时使用 {@link RocketMQMessageTracing#activate}
  */
 public class TracingRocketMQConsumerInterceptor implements ConsumeMessageHook {
     private static final Logger log = LoggerFactory.getLogger(TracingRocketMQConsumerInterceptor.class);
 
-    private final TraceContext traceContext;
+    private static final int DEFAULT_MAX_LINKS = 128;
+
     private final String appName;
+    private final boolean batchSpan;
+    private final int maxLinks;
 
     /**
      * 创建追踪拦截器
@@ -30,24 +33,33 @@ public class TracingRocketMQConsumerInterceptor implements ConsumeMessageHook {
      * @param applicationName 应用名称
      */
     public TracingRocketMQConsumerInterceptor(String applicationName) {
-        this(TraceContext.getCurrentContext(), applicationName);
-        log.debug("创建RocketMQ消费者追踪拦截器: appName={}", applicationName);
+        this(applicationName, true, DEFAULT_MAX_LINKS);
     }
 
     /**
      * 创建追踪拦截器
      * 
-     * @param traceContext 追踪上下文
+     * @param traceContext 不再使用，拦截器不依赖创建时线程上的追踪上下文
      * @param appName 应用名称
+     * @deprecated 使用 {@link #TracingRocketMQConsumerInterceptor(String)}
      */
+    @Deprecated
     public TracingRocketMQConsumerInterceptor(TraceContext traceContext, String appName) {
-        this.traceContext = traceContext;
-        this.appName = appName;
-        if (log.isDebugEnabled()) {
-            log.debug("初始化RocketMQ消费者追踪拦截器: traceContext={}, appName={}", 
-                    traceContext != null ? "已提供" : "未提供", 
-                    appName != null ? appName : "未提供");
-        }
+        this(appName);
+    }
+
+    /**
+     * 创建追踪拦截器
+     *
+     * @param applicationName 应用名称
+     * @param batchSpan 批量消费时是否创建批量Span并链接各条消息，关闭时沿用第一条消息的追踪
+     * @param maxLinks 每个批量Span最多记录的链接数
+     */
+    public TracingRocketMQConsumerInterceptor(String applicationName, boolean batchSpan, int maxLinks) {
+        this.appName = applicationName;
+        this.batchSpan = batchSpan;
+        this.maxLinks = maxLinks;
+        log.debug("创建RocketMQ消费者追踪拦截器: appName={}, batchSpan={}", applicationName, batchSpan);
     }
 
     @Override
@@ -57,7 +69,7 @@ public class TracingRocketMQConsumerInterceptor implements ConsumeMessageHook {
 
     @Override
     public void consumeMessageBefore(ConsumeMessageContext context) {
-        if (traceContext == null || context == null) {
+        if (context == null) {
             return;
         }
 
@@ -71,32 +83,11 @@ public class TracingRocketMQConsumerInterceptor implements ConsumeMessageHook {
                 log.debug("开始消费RocketMQ消息: 消息数量={}", msgs.size());
             }
 
-            // 为批量消息创建一个共享的父上下文
-            TraceContext batchContext = null;
-            
-            // 从第一条消息中提取traceId，并为整个批次创建一个上下文
             MessageExt firstMsg = msgs.get(0);
-            String traceId = firstMsg.getUserProperty(TracerConstants.HEADER_TRACE_ID);
-            String spanId = firstMsg.getUserProperty(TracerConstants.HEADER_SPAN_ID); // 作为父SpanId
-            String parentSpanId = firstMsg.getUserProperty(TracerConstants.HEADER_PARENT_SPAN_ID);
-            
-            if (traceId != null && !traceId.isEmpty()) {
-                // 继续已有的追踪上下文
-                batchContext = TraceContext.createFromExternalContext(traceId, null, spanId, appName);
-                if (log.isDebugEnabled()) {
-                    log.debug("从RocketMQ消息中恢复追踪上下文: traceId={}, parentSpanId={}", 
-                            traceId, spanId);
-                }
-            } else {
-                // 创建新的根上下文
-                batchContext = TraceContext.createRootContext(appName);
-                if (log.isDebugEnabled()) {
-                    log.debug("为RocketMQ消息批次创建新的根追踪上下文: traceId={}", batchContext.getTraceId());
-                }
-            }
-            
-            // 设置当前线程上下文
-            TraceContext.setCurrentContext(batchContext);
+            TraceScope scope = msgs.size() > 1 && batchSpan
+                    ? RocketMQMessageTracing.activateBatch(msgs, appName, maxLinks)
+                    : RocketMQMessageTracing.activateSingle(firstMsg, appName);
+            TraceContext batchContext = TraceContext.getCurrentContext();
             
             // 添加批处理相关信息
             batchContext.setAttribute("mq.type", "rocketmq");
@@ -138,8 +129,8 @@ public class TracingRocketMQConsumerInterceptor implements ConsumeMessageHook {
                 batchContext.setAttribute("mq.consumer.group", consumerGroup);
             }
             
-            // 将上下文与当前消费操作关联
-            context.setMqTraceContext(batchContext);
+            // 将上下文与当前消费操作关联，消费结束后恢复线程原有的上下文
+            context.setMqTraceContext(new ConsumeTrace(batchContext, scope));
             
         } catch (Exception e) {
             log.warn("RocketMQ消费前处理追踪信息时发生异常: {}", e.getMessage());
@@ -151,18 +142,19 @@ public class TracingRocketMQConsumerInterceptor implements ConsumeMessageHook {
 
     @Override
     public void consumeMessageAfter(ConsumeMessageContext context) {
-        if (traceContext == null || context == null) {
+        if (context == null) {
             return;
         }
 
         try {
             // 获取之前关联的上下文
             Object contextObj = context.getMqTraceContext();
-            if (!(contextObj instanceof TraceContext)) {
+            if (!(contextObj instanceof ConsumeTrace)) {
                 return;
             }
             
-            TraceContext batchContext = (TraceContext) contextObj;
+            ConsumeTrace trace = (ConsumeTrace) contextObj;
+            TraceContext batchContext = trace.context;
             boolean success = context.isSuccess();
             
             // 记录消费结果
@@ -171,12 +163,12 @@ public class TracingRocketMQConsumerInterceptor implements ConsumeMessageHook {
             // 完成当前上下文
             batchContext.complete();
             
-            // 清理当前线程上下文
-            TraceContext.removeContext();
+            // 恢复当前线程原有的上下文
+            trace.scope.close();
             
             if (log.isDebugEnabled()) {
-                log.debug("RocketMQ消息批次消费完成: traceId={}, success={}", 
-                        batchContext.getTraceId(), success);
+                log.debug("RocketMQ消息批次消费完成: traceId={}, success={}, links={}", 
+                        batchContext.getTraceId(), success, batchContext.getLinks().size());
             }
             
         } catch (Exception e) {
@@ -186,4 +178,17 @@ public class TracingRocketMQConsumerInterceptor implements ConsumeMessageHook {
             }
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 一次消费对应的上下文与激活作用域
+     */
+    private static final class ConsumeTrace {
+        final TraceContext context;
+        final TraceScope scope;
+
+        ConsumeTrace(TraceContext context, TraceScope scope) {
+            this.context = context;
+            this.scope = scope;
+        }
+    }
+}
@@ -6,7 +6,7 @@ import org.apache.rocketmq.common.message.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tbox.dapper.context.TraceContext;
-import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.context.TracePropagation;
 
 import java.nio.charset.StandardCharsets;
 
@@ -54,18 +54,13 @@ public class TracingRocketMQProducerHook implements SendMessageHook {
             // 获取当前上下文的信息
             String traceId = childContext.getTraceId();
             String spanId = childContext.getSpanId();
-            String parentSpanId = childContext.getParentSpanId();
             
             // 获取消息对象
             Message msg = context.getMessage();
             if (msg != null) {
                 // 添加追踪信息到消息属性
-                msg.putUserProperty(TracerConstants.HEADER_TRACE_ID, traceId);
-                msg.putUserProperty(TracerConstants.HEADER_SPAN_ID, spanId);
-                if (parentSpanId != null) {
-                    msg.putUserProperty(TracerConstants.HEADER_PARENT_SPAN_ID, parentSpanId);
-                }
-                msg.putUserProperty(TracerConstants.HEADER_APP_NAME, appName);
+                TracePropagation.inject(TracePropagation.getRocketmqFormat(), childContext.snapshot(),
+                        appName, msg, Message::putUserProperty);
                 
                 // 记录消息信息
                 childContext.setAttribute("rocketmq.topic", msg.getTopic());
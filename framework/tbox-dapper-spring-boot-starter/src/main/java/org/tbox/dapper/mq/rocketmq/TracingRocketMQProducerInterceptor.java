@@ -6,7 +6,7 @@ import org.apache.rocketmq.common.message.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tbox.dapper.context.TraceContext;
-import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.context.TracePropagation;
 
 import java.nio.charset.StandardCharsets;
 
@@ -93,12 +93,8 @@ public class TracingRocketMQProducerInterceptor implements SendMessageHook {
             }
 
             // 将追踪信息添加到消息属性
-            message.putUserProperty(TracerConstants.HEADER_TRACE_ID, childContext.getTraceId());
-            message.putUserProperty(TracerConstants.HEADER_SPAN_ID, childContext.getSpanId());
-            message.putUserProperty(TracerConstants.HEADER_PARENT_SPAN_ID, childContext.getParentSpanId());
-            if (appName != null) {
-                message.putUserProperty(TracerConstants.HEADER_APP_NAME, appName);
-            }
+            TracePropagation.inject(TracePropagation.getRocketmqFormat(), childContext.snapshot(),
+                    appName, message, Message::putUserProperty);
 
             if (log.isDebugEnabled()) {
                 log.debug("RocketMQ消息添加追踪信息: topic={}, tags={}, keys={}, traceId={}, spanId={}", 
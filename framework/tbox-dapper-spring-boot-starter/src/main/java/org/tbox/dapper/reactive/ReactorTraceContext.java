@@ -0,0 +1,106 @@
+package org.tbox.dapper.reactive;
+
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reactor Context中的追踪快照
+ * 快照随订阅一次写入Context，算子切换线程时不复制ThreadLocal、也不注册 {@code Hooks.onEachOperator}；
+ * 只在需要打印日志或调用阻塞式组件的位置按Context激活快照（恢复MDC），执行完立即恢复线程原来的上下文
+ *
+ * <pre>
+ * return orderService.find(id)
+ *         .doOnEach(ReactorTraceContext.onNext(order -&gt; log.info("查询订单: {}", order.getId())))
+ *         .doOnEach(ReactorTraceContext.onError(e -&gt; log.warn("查询订单失败", e)));
+ * </pre>
+ */
+public final class ReactorTraceContext {
+
+    /**
+     * Context中追踪快照的键
+     */
+    public static final Class<TraceSnapshot> KEY = TraceSnapshot.class;
+
+    private ReactorTraceContext() {
+        // 工具类禁止实例化
+    }
+
+    /**
+     * 读取Context中的追踪快照
+     *
+     * @return 快照，没有时返回null
+     */
+    public static TraceSnapshot get(ContextView context) {
+        return context.getOrDefault(KEY, null);
+    }
+
+    /**
+     * 把追踪快照写入Context，快照为null时原样返回
+     */
+    public static Context with(Context context, TraceSnapshot snapshot) {
+        return snapshot != null ? context.put(KEY, snapshot) : context;
+    }
+
+    /**
+     * 当前订阅的追踪快照，没有时为空
+     */
+    public static Mono<TraceSnapshot> current() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(get(context)));
+    }
+
+    /**
+     * 在Context中快照激活的状态下执行，用于日志等依赖ThreadLocal的代码
+     */
+    public static void run(ContextView context, Runnable action) {
+        TraceSnapshot snapshot = get(context);
+        if (snapshot == null) {
+            action.run();
+            return;
+        }
+        try (TraceScope ignored = snapshot.activate()) {
+            action.run();
+        }
+    }
+
+    /**
+     * 在Context中快照激活的状态下执行并返回结果
+     */
+    public static <T> T call(ContextView context, Supplier<T> action) {
+        TraceSnapshot snapshot = get(context);
+        if (snapshot == null) {
+            return action.get();
+        }
+        try (TraceScope ignored = snapshot.activate()) {
+            return action.get();
+        }
+    }
+
+    /**
+     * 配合 {@code doOnEach} 使用，元素到达时激活快照后执行
+     */
+    public static <T> Consumer<Signal<T>> onNext(Consumer<? super T> action) {
+        return signal -> {
+            if (signal.isOnNext()) {
+                run(signal.getContextView(), () -> action.accept(signal.get()));
+            }
+        };
+    }
+
+    /**
+     * 配合 {@code doOnEach} 使用，出错时激活快照后执行
+     */
+    public static <T> Consumer<Signal<T>> onError(Consumer<? super Throwable> action) {
+        return signal -> {
+            if (signal.isOnError()) {
+                run(signal.getContextView(), () -> action.accept(signal.getThrowable()));
+            }
+        };
+    }
+}
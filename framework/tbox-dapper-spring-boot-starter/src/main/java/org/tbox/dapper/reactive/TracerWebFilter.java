@@ -0,0 +1,106 @@
+package org.tbox.dapper.reactive;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TracePropagation;
+import org.tbox.dapper.context.TraceSnapshot;
+import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.governor.TracingGovernor;
+import org.tbox.dapper.store.TraceStore;
+import org.tbox.dapper.utils.CompiledPathMatcher;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux请求追踪过滤器
+ * 为每个请求创建不绑定线程的根Span，把快照写入Reactor Context（{@link ReactorTraceContext#KEY}）随订阅传递，
+ * 请求处理过程中不读写ThreadLocal和MDC；需要打印日志的位置通过 {@link ReactorTraceContext} 按需恢复MDC。
+ * 请求结束时写入进程内追踪记录存储，与 {@link org.tbox.dapper.web.TracerWebInterceptor} 行为一致
+ */
+public class TracerWebFilter implements WebFilter, Ordered {
+
+    /**
+     * 请求属性：本次请求的追踪上下文，供不在Reactor链路中的组件使用
+     */
+    public static final String TRACE_CONTEXT_ATTRIBUTE = TracerWebFilter.class.getName() + ".TRACE_CONTEXT";
+
+    private static final String ERROR_ATTRIBUTE = TracerWebFilter.class.getName() + ".ERROR";
+
+    private final TracerProperties properties;
+
+    private final CompiledPathMatcher excludePathMatcher;
+
+    public TracerWebFilter(TracerProperties properties, CompiledPathMatcher excludePathMatcher) {
+        this.properties = properties;
+        this.excludePathMatcher = excludePathMatcher;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || excludePathMatcher.matches(request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+
+        TracingGovernor.recordRequest();
+        // 获取请求头中的追踪信息（traceparent / b3 / 多头格式）
+        String appName = properties.getApplicationName();
+        TraceSnapshot upstream = TracePropagation.extract(request.getHeaders(), HttpHeaders::getFirst, appName);
+        TraceContext context = TraceContext.detached(upstream, appName);
+
+        // 添加追踪ID到响应头
+        HttpHeaders responseHeaders = exchange.getResponse().getHeaders();
+        responseHeaders.add(TracerConstants.HEADER_TRACE_ID, context.getTraceId());
+        responseHeaders.add(TracerConstants.HEADER_SPAN_ID, context.getSpanId());
+
+        // 只保留ID时不记录请求属性
+        if (TracingGovernor.isRecordingEnabled()) {
+            context.setAttribute("http.method", request.getMethodValue());
+            context.setAttribute("http.uri", request.getPath().value());
+        }
+        exchange.getAttributes().put(TRACE_CONTEXT_ATTRIBUTE, context);
+
+        TraceSnapshot snapshot = context.snapshot();
+        return chain.filter(exchange)
+                .doOnError(e -> exchange.getAttributes().putIfAbsent(ERROR_ATTRIBUTE, e))
+                .doFinally(signal -> complete(exchange, context))
+                .contextWrite(ctx -> ctx.put(ReactorTraceContext.KEY, snapshot));
+    }
+
+    /**
+     * 请求结束：记录响应状态并写入进程内追踪记录存储
+     */
+    private static void complete(ServerWebExchange exchange, TraceContext context) {
+        long nanos = context.getDurationNanos();
+        ServerHttpResponse response = exchange.getResponse();
+        Integer rawStatus = response.getRawStatusCode();
+        int status = rawStatus != null ? rawStatus : 200;
+        context.setAttribute("http.status", String.valueOf(status));
+        context.complete();
+
+        if (!TraceStore.isEnabled() || !TracingGovernor.isRecordingEnabled()) {
+            return;
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethodValue() + ' '
+                + (pattern instanceof PathPattern ? ((PathPattern) pattern).getPatternString() : path);
+        Throwable ex = exchange.getAttribute(ERROR_ATTRIBUTE);
+        String error = ex != null ? ex.getClass().getSimpleName() : (status >= 500 ? "HTTP " + status : null);
+        TraceStore.record(context, endpoint, path, status, error, nanos);
+    }
+}
@@ -0,0 +1,88 @@
+package org.tbox.dapper.redis;
+
+import org.tbox.dapper.span.ClientSpan;
+import org.tbox.dapper.span.SpanComponent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Redis客户端Span的公共逻辑：key前缀提取、带Span的方法调用
+ */
+final class RedisSpans {
+
+    /**
+     * key前缀的最大长度，超出时不再查找分隔符
+     */
+    static final int MAX_PREFIX_LENGTH = 32;
+
+    /**
+     * 无法提取前缀（没有分隔符）的key统一归为一类
+     */
+    static final String ANY = "*";
+
+    private RedisSpans() {
+    }
+
+    /**
+     * 取key中第一个冒号（含）之前的部分作为前缀，如 user:1001:profile 得到 user:*
+     * 前缀只用于分类统计，不记录完整key，避免泄露业务数据和产生无限多的取值
+     */
+    static String keyPrefix(byte[] key) {
+        int limit = Math.min(key.length, MAX_PREFIX_LENGTH);
+        for (int i = 0; i < limit; i++) {
+            if (key[i] == ':') {
+                return new String(key, 0, i + 1, StandardCharsets.UTF_8) + ANY;
+            }
+        }
+        return ANY;
+    }
+
+    static String keyPrefix(String key) {
+        int limit = Math.min(key.length(), MAX_PREFIX_LENGTH);
+        for (int i = 0; i < limit; i++) {
+            if (key.charAt(i) == ':') {
+                return key.substring(0, i + 1) + ANY;
+            }
+        }
+        return ANY;
+    }
+
+    /**
+     * 在客户端Span中调用目标方法
+     * 返回值为 {@link CompletionStage}（如Redisson的RFuture）时在完成时结束Span
+     */
+    static Object invoke(Object target, Method method, Object[] args, String operation, String resource)
+            throws Throwable {
+        ClientSpan span = ClientSpan.start(SpanComponent.REDIS, operation, resource);
+        if (span == null) {
+            return invokeDirect(target, method, args);
+        }
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            span.finish(e.getCause());
+            throw e.getCause();
+        }
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, error) -> span.finish(error));
+        } else {
+            span.finish();
+        }
+        return result;
+    }
+
+    /**
+     * 直接调用目标方法，抛出目标方法本身的异常
+     */
+    static Object invokeDirect(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.tbox.dapper.redis;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Redis客户端追踪自动配置类
+ * 检测到spring-data-redis或Redisson时自动为其调用创建客户端Span，无需用户配置
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tbox.tracer", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TracingRedisAutoConfiguration {
+
+    /**
+     * RedisTemplate追踪配置
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.data.redis.core.RedisTemplate")
+    @ConditionalOnProperty(prefix = "tbox.tracer.redis", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class RedisTemplateTracingConfiguration {
+
+        @Bean
+        public static TracingRedisBeanPostProcessor tracingRedisBeanPostProcessor() {
+            return new TracingRedisBeanPostProcessor();
+        }
+    }
+
+    /**
+     * Redisson追踪配置
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.redisson.api.RedissonClient")
+    @ConditionalOnProperty(prefix = "tbox.tracer.redis", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class RedissonTracingConfiguration {
+
+        @Bean
+        public static TracingRedissonBeanPostProcessor tracingRedissonBeanPostProcessor() {
+            return new TracingRedissonBeanPostProcessor();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.tbox.dapper.redis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * RedisTemplate追踪Bean后处理器
+ * 把RedisTemplate（包括StringRedisTemplate）的连接工厂替换为 {@link TracingRedisConnectionFactory}，
+ * 连接工厂Bean本身不做替换，其他依赖连接工厂的组件（如缓存管理器、响应式模板）不受影响
+ */
+public class TracingRedisBeanPostProcessor implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(TracingRedisBeanPostProcessor.class);
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof RedisTemplate) {
+            RedisTemplate<?, ?> template = (RedisTemplate<?, ?>) bean;
+            RedisConnectionFactory factory = template.getConnectionFactory();
+            if (factory != null && !(factory instanceof TracingRedisConnectionFactory)) {
+                template.setConnectionFactory(new TracingRedisConnectionFactory(factory));
+                log.debug("Redis tracing enabled for template: {}", beanName);
+            }
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,57 @@
+package org.tbox.dapper.redis;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.tbox.dapper.span.ClientSpan;
+
+/**
+ * 为RedisTemplate提供带追踪的连接
+ * 获取连接时当前线程没有追踪上下文或未采样，直接返回原始连接，命令执行不经过任何代理；
+ * 否则返回的连接为每条命令创建客户端Span
+ */
+public class TracingRedisConnectionFactory implements RedisConnectionFactory {
+
+    private final RedisConnectionFactory delegate;
+
+    public TracingRedisConnectionFactory(RedisConnectionFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        RedisConnection connection = delegate.getConnection();
+        return ClientSpan.isActive() ? TracingRedisConnectionHandler.wrap(connection) : connection;
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        RedisClusterConnection connection = delegate.getClusterConnection();
+        return ClientSpan.isActive()
+                ? (RedisClusterConnection) TracingRedisConnectionHandler.wrap(connection) : connection;
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return delegate.getConvertPipelineAndTxResults();
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        return delegate.getSentinelConnection();
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return delegate.translateExceptionIfPossible(ex);
+    }
+
+    /**
+     * 被包装的原始连接工厂
+     */
+    public RedisConnectionFactory getDelegate() {
+        return delegate;
+    }
+}
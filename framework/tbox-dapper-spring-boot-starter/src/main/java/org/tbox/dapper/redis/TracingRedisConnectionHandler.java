@@ -0,0 +1,112 @@
+package org.tbox.dapper.redis;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis连接及其命令接口（stringCommands()等）的代理，为每条命令创建客户端Span
+ * 操作名为命令名（方法名大写，如 GET、HSET），资源为第一个key的前缀；
+ * 管道或事务中的命令只是排队，不单独计时，由 closePipeline / exec 统一计时
+ */
+class TracingRedisConnectionHandler implements InvocationHandler {
+
+    // 不访问Redis的连接管理方法
+    private static final Set<String> PASS_THROUGH = new HashSet<>(Arrays.asList(
+            "close", "isClosed", "getNativeConnection", "isQueueing", "isPipelined", "openPipeline",
+            "getSentinelConnection", "isSubscribed", "getSubscription"));
+
+    // 第一个参数不是key的命令
+    private static final Set<String> KEYLESS = new HashSet<>(Arrays.asList(
+            "EVAL", "EVALSHA", "SCRIPTLOAD", "SCRIPTEXISTS", "EXECUTE"));
+
+    private static final Map<Method, String> COMMAND_NAMES = new ConcurrentHashMap<>();
+
+    private final Object target;
+    private final RedisConnection connection;
+
+    private TracingRedisConnectionHandler(Object target, RedisConnection connection) {
+        this.target = target;
+        this.connection = connection;
+    }
+
+    /**
+     * 包装连接，代理实现连接实际实现的所有接口（如集群连接）
+     */
+    static RedisConnection wrap(RedisConnection connection) {
+        return (RedisConnection) Proxy.newProxyInstance(TracingRedisConnectionHandler.class.getClassLoader(),
+                ClassUtils.getAllInterfacesForClass(connection.getClass(),
+                        TracingRedisConnectionHandler.class.getClassLoader()),
+                new TracingRedisConnectionHandler(connection, connection));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return invokeObjectMethod(proxy, method, args);
+        }
+        String name = method.getName();
+        if (PASS_THROUGH.contains(name)) {
+            return RedisSpans.invokeDirect(target, method, args);
+        }
+        if (isCommandsAccessor(method)) {
+            Object commands = RedisSpans.invokeDirect(target, method, args);
+            if (commands == null || !method.getReturnType().isInstance(commands)) {
+                return commands;
+            }
+            return Proxy.newProxyInstance(TracingRedisConnectionHandler.class.getClassLoader(),
+                    new Class<?>[]{method.getReturnType()}, new TracingRedisConnectionHandler(commands, connection));
+        }
+        if (!"closePipeline".equals(name) && (connection.isPipelined() || connection.isQueueing())) {
+            return RedisSpans.invokeDirect(target, method, args);
+        }
+        String command = COMMAND_NAMES.computeIfAbsent(method, TracingRedisConnectionHandler::commandName);
+        return RedisSpans.invoke(target, method, args, command, KEYLESS.contains(command) ? null : resource(args));
+    }
+
+    private Object invokeObjectMethod(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return RedisSpans.invokeDirect(target, method, args);
+        }
+    }
+
+    private static boolean isCommandsAccessor(Method method) {
+        return method.getParameterCount() == 0 && method.getName().endsWith("Commands")
+                && method.getReturnType().isInterface();
+    }
+
+    private static String commandName(Method method) {
+        return "closePipeline".equals(method.getName()) ? "PIPELINE" : method.getName().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 第一个参数为key（或key数组）时取其前缀
+     */
+    private static String resource(Object[] args) {
+        if (args == null || args.length == 0) {
+            return null;
+        }
+        Object first = args[0];
+        if (first instanceof byte[]) {
+            return RedisSpans.keyPrefix((byte[]) first);
+        }
+        if (first instanceof byte[][] && ((byte[][]) first).length > 0 && ((byte[][]) first)[0] != null) {
+            return RedisSpans.keyPrefix(((byte[][]) first)[0]);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+package org.tbox.dapper.redis;
+
+import org.aopalliance.aop.Advice;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Redisson追踪Bean后处理器
+ * 为RedissonClient Bean创建基于子类的代理（而不是接口代理），
+ * 依赖具体类型的组件（如redisson-spring-data的连接工厂转换为Redisson）不受影响
+ */
+public class TracingRedissonBeanPostProcessor implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(TracingRedissonBeanPostProcessor.class);
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof RedissonClient) || isTraced(bean)) {
+            return bean;
+        }
+        if (bean instanceof Advised) {
+            // 已经是AOP代理时追加拦截器，不再嵌套代理
+            Advised advised = (Advised) bean;
+            if (!advised.isFrozen()) {
+                advised.addAdvice(new TracingRedissonClientInterceptor());
+            }
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TracingRedissonClientInterceptor());
+        log.debug("Redisson tracing enabled for client: {}", beanName);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static boolean isTraced(Object bean) {
+        if (!(bean instanceof Advised)) {
+            return false;
+        }
+        for (Advisor advisor : ((Advised) bean).getAdvisors()) {
+            Advice advice = advisor.getAdvice();
+            if (advice instanceof TracingRedissonClientInterceptor) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
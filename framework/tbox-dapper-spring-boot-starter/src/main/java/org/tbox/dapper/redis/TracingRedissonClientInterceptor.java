@@ -0,0 +1,42 @@
+package org.tbox.dapper.redis;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.tbox.dapper.span.ClientSpan;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * RedissonClient的方法拦截器
+ * 客户端本身的方法不访问Redis，只在当前线程需要记录Span时才包装返回的分布式对象，
+ * 未采样时返回原始对象，后续调用不经过任何代理
+ */
+class TracingRedissonClientInterceptor implements MethodInterceptor {
+
+    private static final String API_PACKAGE = "org.redisson.api.";
+
+    // 不包装的返回类型：批量/事务/远程服务等不是单次Redis调用
+    private static final Set<String> UNWRAPPED_TYPES = new HashSet<>(Arrays.asList(
+            "RBatch", "RTransaction", "RRemoteService", "RExecutorService", "RScheduledExecutorService",
+            "RLiveObjectService"));
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        Class<?> type = invocation.getMethod().getReturnType();
+        if (result == null || !isWrappable(type) || !ClientSpan.isActive()) {
+            return result;
+        }
+        Object[] args = invocation.getArguments();
+        String resource = args.length > 0 && args[0] instanceof String
+                ? RedisSpans.keyPrefix((String) args[0]) : RedisSpans.ANY;
+        return TracingRedissonObjectHandler.wrap(type, result, resource);
+    }
+
+    private static boolean isWrappable(Class<?> type) {
+        return type.isInterface() && type.getName().startsWith(API_PACKAGE)
+                && type.getSimpleName().startsWith("R") && !UNWRAPPED_TYPES.contains(type.getSimpleName());
+    }
+}
@@ -0,0 +1,63 @@
+package org.tbox.dapper.redis;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redisson分布式对象（RBucket、RLock、RRateLimiter等）的代理，为每次调用创建客户端Span
+ * 操作名为 接口名.方法名（如 RLock.tryLock），资源为对象名称的前缀；
+ * 异步方法（返回RFuture）在完成时结束Span
+ */
+class TracingRedissonObjectHandler implements InvocationHandler {
+
+    // 不访问Redis的方法
+    private static final Set<String> PASS_THROUGH = new HashSet<>(Arrays.asList("getName", "getCodec"));
+
+    private static final Map<Method, String> OPERATION_NAMES = new ConcurrentHashMap<>();
+
+    private final Object target;
+    private final String resource;
+
+    private TracingRedissonObjectHandler(Object target, String resource) {
+        this.target = target;
+        this.resource = resource;
+    }
+
+    /**
+     * 以指定接口包装分布式对象
+     *
+     * @param type     对象的接口类型
+     * @param target   原始对象
+     * @param resource 对象名称的前缀
+     */
+    static Object wrap(Class<?> type, Object target, String resource) {
+        return Proxy.newProxyInstance(TracingRedissonObjectHandler.class.getClassLoader(),
+                new Class<?>[]{type}, new TracingRedissonObjectHandler(target, resource));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return RedisSpans.invokeDirect(target, method, args);
+            }
+        }
+        if (PASS_THROUGH.contains(method.getName())) {
+            return RedisSpans.invokeDirect(target, method, args);
+        }
+        String operation = OPERATION_NAMES.computeIfAbsent(method,
+                m -> m.getDeclaringClass().getSimpleName() + "." + m.getName());
+        return RedisSpans.invoke(target, method, args, operation, resource);
+    }
+}
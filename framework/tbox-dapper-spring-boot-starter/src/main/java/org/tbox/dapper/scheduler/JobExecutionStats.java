@@ -0,0 +1,302 @@
+package org.tbox.dapper.scheduler;
+
+import org.tbox.dapper.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 定时任务执行统计，按任务类型和名称汇总
+ * <ul>
+ *     <li>执行耗时直方图、失败次数、最近一次耗时</li>
+ *     <li>超时（overrun）：本次执行结束时已经过了下一次触发时间，即下一次触发时本次仍在执行</li>
+ *     <li>重叠（overlap）：开始执行时同一任务仍有其他执行未结束，以及同时执行数的峰值</li>
+ *     <li>周期占用率：最近一次耗时 / 调度周期，持续上升说明任务在变慢，接近1时即将与下一次触发重叠</li>
+ * </ul>
+ * 登记的任务数有上限（默认200），超出后计入 {@link #OTHER}
+ */
+public final class JobExecutionStats {
+
+    /**
+     * 超出上限后的新任务统一计入此项
+     */
+    public static final String OTHER = "<other>";
+
+    /**
+     * Spring @Scheduled 任务
+     */
+    public static final String TYPE_SCHEDULED = "scheduled";
+
+    /**
+     * XXL-Job 任务
+     */
+    public static final String TYPE_XXL_JOB = "xxl-job";
+
+    /**
+     * Quartz 任务
+     */
+    public static final String TYPE_QUARTZ = "quartz";
+
+    private static final ConcurrentMap<String, JobExecutionStats> REGISTRY = new ConcurrentHashMap<>();
+    private static final Collection<Consumer<JobExecutionStats>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static volatile int maxJobs = 200;
+
+    private final String type;
+    private final String name;
+    private final LatencyHistogram duration = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder overruns = new LongAdder();
+    private final LongAdder overlaps = new LongAdder();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private volatile long lastDurationNanos;
+    private volatile long periodNanos;
+    private volatile long lastFinishTime;
+
+    private JobExecutionStats(String type, String name) {
+        this.type = type;
+        this.name = name;
+    }
+
+    /**
+     * 获取（或创建）指定任务的统计，数量达到上限时返回 {@link #OTHER}
+     *
+     * @param type 任务类型，如 {@link #TYPE_SCHEDULED}
+     * @param name 任务名称，如 类名.方法名、XXL-Job的JobHandler名、Quartz的JobKey
+     */
+    public static JobExecutionStats of(String type, String name) {
+        String key = type + ':' + name;
+        JobExecutionStats stats = REGISTRY.get(key);
+        if (stats != null) {
+            return stats;
+        }
+        synchronized (LISTENERS) {
+            stats = REGISTRY.get(key);
+            if (stats == null) {
+                if (REGISTRY.size() >= maxJobs) {
+                    key = OTHER;
+                    stats = REGISTRY.get(OTHER);
+                    if (stats != null) {
+                        return stats;
+                    }
+                    stats = new JobExecutionStats(OTHER, OTHER);
+                } else {
+                    stats = new JobExecutionStats(type, name);
+                }
+                REGISTRY.put(key, stats);
+                for (Consumer<JobExecutionStats> listener : LISTENERS) {
+                    listener.accept(stats);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 查找指定任务的统计，不存在时返回null
+     */
+    public static JobExecutionStats find(String type, String name) {
+        return REGISTRY.get(type + ':' + name);
+    }
+
+    /**
+     * 获取所有已登记的统计
+     */
+    public static Collection<JobExecutionStats> all() {
+        return Collections.unmodifiableCollection(REGISTRY.values());
+    }
+
+    /**
+     * 按最近一次周期占用率从高到低排列，没有调度周期的任务按最近一次耗时排在其后
+     */
+    public static List<JobExecutionStats> sorted() {
+        List<JobExecutionStats> list = new ArrayList<>(REGISTRY.values());
+        list.sort(Comparator.comparingDouble(JobExecutionStats::getUtilization)
+                .thenComparingLong(JobExecutionStats::getLastDurationNanos).reversed());
+        return list;
+    }
+
+    /**
+     * 对已登记和之后登记的每个统计执行一次回调，用于注册指标
+     */
+    public static void forEachInstance(Consumer<JobExecutionStats> listener) {
+        synchronized (LISTENERS) {
+            LISTENERS.add(listener);
+            REGISTRY.values().forEach(listener);
+        }
+    }
+
+    /**
+     * 设置登记的任务数量上限
+     */
+    public static void setMaxJobs(int max) {
+        maxJobs = Math.max(1, max);
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public static void reset() {
+        synchronized (LISTENERS) {
+            REGISTRY.clear();
+        }
+    }
+
+    /**
+     * 任务开始执行
+     *
+     * @return 开始时间（System.nanoTime），结束时传给 {@link #finish(long, boolean, long)}
+     */
+    public long start() {
+        int current = running.incrementAndGet();
+        if (current > 1) {
+            overlaps.increment();
+        }
+        int max;
+        while (current > (max = maxRunning.get()) && !maxRunning.compareAndSet(max, current)) {
+            // 重试
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * 任务结束执行
+     *
+     * @param startNanos  {@link #start()} 的返回值
+     * @param error       是否失败
+     * @param periodNanos 本次触发到下一次触发的间隔（纳秒），未知（如固定延迟、手动触发）时为0
+     * @return 本次执行耗时（纳秒）
+     */
+    public long finish(long startNanos, boolean error, long periodNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        running.decrementAndGet();
+        duration.record(nanos);
+        lastDurationNanos = nanos;
+        lastFinishTime = System.currentTimeMillis();
+        if (error) {
+            errors.increment();
+        }
+        if (periodNanos > 0) {
+            this.periodNanos = periodNanos;
+            if (nanos > periodNanos) {
+                overruns.increment();
+            }
+        }
+        return nanos;
+    }
+
+    /**
+     * 任务开始后被取消（如Quartz监听器否决执行），只撤销执行中计数
+     */
+    public void cancel() {
+        running.decrementAndGet();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return duration.getCount();
+    }
+
+    public long getTotalNanos() {
+        return duration.getTotalNanos();
+    }
+
+    public LatencyHistogram getDuration() {
+        return duration;
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * 执行结束时已超过下一次触发时间的次数
+     */
+    public long getOverruns() {
+        return overruns.sum();
+    }
+
+    /**
+     * 开始执行时同一任务仍有其他执行未结束的次数
+     */
+    public long getOverlaps() {
+        return overlaps.sum();
+    }
+
+    /**
+     * 当前正在执行的数量
+     */
+    public int getRunning() {
+        return running.get();
+    }
+
+    /**
+     * 同时执行数的峰值
+     */
+    public int getMaxRunning() {
+        return maxRunning.get();
+    }
+
+    public long getLastDurationNanos() {
+        return lastDurationNanos;
+    }
+
+    /**
+     * 最近一次已知的调度周期（纳秒），未知时为0
+     */
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * 周期占用率：最近一次耗时 / 调度周期，调度周期未知时为0
+     */
+    public double getUtilization() {
+        long period = periodNanos;
+        return period > 0 ? lastDurationNanos / (double) period : 0D;
+    }
+
+    public long getLastFinishTime() {
+        return lastFinishTime;
+    }
+
+    /**
+     * 汇总信息，耗时单位为毫秒
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("type", type);
+        map.put("name", name);
+        map.put("count", getCount());
+        map.put("errors", getErrors());
+        map.put("overruns", getOverruns());
+        map.put("overlaps", getOverlaps());
+        map.put("running", getRunning());
+        map.put("maxRunning", getMaxRunning());
+        map.put("lastMs", lastDurationNanos / 1_000_000L);
+        map.put("periodMs", periodNanos / 1_000_000L);
+        map.put("utilization", Math.round(getUtilization() * 1000D) / 1000D);
+        map.put("lastFinishTime", lastFinishTime);
+        map.put("duration", duration.snapshot().toMillisMap());
+        return map;
+    }
+}
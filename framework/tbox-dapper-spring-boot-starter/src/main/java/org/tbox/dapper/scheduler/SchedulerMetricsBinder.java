@@ -0,0 +1,56 @@
+package org.tbox.dapper.scheduler;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将定时任务执行统计注册为Micrometer指标 {@code tbox.scheduler.job.*}（标签type、job）
+ * 所有指标均为函数式指标，只在抓取时读取统计数据，启动后新登记的任务在登记时补充注册
+ */
+public class SchedulerMetricsBinder implements MeterBinder {
+
+    private static final String PREFIX = "tbox.scheduler.job";
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        JobExecutionStats.forEachInstance(stats -> register(registry, stats));
+    }
+
+    private static void register(MeterRegistry registry, JobExecutionStats stats) {
+        Tags tags = Tags.of("type", stats.getType(), "job", stats.getName());
+
+        FunctionTimer.builder(PREFIX + ".duration", stats, JobExecutionStats::getCount,
+                        JobExecutionStats::getTotalNanos, TimeUnit.NANOSECONDS)
+                .tags(tags).description("任务执行耗时").register(registry);
+        TimeGauge.builder(PREFIX + ".duration.p99", stats, TimeUnit.NANOSECONDS,
+                        s -> s.getDuration().getPercentileNanos(99))
+                .tags(tags).register(registry);
+        TimeGauge.builder(PREFIX + ".duration.max", stats, TimeUnit.NANOSECONDS,
+                        s -> s.getDuration().getMaxNanos())
+                .tags(tags).register(registry);
+        TimeGauge.builder(PREFIX + ".duration.last", stats, TimeUnit.NANOSECONDS,
+                        JobExecutionStats::getLastDurationNanos)
+                .tags(tags).description("最近一次执行耗时").register(registry);
+        Gauge.builder(PREFIX + ".utilization", stats, JobExecutionStats::getUtilization)
+                .tags(tags).description("最近一次耗时与调度周期之比，达到1即与下一次触发重叠").register(registry);
+
+        FunctionCounter.builder(PREFIX + ".errors", stats, JobExecutionStats::getErrors)
+                .tags(tags).description("执行失败次数").register(registry);
+        FunctionCounter.builder(PREFIX + ".overruns", stats, JobExecutionStats::getOverruns)
+                .tags(tags).description("执行结束时已超过下一次触发时间的次数").register(registry);
+        FunctionCounter.builder(PREFIX + ".overlaps", stats, JobExecutionStats::getOverlaps)
+                .tags(tags).description("开始执行时上一次执行尚未结束的次数").register(registry);
+
+        Gauge.builder(PREFIX + ".running", stats, JobExecutionStats::getRunning)
+                .tags(tags).description("正在执行的数量").register(registry);
+        Gauge.builder(PREFIX + ".running.max", stats, JobExecutionStats::getMaxRunning)
+                .tags(tags).description("同时执行数的峰值").register(registry);
+    }
+}
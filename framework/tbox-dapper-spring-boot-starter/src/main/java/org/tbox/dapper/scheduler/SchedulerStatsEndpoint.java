@@ -0,0 +1,24 @@
+package org.tbox.dapper.scheduler;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 定时任务执行统计端点：/actuator/tboxjobs，按周期占用率从高到低列出
+ */
+@Endpoint(id = "tboxjobs")
+public class SchedulerStatsEndpoint {
+
+    @ReadOperation
+    public List<Map<String, Object>> jobs() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (JobExecutionStats stats : JobExecutionStats.sorted()) {
+            result.add(stats.toMap());
+        }
+        return result;
+    }
+}
@@ -2,11 +2,14 @@ package org.tbox.dapper.scheduler;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.scheduler.quartz.TracingQuartzSchedulerBeanPostProcessor;
 import org.tbox.dapper.scheduler.spring.ScheduledTaskTraceAspect;
 import org.tbox.dapper.scheduler.xxljob.XxlJobTraceAspect;
 
@@ -18,6 +21,7 @@ public class TracingSchedulerAutoConfiguration {
 
     @Configuration
     @ConditionalOnClass(name = "com.xxl.job.core.handler.annotation.XxlJob")
+    @ConditionalOnProperty(prefix = "tbox.tracer.scheduler", name = "xxljob-enabled", havingValue = "true", matchIfMissing = true)
     public static class XxlJobTracerAutoConfiguration {
         /**
          * 注册XXL-Job任务追踪切面
@@ -32,6 +36,7 @@ public class TracingSchedulerAutoConfiguration {
 
 
     @Configuration
+    @ConditionalOnProperty(prefix = "tbox.tracer.scheduler", name = "spring-scheduled-enabled", havingValue = "true", matchIfMissing = true)
     public static class SpringSchedulerAutoConfiguration {
 
         /**
@@ -45,8 +50,48 @@ public class TracingSchedulerAutoConfiguration {
         }
     }
 
+    @Configuration
+    @ConditionalOnClass(name = "org.quartz.JobListener")
+    @ConditionalOnProperty(prefix = "tbox.tracer.scheduler", name = "quartz-enabled", havingValue = "true", matchIfMissing = true)
+    public static class QuartzTracerAutoConfiguration {
 
+        /**
+         * 为Quartz Scheduler注册任务追踪监听器
+         * @return Scheduler后置处理器
+         */
+        @Bean
+        public static TracingQuartzSchedulerBeanPostProcessor tracingQuartzSchedulerBeanPostProcessor(
+                ObjectProvider<TracerProperties> tracerProperties) {
+            log.debug("自动注册quartz追踪监听器");
+            return new TracingQuartzSchedulerBeanPostProcessor(tracerProperties);
+        }
+    }
 
+    /**
+     * 任务执行指标，存在micrometer-core时生效
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class SchedulerMetricsConfiguration {
 
+        @Bean
+        @ConditionalOnMissingBean
+        public SchedulerMetricsBinder schedulerMetricsBinder() {
+            return new SchedulerMetricsBinder();
+        }
+    }
+
+    /**
+     * 任务执行统计端点，存在spring-boot-actuator时生效
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class SchedulerEndpointConfiguration {
 
+        @Bean
+        @ConditionalOnMissingBean
+        public SchedulerStatsEndpoint schedulerStatsEndpoint() {
+            return new SchedulerStatsEndpoint();
+        }
+    }
 }
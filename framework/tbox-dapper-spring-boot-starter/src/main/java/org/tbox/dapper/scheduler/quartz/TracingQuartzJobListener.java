@@ -0,0 +1,107 @@
+package org.tbox.dapper.scheduler.quartz;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.logging.TraceLogBuffer;
+import org.tbox.dapper.scheduler.JobExecutionStats;
+import org.tbox.dapper.utils.DurationFormat;
+
+import java.util.Date;
+
+/**
+ * Quartz任务追踪监听器
+ * 执行前创建追踪上下文，执行后按JobKey记录执行耗时、超时和重叠次数；
+ * 调度周期为开始执行到触发器下一次触发的间隔，结束时超过该间隔即计为超时。
+ * 监听器在任务所在的工作线程中回调，追踪上下文对任务内的日志和下游调用可见
+ */
+public class TracingQuartzJobListener implements JobListener {
+
+    /**
+     * 监听器名称
+     */
+    public static final String NAME = "tboxTracingJobListener";
+
+    private static final String RUN_KEY = TracingQuartzJobListener.class.getName() + ".run";
+
+    private final TracerProperties tracerProperties;
+
+    public TracingQuartzJobListener(TracerProperties tracerProperties) {
+        this.tracerProperties = tracerProperties;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void jobToBeExecuted(JobExecutionContext context) {
+        String jobName = context.getJobDetail().getKey().toString();
+
+        TraceContext traceContext = TraceContext.createRootContext(tracerProperties.getApplicationName());
+        traceContext.setAttribute(TracerConstants.COMPONENT_TYPE, "scheduled-task");
+        traceContext.setAttribute(TracerConstants.RESOURCE_TYPE, "quartz");
+        traceContext.setAttribute(TracerConstants.RESOURCE_NAME, jobName);
+        traceContext.setAttribute("quartz.trigger", context.getTrigger().getKey().toString());
+
+        Date nextFireTime = context.getNextFireTime();
+        long periodNanos = nextFireTime != null
+                ? Math.max(nextFireTime.getTime() - System.currentTimeMillis(), 0L) * 1_000_000L : 0L;
+        JobExecutionStats stats = JobExecutionStats.of(JobExecutionStats.TYPE_QUARTZ, jobName);
+        context.put(RUN_KEY, new Run(stats, stats.start(), periodNanos));
+        TraceLogBuffer.begin();
+    }
+
+    @Override
+    public void jobExecutionVetoed(JobExecutionContext context) {
+        // 被TriggerListener否决时不会回调jobToBeExecuted，这里只做兜底清理
+        Object run = context.get(RUN_KEY);
+        if (run instanceof Run) {
+            ((Run) run).stats.cancel();
+            context.put(RUN_KEY, null);
+            TraceContext.removeContext();
+        }
+    }
+
+    @Override
+    public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+        Object value = context.get(RUN_KEY);
+        if (!(value instanceof Run)) {
+            return;
+        }
+        Run run = (Run) value;
+        context.put(RUN_KEY, null);
+        boolean failed = jobException != null;
+        long durationNanos = run.stats.finish(run.startNanos, failed, run.periodNanos);
+
+        TraceContext traceContext = TraceContext.getCurrentContext();
+        if (traceContext != null) {
+            if (failed) {
+                traceContext.setAttribute(TracerConstants.ERROR, "true");
+                traceContext.setAttribute(TracerConstants.ERROR_MESSAGE, jobException.getMessage());
+            }
+            traceContext.setAttribute(TracerConstants.DURATION, DurationFormat.millis(durationNanos));
+        }
+        TraceLogBuffer.end(failed, durationNanos / 1_000_000L);
+        TraceContext.removeContext();
+    }
+
+    /**
+     * 单次执行的状态，保存在JobExecutionContext中
+     */
+    private static final class Run {
+        final JobExecutionStats stats;
+        final long startNanos;
+        final long periodNanos;
+
+        Run(JobExecutionStats stats, long startNanos, long periodNanos) {
+            this.stats = stats;
+            this.startNanos = startNanos;
+            this.periodNanos = periodNanos;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.tbox.dapper.scheduler.quartz;
+
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.tbox.dapper.config.TracerProperties;
+
+/**
+ * 为容器中的Quartz Scheduler注册 {@link TracingQuartzJobListener}
+ * SchedulerFactoryBean创建的Scheduler同样会经过此处理器；配置在处理Scheduler时才获取，避免提前初始化
+ */
+public class TracingQuartzSchedulerBeanPostProcessor implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(TracingQuartzSchedulerBeanPostProcessor.class);
+
+    private final ObjectProvider<TracerProperties> tracerProperties;
+
+    public TracingQuartzSchedulerBeanPostProcessor(ObjectProvider<TracerProperties> tracerProperties) {
+        this.tracerProperties = tracerProperties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Scheduler) {
+            Scheduler scheduler = (Scheduler) bean;
+            try {
+                if (scheduler.getListenerManager().getJobListener(TracingQuartzJobListener.NAME) == null) {
+                    scheduler.getListenerManager().addJobListener(new TracingQuartzJobListener(tracerProperties.getObject()));
+                    log.debug("Registered tracing job listener on quartz scheduler: {}", beanName);
+                }
+            } catch (SchedulerException e) {
+                log.warn("注册Quartz任务追踪监听器失败: {}", e.getMessage());
+            }
+        }
+        return bean;
+    }
+}
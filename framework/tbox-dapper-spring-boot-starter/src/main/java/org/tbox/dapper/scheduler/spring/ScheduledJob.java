@@ -0,0 +1,99 @@
+package org.tbox.dapper.scheduler.spring;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.util.StringUtils;
+import org.tbox.dapper.scheduler.JobExecutionStats;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个@Scheduled方法的统计和调度周期
+ * cron任务的周期为接下来两次触发时间的间隔，fixedRate任务为固定间隔；
+ * fixedDelay任务、含占位符等无法直接解析的配置周期视为未知，不判断超时
+ */
+final class ScheduledJob {
+
+    final String name;
+    final JobExecutionStats stats;
+    private final CronExpression cron;
+    private final ZoneId zone;
+    private final long fixedRateNanos;
+
+    ScheduledJob(String name, Scheduled scheduled) {
+        this.name = name;
+        this.stats = JobExecutionStats.of(JobExecutionStats.TYPE_SCHEDULED, name);
+        this.cron = parseCron(scheduled);
+        this.zone = cron != null ? parseZone(scheduled.zone()) : ZoneId.systemDefault();
+        this.fixedRateNanos = cron == null ? parseFixedRate(scheduled) : 0L;
+    }
+
+    /**
+     * 调度周期（纳秒），未知时为0
+     */
+    long periodNanos() {
+        return cron != null ? periodNanos(ZonedDateTime.now(zone)) : fixedRateNanos;
+    }
+
+    /**
+     * cron任务取now之后两次触发时间的间隔
+     * 调度器可能比预定时间早几毫秒触发，此时now的下一次触发就是本次，与now的间隔只有几毫秒
+     */
+    long periodNanos(ZonedDateTime now) {
+        ZonedDateTime next = cron.next(now);
+        ZonedDateTime following = next != null ? cron.next(next) : null;
+        return following != null ? ChronoUnit.NANOS.between(next, following) : 0L;
+    }
+
+    private static CronExpression parseCron(Scheduled scheduled) {
+        if (scheduled == null) {
+            return null;
+        }
+        String expression = scheduled.cron();
+        if (!StringUtils.hasText(expression) || Scheduled.CRON_DISABLED.equals(expression)) {
+            return null;
+        }
+        try {
+            return CronExpression.parse(expression);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static ZoneId parseZone(String zone) {
+        if (!StringUtils.hasText(zone)) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(zone);
+        } catch (RuntimeException e) {
+            return ZoneId.systemDefault();
+        }
+    }
+
+    private static long parseFixedRate(Scheduled scheduled) {
+        if (scheduled == null) {
+            return 0L;
+        }
+        TimeUnit unit = scheduled.timeUnit();
+        if (scheduled.fixedRate() > 0) {
+            return unit.toNanos(scheduled.fixedRate());
+        }
+        String value = scheduled.fixedRateString().trim();
+        if (value.isEmpty()) {
+            return 0L;
+        }
+        try {
+            if (value.startsWith("P") || value.startsWith("p")) {
+                return Duration.parse(value).toNanos();
+            }
+            return unit.toNanos(Long.parseLong(value));
+        } catch (RuntimeException e) {
+            return 0L;
+        }
+    }
+}
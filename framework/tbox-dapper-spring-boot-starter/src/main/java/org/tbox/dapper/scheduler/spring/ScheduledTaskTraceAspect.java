@@ -8,18 +8,26 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.tbox.dapper.config.TracerProperties;
 import org.tbox.dapper.context.TraceContext;
 import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.logging.TraceLogBuffer;
+import org.tbox.dapper.scheduler.JobExecutionStats;
+import org.tbox.dapper.utils.DurationFormat;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Spring定时任务追踪切面
- * 自动拦截使用@Scheduled注解的方法，添加追踪上下文
+ * 自动拦截使用@Scheduled注解的方法，添加追踪上下文，并记录执行耗时、超时和重叠次数
  */
 @Aspect
 public class ScheduledTaskTraceAspect {
 
     private TracerProperties tracerProperties;
 
+    // 方法 -> 任务统计和调度周期，避免每次执行解析注解和cron表达式
+    private static final Map<Method, ScheduledJob> JOBS = new ConcurrentHashMap<>();
+
     public ScheduledTaskTraceAspect(TracerProperties tracerProperties) {
         this.tracerProperties = tracerProperties;
     }
@@ -34,22 +42,21 @@ public class ScheduledTaskTraceAspect {
     public Object traceScheduledTask(ProceedingJoinPoint joinPoint) throws Throwable {
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
         Method method = signature.getMethod();
-        String className = joinPoint.getTarget().getClass().getName();
-        String methodName = method.getName();
-        
-        // 获取@Scheduled注解信息
-        Scheduled scheduled = method.getAnnotation(Scheduled.class);
-//        String taskInfo = getScheduledTaskInfo(scheduled);
-        
+        ScheduledJob job = JOBS.computeIfAbsent(method,
+                m -> new ScheduledJob(joinPoint.getTarget().getClass().getName() + "." + m.getName(),
+                        m.getAnnotation(Scheduled.class)));
+
         // 创建追踪上下文
         TraceContext traceContext = TraceContext.createRootContext(tracerProperties.getApplicationName());
         traceContext.setAttribute(TracerConstants.COMPONENT_TYPE, "scheduled-task");
         traceContext.setAttribute(TracerConstants.RESOURCE_TYPE, "spring-scheduled");
-        traceContext.setAttribute(TracerConstants.RESOURCE_NAME, className + "." + methodName);
-//        traceContext.setAttribute("scheduled.task.info", taskInfo);
-        
-        // 记录开始执行
-        long startTime = System.currentTimeMillis();
+        traceContext.setAttribute(TracerConstants.RESOURCE_NAME, job.name);
+
+        // 记录开始执行，调度周期按开始时间计算
+        long periodNanos = job.periodNanos();
+        long startNanos = job.stats.start();
+        TraceLogBuffer.begin();
+        boolean failed = false;
 
         try {
             // 执行原方法
@@ -57,17 +64,19 @@ public class ScheduledTaskTraceAspect {
             return result;
         } catch (Throwable e) {
             // 记录异常信息
+            failed = true;
             traceContext.setAttribute(TracerConstants.ERROR, "true");
             traceContext.setAttribute(TracerConstants.ERROR_MESSAGE, e.getMessage());
             throw e;
         } finally {
             // 记录执行时间
-            long duration = System.currentTimeMillis() - startTime;
-            traceContext.setAttribute(TracerConstants.DURATION, String.valueOf(duration));
+            long durationNanos = job.stats.finish(startNanos, failed, periodNanos);
+            traceContext.setAttribute(TracerConstants.DURATION, DurationFormat.millis(durationNanos));
+            TraceLogBuffer.end(failed, durationNanos / 1_000_000L);
             TraceContext.removeContext();
         }
     }
-    
+
     /**
      * 获取定时任务的调度信息
      * @param scheduled Scheduled注解
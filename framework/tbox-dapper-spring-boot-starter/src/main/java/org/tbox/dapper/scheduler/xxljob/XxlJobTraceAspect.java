@@ -11,12 +11,16 @@ import org.slf4j.LoggerFactory;
 import org.tbox.dapper.config.TracerProperties;
 import org.tbox.dapper.context.TraceContext;
 import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.logging.TraceLogBuffer;
+import org.tbox.dapper.scheduler.JobExecutionStats;
+import org.tbox.dapper.utils.DurationFormat;
 
 import java.lang.reflect.Method;
 
 /**
  * XXL-Job任务追踪切面
- * 自动拦截所有使用@XxlJob注解的方法，添加追踪上下文
+ * 自动拦截所有使用@XxlJob注解的方法，添加追踪上下文，并记录执行耗时和重叠次数
+ * 调度周期由调度中心管理，执行器侧无法获知，因此不判断超时
  */
 @Aspect
 public class XxlJobTraceAspect {
@@ -75,7 +79,10 @@ public class XxlJobTraceAspect {
         }
         
         // 记录开始执行
-        long startTime = System.currentTimeMillis();
+        JobExecutionStats stats = JobExecutionStats.of(JobExecutionStats.TYPE_XXL_JOB, jobName);
+        long startNanos = stats.start();
+        TraceLogBuffer.begin();
+        boolean failed = false;
         
         try {
             // 执行原方法
@@ -83,6 +90,7 @@ public class XxlJobTraceAspect {
             return result;
         } catch (Throwable e) {
             // 记录异常信息
+            failed = true;
             traceContext.setAttribute(TracerConstants.ERROR, "true");
             traceContext.setAttribute(TracerConstants.ERROR_MESSAGE, e.getMessage());
             log.error("XXL-Job task failed: {}, error: {}", jobName, e.getMessage(), e);
@@ -97,8 +105,9 @@ public class XxlJobTraceAspect {
             throw e;
         } finally {
             // 记录执行时间
-            long duration = System.currentTimeMillis() - startTime;
-            traceContext.setAttribute(TracerConstants.DURATION, String.valueOf(duration));
+            long durationNanos = stats.finish(startNanos, failed, 0L);
+            traceContext.setAttribute(TracerConstants.DURATION, DurationFormat.millis(durationNanos));
+            TraceLogBuffer.end(failed, durationNanos / 1_000_000L);
             TraceContext.removeContext();
         }
     }
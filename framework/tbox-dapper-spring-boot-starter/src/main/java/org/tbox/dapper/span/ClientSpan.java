@@ -0,0 +1,272 @@
+package org.tbox.dapper.span;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TraceSnapshot;
+import org.tbox.dapper.utils.DapperIdUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 对下游组件（如Redis）一次调用的客户端Span
+ * 不绑定线程、不写MDC，结束时把耗时累加到所属追踪的 {@link SpanTimings} 并交给已注册的 {@link SpanReporter}。
+ * 在 @Traced 方法中开始时以方法Span（{@link TraceContext#getActiveSpan()}）为父Span；嵌套的方法Span不重复累加耗时。
+ * 当前线程没有追踪上下文或未采样时 {@link #start} 返回null，调用方据此直接走未埋点的路径
+ *
+ * <pre>
+ * ClientSpan span = ClientSpan.start(SpanComponent.REDIS, "GET", "user:*");
+ * if (span == null) {
+ *     return doCall();
+ * }
+ * try {
+ *     return doCall();
+ * } catch (RuntimeException e) {
+ *     span.setError(e);
+ *     throw e;
+ * } finally {
+ *     span.finish();
+ * }
+ * </pre>
+ */
+public final class ClientSpan {
+    private static final Logger log = LoggerFactory.getLogger(ClientSpan.class);
+
+    private static final List<SpanReporter> REPORTERS = new CopyOnWriteArrayList<>();
+
+    private final String traceId;
+    private final String parentSpanId;
+    private final SpanComponent component;
+    private final String operation;
+    private final String resource;
+    private final long startNanos;
+    // 嵌套在另一个方法Span中的方法Span为null，其耗时已包含在外层方法中
+    private final SpanTimings timings;
+    // 只有Reporter读取时才生成
+    private String spanId;
+    // 毫秒时间戳，只有Reporter读取时才由startNanos换算，采样路径上只读取nanoTime
+    private long startTime;
+    private long durationNanos = -1;
+    private String error;
+    // 附加信息（如影响行数），首次写入时才创建
+    private Map<String, String> tags;
+
+    private ClientSpan(TraceContext context, ClientSpan active, SpanComponent component, String operation,
+                       String resource) {
+        this(context.getTraceId(), null, active != null ? active.getSpanId() : context.getSpanId(), context,
+                component, operation, resource, active != null && component == SpanComponent.METHOD);
+    }
+
+    private ClientSpan(String traceId, String spanId, String parentSpanId, TraceContext context,
+                       SpanComponent component, String operation, String resource, boolean nested) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.component = component;
+        this.operation = operation;
+        this.resource = resource;
+        this.startNanos = System.nanoTime();
+        this.timings = nested ? null : context.getTimings();
+    }
+
+    /**
+     * 以当前线程的追踪上下文为父Span开始一个客户端Span
+     *
+     * @param component 组件
+     * @param operation 操作（如Redis命令）
+     * @param resource  资源（如key前缀），不应包含完整的业务数据
+     * @return Span，当前线程没有追踪上下文或未采样时返回null
+     */
+    public static ClientSpan start(SpanComponent component, String operation, String resource) {
+        return start(TraceContext.getCurrentContext(), component, operation, resource);
+    }
+
+    /**
+     * 以调用方已读取的追踪上下文为父Span开始一个客户端Span，避免再次读取ThreadLocal
+     *
+     * @param context 当前线程的追踪上下文
+     * @return Span，上下文为null或未采样时返回null
+     */
+    public static ClientSpan start(TraceContext context, SpanComponent component, String operation, String resource) {
+        if (context == null || !context.isSampled()) {
+            return null;
+        }
+        return new ClientSpan(context, context.getActiveSpan(), component, operation, resource);
+    }
+
+    /**
+     * 以已生成的子Span（如需要传递给下游的 {@link TraceContext#nextSpan(String)}）开始客户端Span
+     *
+     * @param span 子Span，其父Span应为当前线程的追踪上下文
+     * @return Span，当前线程没有追踪上下文或未采样时返回null
+     */
+    public static ClientSpan start(SpanComponent component, String operation, String resource, TraceSnapshot span) {
+        TraceContext context = TraceContext.getCurrentContext();
+        if (context == null || !context.isSampled() || span == null) {
+            return null;
+        }
+        return new ClientSpan(span.getTraceId(), span.getSpanId(), span.getParentSpanId(), context,
+                component, operation, resource, false);
+    }
+
+    /**
+     * 当前线程是否需要记录客户端Span，用于提前跳过埋点（如不包装连接）
+     */
+    public static boolean isActive() {
+        TraceContext context = TraceContext.getCurrentContext();
+        return context != null && context.isSampled();
+    }
+
+    /**
+     * 注册Span接收方
+     */
+    public static void addReporter(SpanReporter reporter) {
+        if (reporter != null) {
+            REPORTERS.add(reporter);
+        }
+    }
+
+    /**
+     * 移除Span接收方
+     */
+    public static void removeReporter(SpanReporter reporter) {
+        REPORTERS.remove(reporter);
+    }
+
+    /**
+     * 记录失败原因（异常类名）
+     */
+    public void setError(Throwable throwable) {
+        if (throwable != null) {
+            this.error = throwable.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * 记录失败原因（如HTTP状态码）
+     */
+    public void setError(String error) {
+        if (error != null) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * 设置附加信息
+     */
+    public void setTag(String key, String value) {
+        if (key != null && value != null) {
+            if (tags == null) {
+                tags = new LinkedHashMap<>();
+            }
+            tags.put(key, value);
+        }
+    }
+
+    /**
+     * 结束Span，重复调用无效
+     */
+    public void finish() {
+        finish(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 以指定耗时结束Span，用于耗时不等于开始到结束的间隔的场景（如只计算数据库执行和读取结果的时间）
+     *
+     * @param durationNanos 耗时（纳秒）
+     */
+    public void finish(long durationNanos) {
+        if (this.durationNanos >= 0) {
+            return;
+        }
+        this.durationNanos = Math.max(0L, durationNanos);
+        if (timings != null) {
+            timings.record(component, this.durationNanos, error != null);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Client span: component={}, operation={}, resource={}, duration={}us, error={}",
+                    component.getTag(), operation, resource, this.durationNanos / 1000, error);
+        }
+        for (SpanReporter reporter : REPORTERS) {
+            try {
+                reporter.report(this);
+            } catch (RuntimeException e) {
+                log.warn("Span reporter failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 结束Span并记录失败原因
+     */
+    public void finish(Throwable throwable) {
+        setError(throwable);
+        finish();
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        if (spanId == null) {
+            spanId = DapperIdUtils.generateHexSpanId();
+        }
+        return spanId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public SpanComponent getComponent() {
+        return component;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    /**
+     * 开始时间（毫秒时间戳）
+     */
+    public long getStartTime() {
+        if (startTime == 0L) {
+            startTime = System.currentTimeMillis() - (System.nanoTime() - startNanos) / 1_000_000L;
+        }
+        return startTime;
+    }
+
+    /**
+     * 耗时（纳秒），未结束时为-1
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * 失败原因（异常类名或HTTP状态），成功时为null
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * 附加信息，没有时返回空Map
+     */
+    public Map<String, String> getTags() {
+        return tags != null ? Collections.unmodifiableMap(tags) : Collections.emptyMap();
+    }
+
+    public boolean isError() {
+        return error != null;
+    }
+}
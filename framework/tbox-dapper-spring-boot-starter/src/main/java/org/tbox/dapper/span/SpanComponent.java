@@ -0,0 +1,40 @@
+package org.tbox.dapper.span;
+
+/**
+ * 客户端Span所属的组件，用于按组件汇总一次请求在各下游中的耗时
+ */
+public enum SpanComponent {
+
+    /**
+     * Redis（RedisTemplate / Redisson）
+     */
+    REDIS("redis"),
+
+    /**
+     * 数据库（JDBC）
+     */
+    DB("db"),
+
+    /**
+     * HTTP客户端（RestTemplate / OkHttp / HttpClient）
+     */
+    HTTP("http"),
+
+    /**
+     * 业务方法（@Traced）
+     */
+    METHOD("method");
+
+    private final String tag;
+
+    SpanComponent(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * 组件标识，用作属性名前缀，如 redis.count
+     */
+    public String getTag() {
+        return tag;
+    }
+}
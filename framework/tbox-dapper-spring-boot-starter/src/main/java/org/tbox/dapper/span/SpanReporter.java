@@ -0,0 +1,14 @@
+package org.tbox.dapper.span;
+
+/**
+ * 客户端Span的接收方，在Span结束时同步调用，实现应尽量轻量（如只入队）
+ */
+public interface SpanReporter {
+
+    /**
+     * Span结束时调用
+     *
+     * @param span 已结束的Span
+     */
+    void report(ClientSpan span);
+}
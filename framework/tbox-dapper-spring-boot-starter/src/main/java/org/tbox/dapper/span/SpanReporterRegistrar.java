@@ -0,0 +1,36 @@
+package org.tbox.dapper.span;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把容器中的 {@link SpanReporter} Bean注册到 {@link ClientSpan}，应用关闭时移除
+ * 没有任何Reporter时客户端Span只汇总到 {@link SpanTimings}，不单独输出
+ */
+public class SpanReporterRegistrar implements SmartInitializingSingleton, DisposableBean {
+
+    private final ObjectProvider<SpanReporter> reporters;
+    private final List<SpanReporter> registered = new ArrayList<>();
+
+    public SpanReporterRegistrar(ObjectProvider<SpanReporter> reporters) {
+        this.reporters = reporters;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reporters.orderedStream().forEach(reporter -> {
+            ClientSpan.addReporter(reporter);
+            registered.add(reporter);
+        });
+    }
+
+    @Override
+    public void destroy() {
+        registered.forEach(ClientSpan::removeReporter);
+        registered.clear();
+    }
+}
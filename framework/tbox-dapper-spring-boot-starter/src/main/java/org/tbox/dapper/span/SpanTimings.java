@@ -0,0 +1,59 @@
+package org.tbox.dapper.span;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 一次追踪在各组件中的调用次数和耗时汇总
+ * 由同一根Span下的所有上下文（包括子线程中激活的快照）共享，按组件下标累加，不为每次调用分配对象
+ */
+public final class SpanTimings {
+
+    private static final int COMPONENTS = SpanComponent.values().length;
+
+    // [次数, 耗时纳秒, 失败次数] × 组件
+    private final AtomicLongArray values = new AtomicLongArray(COMPONENTS * 3);
+
+    /**
+     * 记录一次调用
+     *
+     * @param component 组件
+     * @param nanos     耗时（纳秒）
+     * @param error     是否失败
+     */
+    public void record(SpanComponent component, long nanos, boolean error) {
+        int base = component.ordinal() * 3;
+        values.incrementAndGet(base);
+        values.addAndGet(base + 1, nanos);
+        if (error) {
+            values.incrementAndGet(base + 2);
+        }
+    }
+
+    /**
+     * 调用次数
+     */
+    public long getCount(SpanComponent component) {
+        return values.get(component.ordinal() * 3);
+    }
+
+    /**
+     * 累计耗时（纳秒）
+     */
+    public long getTotalNanos(SpanComponent component) {
+        return values.get(component.ordinal() * 3 + 1);
+    }
+
+    /**
+     * 累计耗时（毫秒）
+     */
+    public long getTotalMillis(SpanComponent component) {
+        return getTotalNanos(component) / 1_000_000L;
+    }
+
+    /**
+     * 失败次数
+     */
+    public long getErrorCount(SpanComponent component) {
+        return values.get(component.ordinal() * 3 + 2);
+    }
+}
@@ -0,0 +1,100 @@
+package org.tbox.dapper.store;
+
+import org.tbox.dapper.metrics.LatencyHistogram;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个接口的耗时直方图、失败次数和最近若干分钟每分钟耗时最长的K条记录
+ * 分钟窗口按环形数组复用，过期窗口在下一次写入时以CAS整体替换
+ */
+public final class EndpointTraceStats {
+
+    private static final long WINDOW_MILLIS = 60_000L;
+
+    private final String name;
+    private final int topK;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicReferenceArray<SlowTraceBucket> windows;
+
+    EndpointTraceStats(String name, int windowMinutes, int topK) {
+        this.name = name;
+        this.topK = topK;
+        this.windows = new AtomicReferenceArray<>(windowMinutes);
+    }
+
+    void recordLatency(long durationNanos, boolean error) {
+        latency.record(durationNanos);
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * 获取指定时间所在的窗口，窗口已过期时替换为新窗口；时间早于当前窗口（时钟回拨）时返回null
+     */
+    SlowTraceBucket bucket(long timeMillis) {
+        long window = timeMillis / WINDOW_MILLIS;
+        int index = (int) (window % windows.length());
+        SlowTraceBucket bucket = windows.get(index);
+        if (bucket != null && bucket.getWindow() == window) {
+            return bucket;
+        }
+        if (bucket != null && bucket.getWindow() > window) {
+            return null;
+        }
+        SlowTraceBucket created = new SlowTraceBucket(window, topK);
+        if (windows.compareAndSet(index, bucket, created)) {
+            return created;
+        }
+        bucket = windows.get(index);
+        return bucket != null && bucket.getWindow() == window ? bucket : null;
+    }
+
+    /**
+     * 收集窗口编号在 [fromWindow, toWindow] 内的记录
+     */
+    void collect(long fromMillis, long toMillis, Collection<TraceRecord> out) {
+        long fromWindow = fromMillis / WINDOW_MILLIS;
+        long toWindow = toMillis / WINDOW_MILLIS;
+        for (int i = 0; i < windows.length(); i++) {
+            SlowTraceBucket bucket = windows.get(i);
+            if (bucket != null && bucket.getWindow() >= fromWindow && bucket.getWindow() <= toWindow) {
+                bucket.collect(out);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * 汇总信息，耗时单位为毫秒
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("endpoint", name);
+        map.put("count", getCount());
+        map.put("errors", getErrors());
+        map.put("latency", latency.snapshot().toMillisMap());
+        return map;
+    }
+}
@@ -0,0 +1,89 @@
+package org.tbox.dapper.store;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 一个时间窗口内耗时最长的K条记录
+ * 固定K个槽位，写入时用CAS填充空槽或替换当前最短的一条，不加锁；
+ * 槽位写满后以最短耗时作为门槛，未超过门槛的请求不扫描槽位、不创建记录。
+ * 窗口内最短耗时只增不减，门槛即使被并发线程以旧值覆盖也不会高于实际值
+ */
+final class SlowTraceBucket {
+
+    // CAS冲突时的重试次数，超过后放弃本条（只可能在极高并发的同一窗口发生）
+    private static final int MAX_ATTEMPTS = 4;
+
+    private final long window;
+    private final AtomicReferenceArray<TraceRecord> slots;
+    private volatile long threshold = Long.MIN_VALUE;
+
+    SlowTraceBucket(long window, int capacity) {
+        this.window = window;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * 窗口编号（分钟时间戳）
+     */
+    long getWindow() {
+        return window;
+    }
+
+    /**
+     * 耗时是否可能进入前K
+     */
+    boolean qualifies(long durationNanos) {
+        return durationNanos > threshold;
+    }
+
+    void offer(TraceRecord record) {
+        long duration = record.getDurationNanos();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int minIndex = -1;
+            TraceRecord min = null;
+            for (int i = 0; i < slots.length(); i++) {
+                TraceRecord current = slots.get(i);
+                if (current == null) {
+                    if (slots.compareAndSet(i, null, record)) {
+                        updateThreshold();
+                        return;
+                    }
+                    current = slots.get(i);
+                }
+                if (min == null || current.getDurationNanos() < min.getDurationNanos()) {
+                    min = current;
+                    minIndex = i;
+                }
+            }
+            if (min == null || duration <= min.getDurationNanos()) {
+                return;
+            }
+            if (slots.compareAndSet(minIndex, min, record)) {
+                updateThreshold();
+                return;
+            }
+        }
+    }
+
+    private void updateThreshold() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < slots.length(); i++) {
+            TraceRecord current = slots.get(i);
+            if (current == null) {
+                return;
+            }
+            min = Math.min(min, current.getDurationNanos());
+        }
+        threshold = min;
+    }
+
+    void collect(Collection<TraceRecord> out) {
+        for (int i = 0; i < slots.length(); i++) {
+            TraceRecord current = slots.get(i);
+            if (current != null) {
+                out.add(current);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.tbox.dapper.store;
+
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.span.SpanComponent;
+import org.tbox.dapper.span.SpanTimings;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 已完成的根Span摘要，创建后不再修改
+ * 只保存定位问题所需的字段和各组件的调用次数与耗时，不保存请求参数
+ */
+public final class TraceRecord {
+
+    private static final SpanComponent[] COMPONENTS = SpanComponent.values();
+
+    private final String traceId;
+    private final String spanId;
+    private final String endpoint;
+    private final String path;
+    private final long startTime;
+    private final long durationNanos;
+    private final int status;
+    private final String error;
+    // [次数, 耗时纳秒] × 组件，没有下游调用时为null
+    private final long[] components;
+
+    TraceRecord(String traceId, String spanId, String endpoint, String path, long startTime,
+                long durationNanos, int status, String error, long[] components) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.endpoint = endpoint;
+        this.path = path;
+        this.startTime = startTime;
+        this.durationNanos = durationNanos;
+        this.status = status;
+        this.error = error;
+        this.components = components;
+    }
+
+    static TraceRecord of(TraceContext context, String endpoint, String path, int status, String error,
+                          long durationNanos) {
+        long[] components = null;
+        if (context.hasTimings()) {
+            SpanTimings timings = context.getTimings();
+            for (SpanComponent component : COMPONENTS) {
+                long count = timings.getCount(component);
+                if (count > 0) {
+                    if (components == null) {
+                        components = new long[COMPONENTS.length * 2];
+                    }
+                    components[component.ordinal() * 2] = count;
+                    components[component.ordinal() * 2 + 1] = timings.getTotalNanos(component);
+                }
+            }
+        }
+        return new TraceRecord(context.getTraceId(), context.getSpanId(), endpoint, path, context.getStartTime(),
+                durationNanos, status, error, components);
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * 接口（如 {@code GET /api/orders/{id}}）
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * 实际请求路径
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 开始时间（毫秒时间戳）
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * 失败原因（异常类名或HTTP状态），成功时为null
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * 汇总信息，耗时单位为毫秒
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("traceId", traceId);
+        map.put("spanId", spanId);
+        map.put("endpoint", endpoint);
+        map.put("path", path);
+        map.put("startTime", startTime);
+        map.put("durationMs", durationNanos / 1_000_000D);
+        map.put("status", status);
+        if (error != null) {
+            map.put("error", error);
+        }
+        if (components != null) {
+            Map<String, Object> breakdown = new LinkedHashMap<>();
+            for (SpanComponent component : COMPONENTS) {
+                long count = components[component.ordinal() * 2];
+                if (count > 0) {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("count", count);
+                    item.put("timeMs", components[component.ordinal() * 2 + 1] / 1_000_000D);
+                    breakdown.put(component.getTag(), item);
+                }
+            }
+            map.put("components", breakdown);
+        }
+        return map;
+    }
+}
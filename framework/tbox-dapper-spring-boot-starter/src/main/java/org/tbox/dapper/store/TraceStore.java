@@ -0,0 +1,194 @@
+package org.tbox.dapper.store;
+
+import org.tbox.dapper.context.TraceContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * 进程内的追踪记录存储，由根Span结束时写入
+ * 包括：每个接口每分钟耗时最长的K条记录（保留最近若干分钟）、最近失败的请求环形缓冲和每个接口的耗时直方图。
+ * 接口数、窗口数、K和失败记录数都有上限，内存占用固定；写入路径只有直方图记录、LongAdder累加和CAS，不加锁，
+ * 未进入前K且未失败的请求不创建记录
+ */
+public final class TraceStore {
+
+    /**
+     * 超出上限后的新接口统一计入此项
+     */
+    public static final String OTHER = "<other>";
+
+    private static final Comparator<TraceRecord> SLOWEST_FIRST =
+            Comparator.comparingLong(TraceRecord::getDurationNanos).reversed();
+
+    private static final ConcurrentMap<String, EndpointTraceStats> ENDPOINTS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = true;
+    private static volatile int maxEndpoints = 100;
+    private static volatile int windowMinutes = 10;
+    private static volatile int topK = 10;
+    private static volatile AtomicReferenceArray<TraceRecord> errors = new AtomicReferenceArray<>(256);
+    private static final AtomicLong ERROR_SEQUENCE = new AtomicLong();
+
+    private TraceStore() {
+    }
+
+    /**
+     * 设置存储上限，应在有请求之前调用；调整后清空已有数据
+     *
+     * @param maxEndpoints  最多统计的接口数
+     * @param windowMinutes 保留最近多少分钟的慢请求
+     * @param topK          每个接口每分钟保留的慢请求数
+     * @param errorCapacity 保留的最近失败请求数
+     */
+    public static synchronized void configure(boolean enabled, int maxEndpoints, int windowMinutes, int topK,
+                                              int errorCapacity) {
+        TraceStore.enabled = enabled;
+        TraceStore.maxEndpoints = Math.max(1, maxEndpoints);
+        TraceStore.windowMinutes = Math.max(1, windowMinutes);
+        TraceStore.topK = Math.max(1, topK);
+        TraceStore.errors = new AtomicReferenceArray<>(Math.max(1, errorCapacity));
+        ENDPOINTS.clear();
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 记录一次已完成的根Span
+     *
+     * @param context       根Span的追踪上下文
+     * @param endpoint      接口（如 {@code GET /api/orders/{id}}），用于分组
+     * @param path          实际请求路径
+     * @param status        响应状态码
+     * @param error         失败原因，成功时为null
+     * @param durationNanos 耗时（纳秒）
+     */
+    public static void record(TraceContext context, String endpoint, String path, int status, String error,
+                              long durationNanos) {
+        if (!enabled || context == null) {
+            return;
+        }
+        EndpointTraceStats stats = endpoint(endpoint);
+        stats.recordLatency(durationNanos, error != null);
+
+        SlowTraceBucket bucket = stats.bucket(context.getStartTime());
+        boolean slow = bucket != null && bucket.qualifies(durationNanos);
+        if (!slow && error == null) {
+            return;
+        }
+        TraceRecord record = TraceRecord.of(context, stats.getName(), path, status, error, durationNanos);
+        if (slow) {
+            bucket.offer(record);
+        }
+        if (error != null) {
+            AtomicReferenceArray<TraceRecord> ring = errors;
+            ring.set((int) (ERROR_SEQUENCE.getAndIncrement() % ring.length()), record);
+        }
+    }
+
+    private static EndpointTraceStats endpoint(String endpoint) {
+        String key = endpoint != null ? endpoint : OTHER;
+        EndpointTraceStats stats = ENDPOINTS.get(key);
+        if (stats != null) {
+            return stats;
+        }
+        if (ENDPOINTS.size() >= maxEndpoints) {
+            key = OTHER;
+        }
+        return ENDPOINTS.computeIfAbsent(key, name -> new EndpointTraceStats(name, windowMinutes, topK));
+    }
+
+    /**
+     * 查询时间范围内耗时最长的请求
+     *
+     * @param fromMillis 开始时间（毫秒时间戳，含）
+     * @param toMillis   结束时间（毫秒时间戳，含）
+     * @param filter     过滤条件，可以为null
+     * @param limit      最多返回的条数
+     */
+    public static List<TraceRecord> slowest(long fromMillis, long toMillis, Predicate<TraceRecord> filter, int limit) {
+        List<TraceRecord> records = new ArrayList<>();
+        for (EndpointTraceStats stats : ENDPOINTS.values()) {
+            stats.collect(fromMillis, toMillis, records);
+        }
+        return select(records, fromMillis, toMillis, filter, SLOWEST_FIRST, limit);
+    }
+
+    /**
+     * 查询时间范围内最近失败的请求，按开始时间从新到旧
+     */
+    public static List<TraceRecord> recentErrors(long fromMillis, long toMillis, Predicate<TraceRecord> filter,
+                                                 int limit) {
+        List<TraceRecord> records = new ArrayList<>();
+        AtomicReferenceArray<TraceRecord> ring = errors;
+        for (int i = 0; i < ring.length(); i++) {
+            TraceRecord record = ring.get(i);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        return select(records, fromMillis, toMillis, filter,
+                Comparator.comparingLong(TraceRecord::getStartTime).reversed(), limit);
+    }
+
+    /**
+     * 按traceId查找保留的记录（慢请求与失败请求可能重复）
+     */
+    public static List<TraceRecord> find(String traceId) {
+        List<TraceRecord> result = slowest(0L, Long.MAX_VALUE, r -> r.getTraceId().equals(traceId), Integer.MAX_VALUE);
+        for (TraceRecord record : recentErrors(0L, Long.MAX_VALUE, r -> r.getTraceId().equals(traceId), Integer.MAX_VALUE)) {
+            if (!result.contains(record)) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 所有接口的统计
+     */
+    public static Collection<EndpointTraceStats> endpoints() {
+        return Collections.unmodifiableCollection(ENDPOINTS.values());
+    }
+
+    /**
+     * 保留慢请求的分钟数
+     */
+    public static int getWindowMinutes() {
+        return windowMinutes;
+    }
+
+    /**
+     * 清空所有数据
+     */
+    public static void reset() {
+        ENDPOINTS.clear();
+        AtomicReferenceArray<TraceRecord> ring = errors;
+        for (int i = 0; i < ring.length(); i++) {
+            ring.set(i, null);
+        }
+    }
+
+    private static List<TraceRecord> select(List<TraceRecord> records, long fromMillis, long toMillis,
+                                            Predicate<TraceRecord> filter, Comparator<TraceRecord> order, int limit) {
+        List<TraceRecord> result = new ArrayList<>();
+        for (TraceRecord record : records) {
+            if (record.getStartTime() >= fromMillis && record.getStartTime() <= toMillis
+                    && (filter == null || filter.test(record))) {
+                result.add(record);
+            }
+        }
+        result.sort(order);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+}
@@ -0,0 +1,78 @@
+package org.tbox.dapper.store;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.tbox.dapper.utils.CompiledPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 追踪记录查询端点：/actuator/tboxtraces
+ * <ul>
+ *     <li>{@code ?type=slow}（默认）：时间范围内耗时最长的请求</li>
+ *     <li>{@code ?type=errors}：时间范围内最近失败的请求</li>
+ *     <li>{@code ?type=endpoints}：各接口的请求数、失败数和耗时分布</li>
+ *     <li>{@code /actuator/tboxtraces/{traceId}}：按traceId查询</li>
+ * </ul>
+ * {@code path} 为Ant风格路径模式，{@code from} / {@code to} 为毫秒时间戳，默认为保留的最近若干分钟
+ */
+@Endpoint(id = "tboxtraces")
+public class TraceStoreEndpoint {
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 1000;
+
+    @ReadOperation
+    public Map<String, Object> traces(@Nullable String type, @Nullable String path, @Nullable Long from,
+                                      @Nullable Long to, @Nullable Integer limit) {
+        long now = System.currentTimeMillis();
+        long fromMillis = from != null ? from : now - TraceStore.getWindowMinutes() * 60_000L;
+        long toMillis = to != null ? to : now;
+        int max = limit != null ? Math.max(1, Math.min(limit, MAX_LIMIT)) : DEFAULT_LIMIT;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        if ("endpoints".equals(type)) {
+            List<EndpointTraceStats> endpoints = new ArrayList<>(TraceStore.endpoints());
+            endpoints.sort(Comparator.comparingLong(EndpointTraceStats::getCount).reversed());
+            List<Map<String, Object>> list = new ArrayList<>();
+            for (EndpointTraceStats stats : endpoints.subList(0, Math.min(max, endpoints.size()))) {
+                list.add(stats.toMap());
+            }
+            result.put("endpoints", list);
+            return result;
+        }
+
+        Predicate<TraceRecord> filter = null;
+        if (path != null && !path.isEmpty()) {
+            CompiledPathMatcher matcher = new CompiledPathMatcher(path);
+            filter = record -> record.getPath() != null && matcher.matches(record.getPath());
+        }
+        List<TraceRecord> records = "errors".equals(type)
+                ? TraceStore.recentErrors(fromMillis, toMillis, filter, max)
+                : TraceStore.slowest(fromMillis, toMillis, filter, max);
+        result.put("from", fromMillis);
+        result.put("to", toMillis);
+        result.put("traces", toMaps(records));
+        return result;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> trace(@Selector String traceId) {
+        return toMaps(TraceStore.find(traceId));
+    }
+
+    private static List<Map<String, Object>> toMaps(List<TraceRecord> records) {
+        List<Map<String, Object>> result = new ArrayList<>(records.size());
+        for (TraceRecord record : records) {
+            result.add(record.toMap());
+        }
+        return result;
+    }
+}
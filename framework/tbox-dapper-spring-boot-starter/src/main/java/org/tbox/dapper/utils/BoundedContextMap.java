@@ -0,0 +1,208 @@
+package org.tbox.dapper.utils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 有界且按时间淘汰的关联表
+ * 用于无法通过对象本身携带、只能按键关联的追踪数据：
+ * 超过容量时淘汰最早写入的条目，超过存活时间的条目在写入或读取时淘汰，
+ * 因此即使调用方漏掉remove，占用的内存也有上限。
+ * 淘汰由写入线程顺带完成，同一时间只有一个线程执行淘汰，其他线程不等待。
+ */
+public final class BoundedContextMap<K, V> {
+
+    private static final Collection<BoundedContextMap<?, ?>> INSTANCES = new CopyOnWriteArrayList<>();
+    private static final Collection<Consumer<BoundedContextMap<?, ?>>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<K, Entry<K, V>> map = new ConcurrentHashMap<>();
+    // 按写入顺序排列的条目，已删除的条目在淘汰时跳过
+    private final ConcurrentLinkedQueue<Entry<K, V>> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * @param name    名称，用于指标
+     * @param maxSize 最大条目数
+     * @param ttl     条目存活时间
+     */
+    public BoundedContextMap(String name, int maxSize, long ttl, TimeUnit unit) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        synchronized (INSTANCES) {
+            INSTANCES.add(this);
+            for (Consumer<BoundedContextMap<?, ?>> listener : LISTENERS) {
+                listener.accept(this);
+            }
+        }
+    }
+
+    /**
+     * 获取所有实例，用于注册指标
+     */
+    public static Collection<BoundedContextMap<?, ?>> all() {
+        return Collections.unmodifiableCollection(INSTANCES);
+    }
+
+    /**
+     * 对已有实例及之后创建的实例执行回调（实例通常在所属类首次加载时创建，可能晚于指标注册）
+     */
+    public static void forEachInstance(Consumer<BoundedContextMap<?, ?>> listener) {
+        synchronized (INSTANCES) {
+            LISTENERS.add(listener);
+            for (BoundedContextMap<?, ?> map : INSTANCES) {
+                listener.accept(map);
+            }
+        }
+    }
+
+    public void put(K key, V value) {
+        long now = System.nanoTime();
+        Entry<K, V> entry = new Entry<>(key, value, now);
+        Entry<K, V> old = map.put(key, entry);
+        if (old != null) {
+            old.removed = true;
+        }
+        order.offer(entry);
+        queued.incrementAndGet();
+        evict(now);
+    }
+
+    public V get(K key) {
+        Entry<K, V> entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.createdNanos > ttlNanos) {
+            if (map.remove(key, entry)) {
+                entry.removed = true;
+                expired.increment();
+            }
+            return null;
+        }
+        return entry.value;
+    }
+
+    public V remove(K key) {
+        Entry<K, V> entry = map.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.removed = true;
+        return entry.value;
+    }
+
+    public void clear() {
+        map.clear();
+        order.clear();
+        queued.set(0);
+    }
+
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (queued.get() > maxSize * 2 && map.size() <= maxSize) {
+                // 队列中大多是已删除的条目（如长期存活的条目挡在队头），整体清理一次，均摊到每次写入为O(1)
+                compact();
+            }
+            Entry<K, V> head;
+            while ((head = order.peek()) != null) {
+                boolean overflow = map.size() > maxSize || queued.get() > maxSize * 2;
+                boolean timeout = now - head.createdNanos > ttlNanos;
+                if (!head.removed && !overflow && !timeout) {
+                    break;
+                }
+                order.poll();
+                queued.decrementAndGet();
+                if (!head.removed && map.remove(head.key, head)) {
+                    head.removed = true;
+                    if (timeout) {
+                        expired.increment();
+                    } else {
+                        evicted.increment();
+                    }
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private void compact() {
+        int removed = 0;
+        for (Iterator<Entry<K, V>> it = order.iterator(); it.hasNext(); ) {
+            if (it.next().removed) {
+                it.remove();
+                removed++;
+            }
+        }
+        queued.addAndGet(-removed);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 因超出容量被淘汰的条目数
+     */
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    /**
+     * 因超过存活时间被淘汰的条目数
+     */
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    /**
+     * 写入顺序队列中的条目数（含已删除但尚未清理的），不超过容量的2倍
+     */
+    int queuedSize() {
+        return queued.get();
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long createdNanos;
+        private volatile boolean removed;
+
+        private Entry(K key, V value, long createdNanos) {
+            this.key = key;
+            this.value = value;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
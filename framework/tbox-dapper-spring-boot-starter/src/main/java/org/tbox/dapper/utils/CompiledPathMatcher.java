@@ -0,0 +1,278 @@
+package org.tbox.dapper.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的Ant风格路径匹配器
+ * 启动时将所有模式按"/"分段编译为前缀树，节点分为精确段、单段通配（* 或 {变量}）、多段通配（**）和段内通配（如 *.json）。
+ * 匹配时直接在原字符串的区间上计算哈希和比较，不做split/substring，不分配对象；
+ * 耗时与路径长度成正比，与模式数量基本无关。
+ * 连续或首尾的"/"会被忽略，即 /api//v1/ 与 /api/v1 等价。
+ */
+public final class CompiledPathMatcher {
+
+    private static final int NO_MATCH = -1;
+
+    private final String[] patterns;
+    private final Node root = new Node();
+
+    /**
+     * @param patterns 模式列表，为null或空字符串的模式会被忽略
+     */
+    public CompiledPathMatcher(String... patterns) {
+        this.patterns = patterns != null ? patterns.clone() : new String[0];
+        for (int i = 0; i < this.patterns.length; i++) {
+            String pattern = this.patterns[i];
+            if (pattern != null && !pattern.isEmpty()) {
+                add(pattern, i);
+            }
+        }
+        root.freeze();
+    }
+
+    /**
+     * 判断路径是否匹配任一模式
+     */
+    public boolean matches(String path) {
+        return matchIndex(path) >= 0;
+    }
+
+    /**
+     * 返回匹配的模式中下标最小的一个，没有匹配时返回-1
+     */
+    public int matchIndex(String path) {
+        if (path == null) {
+            return NO_MATCH;
+        }
+        return match(root, path, skipSlashes(path, 0));
+    }
+
+    /**
+     * 获取指定下标的原始模式
+     */
+    public String getPattern(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * 模式数量
+     */
+    public int size() {
+        return patterns.length;
+    }
+
+    private void add(String pattern, int index) {
+        Node node = root;
+        int len = pattern.length();
+        int pos = skipSlashes(pattern, 0);
+        while (pos < len) {
+            int end = segmentEnd(pattern, pos);
+            node = node.child(pattern.substring(pos, end));
+            pos = skipSlashes(pattern, end);
+        }
+        if (node.terminal == NO_MATCH) {
+            node.terminal = index;
+        }
+    }
+
+    private static int match(Node node, String path, int pos) {
+        int len = path.length();
+        if (pos >= len) {
+            return node.endIndex;
+        }
+        int end = segmentEnd(path, pos);
+        int next = skipSlashes(path, end);
+        int best = NO_MATCH;
+
+        Node exact = node.findExact(path, pos, end);
+        if (exact != null) {
+            best = match(exact, path, next);
+        }
+        if (node.globs != null) {
+            for (int i = 0; i < node.globs.length; i++) {
+                if (globMatch(node.globs[i], path, pos, end)) {
+                    best = better(best, match(node.globNodes[i], path, next));
+                }
+            }
+        }
+        if (node.single != null) {
+            best = better(best, match(node.single, path, next));
+        }
+        if (node.multi != null) {
+            // ** 可以匹配零个或多个段
+            int p = pos;
+            while (true) {
+                best = better(best, match(node.multi, path, p));
+                if (best == 0 || p >= len) {
+                    break;
+                }
+                p = skipSlashes(path, segmentEnd(path, p));
+            }
+        }
+        return best;
+    }
+
+    private static int better(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        return Math.min(a, b);
+    }
+
+    private static int skipSlashes(String s, int pos) {
+        int len = s.length();
+        while (pos < len && s.charAt(pos) == '/') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int segmentEnd(String s, int pos) {
+        int end = s.indexOf('/', pos);
+        return end < 0 ? s.length() : end;
+    }
+
+    /**
+     * 段内通配匹配，支持 * 和 ?，在[start, end)区间上进行，不分配对象
+     */
+    static boolean globMatch(String glob, String s, int start, int end) {
+        int g = 0;
+        int i = start;
+        int starG = -1;
+        int starI = -1;
+        int glen = glob.length();
+        while (i < end) {
+            if (g < glen && (glob.charAt(g) == '?' || glob.charAt(g) == s.charAt(i))) {
+                g++;
+                i++;
+            } else if (g < glen && glob.charAt(g) == '*') {
+                starG = g++;
+                starI = i;
+            } else if (starG >= 0) {
+                g = starG + 1;
+                i = ++starI;
+            } else {
+                return false;
+            }
+        }
+        while (g < glen && glob.charAt(g) == '*') {
+            g++;
+        }
+        return g == glen;
+    }
+
+    private static boolean isGlob(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.length() > 1 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    /**
+     * 前缀树节点，构建完成后只读
+     */
+    private static final class Node {
+
+        // 构建阶段使用
+        private Map<String, Node> exactBuilder = new LinkedHashMap<>();
+        private Map<String, Node> globBuilder = new LinkedHashMap<>();
+
+        // 精确段的开放寻址哈希表
+        private String[] keys;
+        private Node[] values;
+        private int mask;
+
+        private String[] globs;
+        private Node[] globNodes;
+        private Node single;
+        private Node multi;
+
+        // 以此节点结束的模式下标
+        private int terminal = NO_MATCH;
+        // 路径在此节点结束时的匹配结果（包括后续 ** 匹配零个段的情况）
+        private int endIndex = NO_MATCH;
+
+        Node child(String segment) {
+            if ("**".equals(segment)) {
+                if (multi == null) {
+                    multi = new Node();
+                }
+                return multi;
+            }
+            if ("*".equals(segment) || isVariable(segment)) {
+                if (single == null) {
+                    single = new Node();
+                }
+                return single;
+            }
+            if (isGlob(segment)) {
+                return globBuilder.computeIfAbsent(segment, k -> new Node());
+            }
+            return exactBuilder.computeIfAbsent(segment, k -> new Node());
+        }
+
+        void freeze() {
+            if (!exactBuilder.isEmpty()) {
+                int capacity = Integer.highestOneBit(exactBuilder.size() * 2 - 1) << 1;
+                keys = new String[capacity];
+                values = new Node[capacity];
+                mask = capacity - 1;
+                for (Map.Entry<String, Node> entry : exactBuilder.entrySet()) {
+                    int slot = entry.getKey().hashCode() & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = entry.getKey();
+                    values[slot] = entry.getValue();
+                    entry.getValue().freeze();
+                }
+            }
+            if (!globBuilder.isEmpty()) {
+                List<String> globList = new ArrayList<>(globBuilder.keySet());
+                globs = globList.toArray(new String[0]);
+                globNodes = new Node[globs.length];
+                for (int i = 0; i < globs.length; i++) {
+                    globNodes[i] = globBuilder.get(globs[i]);
+                    globNodes[i].freeze();
+                }
+            }
+            if (single != null) {
+                single.freeze();
+            }
+            endIndex = terminal;
+            if (multi != null) {
+                multi.freeze();
+                endIndex = better(endIndex, multi.endIndex);
+            }
+            exactBuilder = null;
+            globBuilder = null;
+        }
+
+        Node findExact(String path, int start, int end) {
+            if (keys == null) {
+                return null;
+            }
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            int length = end - start;
+            int slot = hash & mask;
+            String key;
+            while ((key = keys[slot]) != null) {
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+    }
+}
@@ -2,11 +2,14 @@ package org.tbox.dapper.utils;
 
 
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 分布式追踪ID生成工具类
  */
 public class DapperIdUtils {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
     
     /**
      * 生成TraceId，使用分布式ID生成器
@@ -25,9 +28,33 @@ public class DapperIdUtils {
     public static String generateSpanId() {
         return String.valueOf(Math.abs(UUID.randomUUID().getLeastSignificantBits()));
     }
-    
 
-    
+    /**
+     * 生成固定16位十六进制的SpanId，基于ThreadLocalRandom的64位非零随机数
+     * 只分配一个字符数组和一个String
+     *
+     * @return 16位十六进制SpanId
+     */
+    public static String generateHexSpanId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0L);
+        return toHex(id);
+    }
+
+    /**
+     * 将long编码为固定16位的小写十六进制字符串
+     */
+    public static String toHex(long value) {
+        char[] chars = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return new String(chars);
+    }
+
     /**
      * 私有构造函数，防止实例化
      */
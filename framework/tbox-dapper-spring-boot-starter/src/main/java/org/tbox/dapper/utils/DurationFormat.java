@@ -0,0 +1,28 @@
+package org.tbox.dapper.utils;
+
+/**
+ * 耗时的日志格式
+ * 纳秒耗时按毫秒输出并保留3位小数（微秒精度），亚毫秒的调用不再显示为0ms
+ */
+public final class DurationFormat {
+
+    private DurationFormat() {
+        // 工具类禁止实例化
+    }
+
+    /**
+     * 纳秒耗时转换为毫秒字符串，如 1234567 -&gt; "1.234"
+     */
+    public static String millis(long nanos) {
+        long micros = Math.max(nanos, 0L) / 1_000L;
+        long fraction = micros % 1_000L;
+        StringBuilder builder = new StringBuilder(12).append(micros / 1_000L).append('.');
+        if (fraction < 100) {
+            builder.append('0');
+        }
+        if (fraction < 10) {
+            builder.append('0');
+        }
+        return builder.append(fraction).toString();
+    }
+}
@@ -3,16 +3,24 @@ package org.tbox.dapper.web;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.ModelAndView;
 import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TracePropagation;
+import org.tbox.dapper.context.TraceSnapshot;
 import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.governor.TracingGovernor;
+import org.tbox.dapper.logging.TraceLogBuffer;
+import org.tbox.dapper.span.SpanComponent;
+import org.tbox.dapper.span.SpanTimings;
+import org.tbox.dapper.store.TraceStore;
+import org.tbox.dapper.utils.CompiledPathMatcher;
+import org.tbox.dapper.utils.DurationFormat;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Web请求追踪拦截器
@@ -21,16 +29,32 @@ import java.util.Map;
 public class TracerWebInterceptor implements HandlerInterceptor {
     private static final Logger log = LoggerFactory.getLogger(TracerWebInterceptor.class);
 
+    /**
+     * 请求属性：本次请求是否被排除，拦截器与切面共用，每个请求只匹配一次
+     */
+    public static final String EXCLUDED_ATTRIBUTE = TracerWebInterceptor.class.getName() + ".EXCLUDED";
+
+    /**
+     * 请求属性：本次请求的追踪上下文，供过滤器等在拦截器之外的组件使用
+     */
+    public static final String TRACE_CONTEXT_ATTRIBUTE = TracerWebInterceptor.class.getName() + ".TRACE_CONTEXT";
+
     private final TracerProperties properties;
 
+    private final CompiledPathMatcher excludePathMatcher;
+
     // HTTP头部信息常量
     private static final String HEADER_TRACE_ID = "X-Trace-ID";
     private static final String HEADER_SPAN_ID = "X-Span-ID";
     private static final String HEADER_PARENT_SPAN_ID = "X-Parent-Span-ID";
-    private static final String HEADER_APP_NAME = "X-App-Name";
     
     public TracerWebInterceptor(TracerProperties properties) {
+        this(properties, new CompiledPathMatcher(properties.getAllExcludePaths()));
+    }
+
+    public TracerWebInterceptor(TracerProperties properties, CompiledPathMatcher excludePathMatcher) {
         this.properties = properties;
+        this.excludePathMatcher = excludePathMatcher;
     }
 
     @Override
@@ -39,39 +63,52 @@ public class TracerWebInterceptor implements HandlerInterceptor {
             return true;
         }
         
+        TracingGovernor.recordRequest();
         try {
-            // 获取请求头中的追踪信息
-            String traceId = request.getHeader(HEADER_TRACE_ID);
-            String spanId = request.getHeader(HEADER_SPAN_ID);
-            String parentSpanId = request.getHeader(HEADER_PARENT_SPAN_ID);
-            String appName = request.getHeader(HEADER_APP_NAME);
+            // 获取请求头中的追踪信息（traceparent / b3 / 多头格式）
+            TraceSnapshot upstream = TracePropagation.extract(request, HttpServletRequest::getHeader,
+                    properties.getApplicationName());
+            String traceId = upstream == null ? request.getHeader(HEADER_TRACE_ID) : null;
             
             TraceContext context;
             // 如果有传入的traceId，则使用它，否则创建新的根上下文
-            if (traceId != null) {
+            if (upstream != null) {
+                context = TraceContext.createFromExternalContext(
+                        upstream.getTraceId(),
+                        upstream.getSpanId(),
+                        upstream.getParentSpanId(),
+                        properties.getApplicationName()
+                );
+                // 只保留ID时不再采样上游已采样的请求
+                context.setSampled(upstream.isSampled() && TracingGovernor.isSamplingAllowed());
+            } else if (traceId != null) {
+                // 只有traceId时生成新的SpanId
                 context = TraceContext.createFromExternalContext(
                         traceId, 
-                        spanId, 
-                        parentSpanId, 
+                        null, 
+                        request.getHeader(HEADER_PARENT_SPAN_ID), 
                         properties.getApplicationName()
                 );
+                context.setSampled(TracingGovernor.isSamplingAllowed());
             } else {
                 context = TraceContext.createRootContext(properties.getApplicationName());
             }
             
-            // 设置请求属性
-            context.setAttribute("http.method", request.getMethod());
-            context.setAttribute("http.uri", request.getRequestURI());
-            context.setAttribute("http.query", request.getQueryString());
-            context.setAttribute("http.remote_addr", request.getRemoteAddr());
-            context.setAttribute("http.user_agent", request.getHeader("User-Agent"));
-            
             // 添加追踪ID到响应头
             response.addHeader(HEADER_TRACE_ID, context.getTraceId());
             response.addHeader(HEADER_SPAN_ID, context.getSpanId());
+
+            // 只保留ID时不记录请求属性
+            if (TracingGovernor.isRecordingEnabled()) {
+                context.setAttribute("http.method", request.getMethod());
+                context.setAttribute("http.uri", request.getRequestURI());
+                context.setAttribute("http.query", request.getQueryString());
+                context.setAttribute("http.remote_addr", request.getRemoteAddr());
+                context.setAttribute("http.user_agent", request.getHeader("User-Agent"));
+            }
             
             // 发送请求开始事件到度量收集器
-            if (handler instanceof HandlerMethod) {
+            if (handler instanceof HandlerMethod && TracingGovernor.isRecordingEnabled()) {
                 HandlerMethod handlerMethod = (HandlerMethod) handler;
                 String controllerName = handlerMethod.getBeanType().getSimpleName();
                 String methodName = handlerMethod.getMethod().getName();
@@ -79,7 +116,8 @@ public class TracerWebInterceptor implements HandlerInterceptor {
                 context.setAttribute("controller", controllerName);
                 context.setAttribute("method", methodName);
             }
-            TraceContext.setCurrentContext(context);
+            request.setAttribute(TRACE_CONTEXT_ATTRIBUTE, context);
+            TraceLogBuffer.begin();
         } catch (Exception e) {
             log.error("Error in TracerWebInterceptor preHandle", e);
         }
@@ -103,6 +141,13 @@ public class TracerWebInterceptor implements HandlerInterceptor {
             if (context != null) {
                 // 设置响应属性
                 context.setAttribute("http.status", String.valueOf(response.getStatus()));
+                applyTimings(context);
+
+                // 请求失败或过慢时输出缓冲的调试日志，否则丢弃；被全局异常处理器处理的异常也视为失败
+                long durationNanos = context.getDurationNanos();
+                Exception failure = resolveFailure(request, ex);
+                TraceLogBuffer.end(failure != null || response.getStatus() >= 500, durationNanos / 1_000_000L);
+                recordTrace(request, response, context, failure, durationNanos);
                 
                 // 完成上下文并发送请求结束事件到度量收集器
                 context.complete();
@@ -115,23 +160,70 @@ public class TracerWebInterceptor implements HandlerInterceptor {
         }
     }
     
+    /**
+     * 把请求在各下游组件中的调用次数和耗时写入根Span属性，如 redis.count / redis.time.ms（保留3位小数）
+     */
+    private static void applyTimings(TraceContext context) {
+        if (!context.hasTimings()) {
+            return;
+        }
+        SpanTimings timings = context.getTimings();
+        for (SpanComponent component : SpanComponent.values()) {
+            long count = timings.getCount(component);
+            if (count > 0) {
+                context.setAttribute(component.getTag() + ".count", String.valueOf(count));
+                context.setAttribute(component.getTag() + ".time.ms", DurationFormat.millis(timings.getTotalNanos(component)));
+            }
+        }
+    }
+
+    /**
+     * 请求的异常：afterCompletion收到的异常，或被异常处理器（如 @RestControllerAdvice）处理后记录在请求属性中的异常，
+     * 后者的响应状态可能是200或400（如业务异常、参数校验失败）
+     */
+    private static Exception resolveFailure(HttpServletRequest request, Exception ex) {
+        if (ex != null) {
+            return ex;
+        }
+        Object handled = request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+        return handled instanceof Exception ? (Exception) handled : null;
+    }
+
+    /**
+     * 写入进程内追踪记录存储，按处理器映射模式（如 /api/orders/{id}）分组
+     * 被异常处理器处理的异常同样记为错误，即使响应状态码小于500
+     */
+    private static void recordTrace(HttpServletRequest request, HttpServletResponse response,
+                                    TraceContext context, Exception ex, long durationNanos) {
+        if (!TraceStore.isEnabled() || !TracingGovernor.isRecordingEnabled()) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = request.getRequestURI();
+        String endpoint = request.getMethod() + ' ' + (pattern instanceof String ? (String) pattern : uri);
+        int status = response.getStatus();
+        String error = ex != null ? ex.getClass().getSimpleName() : (status >= 500 ? "HTTP " + status : null);
+        TraceStore.record(context, endpoint, uri, status, error, durationNanos);
+    }
+
     /**
      * 判断是否跳过此请求的追踪
+     * 排除路径已编译为前缀树，每个请求只匹配一次，结果保存在请求属性中
      */
     private boolean shouldSkip(HttpServletRequest request) {
-        String uri = request.getRequestURI();
-        String[] allExcludePaths = properties.getAllExcludePaths();
-        if (allExcludePaths != null && allExcludePaths.length > 0) {
-            return Arrays.stream(allExcludePaths)
-                    .anyMatch(pattern -> {
-                        if (pattern.endsWith("/**")) {
-                            String prefix = pattern.substring(0, pattern.length() - 3);
-                            return uri.startsWith(prefix);
-                        } else {
-                            return uri.equals(pattern);
-                        }
-                    });
+        return isExcluded(request, excludePathMatcher);
+    }
+
+    /**
+     * 判断请求是否在排除路径中，结果保存在请求属性中供后续组件复用
+     */
+    public static boolean isExcluded(HttpServletRequest request, CompiledPathMatcher matcher) {
+        Object verdict = request.getAttribute(EXCLUDED_ATTRIBUTE);
+        if (verdict != null) {
+            return (Boolean) verdict;
         }
-        return false;
+        boolean excluded = matcher.matches(request.getRequestURI());
+        request.setAttribute(EXCLUDED_ATTRIBUTE, excluded ? Boolean.TRUE : Boolean.FALSE);
+        return excluded;
     }
-}
\ No newline at end of file
+}
@@ -12,21 +12,29 @@ import org.springframework.core.annotation.Order;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.multipart.MultipartFile;
-import org.tbox.base.core.exception.SysException;
-import org.tbox.base.core.utils.JsonUtils;
 import org.tbox.dapper.config.TracerProperties;
 import org.tbox.dapper.context.TraceContext;
-import org.tbox.dapper.utils.PathMatcher;
+import org.tbox.dapper.governor.TracingGovernor;
+import org.tbox.dapper.utils.CompiledPathMatcher;
+import org.tbox.dapper.utils.DurationFormat;
+import org.tbox.dapper.web.RequestUtils;
+import org.tbox.dapper.web.TracerWebInterceptor;
+import org.tbox.dapper.web.payload.AsyncPayloadLogger;
+import org.tbox.dapper.web.payload.BoundedJsonWriter;
+import org.tbox.dapper.web.payload.PayloadSampler;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Web接口入参和出参日志记录切面
  * 记录Controller层接口的请求参数和响应结果
+ * 序列化按长度上限提前终止，可按接口采样，并可配置为异步输出
  */
 @Aspect
 @Order(10)
@@ -38,6 +46,18 @@ public class WebTraceAspect {
     @Autowired
     private TracerProperties tracerProperties;
 
+    @Autowired(required = false)
+    private CompiledPathMatcher excludePathMatcher;
+
+    @Autowired(required = false)
+    private PayloadSampler payloadSampler;
+
+    @Autowired(required = false)
+    private AsyncPayloadLogger asyncPayloadLogger;
+
+    // 方法 -> "类名.方法名"，避免每次请求拼接字符串
+    private static final Map<Method, String> METHOD_NAMES = new ConcurrentHashMap<>();
+
     /**
      * 定义切点，匹配所有Controller方法
      */
@@ -56,23 +76,29 @@ public class WebTraceAspect {
     @Around("controllerPointcut()")
     public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
         // 检查追踪功能是否开启
-        if (!tracerProperties.isEnabled() || !tracerProperties.isPrintPayload()) {
+        if (!tracerProperties.isEnabled() || !tracerProperties.isPrintPayload() || !TracingGovernor.isPayloadEnabled()
+                || !log.isInfoEnabled()
+                || tracerProperties.getPayload().getCaptureMode() == TracerProperties.CaptureMode.RAW) {
             return joinPoint.proceed();
         }
         
         HttpServletRequest request = getCurrentRequest();
-        if (request == null || isExcludedPath(request.getRequestURI())) {
+        if (request == null || isExcludedPath(request)) {
+            return joinPoint.proceed();
+        }
+
+        String uri = request.getRequestURI();
+        if (payloadSampler != null && !payloadSampler.sample(uri)) {
             return joinPoint.proceed();
         }
 
-        Object[] args = joinPoint.getArgs();
         Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
-        String methodName = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + method.getName();
+        String methodName = METHOD_NAMES.computeIfAbsent(method,
+                m -> m.getDeclaringClass().getSimpleName() + "." + m.getName());
         
-        String clientIp = getClientIp(request);
+        String clientIp = RequestUtils.getClientIp(request);
         String requestMethod = request.getMethod();
-        String uri = request.getRequestURI();
-        Object[] filteredArgs = filterArgs(args);
+        Object[] filteredArgs = filterArgs(joinPoint.getArgs());
         
         // 记录请求参数
         logRequest(methodName, clientIp, requestMethod, uri, filteredArgs);
@@ -82,39 +108,44 @@ public class WebTraceAspect {
             Object result = joinPoint.proceed();
             
             // 从TraceContext获取耗时信息
-            long executionTime = getExecutionTime();
+            long executionNanos = getExecutionTime();
             
             // 记录响应结果和执行时间
-            logResponse(methodName, result, executionTime);
+            logResponse(methodName, result, executionNanos);
             return result;
         } catch (Exception e) {
             // 从TraceContext获取耗时信息
-            long executionTime = getExecutionTime();
+            long executionNanos = getExecutionTime();
             
             // 记录异常
-            logError(methodName, e, executionTime);
+            logError(methodName, e, executionNanos);
             throw e;
         }
     }
     
     /**
-     * 从TraceContext获取当前执行时间
+     * 从TraceContext获取当前执行时间（纳秒）
      * 如果无法获取TraceContext，则返回0
      */
     private long getExecutionTime() {
         TraceContext context = TraceContext.getCurrentContext();
-        return context != null ? context.getDuration() : 0;
+        return context != null ? context.getDurationNanos() : 0;
     }
 
     /**
      * 记录请求参数
+     * 序列化超过长度上限时立即停止，异步模式下由后台线程输出日志
      */
     private void logRequest(String methodName, String clientIp, String requestMethod, String uri, Object[] args) {
+        int maxLength = tracerProperties.getPayload().getMaxRequestLength();
+        if (asyncPayloadLogger != null) {
+            asyncPayloadLogger.logRequest(methodName, requestMethod, uri, clientIp, args, maxLength);
+            return;
+        }
         try {
-            String argsJson = JsonUtils.toJson(args);
-            String message = String.format("[%s] 接口请求 | %s:%s | IP:%s | %s: %s",
+            String argsJson = BoundedJsonWriter.toJson(args, maxLength);
+            log.info("[{}] 接口请求 | {}:{} | IP:{} | {}: {}",
                     methodName, requestMethod, uri, clientIp, REQ_PREFIX, argsJson);
-            logWithLevel(message);
         } catch (Exception e) {
             log.warn("[{}] 序列化请求参数失败: {}", methodName, e.getMessage());
         }
@@ -122,13 +153,18 @@ public class WebTraceAspect {
 
     /**
      * 记录响应结果
+     * 序列化超过长度上限时立即停止，异步模式下由后台线程输出日志
      */
-    private void logResponse(String methodName, Object result, long executionTime) {
+    private void logResponse(String methodName, Object result, long executionNanos) {
+        int maxLength = tracerProperties.getMaxResponseLength();
+        if (asyncPayloadLogger != null) {
+            asyncPayloadLogger.logResponse(methodName, result, executionNanos, maxLength);
+            return;
+        }
         try {
-            String resultJson = formatResult(result);
-            String message = String.format("[%s] %s | 耗时: %dms | %s: %s", 
-                    methodName, RESP_PREFIX, executionTime, RESP_PREFIX, resultJson);
-            logWithLevel(message);
+            String resultJson = BoundedJsonWriter.toJson(result, maxLength);
+            log.info("[{}] {} | 耗时: {}ms | {}: {}",
+                    methodName, RESP_PREFIX, DurationFormat.millis(executionNanos), RESP_PREFIX, resultJson);
         } catch (Exception e) {
             log.warn("[{}] 序列化响应结果失败: {}", methodName, e.getMessage());
         }
@@ -137,37 +173,8 @@ public class WebTraceAspect {
     /**
      * 记录异常
      */
-    private void logError(String methodName, Exception e, long executionTime) {
-        log.error("[{}] 接口异常 | 耗时: {}ms | 异常: {}", methodName, executionTime, e.getMessage());
-    }
-
-    /**
-     * 按照DEBUG级别记录日志
-     */
-    private void logWithLevel(String message) {
-        log.info(message);
-    }
-
-    /**
-     * 格式化响应结果，并根据配置截断长文本
-     */
-    private String formatResult(Object result) {
-        if (result == null) {
-            return "null";
-        }
-        
-        try {
-            String resultJson = JsonUtils.toJson(result);
-            int maxLength = tracerProperties.getMaxResponseLength();
-            
-            if (maxLength > 0 && resultJson.length() > maxLength) {
-                return resultJson.substring(0, maxLength) + "... (省略" + (resultJson.length() - maxLength) + "字符)";
-            }
-            
-            return resultJson;
-        } catch (Exception e) {
-            throw new SysException("序列化响应结果失败", e);
-        }
+    private void logError(String methodName, Exception e, long executionNanos) {
+        log.error("[{}] 接口异常 | 耗时: {}ms | 异常: {}", methodName, DurationFormat.millis(executionNanos), e.getMessage());
     }
 
     /**
@@ -179,44 +186,15 @@ public class WebTraceAspect {
     }
 
     /**
-     * 获取客户端IP地址
-     */
-    private String getClientIp(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_CLIENT_IP");
-        }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_X_FORWARDED_FOR");
-        }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        return ip;
-    }
-
-    /**
-     * 检查是否为排除的路径
+     * 检查是否为排除的路径，与TracerWebInterceptor共用匹配器和判定结果
      */
-    private boolean isExcludedPath(String path) {
-        String[] allExcludePaths = tracerProperties.getAllExcludePaths();
-        if (allExcludePaths == null || allExcludePaths.length == 0) {
-            return false;
+    private boolean isExcludedPath(HttpServletRequest request) {
+        CompiledPathMatcher matcher = excludePathMatcher;
+        if (matcher == null) {
+            matcher = new CompiledPathMatcher(tracerProperties.getAllExcludePaths());
+            excludePathMatcher = matcher;
         }
-        
-        for (String pattern : allExcludePaths) {
-            if (PathMatcher.match(pattern, path)) {
-                return true;
-            }
-        }
-        
-        return false;
+        return TracerWebInterceptor.isExcluded(request, matcher);
     }
 
     /**
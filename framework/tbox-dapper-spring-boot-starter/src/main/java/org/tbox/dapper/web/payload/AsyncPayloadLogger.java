@@ -0,0 +1,168 @@
+package org.tbox.dapper.web.payload;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+import org.tbox.dapper.utils.DurationFormat;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步出入参日志
+ * 请求线程按长度上限序列化参数（内容与当时一致，且不持有业务对象的引用），把截断后的字符串和追踪快照放入有界队列，
+ * 日志输出在后台线程完成；队列满时直接丢弃并计数，不阻塞请求线程。
+ */
+public class AsyncPayloadLogger implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncPayloadLogger.class);
+
+    private final Logger payloadLog;
+    private final BlockingQueue<PayloadEvent> queue;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * @param payloadLog    输出日志使用的Logger
+     * @param queueCapacity 队列容量
+     */
+    public AsyncPayloadLogger(Logger payloadLog, int queueCapacity) {
+        this.payloadLog = payloadLog;
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        this.worker = new Thread(this::drain, "tbox-payload-logger");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 提交请求参数日志，队列已满时丢弃
+     */
+    public void logRequest(String methodName, String httpMethod, String uri, String clientIp,
+                           Object[] args, int maxLength) {
+        String json = serialize(methodName, args, maxLength);
+        if (json != null) {
+            offer(new PayloadEvent(TraceSnapshot.capture(), methodName, httpMethod, uri, clientIp, json, 0L, true));
+        }
+    }
+
+    /**
+     * 提交响应结果日志，队列已满时丢弃
+     *
+     * @param executionNanos 接口耗时（纳秒）
+     */
+    public void logResponse(String methodName, Object result, long executionNanos, int maxLength) {
+        String json = serialize(methodName, result, maxLength);
+        if (json != null) {
+            offer(new PayloadEvent(TraceSnapshot.capture(), methodName, null, null, null, json, executionNanos, false));
+        }
+    }
+
+    /**
+     * 因队列已满被丢弃的日志数
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * 队列使用率（0~1）
+     */
+    public double getQueueUsage() {
+        int size = queue.size();
+        return size / (double) (size + queue.remainingCapacity());
+    }
+
+    /**
+     * 在请求线程序列化，队列已满时不再序列化直接计为丢弃；序列化失败时返回null
+     */
+    private String serialize(String methodName, Object payload, int maxLength) {
+        if (queue.remainingCapacity() == 0) {
+            dropped.increment();
+            return null;
+        }
+        try {
+            return BoundedJsonWriter.toJson(payload, maxLength);
+        } catch (RuntimeException e) {
+            log.warn("[{}] 序列化出入参失败: {}", methodName, e.getMessage());
+            return null;
+        }
+    }
+
+    private void offer(PayloadEvent event) {
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PayloadEvent event = queue.poll(1, TimeUnit.SECONDS);
+                if (event != null) {
+                    write(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("输出出入参日志失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void write(PayloadEvent event) {
+        // 激活请求线程的追踪快照，使日志中带上对应的traceId
+        TraceScope scope = event.snapshot != null ? event.snapshot.activate() : null;
+        try {
+            if (event.request) {
+                payloadLog.info("[{}] 接口请求 | {}:{} | IP:{} | 请求参数: {}",
+                        event.methodName, event.httpMethod, event.uri, event.clientIp, event.json);
+            } else {
+                payloadLog.info("[{}] 响应结果 | 耗时: {}ms | 响应结果: {}",
+                        event.methodName, DurationFormat.millis(event.executionNanos), event.json);
+            }
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        long count = dropped.sum();
+        if (count > 0) {
+            log.warn("队列已满丢弃的出入参日志数: {}", count);
+        }
+    }
+
+    private static final class PayloadEvent {
+        private final TraceSnapshot snapshot;
+        private final String methodName;
+        private final String httpMethod;
+        private final String uri;
+        private final String clientIp;
+        private final String json;
+        private final long executionNanos;
+        private final boolean request;
+
+        private PayloadEvent(TraceSnapshot snapshot, String methodName, String httpMethod, String uri,
+                             String clientIp, String json, long executionNanos, boolean request) {
+            this.snapshot = snapshot;
+            this.methodName = methodName;
+            this.httpMethod = httpMethod;
+            this.uri = uri;
+            this.clientIp = clientIp;
+            this.json = json;
+            this.executionNanos = executionNanos;
+            this.request = request;
+        }
+    }
+}
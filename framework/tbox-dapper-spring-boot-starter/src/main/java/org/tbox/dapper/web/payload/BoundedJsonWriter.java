@@ -0,0 +1,127 @@
+package org.tbox.dapper.web.payload;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.tbox.base.core.utils.JsonUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 有长度上限的JSON输出
+ * 写入字符数达到上限后抛出预分配的异常中断Jackson序列化，剩余对象图不再遍历，
+ * 序列化开销与上限成正比而与对象大小无关（另有Jackson约4000字符的内部缓冲）。
+ */
+public final class BoundedJsonWriter extends Writer {
+
+    private static final BudgetExceededException BUDGET_EXCEEDED = new BudgetExceededException();
+
+    private final StringBuilder buffer;
+    private final int budget;
+    private boolean exhausted;
+
+    private BoundedJsonWriter(int budget) {
+        this.budget = budget;
+        this.buffer = new StringBuilder(Math.min(budget, 256));
+    }
+
+    /**
+     * 序列化对象，结果超过maxLength个字符时截断
+     *
+     * @param value     要序列化的对象
+     * @param maxLength 最大字符数，小于等于0表示不限制
+     * @return JSON字符串，截断时追加截断说明
+     */
+    public static String toJson(Object value, int maxLength) {
+        if (value == null) {
+            return "null";
+        }
+        if (maxLength <= 0) {
+            return JsonUtils.toJson(value);
+        }
+        BoundedJsonWriter writer = new BoundedJsonWriter(maxLength);
+        ObjectMapper mapper = JsonUtils.getObjectMapper();
+        try {
+            mapper.writeValue(writer, value);
+        } catch (IOException | RuntimeException e) {
+            // 达到上限时异常可能被Jackson包装，以写入状态为准
+            if (!writer.exhausted) {
+                throw new IllegalStateException("序列化JSON失败", e);
+            }
+        }
+        if (writer.exhausted) {
+            return writer.buffer.append("... (超过").append(maxLength).append("字符已截断)").toString();
+        }
+        return writer.buffer.toString();
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException {
+        if (exhausted) {
+            return;
+        }
+        int remaining = budget - buffer.length();
+        if (len <= remaining) {
+            buffer.append(chars, off, len);
+            return;
+        }
+        buffer.append(chars, off, remaining);
+        exhausted = true;
+        throw BUDGET_EXCEEDED;
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (exhausted) {
+            return;
+        }
+        int remaining = budget - buffer.length();
+        if (len <= remaining) {
+            buffer.append(str, off, off + len);
+            return;
+        }
+        buffer.append(str, off, off + remaining);
+        exhausted = true;
+        throw BUDGET_EXCEEDED;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (exhausted) {
+            return;
+        }
+        if (buffer.length() < budget) {
+            buffer.append((char) c);
+            return;
+        }
+        exhausted = true;
+        throw BUDGET_EXCEEDED;
+    }
+
+    @Override
+    public void flush() {
+        // 内存输出，无需刷新
+    }
+
+    @Override
+    public void close() {
+        // 内存输出，无需关闭
+    }
+
+    /**
+     * 达到长度上限，只用于中断序列化，不记录堆栈
+     * 达到上限后的写入被忽略而不是再次抛出，因此Jackson关闭生成器时不会向该共享实例添加suppressed异常
+     */
+    private static final class BudgetExceededException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        BudgetExceededException() {
+            super("payload budget exceeded");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.tbox.dapper.web.payload;
+
+import java.nio.charset.Charset;
+
+/**
+ * 有上限的字节捕获缓冲
+ * 每个线程持有一对可复用的缓冲（请求/响应），数组按需增长且不超过上限，超过上限的字节只计数不保存
+ */
+final class CaptureBuffer {
+
+    private static final ThreadLocal<CaptureBuffer[]> POOL = ThreadLocal.withInitial(() -> new CaptureBuffer[2]);
+
+    private byte[] data = new byte[0];
+    private int length;
+    private int limit;
+    private long total;
+    private boolean inUse;
+
+    /**
+     * 从当前线程的缓冲池获取缓冲
+     *
+     * @param slot  0为请求，1为响应
+     * @param limit 最多保存的字节数
+     */
+    static CaptureBuffer acquire(int slot, int limit) {
+        CaptureBuffer[] buffers = POOL.get();
+        CaptureBuffer buffer = buffers[slot];
+        if (buffer == null || buffer.inUse) {
+            buffer = new CaptureBuffer();
+            buffers[slot] = buffer;
+        }
+        buffer.inUse = true;
+        buffer.length = 0;
+        buffer.total = 0L;
+        buffer.limit = limit;
+        return buffer;
+    }
+
+    /**
+     * 归还缓冲，之后可被当前线程的下一个请求复用
+     */
+    void release() {
+        inUse = false;
+    }
+
+    /**
+     * 放弃缓冲（如异步请求仍可能在其他线程写入），当前线程下次获取时会新建
+     */
+    void abandon() {
+        CaptureBuffer[] buffers = POOL.get();
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] == this) {
+                buffers[i] = null;
+            }
+        }
+    }
+
+    void write(int b) {
+        total++;
+        if (length < limit) {
+            ensureCapacity(length + 1);
+            data[length++] = (byte) b;
+        }
+    }
+
+    void write(byte[] bytes, int off, int len) {
+        total += len;
+        int n = Math.min(len, limit - length);
+        if (n > 0) {
+            ensureCapacity(length + n);
+            System.arraycopy(bytes, off, data, length, n);
+            length += n;
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > data.length) {
+            int size = Math.max(required, Math.min(limit, Math.max(256, data.length << 1)));
+            byte[] grown = new byte[size];
+            System.arraycopy(data, 0, grown, 0, length);
+            data = grown;
+        }
+    }
+
+    boolean isEmpty() {
+        return total == 0L;
+    }
+
+    /**
+     * 转为字符串，超过上限时追加截断说明
+     */
+    String toString(Charset charset) {
+        String text = new String(data, 0, length, charset);
+        if (total > length) {
+            return text + "... (共" + total + "字节已截断)";
+        }
+        return text;
+    }
+}
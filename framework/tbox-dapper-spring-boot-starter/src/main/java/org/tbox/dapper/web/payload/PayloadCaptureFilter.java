@@ -0,0 +1,194 @@
+package org.tbox.dapper.web.payload;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.governor.TracingGovernor;
+import org.tbox.dapper.utils.CompiledPathMatcher;
+import org.tbox.dapper.utils.DurationFormat;
+import org.tbox.dapper.web.RequestUtils;
+import org.tbox.dapper.web.TracerWebInterceptor;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 原始请求/响应体采集过滤器（capture-mode=RAW）
+ * 业务读取请求体、写出响应体时同步复制到线程内复用的有界缓冲，直接输出原始内容，
+ * 不再对已反序列化的参数重新做JSON序列化；文件上传、二进制及流式内容按Content-Type跳过。
+ */
+public class PayloadCaptureFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(PayloadCaptureFilter.class);
+
+    private static final int REQUEST_SLOT = 0;
+    private static final int RESPONSE_SLOT = 1;
+
+    private final TracerProperties properties;
+    private final CompiledPathMatcher excludePathMatcher;
+    private final PayloadSampler sampler;
+    private final String[] bypassContentTypes;
+
+    public PayloadCaptureFilter(TracerProperties properties, CompiledPathMatcher excludePathMatcher,
+                                PayloadSampler sampler) {
+        this.properties = properties;
+        this.excludePathMatcher = excludePathMatcher;
+        this.sampler = sampler;
+        List<String> types = properties.getPayload().getBypassContentTypes();
+        this.bypassContentTypes = new String[types != null ? types.size() : 0];
+        for (int i = 0; i < bypassContentTypes.length; i++) {
+            bypassContentTypes[i] = types.get(i).toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!properties.isEnabled() || !TracingGovernor.isPayloadEnabled() || !log.isInfoEnabled()
+                || TracerWebInterceptor.isExcluded(request, excludePathMatcher)
+                || isBypassed(request.getContentType())
+                || (sampler != null && !sampler.sample(request.getRequestURI()))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        TracerProperties.PayloadConfig payload = properties.getPayload();
+        CaptureBuffer requestBuffer = CaptureBuffer.acquire(REQUEST_SLOT, Math.max(payload.getMaxRequestLength(), 0));
+        CaptureBuffer responseBuffer = CaptureBuffer.acquire(RESPONSE_SLOT, Math.max(properties.getMaxResponseLength(), 0));
+        TeeRequestWrapper requestWrapper = new TeeRequestWrapper(request, requestBuffer);
+        TeeResponseWrapper responseWrapper = new TeeResponseWrapper(response, responseBuffer);
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(requestWrapper, responseWrapper);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // 异步请求仍在其他线程读写，不再复用这对缓冲，异步完成后再输出
+                requestBuffer.abandon();
+                responseBuffer.abandon();
+                CompletionListener listener = new CompletionListener(
+                        request, response, requestWrapper, responseWrapper, requestBuffer, responseBuffer, start);
+                try {
+                    request.getAsyncContext().addListener(listener);
+                } catch (IllegalStateException e) {
+                    // 异步处理已在其他线程结束，直接输出已捕获的内容
+                    complete(request, response, requestWrapper, responseWrapper, requestBuffer, responseBuffer,
+                            System.nanoTime() - start);
+                }
+            } else {
+                responseWrapper.flushWriter();
+                complete(request, response, requestWrapper, responseWrapper, requestBuffer, responseBuffer,
+                        System.nanoTime() - start);
+                requestBuffer.release();
+                responseBuffer.release();
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, HttpServletResponse response,
+                          TeeRequestWrapper requestWrapper, TeeResponseWrapper responseWrapper,
+                          CaptureBuffer requestBuffer, CaptureBuffer responseBuffer, long executionNanos) {
+        try {
+            log(request, response, requestWrapper, responseWrapper, requestBuffer, responseBuffer, executionNanos);
+        } catch (Exception e) {
+            log.warn("输出原始出入参日志失败: {}", e.getMessage());
+        } finally {
+            requestWrapper.detach();
+            responseWrapper.detach();
+        }
+    }
+
+    private void log(HttpServletRequest request, HttpServletResponse response,
+                     TeeRequestWrapper requestWrapper, TeeResponseWrapper responseWrapper,
+                     CaptureBuffer requestBuffer, CaptureBuffer responseBuffer, long executionNanos) {
+        // 拦截器已在afterCompletion中清理上下文，这里重新激活以带上traceId
+        Object context = request.getAttribute(TracerWebInterceptor.TRACE_CONTEXT_ATTRIBUTE);
+        TraceScope scope = context instanceof TraceContext ? ((TraceContext) context).snapshot().activate() : null;
+        try {
+            String body = requestBuffer.isEmpty() ? request.getQueryString() : requestBuffer.toString(requestWrapper.charset());
+            log.info("接口请求 | {}:{} | IP:{} | 请求参数: {}",
+                    request.getMethod(), request.getRequestURI(), RequestUtils.getClientIp(request), body);
+            if (isBypassed(response.getContentType())) {
+                log.info("响应结果 | 耗时: {}ms | 状态: {} | 响应结果: [{}]",
+                        DurationFormat.millis(executionNanos), response.getStatus(), response.getContentType());
+            } else {
+                log.info("响应结果 | 耗时: {}ms | 状态: {} | 响应结果: {}",
+                        DurationFormat.millis(executionNanos), response.getStatus(), responseBuffer.toString(responseWrapper.charset()));
+            }
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+    }
+
+    private boolean isBypassed(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        for (String prefix : bypassContentTypes) {
+            if (contentType.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 异步请求完成时输出出入参，耗时包含异步处理部分
+     */
+    private final class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final TeeRequestWrapper requestWrapper;
+        private final TeeResponseWrapper responseWrapper;
+        private final CaptureBuffer requestBuffer;
+        private final CaptureBuffer responseBuffer;
+        private final long start;
+
+        CompletionListener(HttpServletRequest request, HttpServletResponse response,
+                           TeeRequestWrapper requestWrapper, TeeResponseWrapper responseWrapper,
+                           CaptureBuffer requestBuffer, CaptureBuffer responseBuffer, long start) {
+            this.request = request;
+            this.response = response;
+            this.requestWrapper = requestWrapper;
+            this.responseWrapper = responseWrapper;
+            this.requestBuffer = requestBuffer;
+            this.responseBuffer = responseBuffer;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            // 通过getWriter()写出的字符可能还在Writer的缓冲中，读取捕获缓冲前先刷新
+            responseWrapper.flushWriter();
+            complete(request, response, requestWrapper, responseWrapper, requestBuffer, responseBuffer,
+                    System.nanoTime() - start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 再次开始异步处理时需重新注册才能收到完成通知
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.tbox.dapper.web.payload;
+
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.utils.CompiledPathMatcher;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 出入参日志按接口采样
+ * 规则按配置顺序匹配，第一个匹配的规则生效，未匹配时使用默认采样率
+ */
+public class PayloadSampler {
+
+    private final CompiledPathMatcher matcher;
+    private final double[] rates;
+    private final double defaultRate;
+
+    public PayloadSampler(List<TracerProperties.SamplingRule> rules, double defaultRate) {
+        int size = rules != null ? rules.size() : 0;
+        String[] patterns = new String[size];
+        this.rates = new double[size];
+        for (int i = 0; i < size; i++) {
+            TracerProperties.SamplingRule rule = rules.get(i);
+            patterns[i] = rule.getPattern();
+            rates[i] = rule.getRate();
+        }
+        this.matcher = new CompiledPathMatcher(patterns);
+        this.defaultRate = defaultRate;
+    }
+
+    /**
+     * 判断本次请求是否记录出入参
+     */
+    public boolean sample(String path) {
+        int index = matcher.matchIndex(path);
+        double rate = index >= 0 ? rates[index] : defaultRate;
+        if (rate >= 1D) {
+            return true;
+        }
+        if (rate <= 0D) {
+            return false;
+        }
+        return ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
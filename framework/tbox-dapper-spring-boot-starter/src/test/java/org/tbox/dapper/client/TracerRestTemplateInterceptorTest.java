@@ -0,0 +1,161 @@
+package org.tbox.dapper.client;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.execchain.ClientExecChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TracePropagation;
+import org.tbox.dapper.context.TraceSnapshot;
+import org.tbox.dapper.span.ClientSpan;
+import org.tbox.dapper.span.SpanComponent;
+import org.tbox.dapper.span.SpanReporter;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HTTP客户端追踪单元测试
+ */
+class TracerRestTemplateInterceptorTest {
+
+    private final List<ClientSpan> spans = new ArrayList<>();
+    private final SpanReporter reporter = spans::add;
+    private TracerRestTemplateInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        TracerProperties properties = new TracerProperties();
+        properties.setApplicationName("app");
+        interceptor = new TracerRestTemplateInterceptor(properties);
+        HttpClientStats.reset();
+        ClientSpan.addReporter(reporter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ClientSpan.removeReporter(reporter);
+        TraceContext.removeContext();
+        HttpClientStats.reset();
+    }
+
+    @Test
+    void testPropagatesChildSpan() throws IOException {
+        TraceContext root = TraceContext.createRootContext("app");
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+                URI.create("http://user-service:8080/users/42?verbose=true"));
+        List<HttpHeaders> sent = new ArrayList<>();
+        ClientHttpRequestExecution execution = (req, body) -> {
+            sent.add(req.getHeaders());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+
+        interceptor.intercept(request, new byte[0], execution);
+
+        TraceSnapshot downstream = TracePropagation.extract(sent.get(0), HttpHeaders::getFirst, "remote");
+        assertNotNull(downstream);
+        assertEquals(root.getTraceId(), downstream.getTraceId());
+        assertNotEquals(root.getSpanId(), downstream.getSpanId(), "下游收到的应为客户端子Span");
+
+        assertEquals(1, spans.size());
+        ClientSpan span = spans.get(0);
+        assertEquals(SpanComponent.HTTP, span.getComponent());
+        assertEquals(downstream.getSpanId(), span.getSpanId());
+        assertEquals(root.getSpanId(), span.getParentSpanId());
+        assertEquals("GET user-service:8080/users/{id}", span.getResource());
+        assertEquals("200", span.getTags().get("status"));
+        assertFalse(span.isError());
+        assertEquals(1, root.getTimings().getCount(SpanComponent.HTTP));
+    }
+
+    @Test
+    void testRecordsStatsWithoutContext() throws IOException {
+        MockClientHttpRequest ok = new MockClientHttpRequest(HttpMethod.POST, URI.create("https://api.example.com/orders"));
+        MockClientHttpRequest missing = new MockClientHttpRequest(HttpMethod.POST, URI.create("https://api.example.com:443/orders"));
+        MockClientHttpRequest down = new MockClientHttpRequest(HttpMethod.POST, URI.create("https://api.example.com/orders"));
+
+        interceptor.intercept(ok, new byte[0], (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.CREATED));
+        interceptor.intercept(missing, new byte[0], (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.NOT_FOUND));
+        assertThrows(ConnectException.class, () -> interceptor.intercept(down, new byte[0], (req, body) -> {
+            throw new ConnectException("refused");
+        }));
+
+        assertTrue(spans.isEmpty());
+        assertNull(ok.getHeaders().getFirst(TracePropagation.HEADER_TRACEPARENT));
+        HttpClientStats host = HttpClientStats.findHost("api.example.com");
+        assertNotNull(host);
+        assertEquals(3, host.getCount());
+        assertEquals(1, host.getStatusCount(2));
+        assertEquals(1, host.getStatusCount(4));
+        assertEquals(1, host.getErrors());
+        HttpClientStats route = HttpClientStats.findRoute("POST api.example.com/orders");
+        assertNotNull(route);
+        assertEquals(3, route.getCount());
+    }
+
+    @Test
+    void testHttpClientEndsCallWhenExecutionThrows() throws Exception {
+        TraceContext root = TraceContext.createRootContext("app");
+        TracerProperties properties = new TracerProperties();
+        properties.setApplicationName("app");
+        TracerHttpClientInterceptor httpClient = new TracerHttpClientInterceptor(properties);
+        ClientExecChain timeout = (route, req, context, execAware) -> {
+            httpClient.getRequestInterceptor().process(req, context);
+            throw new SocketTimeoutException("Read timed out");
+        };
+        HttpClientContext context = HttpClientContext.create();
+        HttpRequestWrapper request = HttpRequestWrapper.wrap(new HttpGet("http://user-service:8080/users/42"));
+
+        assertThrows(SocketTimeoutException.class, () -> httpClient.decorate(timeout)
+                .execute(new HttpRoute(new HttpHost("user-service", 8080)), request, context, null));
+
+        assertEquals(1, spans.size());
+        assertTrue(spans.get(0).isError());
+        assertEquals(root.getSpanId(), spans.get(0).getParentSpanId());
+        HttpClientStats host = HttpClientStats.findHost("user-service:8080");
+        assertNotNull(host);
+        assertEquals(1, host.getErrors());
+        assertEquals(1, root.getTimings().getCount(SpanComponent.HTTP));
+    }
+
+    @Test
+    void testNormalizePath() {
+        assertEquals("/", HttpClientStats.normalizePath(""));
+        assertEquals("/users/{id}/orders", HttpClientStats.normalizePath("/users/123/orders?page=2"));
+        assertEquals("/files/{id}/", HttpClientStats.normalizePath("/files/550e8400-e29b-41d4-a716-446655440000/"));
+        assertEquals("/v1/cafe/decade", HttpClientStats.normalizePath("/v1/cafe/decade"));
+        assertEquals("/{id}", HttpClientStats.normalizePath("7"));
+    }
+
+    @Test
+    void testRouteLimit() {
+        HttpClientStats.setLimits(100, 2);
+        try {
+            for (int i = 0; i < 5; i++) {
+                HttpClientStats.record("h", "GET h/p" + (char) ('a' + i), 200, 1000L);
+            }
+            assertEquals(3, HttpClientStats.topRoutes(10).size());
+            assertEquals(3, HttpClientStats.findRoute(HttpClientStats.OTHER).getCount());
+        } finally {
+            HttpClientStats.setLimits(100, 500);
+        }
+    }
+}
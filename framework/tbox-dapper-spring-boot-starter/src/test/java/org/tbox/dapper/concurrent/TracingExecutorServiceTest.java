@@ -0,0 +1,157 @@
+package org.tbox.dapper.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.tbox.dapper.context.TraceContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 追踪线程池包装单元测试
+ */
+class TracingExecutorServiceTest {
+
+    private final ExecutorService delegate = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        delegate.shutdownNow();
+        TraceContext.removeContext();
+    }
+
+    @Test
+    void testPropagatesSnapshotAndRestoresWorkerContext() throws Exception {
+        String workerTraceId = delegate.submit(() -> TraceContext.createRootContext("worker").getTraceId()).get();
+        ExecutorService executor = new TracingExecutorService(delegate, null);
+        TraceContext root = TraceContext.createRootContext("app");
+
+        String traceId = executor.submit(() -> TraceContext.getCurrentContext().getTraceId()).get();
+
+        assertEquals(root.getTraceId(), traceId);
+        // 执行结束后恢复工作线程原有的上下文
+        assertEquals(workerTraceId, delegate.submit(() -> TraceContext.getCurrentContext().getTraceId()).get());
+        assertSame(root, TraceContext.getCurrentContext());
+    }
+
+    @Test
+    void testNoContextSubmitsOriginalTask() throws Exception {
+        ExecutorService executor = new TracingExecutorService(delegate, null);
+
+        assertNull(executor.submit(TraceContext::getCurrentContext).get());
+    }
+
+    @Test
+    void testQueueWaitAndExecutionStats() throws Exception {
+        TracingExecutorService executor = new TracingExecutorService(delegate, "testQueueWaitPool");
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> blocker = executor.submit(() -> {
+            await(release);
+            sleep(5);
+        });
+        Future<?> queued = executor.submit(() -> sleep(1));
+        sleep(20);
+        release.countDown();
+        blocker.get();
+        queued.get();
+
+        ExecutorTaskStats stats = executor.getStats();
+        assertSame(stats, ExecutorTaskStats.find("testQueueWaitPool"));
+        assertEquals(2, stats.getSubmitted());
+        assertEquals(2, stats.getCompleted());
+        assertEquals(2, stats.getQueueWait().getCount());
+        // 第二个任务至少等待了第一个任务的执行时间
+        assertTrue(stats.getMaxQueueWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(stats.getMaxExecutionNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    void testInvokeAllAndInvokeAny() throws Exception {
+        TracingExecutorService executor = new TracingExecutorService(delegate, "testInvokePool");
+        TraceContext root = TraceContext.createRootContext("app");
+        Callable<String> task = () -> TraceContext.getCurrentContext().getTraceId();
+
+        List<Future<String>> futures = executor.invokeAll(Arrays.asList(task, task));
+        assertEquals(root.getTraceId(), futures.get(0).get());
+        assertEquals(root.getTraceId(), futures.get(1).get());
+        assertEquals(root.getTraceId(), executor.invokeAny(Arrays.asList(task, task)));
+        assertEquals(root.getTraceId(), executor.invokeAll(Arrays.asList(task), 1, TimeUnit.SECONDS).get(0).get());
+        assertTrue(executor.getStats().getSubmitted() >= 5);
+    }
+
+    @Test
+    void testScheduleWrapsDelayedAndPeriodicTasks() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            TracingScheduledExecutorService executor = new TracingScheduledExecutorService(scheduler, "testSchedulePool");
+            TraceContext root = TraceContext.createRootContext("app");
+
+            ScheduledFuture<String> delayed = executor.schedule(
+                    () -> TraceContext.getCurrentContext().getTraceId(), 200, TimeUnit.MILLISECONDS);
+            assertEquals(root.getTraceId(), delayed.get());
+            // 延迟任务的排队时间从预定触发时间开始计算，不包含200ms的延迟
+            assertTrue(executor.getStats().getMaxQueueWaitNanos() < TimeUnit.MILLISECONDS.toNanos(150));
+
+            CountDownLatch runs = new CountDownLatch(2);
+            AtomicReference<String> periodicTraceId = new AtomicReference<>();
+            ScheduledFuture<?> periodic = executor.scheduleAtFixedRate(() -> {
+                periodicTraceId.set(TraceContext.getCurrentContext().getTraceId());
+                runs.countDown();
+            }, 0, 10, TimeUnit.MILLISECONDS);
+            assertTrue(runs.await(5, TimeUnit.SECONDS));
+            periodic.cancel(false);
+
+            assertEquals(root.getTraceId(), periodicTraceId.get());
+            // 周期任务只记录执行时间
+            assertEquals(1, executor.getStats().getQueueWait().getCount());
+            // 第二次执行结束前第一次执行的耗时已记录
+            assertTrue(executor.getStats().getCompleted() >= 2);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testForkJoinPoolPropagatesContext() throws Exception {
+        TracingForkJoinPool pool = new TracingForkJoinPool(2, "testForkJoinPool");
+        try {
+            TraceContext root = TraceContext.createRootContext("app");
+
+            assertEquals(root.getTraceId(), pool.submit(() -> TraceContext.getCurrentContext().getTraceId()).get());
+            assertEquals(root.getTraceId(), CompletableFuture.supplyAsync(
+                    () -> TraceContext.getCurrentContext().getTraceId(), pool).get());
+            assertEquals(2, pool.getStats().getSubmitted());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.tbox.dapper.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.tbox.dapper.context.TraceContext;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 线程池追踪Bean后处理器单元测试
+ */
+class TracingThreadPoolBeanPostProcessorTest {
+
+    private static final ThreadLocal<String> MARKER = new ThreadLocal<>();
+
+    @AfterEach
+    void tearDown() {
+        TraceContext.removeContext();
+    }
+
+    @Test
+    void testWrapsInterfaceTypedBeansOnly() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ExecutorConfig.class)) {
+            assertTrue(context.getBean("plainPool") instanceof TracingExecutorService);
+            assertTrue(context.getBean("scheduledPool") instanceof TracingScheduledExecutorService);
+
+            // 按具体类型声明的Bean不替换，仍关联统计并统计拒绝次数
+            ThreadPoolExecutor concrete = context.getBean("concretePool", ThreadPoolExecutor.class);
+            assertTrue(concrete.getRejectedExecutionHandler() instanceof CountingRejectedExecutionHandler);
+            assertNotNull(ExecutorTaskStats.find("concretePool"));
+        }
+    }
+
+    @Test
+    void testComposesExistingTaskDecorator() throws Exception {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ExecutorConfig.class)) {
+            ThreadPoolTaskExecutor executor = context.getBean("taskExecutor", ThreadPoolTaskExecutor.class);
+            TraceContext root = TraceContext.createRootContext("app");
+
+            String[] seen = executor.submit(() -> new String[]{
+                    TraceContext.getCurrentContext().getTraceId(), MARKER.get()}).get();
+
+            assertEquals(root.getTraceId(), seen[0]);
+            assertEquals("decorated", seen[1]);
+            // 装饰器包装在FutureTask外层，get()返回时执行耗时可能尚未记录
+            executor.getThreadPoolExecutor().shutdown();
+            assertTrue(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+            ExecutorTaskStats stats = ExecutorTaskStats.find("taskExecutor");
+            assertEquals(1, stats.getSubmitted());
+            assertEquals(1, stats.getCompleted());
+        }
+    }
+
+    @Configuration
+    static class ExecutorConfig {
+
+        @Bean
+        static TracingThreadPoolBeanPostProcessor tracingThreadPoolBeanPostProcessor() {
+            return new TracingThreadPoolBeanPostProcessor(new TracingTaskDecorator());
+        }
+
+        @Bean(destroyMethod = "shutdownNow")
+        ExecutorService plainPool() {
+            return Executors.newSingleThreadExecutor();
+        }
+
+        @Bean(destroyMethod = "shutdownNow")
+        ScheduledExecutorService scheduledPool() {
+            return Executors.newSingleThreadScheduledExecutor();
+        }
+
+        @Bean(destroyMethod = "shutdownNow")
+        ThreadPoolExecutor concretePool() {
+            return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        }
+
+        @Bean
+        ThreadPoolTaskExecutor taskExecutor() {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(1);
+            executor.setTaskDecorator(task -> () -> {
+                MARKER.set("decorated");
+                try {
+                    task.run();
+                } finally {
+                    MARKER.remove();
+                }
+            });
+            return executor;
+        }
+    }
+}
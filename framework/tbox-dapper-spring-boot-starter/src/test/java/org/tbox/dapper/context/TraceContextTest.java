@@ -1,15 +1,22 @@
 package org.tbox.dapper.context;
 
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.MDC;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -30,6 +37,7 @@ class TraceContextTest {
     @AfterEach
     void tearDown() {
         TraceContext.removeContext();
+        TraceContext.setSpanIdFormat(SpanIdFormat.RANDOM);
     }
 
     @Test
@@ -64,6 +72,7 @@ class TraceContextTest {
 
     @Test
     void testCreateChildContext() {
+        TraceContext.setSpanIdFormat(SpanIdFormat.DOTTED);
         TraceContext parent = TraceContext.createRootContext(TEST_APP_NAME);
         TraceContext child = TraceContext.createChildContext();
 
@@ -74,6 +83,21 @@ class TraceContextTest {
         assertEquals(TEST_APP_NAME, child.getAppName());
     }
 
+    @Test
+    void testCreateChildContext_RandomFormat_FixedWidthHex() {
+        TraceContext parent = TraceContext.createRootContext(TEST_APP_NAME);
+        TraceContext child = TraceContext.createChildContext();
+        TraceContext grandChild = TraceContext.createChildContext();
+
+        assertTrue(parent.getSpanId().matches("[0-9a-f]{16}"), "SpanId应为16位十六进制: " + parent.getSpanId());
+        assertTrue(child.getSpanId().matches("[0-9a-f]{16}"));
+        assertTrue(grandChild.getSpanId().matches("[0-9a-f]{16}"));
+        assertEquals(parent.getSpanId(), child.getParentSpanId());
+        assertEquals(child.getSpanId(), grandChild.getParentSpanId());
+        assertNotEquals(child.getSpanId(), grandChild.getSpanId());
+        assertEquals(grandChild.getSpanId(), MDC.get(TraceContext.MDC_SPAN_ID));
+    }
+
     @Test
     void testCreateChildContext_WithoutParent_ReturnsNull() {
         TraceContext child = TraceContext.createChildContext();
@@ -82,6 +106,7 @@ class TraceContextTest {
 
     @Test
     void testCreateChildContext_MultipleChildren() {
+        TraceContext.setSpanIdFormat(SpanIdFormat.DOTTED);
         TraceContext parent = TraceContext.createRootContext(TEST_APP_NAME);
         String parentSpanId = parent.getSpanId();
 
@@ -95,6 +120,34 @@ class TraceContextTest {
         assertEquals(parentSpanId + ".2", child2.getSpanId());
     }
 
+    @Test
+    void testCreateChildContext_FromSameSnapshot_DistinctSpanIds() throws Exception {
+        TraceContext.setSpanIdFormat(SpanIdFormat.DOTTED);
+        TraceContext parent = TraceContext.createRootContext(TEST_APP_NAME);
+        TraceContext.createChildContext();
+        TraceContext.setCurrentContext(parent);
+        TraceSnapshot snapshot = TraceSnapshot.capture();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<String> task = () -> {
+                try (TraceScope ignored = snapshot.activate()) {
+                    return TraceContext.createChildContext().getSpanId();
+                }
+            };
+            Future<String> first = executor.submit(task);
+            Future<String> second = executor.submit(task);
+            String own = TraceContext.createChildContext().getSpanId();
+
+            Set<String> spanIds = new HashSet<>(Arrays.asList(
+                    first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS), own));
+            assertEquals(3, spanIds.size());
+            assertFalse(spanIds.contains(parent.getSpanId() + ".1"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void testCreateFromExternalContext() {
         String traceId = "external-trace-id";
@@ -169,6 +222,59 @@ class TraceContextTest {
         assertNull(MDC.get(TraceContext.MDC_APP_NAME));
     }
 
+    @Test
+    void testSetCurrentContext_RemovesStaleParentSpanIdFromMDC() {
+        TraceContext.createRootContext(TEST_APP_NAME);
+        TraceContext child = TraceContext.createChildContext();
+        assertEquals(child.getParentSpanId(), MDC.get(TraceContext.MDC_PARENT_SPAN_ID));
+
+        TraceContext root = TraceContext.createRootContext(TEST_APP_NAME);
+
+        assertEquals(root.getSpanId(), MDC.get(TraceContext.MDC_SPAN_ID));
+        assertNull(MDC.get(TraceContext.MDC_PARENT_SPAN_ID));
+    }
+
+    @Test
+    void testRemoveContext_KeepsOtherMDCKeys() {
+        MDC.put("userId", "u1");
+        try {
+            TraceContext.createChildContext();
+            TraceContext.createRootContext(TEST_APP_NAME);
+            TraceContext.removeContext();
+
+            assertEquals("u1", MDC.get("userId"));
+            assertNull(MDC.get(TraceContext.MDC_TRACE_ID));
+            assertNull(MDC.get(TraceContext.MDC_APP_NAME));
+        } finally {
+            MDC.remove("userId");
+        }
+    }
+
+    @Test
+    void testSetCurrentContext_Unchanged_KeepsMDCMap() {
+        TraceContext context = TraceContext.createRootContext(TEST_APP_NAME);
+        LogbackMDCAdapter adapter = (LogbackMDCAdapter) MDC.getMDCAdapter();
+        Map<String, String> before = adapter.getPropertyMap();
+
+        TraceContext.setCurrentContext(context);
+
+        assertSame(before, adapter.getPropertyMap());
+    }
+
+    @Test
+    void testMdcDisabled_DoesNotWriteMDC() {
+        TraceContext.setMdcEnabled(false);
+        try {
+            TraceContext context = TraceContext.createRootContext(TEST_APP_NAME);
+
+            assertSame(context, TraceContext.getCurrentContext());
+            assertNull(MDC.get(TraceContext.MDC_TRACE_ID));
+            assertNull(MDC.get(TraceContext.MDC_SPAN_ID));
+        } finally {
+            TraceContext.setMdcEnabled(true);
+        }
+    }
+
     @Test
     void testComplete() {
         TraceContext context = TraceContext.createRootContext(TEST_APP_NAME);
@@ -270,6 +376,74 @@ class TraceContextTest {
         assertNull(restored);
     }
 
+    @Test
+    void testSnapshotCapture_ReturnsSameInstanceForSameContext() {
+        TraceContext context = TraceContext.createRootContext(TEST_APP_NAME);
+
+        TraceSnapshot first = TraceSnapshot.capture();
+        TraceSnapshot second = TraceSnapshot.capture();
+
+        assertSame(first, second);
+        assertEquals(context.getTraceId(), first.getTraceId());
+        assertEquals(context.getSpanId(), first.getSpanId());
+    }
+
+    @Test
+    void testSnapshotCapture_WhenNoContext_ReturnsNull() {
+        assertNull(TraceSnapshot.capture());
+    }
+
+    @Test
+    void testSnapshotActivate_RestoresPreviousContextOnClose() {
+        TraceContext.createRootContext(TEST_APP_NAME);
+        TraceSnapshot snapshot = TraceSnapshot.capture();
+
+        TraceContext other = TraceContext.createRootContext("other-app");
+        try (TraceScope ignored = snapshot.activate()) {
+            TraceContext active = TraceContext.getCurrentContext();
+            assertNotSame(other, active);
+            assertEquals(snapshot.getTraceId(), active.getTraceId());
+            assertEquals(snapshot.getTraceId(), MDC.get(TraceContext.MDC_TRACE_ID));
+        }
+
+        assertSame(other, TraceContext.getCurrentContext());
+        assertEquals(other.getTraceId(), MDC.get(TraceContext.MDC_TRACE_ID));
+    }
+
+    @Test
+    void testSnapshotActivate_InSameContextIsNoop() {
+        TraceContext context = TraceContext.createRootContext(TEST_APP_NAME);
+        TraceSnapshot snapshot = TraceSnapshot.capture();
+
+        try (TraceScope ignored = snapshot.activate()) {
+            assertSame(context, TraceContext.getCurrentContext());
+        }
+
+        assertSame(context, TraceContext.getCurrentContext());
+    }
+
+    @Test
+    void testSnapshotActivate_InOtherThreadUsesSeparateContext() throws InterruptedException {
+        TraceContext parent = TraceContext.createRootContext(TEST_APP_NAME);
+        TraceSnapshot snapshot = TraceSnapshot.capture();
+        AtomicReference<TraceContext> childContext = new AtomicReference<>();
+        AtomicBoolean clearedAfterClose = new AtomicBoolean(false);
+
+        Thread childThread = new Thread(() -> {
+            try (TraceScope ignored = snapshot.activate()) {
+                childContext.set(TraceContext.getCurrentContext());
+            }
+            clearedAfterClose.set(TraceContext.getCurrentContext() == null);
+        });
+        childThread.start();
+        childThread.join();
+
+        assertNotSame(parent, childContext.get());
+        assertEquals(parent.getTraceId(), childContext.get().getTraceId());
+        assertEquals(parent.getSpanId(), childContext.get().getSpanId());
+        assertTrue(clearedAfterClose.get());
+    }
+
     @Test
     void testThreadIsolation() throws InterruptedException {
         int threadCount = 5;
@@ -323,4 +497,29 @@ class TraceContextTest {
 
         assertEquals(parent.getTraceId(), childTraceId.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDurationIsMonotonicNanos() throws InterruptedException {
+        long before = System.currentTimeMillis();
+        TraceContext context = TraceContext.createRootContext(TEST_APP_NAME);
+        Thread.sleep(2);
+
+        long nanos = context.getDurationNanos();
+        assertTrue(nanos >= 2_000_000L, "耗时应按纳秒计算: " + nanos);
+        assertEquals(nanos / 1_000_000L, context.getDuration(), 1L);
+        assertTrue(context.getStartTime() >= before);
+    }
+
+    @Test
+    void testActivatedSnapshotDerivesStartTime() {
+        TraceSnapshot snapshot = TraceContext.createRootContext(TEST_APP_NAME).snapshot();
+        TraceContext.removeContext();
+
+        long before = System.currentTimeMillis();
+        try (TraceScope ignored = snapshot.activate()) {
+            TraceContext activated = TraceContext.getCurrentContext();
+            assertTrue(activated.getDurationNanos() >= 0L);
+            assertTrue(Math.abs(activated.getStartTime() - before) <= 1000L);
+        }
+    }
+}
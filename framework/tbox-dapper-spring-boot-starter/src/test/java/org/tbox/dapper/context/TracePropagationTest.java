@@ -0,0 +1,131 @@
+package org.tbox.dapper.context;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.tbox.dapper.core.TracerConstants;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TracePropagation 单元测试
+ */
+class TracePropagationTest {
+
+    @AfterEach
+    void tearDown() {
+        TraceContext.removeContext();
+        TraceContext.setSpanIdFormat(SpanIdFormat.RANDOM);
+    }
+
+    @Test
+    void testTraceparentRoundTripKeepsDecimalTraceId() {
+        TraceSnapshot span = new TraceSnapshot("1234567890123", "00f067aa0ba902b7", null, "app", true);
+        String value = TracePropagation.encode(span, PropagationFormat.W3C);
+        assertEquals("00-00000000000000000000011f71fb04cb-00f067aa0ba902b7-01", value);
+
+        TraceSnapshot parsed = TracePropagation.parseTraceparent(value, "downstream");
+        assertEquals("1234567890123", parsed.getTraceId());
+        assertEquals("00f067aa0ba902b7", parsed.getSpanId());
+        assertEquals("downstream", parsed.getAppName());
+        assertTrue(parsed.isSampled());
+    }
+
+    @Test
+    void testParseForeignTraceparent() {
+        String value = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00";
+        TraceSnapshot parsed = TracePropagation.parseTraceparent(value.getBytes(StandardCharsets.US_ASCII), "app");
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", parsed.getTraceId());
+        assertFalse(parsed.isSampled());
+        // 外部128位traceId原样写回
+        assertEquals(value, TracePropagation.encode(parsed, PropagationFormat.W3C));
+    }
+
+    @Test
+    void testRejectInvalidTraceparent() {
+        assertNull(TracePropagation.parseTraceparent("00-00000000000000000000000000000000-00f067aa0ba902b7-01", "a"));
+        assertNull(TracePropagation.parseTraceparent("00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01", "a"));
+        assertNull(TracePropagation.parseTraceparent("ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01", "a"));
+        assertNull(TracePropagation.parseTraceparent("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01", "a"));
+        assertNull(TracePropagation.parseTraceparent("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-x", "a"));
+        assertNull(TracePropagation.parseTraceparent("garbage", "a"));
+        // 更高版本允许追加字段
+        assertNotNull(TracePropagation.parseTraceparent(
+                "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra", "a"));
+    }
+
+    @Test
+    void testB3RoundTrip() {
+        TraceSnapshot span = new TraceSnapshot("42", "00f067aa0ba902b7", "a3ce929d0e0e4736", "app", false);
+        String value = TracePropagation.encode(span, PropagationFormat.B3);
+        assertEquals("000000000000002a-00f067aa0ba902b7-0-a3ce929d0e0e4736", value);
+
+        TraceSnapshot parsed = TracePropagation.parseB3(value.getBytes(StandardCharsets.US_ASCII), "app");
+        assertEquals("42", parsed.getTraceId());
+        assertEquals("00f067aa0ba902b7", parsed.getSpanId());
+        assertEquals("a3ce929d0e0e4736", parsed.getParentSpanId());
+        assertFalse(parsed.isSampled());
+
+        assertNotNull(TracePropagation.parseB3("4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7", "app"));
+        assertNotNull(TracePropagation.parseB3("000000000000002a-00f067aa0ba902b7-d", "app"));
+        assertNull(TracePropagation.parseB3("1", "app"));
+        assertNull(TracePropagation.parseB3("000000000000002a-00f067aa0ba902b7-x", "app"));
+    }
+
+    @Test
+    void testEncodingCachedOnSnapshot() {
+        TraceContext context = TraceContext.createRootContext("app");
+        TraceSnapshot snapshot = context.snapshot();
+        assertSame(TracePropagation.encodeBytes(snapshot, PropagationFormat.W3C),
+                TracePropagation.encodeBytes(context.snapshot(), PropagationFormat.W3C));
+    }
+
+    @Test
+    void testDottedSpanFallsBackToLegacy() {
+        TraceContext.setSpanIdFormat(SpanIdFormat.DOTTED);
+        TraceContext.createRootContext("app");
+        TraceContext child = TraceContext.createChildContext();
+
+        Map<String, String> headers = new HashMap<>();
+        TracePropagation.inject(PropagationFormat.W3C, child.snapshot(), "app", headers, Map::put);
+        assertFalse(headers.containsKey(TracePropagation.HEADER_TRACEPARENT));
+        assertEquals(child.getSpanId(), headers.get(TracerConstants.HEADER_SPAN_ID));
+
+        TraceSnapshot extracted = TracePropagation.extract(headers, Map::get, "app");
+        assertEquals(child.getTraceId(), extracted.getTraceId());
+        assertEquals(child.getParentSpanId(), extracted.getParentSpanId());
+    }
+
+    @Test
+    void testDecimalSpanIdFallsBackToLegacy() {
+        // DOTTED格式的根SpanId是十进制，编码为十六进制后下游无法还原
+        TraceSnapshot span = new TraceSnapshot("42", "1234567890123", null, "app", true);
+
+        assertNull(TracePropagation.encode(span, PropagationFormat.W3C));
+        assertNull(TracePropagation.encode(span, PropagationFormat.B3));
+
+        Map<String, String> headers = new HashMap<>();
+        TracePropagation.inject(PropagationFormat.B3, span, "app", headers, Map::put);
+        assertFalse(headers.containsKey(TracePropagation.HEADER_B3));
+        assertEquals("1234567890123",
+                TraceContext.nextSpan(TracePropagation.extract(headers, Map::get, "app"), "app").getParentSpanId());
+    }
+
+    @Test
+    void testExtractPrefersTraceparent() {
+        TraceContext context = TraceContext.createRootContext("app");
+        context.setSampled(false);
+
+        Map<String, String> headers = new HashMap<>();
+        TracePropagation.inject(PropagationFormat.W3C, context.snapshot(), "app", headers, Map::put);
+        assertEquals(1, headers.size());
+
+        TraceSnapshot extracted = TracePropagation.extract(headers, Map::get, "downstream");
+        assertEquals(context.getTraceId(), extracted.getTraceId());
+        assertEquals(context.getSpanId(), extracted.getSpanId());
+        assertFalse(extracted.isSampled());
+    }
+}
@@ -0,0 +1,94 @@
+package org.tbox.dapper.governor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.context.TraceContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 追踪开销降级单元测试
+ */
+class TracingGovernorMonitorTest {
+
+    @AfterEach
+    void tearDown() {
+        TracingGovernor.reset();
+        TraceContext.removeContext();
+    }
+
+    @Test
+    void testStepwiseDegradeAndRecoverWithHysteresis() {
+        TracerProperties.GovernorConfig config = new TracerProperties.GovernorConfig();
+        config.setDegradeChecks(1);
+        config.setRecoverChecks(3);
+        config.setRecoverRatio(0.7D);
+        TracingGovernorMonitor monitor = new TracingGovernorMonitor(config, null);
+
+        TracingLevel level = TracingLevel.FULL;
+        level = monitor.evaluate(level, 1.5D);
+        assertEquals(TracingLevel.NO_PAYLOAD, level);
+        level = monitor.evaluate(level, 2D);
+        level = monitor.evaluate(level, 2D);
+        level = monitor.evaluate(level, 2D);
+        assertEquals(TracingLevel.IDS_ONLY, level);
+
+        // 介于恢复线和上限之间时保持，并打断连续计数
+        level = monitor.evaluate(level, 0.5D);
+        level = monitor.evaluate(level, 0.5D);
+        level = monitor.evaluate(level, 0.8D);
+        level = monitor.evaluate(level, 0.5D);
+        level = monitor.evaluate(level, 0.5D);
+        assertEquals(TracingLevel.IDS_ONLY, level);
+        level = monitor.evaluate(level, 0.5D);
+        assertEquals(TracingLevel.REDUCED_SAMPLING, level);
+    }
+
+    @Test
+    void testCheckPublishesEventOnLevelChange() {
+        TracerProperties.GovernorConfig config = new TracerProperties.GovernorConfig();
+        config.setMaxRequestsPerSecond(1D);
+        config.setCheckIntervalMillis(3_600_000L);
+        TracingGovernorMonitor monitor = new TracingGovernorMonitor(config, null);
+        List<Object> events = new ArrayList<>();
+        monitor.setApplicationEventPublisher(events::add);
+        monitor.afterPropertiesSet();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                TracingGovernor.recordRequest();
+            }
+            monitor.check();
+
+            assertEquals(TracingLevel.NO_PAYLOAD, TracingGovernor.level());
+            assertFalse(TracingGovernor.isPayloadEnabled());
+            assertEquals(1, events.size());
+            TracingLevelChangedEvent event = (TracingLevelChangedEvent) events.get(0);
+            assertEquals(TracingLevel.FULL, event.getPreviousLevel());
+            assertEquals(TracingLevel.NO_PAYLOAD, event.getLevel());
+            assertTrue(event.isDegraded());
+            assertTrue(event.getReason().contains("requestsPerSecond="));
+        } finally {
+            monitor.destroy();
+        }
+        assertEquals(TracingLevel.FULL, TracingGovernor.level());
+    }
+
+    @Test
+    void testIdsOnlyKeepsMdcButDisablesSampling() {
+        TracingGovernor.setLevel(TracingLevel.IDS_ONLY);
+
+        TraceContext context = TraceContext.createRootContext("app");
+
+        assertFalse(context.isSampled());
+        assertEquals(context.getTraceId(), MDC.get(TraceContext.MDC_TRACE_ID));
+        assertFalse(TracingGovernor.isRecordingEnabled());
+
+        TracingGovernor.setLevel(TracingLevel.FULL);
+        assertTrue(TraceContext.createRootContext("app").isSampled());
+    }
+}
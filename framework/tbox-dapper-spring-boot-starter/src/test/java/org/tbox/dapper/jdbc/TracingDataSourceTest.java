@@ -0,0 +1,118 @@
+package org.tbox.dapper.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.span.ClientSpan;
+import org.tbox.dapper.span.SpanComponent;
+import org.tbox.dapper.span.SpanReporter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JDBC追踪单元测试
+ */
+class TracingDataSourceTest {
+
+    private final List<ClientSpan> spans = new ArrayList<>();
+    private final SpanReporter reporter = spans::add;
+
+    @AfterEach
+    void tearDown() {
+        ClientSpan.removeReporter(reporter);
+        TraceContext.removeContext();
+        SqlStatementStats.reset();
+    }
+
+    @Test
+    void testRawConnectionWithoutContext() throws SQLException {
+        Connection connection = mock(Connection.class);
+        DataSource delegate = mock(DataSource.class);
+        when(delegate.getConnection()).thenReturn(connection);
+
+        assertSame(connection, new TracingDataSource(delegate).getConnection());
+    }
+
+    @Test
+    void testQueryAndUpdateSpans() throws SQLException {
+        String select = "SELECT id, name FROM user WHERE id = ?";
+        String update = "UPDATE user SET name = ? WHERE id = ?";
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, false);
+        PreparedStatement query = mock(PreparedStatement.class);
+        when(query.executeQuery()).thenReturn(resultSet);
+        PreparedStatement modify = mock(PreparedStatement.class);
+        when(modify.execute()).thenReturn(false);
+        when(modify.getUpdateCount()).thenReturn(3);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(select)).thenReturn(query);
+        when(connection.prepareStatement(update)).thenReturn(modify);
+        DataSource delegate = mock(DataSource.class);
+        when(delegate.getConnection()).thenReturn(connection);
+        ClientSpan.addReporter(reporter);
+
+        TraceContext root = TraceContext.createRootContext("app");
+        Connection traced = new TracingDataSource(delegate).getConnection();
+        try (PreparedStatement ps = traced.prepareStatement(select); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                assertTrue(spans.isEmpty(), "结果集关闭前不结束Span");
+            }
+        }
+        // MyBatis的更新路径：execute() 后读取 getUpdateCount()
+        try (PreparedStatement ps = traced.prepareStatement(update)) {
+            assertFalse(ps.execute());
+            assertEquals(3, ps.getUpdateCount());
+        }
+
+        assertEquals(2, spans.size());
+        assertEquals("SELECT", spans.get(0).getOperation());
+        assertEquals(select, spans.get(0).getResource());
+        assertEquals("2", spans.get(0).getTags().get("rows"));
+        assertEquals("UPDATE", spans.get(1).getOperation());
+        assertEquals("3", spans.get(1).getTags().get("rows"));
+        assertEquals(2, root.getTimings().getCount(SpanComponent.DB));
+
+        SqlStatementStats stats = SqlStatementStats.find(select);
+        assertNotNull(stats);
+        assertEquals(1, stats.getCount());
+        assertEquals(2, stats.getRows());
+    }
+
+    @Test
+    void testBoundedStatementStats() {
+        SqlStatementStats.setMaxStatements(2);
+        try {
+            for (int i = 0; i < 5; i++) {
+                SqlStatementStats.of(SqlFingerprint.of("SELECT * FROM t" + i)).record(1000, 0, 1, false);
+            }
+            assertEquals(3, SqlStatementStats.all().size());
+            assertEquals(3, SqlStatementStats.find(SqlStatementStats.OTHER).getCount());
+        } finally {
+            SqlStatementStats.setMaxStatements(500);
+        }
+    }
+
+    @Test
+    void testFingerprint() {
+        assertEquals("SELECT * FROM user WHERE id = ? AND name = ?",
+                SqlFingerprint.normalize("SELECT *  FROM user\n WHERE id = 42 AND name = 'it''s'"));
+        assertEquals("SELECT * FROM t1 WHERE id IN (?)",
+                SqlFingerprint.normalize("SELECT * FROM t1 WHERE id IN (?, ?, ?) -- comment"));
+        assertEquals("INSERT INTO t (a, b) VALUES (?)",
+                SqlFingerprint.normalize("INSERT INTO t (a, b) VALUES (?, ?), (?, ?),(?, ?)"));
+        assertEquals("SELECT count(*) FROM t", SqlFingerprint.normalize("/* hint */ SELECT count(*) FROM t"));
+        assertEquals("UPDATE t SET updated_at = NOW() WHERE id = ?",
+                SqlFingerprint.normalize("UPDATE t SET updated_at = NOW() WHERE id = 7"));
+        assertEquals("SELECT", SqlFingerprint.of(" select 1").getOperation());
+    }
+}
@@ -0,0 +1,129 @@
+package org.tbox.dapper.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 调试日志缓冲单元测试
+ */
+class TraceLogBufferTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private TraceLogBufferTurboFilter filter;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        appender.setContext(loggerContext);
+        appender.start();
+        Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        logger = loggerContext.getLogger("org.tbox.test.Service");
+        filter = new TraceLogBufferTurboFilter(loggerContext);
+        filter.install(4, 1000, 0L, new String[]{"org.tbox.test"});
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.uninstall();
+        loggerContext.stop();
+    }
+
+    @Test
+    void testDiscardOnSuccess() {
+        TraceLogBuffer.begin();
+        assertTrue(logger.isDebugEnabled());
+        logger.debug("loaded {}", 1);
+        logger.info("done");
+        assertEquals(1, appender.list.size(), "缓冲的调试日志不应直接输出");
+        TraceLogBuffer.end(false, 10L);
+
+        assertEquals(1, appender.list.size());
+        assertEquals(0, TraceLogBuffer.getBufferedCount());
+    }
+
+    @Test
+    void testReplayOnError() {
+        TraceLogBuffer.begin();
+        logger.debug("step {}", 1);
+        logger.trace("step {}", 2);
+        logger.debug("step {}", 3);
+        TraceLogBuffer.end(true, 10L);
+
+        // 说明 + 3条调试日志（TRACE同样被缓冲）
+        assertEquals(4, appender.list.size());
+        assertEquals("step 1", appender.list.get(1).getFormattedMessage());
+        assertEquals(Level.TRACE, appender.list.get(2).getLevel());
+        assertEquals("step 3", appender.list.get(3).getFormattedMessage());
+        assertEquals(0, TraceLogBuffer.getBufferedCount());
+    }
+
+    @Test
+    void testKeepsNewestWhenFull() {
+        TraceLogBuffer.begin();
+        for (int i = 0; i < 10; i++) {
+            logger.debug("event {}", i);
+        }
+        TraceLogBuffer.end(true, 10L);
+
+        assertEquals(5, appender.list.size());
+        assertEquals("event 6", appender.list.get(1).getFormattedMessage());
+        assertEquals("event 9", appender.list.get(4).getFormattedMessage());
+    }
+
+    @Test
+    void testInactiveWithoutBegin() {
+        assertFalse(logger.isDebugEnabled());
+        logger.debug("ignored");
+        assertNull(TraceLogBuffer.active());
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void testOtherLoggersNotBuffered() {
+        Logger other = loggerContext.getLogger("org.tbox.testing.Client");
+        TraceLogBuffer.begin();
+        assertFalse(other.isDebugEnabled());
+        other.debug("ignored");
+        TraceLogBuffer.end(true, 10L);
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void testGuardUnchangedWithoutPrefixes() {
+        filter.uninstall();
+        filter = new TraceLogBufferTurboFilter(loggerContext);
+        filter.install(4, 1000, 0L);
+
+        TraceLogBuffer.begin();
+        assertFalse(logger.isDebugEnabled());
+        logger.debug("step {}", 1);
+        TraceLogBuffer.end(true, 10L);
+
+        // 未加判断的调试日志仍然缓冲
+        assertEquals(2, appender.list.size());
+        assertEquals("step 1", appender.list.get(1).getFormattedMessage());
+    }
+
+    @Test
+    void testNestedBeginFlushesOnce() {
+        TraceLogBuffer.begin();
+        TraceLogBuffer.begin();
+        logger.debug("inner");
+        TraceLogBuffer.end(true, 10L);
+        assertTrue(appender.list.isEmpty(), "内层结束不应输出");
+        TraceLogBuffer.end(true, 10L);
+        assertEquals(2, appender.list.size());
+    }
+}
@@ -0,0 +1,164 @@
+package org.tbox.dapper.method;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.tbox.dapper.annotation.Traced;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.span.ClientSpan;
+import org.tbox.dapper.span.SpanComponent;
+import org.tbox.dapper.span.SpanReporter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link Traced} 方法追踪单元测试
+ */
+class TracedMethodInterceptorTest {
+
+    private final List<ClientSpan> spans = new ArrayList<>();
+    private final SpanReporter reporter = spans::add;
+
+    @BeforeEach
+    void setUp() {
+        ClientSpan.addReporter(reporter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ClientSpan.removeReporter(reporter);
+        TraceContext.removeContext();
+    }
+
+    @Test
+    void testNoSpanWithoutContext() {
+        OrderService service = proxy(new OrderService());
+        assertEquals("order-1", service.create(1L, "vip"));
+
+        TraceContext root = TraceContext.createRootContext("app");
+        root.setSampled(false);
+        assertEquals("order-2", service.create(2L, "vip"));
+        assertTrue(spans.isEmpty());
+    }
+
+    @Test
+    void testMethodSpanWithTags() {
+        OrderService service = proxy(new OrderService());
+        TraceContext root = TraceContext.createRootContext("app");
+
+        service.create(7L, "vip");
+        service.create(8L, "normal");
+
+        assertEquals(2, spans.size());
+        ClientSpan span = spans.get(0);
+        assertEquals(SpanComponent.METHOD, span.getComponent());
+        assertEquals("order.create", span.getOperation());
+        assertEquals(root.getSpanId(), span.getParentSpanId());
+        assertEquals("7", span.getTags().get("orderId"));
+        assertEquals("vip", span.getTags().get("type"));
+        assertEquals("8", spans.get(1).getTags().get("orderId"));
+        assertEquals(2, root.getTimings().getCount(SpanComponent.METHOD));
+    }
+
+    @Test
+    void testClassLevelAnnotationAndError() {
+        StockService service = proxy(new StockService());
+        TraceContext.createRootContext("app");
+
+        assertThrows(IllegalStateException.class, () -> service.deduct(3));
+        assertEquals("StockService", service.toString());
+
+        assertEquals(1, spans.size());
+        assertEquals("StockService.deduct", spans.get(0).getOperation());
+        assertEquals("IllegalStateException", spans.get(0).getError());
+    }
+
+    @Test
+    void testNestedMethodSpans() {
+        OrderService orders = proxy(new OrderService());
+        CheckoutService checkout = proxy(new CheckoutService(orders));
+        TraceContext root = TraceContext.createRootContext("app");
+
+        checkout.submit(9L);
+
+        assertEquals(3, spans.size());
+        ClientSpan redis = spans.get(0);
+        ClientSpan inner = spans.get(1);
+        ClientSpan outer = spans.get(2);
+        assertEquals("CheckoutService.submit", outer.getOperation());
+        assertEquals(root.getSpanId(), outer.getParentSpanId());
+        assertEquals(outer.getSpanId(), inner.getParentSpanId());
+        assertEquals(outer.getSpanId(), redis.getParentSpanId());
+        // 只有最外层方法计入方法耗时
+        assertEquals(1, root.getTimings().getCount(SpanComponent.METHOD));
+        assertEquals(1, root.getTimings().getCount(SpanComponent.REDIS));
+        assertNull(root.getActiveSpan());
+    }
+
+    @Test
+    void testActiveSpanRestoredOnError() {
+        StockService service = proxy(new StockService());
+        TraceContext root = TraceContext.createRootContext("app");
+
+        assertThrows(IllegalStateException.class, () -> service.deduct(1));
+
+        assertNull(root.getActiveSpan());
+        ClientSpan span = ClientSpan.start(SpanComponent.REDIS, "GET", "stock");
+        span.finish();
+        assertEquals(root.getSpanId(), span.getParentSpanId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target) {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(new DefaultPointcutAdvisor(TracedMethodInterceptor.pointcut(), new TracedMethodInterceptor()));
+        return (T) factory.getProxy();
+    }
+
+    static class OrderService {
+
+        @Traced(value = "order.create", tags = {"orderId=#p0", "type=#p1", "invalid"})
+        public String create(Long orderId, String type) {
+            return "order-" + orderId;
+        }
+    }
+
+    static class CheckoutService {
+
+        private final OrderService orders;
+
+        CheckoutService() {
+            this(null);
+        }
+
+        CheckoutService(OrderService orders) {
+            this.orders = orders;
+        }
+
+        @Traced
+        public String submit(long orderId) {
+            ClientSpan span = ClientSpan.start(SpanComponent.REDIS, "GET", "cart");
+            span.finish();
+            return orders.create(orderId, "vip");
+        }
+    }
+
+    @Traced
+    static class StockService {
+
+        public void deduct(int count) {
+            throw new IllegalStateException("insufficient");
+        }
+
+        @Override
+        public String toString() {
+            return "StockService";
+        }
+    }
+}
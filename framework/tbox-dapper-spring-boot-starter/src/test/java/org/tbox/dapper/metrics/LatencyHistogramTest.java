@@ -0,0 +1,88 @@
+package org.tbox.dapper.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LatencyHistogram 单元测试
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testEmpty_ReturnsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getPercentileNanos(99));
+        assertEquals(0L, histogram.snapshot().getMeanNanos());
+    }
+
+    @Test
+    void testBucketIndex_MonotonicAndBounded() {
+        int previous = -1;
+        for (long micros = 0; micros < (1L << 20); micros += 7) {
+            long nanos = micros * 1000L;
+            int index = LatencyHistogram.bucketIndex(nanos);
+            assertTrue(index >= previous, "桶下标应单调递增: " + micros);
+            assertTrue(nanos < LatencyHistogram.bucketUpperBoundNanos(index), "值应小于所在桶上界: " + micros);
+            previous = index;
+        }
+        // 以微秒为单位分桶
+        assertEquals(0, LatencyHistogram.bucketIndex(999L));
+        assertEquals(1, LatencyHistogram.bucketIndex(1000L));
+        assertEquals(1000L, LatencyHistogram.bucketUpperBoundNanos(0));
+        // 超出范围的值计入最后一个桶
+        assertEquals(LatencyHistogram.bucketIndex(Long.MAX_VALUE), LatencyHistogram.bucketIndex(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    void testPercentile_WithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(1000L, histogram.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), histogram.getMaxNanos());
+
+        long p50 = histogram.getPercentileNanos(50);
+        long p99 = histogram.getPercentileNanos(99);
+        assertTrue(Math.abs(p50 - TimeUnit.MILLISECONDS.toNanos(500)) <= TimeUnit.MILLISECONDS.toNanos(500) * 0.125,
+                "p50误差过大: " + p50);
+        assertTrue(Math.abs(p99 - TimeUnit.MILLISECONDS.toNanos(990)) <= TimeUnit.MILLISECONDS.toNanos(990) * 0.125,
+                "p99误差过大: " + p99);
+        assertTrue(p99 <= histogram.getMaxNanos());
+    }
+
+    @Test
+    void testNegativeValue_RecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5L);
+        assertEquals(1L, histogram.getCount());
+        assertEquals(0L, histogram.getTotalNanos());
+    }
+
+    @Test
+    void testConcurrentRecord_NoLostUpdates() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 4;
+        int perThread = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record(i * 1000L);
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals((long) threads * perThread, histogram.getCount());
+    }
+}
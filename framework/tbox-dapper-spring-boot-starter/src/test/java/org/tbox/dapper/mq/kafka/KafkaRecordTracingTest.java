@@ -0,0 +1,107 @@
+package org.tbox.dapper.mq.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.tbox.dapper.context.PropagationFormat;
+import org.tbox.dapper.context.SpanLinks;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TracePropagation;
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KafkaRecordTracing 单元测试
+ */
+class KafkaRecordTracingTest {
+
+    private final TracingKafkaProducerInterceptor producer = new TracingKafkaProducerInterceptor("producer-app");
+
+    @AfterEach
+    void tearDown() {
+        TraceContext.removeContext();
+        TracePropagation.setKafkaFormat(PropagationFormat.LEGACY);
+    }
+
+    @Test
+    void testTraceparentHeader() {
+        TracePropagation.setKafkaFormat(PropagationFormat.W3C);
+        ConsumerRecord<String, Object> record = sent(0);
+        assertEquals(1, record.headers().toArray().length);
+
+        TraceSnapshot span = KafkaTracingContext.extract(record.headers(), "consumer-app");
+        assertNotNull(span);
+        assertEquals(16, span.getSpanId().length());
+    }
+
+    @Test
+    void testActivateCreatesChildOfProducerSpan() {
+        ConsumerRecord<String, Object> record = sent(0);
+        TraceSnapshot span = KafkaTracingContext.extract(record.headers());
+
+        try (TraceScope ignored = KafkaRecordTracing.activate(record, "consumer-app")) {
+            TraceContext context = TraceContext.getCurrentContext();
+            assertEquals(span.getTraceId(), context.getTraceId());
+            assertEquals(span.getSpanId(), context.getParentSpanId());
+            assertNotEquals(span.getSpanId(), context.getSpanId());
+            assertEquals("consumer-app", context.getAppName());
+        }
+        assertNull(TraceContext.getCurrentContext());
+    }
+
+    @Test
+    void testActivateWithoutHeadersStartsNewTrace() {
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>("topic", 0, 0L, "key", "value");
+        try (TraceScope ignored = KafkaRecordTracing.activate(record, "consumer-app")) {
+            assertNotNull(TraceContext.getCurrentContext());
+        }
+        assertNull(TraceContext.getCurrentContext());
+    }
+
+    @Test
+    void testBatchLinksRecords() {
+        List<ConsumerRecord<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            records.add(sent(i));
+        }
+
+        try (TraceScope ignored = KafkaRecordTracing.activateBatch(records, "consumer-app", 4)) {
+            TraceContext batch = TraceContext.getCurrentContext();
+            SpanLinks links = batch.getLinks();
+            assertEquals(4, links.size());
+            assertEquals(6, links.getDropped());
+
+            // 批量Span内逐条激活，结束后回到批量Span
+            try (TraceScope inner = KafkaRecordTracing.activate(records.get(0), "consumer-app")) {
+                assertNotEquals(batch.getTraceId(), TraceContext.getCurrentContext().getTraceId());
+            }
+            assertSame(batch, TraceContext.getCurrentContext());
+        }
+        assertNull(TraceContext.getCurrentContext());
+    }
+
+    @Test
+    void testRecordInterceptorRestoresAfterRecord() {
+        TracingKafkaRecordInterceptor<String, Object> interceptor = new TracingKafkaRecordInterceptor<>("consumer-app");
+        ConsumerRecord<String, Object> record = sent(0);
+
+        interceptor.intercept(record, null);
+        assertEquals(KafkaTracingContext.extract(record.headers()).getSpanId(),
+                TraceContext.getCurrentContext().getParentSpanId());
+        interceptor.afterRecord(record, null);
+        assertNull(TraceContext.getCurrentContext());
+    }
+
+    private ConsumerRecord<String, Object> sent(long offset) {
+        ProducerRecord<String, Object> sent = producer.onSend(new ProducerRecord<>("topic", "key", "value"));
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>("topic", 0, offset, "key", "value");
+        sent.headers().forEach(record.headers()::add);
+        return record;
+    }
+}
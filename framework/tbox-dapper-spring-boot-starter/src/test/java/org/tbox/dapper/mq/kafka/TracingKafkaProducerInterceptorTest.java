@@ -0,0 +1,133 @@
+package org.tbox.dapper.mq.kafka;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.MDC;
+import org.springframework.kafka.support.ProducerListener;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TraceSnapshot;
+import org.tbox.dapper.core.TracerConstants;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Kafka生产者追踪单元测试
+ * 长时间运行测试默认不执行，-Dtbox.soak.iterations=10000000 运行1000万条
+ */
+class TracingKafkaProducerInterceptorTest {
+
+    private final TracingKafkaProducerInterceptor interceptor = new TracingKafkaProducerInterceptor("test-app");
+
+    @AfterEach
+    void tearDown() {
+        TraceContext.removeContext();
+    }
+
+    @Test
+    void testSendWithoutContextCreatesUnboundSpan() {
+        ProducerRecord<String, Object> record = new ProducerRecord<>("topic", "key", "value");
+        interceptor.onSend(record);
+
+        assertNull(TraceContext.getCurrentContext(), "发送不应在当前线程留下上下文");
+        TraceSnapshot span = KafkaTracingContext.extract(record.headers());
+        assertNotNull(span);
+        assertNull(span.getParentSpanId());
+    }
+
+    @Test
+    void testSendWithContextCreatesChildSpan() {
+        TraceContext parent = TraceContext.createRootContext("test-app");
+        ProducerRecord<String, Object> record = new ProducerRecord<>("topic", "key", "value");
+        interceptor.onSend(record);
+
+        TraceSnapshot span = KafkaTracingContext.extract(record.headers());
+        assertEquals(parent.getTraceId(), span.getTraceId());
+        assertEquals(parent.getSpanId(), span.getParentSpanId());
+        assertSame(parent, TraceContext.getCurrentContext());
+    }
+
+    @Test
+    void testResendReplacesHeaders() {
+        ProducerRecord<String, Object> record = new ProducerRecord<>("topic", "key", "value");
+        interceptor.onSend(record);
+        interceptor.onSend(record);
+
+        int count = 0;
+        for (Object ignored : record.headers().headers(TracerConstants.HEADER_TRACE_ID)) {
+            count++;
+        }
+        assertEquals(1, count);
+    }
+
+    @Test
+    void testListenerActivatesSpanFromHeaders() {
+        AtomicReference<String> seen = new AtomicReference<>();
+        TracingKafkaProducerListener<String, Object> listener = new TracingKafkaProducerListener<>(
+                new ProducerListener<String, Object>() {
+                    @Override
+                    public void onSuccess(ProducerRecord<String, Object> record, RecordMetadata metadata) {
+                        seen.set(TraceContext.getCurrentContext().getSpanId());
+                    }
+                });
+        ProducerRecord<String, Object> record = new ProducerRecord<>("topic", "key", "value");
+        interceptor.onSend(record);
+        listener.onSuccess(record, metadata());
+
+        assertEquals(KafkaTracingContext.extract(record.headers()).getSpanId(), seen.get());
+        assertNull(TraceContext.getCurrentContext());
+    }
+
+    @Test
+    void testCallbackActivatesProducerSpan() {
+        TraceContext parent = TraceContext.createRootContext("test-app");
+        ProducerRecord<String, Object> record = new ProducerRecord<>("topic", "key", "value");
+        AtomicReference<TraceContext> seen = new AtomicReference<>();
+        // 回调在send()之前包装，拦截器在send()中才写入消息头
+        Callback callback = TracingKafkaCallback.wrap(record, (metadata, e) -> seen.set(TraceContext.getCurrentContext()));
+        interceptor.onSend(record);
+        TraceContext.removeContext();
+
+        callback.onCompletion(metadata(), null);
+
+        TraceSnapshot span = KafkaTracingContext.extract(record.headers());
+        assertEquals(span.getSpanId(), seen.get().getSpanId());
+        assertEquals(parent.getSpanId(), seen.get().getParentSpanId());
+        assertNull(TraceContext.getCurrentContext());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "tbox.soak.iterations", matches = "\\d+")
+    void testSoakNoRetainedState() {
+        TracingKafkaProducerListener<String, Object> listener = new TracingKafkaProducerListener<>(
+                new ProducerListener<String, Object>() {
+                });
+        RecordMetadata metadata = metadata();
+        int iterations = Integer.getInteger("tbox.soak.iterations");
+
+        for (int i = 0; i < iterations; i++) {
+            ProducerRecord<String, Object> record = new ProducerRecord<>("topic", "value");
+            interceptor.onSend(record);
+            // 模拟部分回调丢失：只有一半的消息收到发送结果
+            if ((i & 1) == 0) {
+                listener.onSuccess(record, metadata);
+            }
+        }
+
+        // 发送和回调都不在线程或全局Map中保留状态
+        assertNull(TraceContext.getCurrentContext());
+        assertNull(MDC.get(TraceContext.MDC_TRACE_ID));
+        assertNull(MDC.get(TraceContext.MDC_SPAN_ID));
+        assertEquals(0, KafkaTracingContext.consumerContextSize());
+    }
+
+    private static RecordMetadata metadata() {
+        return new RecordMetadata(new TopicPartition("topic", 0), 0L, 0, 0L, 0, 0);
+    }
+}
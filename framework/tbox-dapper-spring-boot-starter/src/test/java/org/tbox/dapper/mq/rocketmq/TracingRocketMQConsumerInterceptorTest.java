@@ -0,0 +1,105 @@
+package org.tbox.dapper.mq.rocketmq;
+
+import org.apache.rocketmq.client.hook.ConsumeMessageContext;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.tbox.dapper.context.SpanLinks;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.core.TracerConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TracingRocketMQConsumerInterceptor 单元测试
+ */
+class TracingRocketMQConsumerInterceptorTest {
+
+    private final TracingRocketMQConsumerInterceptor interceptor =
+            new TracingRocketMQConsumerInterceptor("consumer-app", true, 3);
+
+    @AfterEach
+    void tearDown() {
+        TraceContext.removeContext();
+    }
+
+    @Test
+    void testBatchSpanLinksEveryMessage() {
+        List<MessageExt> msgs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            msgs.add(message("trace-" + i, "span-" + i));
+        }
+        ConsumeMessageContext context = context(msgs);
+
+        interceptor.consumeMessageBefore(context);
+        TraceContext batch = TraceContext.getCurrentContext();
+        assertNotNull(batch);
+        SpanLinks links = batch.getLinks();
+        assertEquals(3, links.size());
+        assertEquals(2, links.getDropped());
+        assertEquals("trace-1", links.getTraceId(1));
+        assertEquals("span-1", links.getSpanId(1));
+
+        // 逐条处理时激活各自的追踪，结束后回到批量Span
+        try (TraceScope ignored = RocketMQMessageTracing.activate(msgs.get(4), "consumer-app")) {
+            TraceContext current = TraceContext.getCurrentContext();
+            assertEquals("trace-4", current.getTraceId());
+            // 消费Span是生产者Span的子Span
+            assertEquals("span-4", current.getParentSpanId());
+            assertNotEquals("span-4", current.getSpanId());
+        }
+        assertSame(batch, TraceContext.getCurrentContext());
+
+        interceptor.consumeMessageAfter(context);
+        assertNull(TraceContext.getCurrentContext());
+        assertTrue(batch.isCompleted());
+    }
+
+    @Test
+    void testSingleMessageContinuesUpstreamTrace() {
+        ConsumeMessageContext context = context(Collections.singletonList(message("trace-a", "span-a")));
+
+        interceptor.consumeMessageBefore(context);
+        TraceContext current = TraceContext.getCurrentContext();
+        assertEquals("trace-a", current.getTraceId());
+        assertEquals("span-a", current.getParentSpanId());
+        assertTrue(current.getLinks().isEmpty());
+
+        interceptor.consumeMessageAfter(context);
+        assertNull(TraceContext.getCurrentContext());
+    }
+
+    @Test
+    void testRestoresPreviousContext() {
+        TraceContext previous = TraceContext.createRootContext("consumer-app");
+        ConsumeMessageContext context = context(Collections.singletonList(message("trace-a", "span-a")));
+
+        interceptor.consumeMessageBefore(context);
+        assertNotSame(previous, TraceContext.getCurrentContext());
+        interceptor.consumeMessageAfter(context);
+        assertSame(previous, TraceContext.getCurrentContext());
+    }
+
+    private static MessageExt message(String traceId, String spanId) {
+        MessageExt msg = new MessageExt();
+        msg.setTopic("topic");
+        msg.putUserProperty(TracerConstants.HEADER_TRACE_ID, traceId);
+        msg.putUserProperty(TracerConstants.HEADER_SPAN_ID, spanId);
+        return msg;
+    }
+
+    private static ConsumeMessageContext context(List<MessageExt> msgs) {
+        ConsumeMessageContext context = new ConsumeMessageContext();
+        context.setMsgList(msgs);
+        context.setProps(new HashMap<>());
+        context.setConsumerGroup("group");
+        context.setSuccess(true);
+        return context;
+    }
+}
@@ -0,0 +1,132 @@
+package org.tbox.dapper.reactive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.FilteredClassLoader;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.server.handler.DefaultWebFilterChain;
+import org.tbox.dapper.client.TracerWebClientFilter;
+import org.tbox.dapper.config.TracerAutoConfiguration;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TraceSnapshot;
+import org.tbox.dapper.core.TracerConstants;
+import org.tbox.dapper.utils.CompiledPathMatcher;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TracerWebFilter、ReactorTraceContext 和 TracerWebClientFilter 单元测试
+ */
+class ReactorTracingTest {
+
+    private final TracerProperties properties = properties();
+
+    @AfterEach
+    void tearDown() {
+        TraceContext.removeContext();
+    }
+
+    @Test
+    void testFilterPropagatesSnapshotThroughContext() {
+        AtomicReference<String> loggedTraceId = new AtomicReference<>();
+        AtomicReference<TraceContext> afterLogging = new AtomicReference<>();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders/1")
+                .header("traceparent", "00-0000000000000000000000000000007b-00000000000001c8-01"));
+
+        DefaultWebFilterChain chain = new DefaultWebFilterChain(ex -> Mono.just("order")
+                .publishOn(Schedulers.parallel())
+                .doOnEach(ReactorTraceContext.onNext(order -> loggedTraceId.set(MDC.get(TraceContext.MDC_TRACE_ID))))
+                .doOnNext(order -> afterLogging.set(TraceContext.getCurrentContext()))
+                .then(), Collections.singletonList(filter()));
+        chain.filter(exchange).block();
+
+        assertEquals("123", exchange.getResponse().getHeaders().getFirst(TracerConstants.HEADER_TRACE_ID));
+        assertEquals("123", loggedTraceId.get());
+        assertNull(afterLogging.get(), "日志位置之外不应残留线程上下文");
+        assertNull(TraceContext.getCurrentContext());
+    }
+
+    @Test
+    void testExcludedPathIsNotTraced() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+        AtomicReference<TraceSnapshot> snapshot = new AtomicReference<>();
+
+        new DefaultWebFilterChain(ex -> ReactorTraceContext.current().doOnNext(snapshot::set).then(),
+                Collections.singletonList(filter())).filter(exchange).block();
+
+        assertNull(snapshot.get());
+        assertNull(exchange.getResponse().getHeaders().getFirst(TracerConstants.HEADER_TRACE_ID));
+    }
+
+    @Test
+    void testWebClientFilterUsesContextSnapshot() {
+        TraceSnapshot parent = TraceContext.detached(null, "test-app").snapshot();
+        AtomicReference<ClientRequest> sent = new AtomicReference<>();
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://inventory/api/stock")).build();
+
+        new TracerWebClientFilter(properties)
+                .filter(request, r -> {
+                    sent.set(r);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                })
+                .contextWrite(ctx -> ReactorTraceContext.with(ctx, parent))
+                .block();
+
+        assertEquals(parent.getTraceId(), sent.get().headers().getFirst(TracerConstants.HEADER_TRACE_ID));
+        assertEquals(parent.getSpanId(), sent.get().headers().getFirst(TracerConstants.HEADER_PARENT_SPAN_ID));
+        assertNotEquals(parent.getSpanId(), sent.get().headers().getFirst(TracerConstants.HEADER_SPAN_ID));
+        assertNull(TraceContext.getCurrentContext());
+    }
+
+    @Test
+    void testWebClientFilterWithoutTraceSendsNoHeaders() {
+        AtomicReference<ClientRequest> sent = new AtomicReference<>();
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://inventory/api/stock")).build();
+
+        new TracerWebClientFilter(properties)
+                .filter(request, r -> {
+                    sent.set(r);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                })
+                .block();
+
+        assertNull(sent.get().headers().getFirst(TracerConstants.HEADER_TRACE_ID));
+    }
+
+    @Test
+    void testAutoConfigurationWithoutServlet() {
+        new ReactiveWebApplicationContextRunner()
+                .withClassLoader(new FilteredClassLoader("javax.servlet", "org.springframework.web.servlet"))
+                .withConfiguration(AutoConfigurations.of(TracerAutoConfiguration.class))
+                .run(context -> {
+                    assertNull(context.getStartupFailure());
+                    assertNotNull(context.getBean(TracerWebFilter.class));
+                    assertNotNull(context.getBean(TracerWebClientFilter.class));
+                });
+    }
+
+    private TracerWebFilter filter() {
+        return new TracerWebFilter(properties, new CompiledPathMatcher(properties.getAllExcludePaths()));
+    }
+
+    private static TracerProperties properties() {
+        TracerProperties properties = new TracerProperties();
+        properties.setApplicationName("test-app");
+        return properties;
+    }
+}
@@ -0,0 +1,112 @@
+package org.tbox.dapper.redis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.span.ClientSpan;
+import org.tbox.dapper.span.SpanComponent;
+import org.tbox.dapper.span.SpanReporter;
+import org.tbox.dapper.span.SpanTimings;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis客户端追踪单元测试
+ */
+class TracingRedisConnectionFactoryTest {
+
+    private final List<ClientSpan> spans = new ArrayList<>();
+    private final SpanReporter reporter = spans::add;
+
+    @AfterEach
+    void tearDown() {
+        ClientSpan.removeReporter(reporter);
+        TraceContext.removeContext();
+    }
+
+    @Test
+    void testUntracedConnectionWithoutContext() {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisConnectionFactory delegate = mock(RedisConnectionFactory.class);
+        when(delegate.getConnection()).thenReturn(connection);
+
+        assertSame(connection, new TracingRedisConnectionFactory(delegate).getConnection());
+    }
+
+    @Test
+    void testCommandSpanWithKeyPrefix() {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(stringCommands.get(any())).thenReturn("v".getBytes(StandardCharsets.UTF_8));
+        when(connection.del(any())).thenThrow(new IllegalStateException("down"));
+        RedisConnectionFactory delegate = mock(RedisConnectionFactory.class);
+        when(delegate.getConnection()).thenReturn(connection);
+        ClientSpan.addReporter(reporter);
+
+        TraceContext root = TraceContext.createRootContext("app");
+        RedisConnection traced = new TracingRedisConnectionFactory(delegate).getConnection();
+        assertNotSame(connection, traced);
+
+        traced.stringCommands().get("user:1001:profile".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalStateException.class, () -> traced.del("token".getBytes(StandardCharsets.UTF_8)));
+        traced.close();
+
+        assertEquals(2, spans.size());
+        assertEquals("GET", spans.get(0).getOperation());
+        assertEquals("user:*", spans.get(0).getResource());
+        assertEquals(root.getSpanId(), spans.get(0).getParentSpanId());
+        assertEquals("DEL", spans.get(1).getOperation());
+        assertEquals("*", spans.get(1).getResource());
+        assertEquals("IllegalStateException", spans.get(1).getError());
+
+        SpanTimings timings = root.getTimings();
+        assertEquals(2, timings.getCount(SpanComponent.REDIS));
+        assertEquals(1, timings.getErrorCount(SpanComponent.REDIS));
+    }
+
+    @Test
+    void testRedissonObjectSpan() throws InterruptedException {
+        RLock lock = mock(RLock.class);
+        when(lock.tryLock(0, -1, TimeUnit.SECONDS)).thenReturn(true);
+        RedissonClient client = mock(RedissonClient.class);
+        when(client.getLock(any())).thenReturn(lock);
+        RedissonClient traced = (RedissonClient) new TracingRedissonBeanPostProcessor()
+                .postProcessAfterInitialization(client, "redisson");
+        ClientSpan.addReporter(reporter);
+
+        // 没有追踪上下文时返回原始对象
+        assertSame(lock, traced.getLock("lock:order:1"));
+
+        TraceContext root = TraceContext.createRootContext("app");
+        RLock tracedLock = traced.getLock("lock:order:1");
+        assertNotSame(lock, tracedLock);
+        assertTrue(tracedLock.tryLock(0, -1, TimeUnit.SECONDS));
+
+        assertEquals(1, spans.size());
+        assertEquals("RLock.tryLock", spans.get(0).getOperation());
+        assertEquals("lock:*", spans.get(0).getResource());
+        assertEquals(1, root.getTimings().getCount(SpanComponent.REDIS));
+    }
+
+    @Test
+    void testKeyPrefix() {
+        assertEquals("a:*", RedisSpans.keyPrefix("a:b:c"));
+        assertEquals("*", RedisSpans.keyPrefix("plain"));
+        assertEquals("*", RedisSpans.keyPrefix("0123456789012345678901234567890123456789:x"));
+        assertEquals("user:*", RedisSpans.keyPrefix("user:1".getBytes(StandardCharsets.UTF_8)));
+    }
+}
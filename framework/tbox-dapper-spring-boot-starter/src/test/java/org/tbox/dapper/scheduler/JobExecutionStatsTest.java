@@ -0,0 +1,120 @@
+package org.tbox.dapper.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.scheduler.quartz.TracingQuartzJobListener;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JobExecutionStats 和 Quartz监听器 单元测试
+ */
+class JobExecutionStatsTest {
+
+    @AfterEach
+    void tearDown() {
+        JobExecutionStats.reset();
+        JobExecutionStats.setMaxJobs(200);
+        TraceContext.removeContext();
+    }
+
+    @Test
+    void testOverrunWhenDurationExceedsPeriod() {
+        JobExecutionStats stats = JobExecutionStats.of(JobExecutionStats.TYPE_SCHEDULED, "Job.run");
+
+        long start = stats.start();
+        stats.finish(start - 2_000_000L, false, 1_000_000L);
+        start = stats.start();
+        stats.finish(start, true, 1_000_000_000L);
+
+        assertEquals(2, stats.getCount());
+        assertEquals(1, stats.getOverruns());
+        assertEquals(1, stats.getErrors());
+        assertEquals(1_000_000_000L, stats.getPeriodNanos());
+        assertTrue(stats.getUtilization() < 1D);
+        assertEquals(0, stats.getRunning());
+    }
+
+    @Test
+    void testOverlapAndMaxRunning() {
+        JobExecutionStats stats = JobExecutionStats.of(JobExecutionStats.TYPE_XXL_JOB, "syncJob");
+
+        long first = stats.start();
+        long second = stats.start();
+        assertEquals(2, stats.getRunning());
+        stats.finish(second, false, 0L);
+        stats.finish(first, false, 0L);
+
+        assertEquals(1, stats.getOverlaps());
+        assertEquals(2, stats.getMaxRunning());
+        assertEquals(0, stats.getRunning());
+        assertEquals(0, stats.getOverruns());
+        assertEquals(0D, stats.getUtilization());
+    }
+
+    @Test
+    void testOverflowToOther() {
+        JobExecutionStats.setMaxJobs(2);
+        JobExecutionStats.of(JobExecutionStats.TYPE_SCHEDULED, "a");
+        JobExecutionStats.of(JobExecutionStats.TYPE_SCHEDULED, "b");
+
+        JobExecutionStats other = JobExecutionStats.of(JobExecutionStats.TYPE_SCHEDULED, "c");
+        assertEquals(JobExecutionStats.OTHER, other.getName());
+        assertSame(other, JobExecutionStats.of(JobExecutionStats.TYPE_QUARTZ, "d"));
+        assertNull(JobExecutionStats.find(JobExecutionStats.TYPE_SCHEDULED, "c"));
+    }
+
+    @Test
+    void testQuartzListenerRecordsExecution() {
+        TracerProperties properties = new TracerProperties();
+        properties.setApplicationName("test-app");
+        TracingQuartzJobListener listener = new TracingQuartzJobListener(properties);
+        JobExecutionContext context = mockContext(new Date(System.currentTimeMillis() + 60_000L));
+
+        listener.jobToBeExecuted(context);
+        assertNotNull(TraceContext.getCurrentContext());
+        JobExecutionStats stats = JobExecutionStats.find(JobExecutionStats.TYPE_QUARTZ, "reports.daily");
+        assertNotNull(stats);
+        assertEquals(1, stats.getRunning());
+
+        listener.jobWasExecuted(context, new JobExecutionException("boom"));
+        assertNull(TraceContext.getCurrentContext());
+        assertEquals(1, stats.getCount());
+        assertEquals(1, stats.getErrors());
+        assertEquals(0, stats.getOverruns());
+        assertEquals(0, stats.getRunning());
+        assertTrue(stats.getPeriodNanos() > 0);
+    }
+
+    private static JobExecutionContext mockContext(Date nextFireTime) {
+        Map<Object, Object> data = new HashMap<>();
+        JobExecutionContext context = mock(JobExecutionContext.class);
+        JobDetail jobDetail = mock(JobDetail.class);
+        Trigger trigger = mock(Trigger.class);
+        when(jobDetail.getKey()).thenReturn(JobKey.jobKey("daily", "reports"));
+        when(trigger.getKey()).thenReturn(TriggerKey.triggerKey("dailyTrigger", "reports"));
+        when(context.getJobDetail()).thenReturn(jobDetail);
+        when(context.getTrigger()).thenReturn(trigger);
+        when(context.getNextFireTime()).thenReturn(nextFireTime);
+        doAnswer(invocation -> data.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(context).put(any(), any());
+        when(context.get(any())).thenAnswer(invocation -> data.get(invocation.getArgument(0)));
+        return context;
+    }
+}
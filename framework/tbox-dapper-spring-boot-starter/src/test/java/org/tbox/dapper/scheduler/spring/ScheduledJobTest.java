@@ -0,0 +1,52 @@
+package org.tbox.dapper.scheduler.spring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 定时任务调度周期单元测试
+ */
+class ScheduledJobTest {
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+
+    @Test
+    void testCronPeriodWhenFiredEarly() throws Exception {
+        ScheduledJob job = new ScheduledJob("cronJob", scheduled("everyFiveMinutes"));
+
+        // 比预定的10:05:00早10毫秒触发
+        long early = job.periodNanos(ZonedDateTime.of(2024, 1, 1, 10, 4, 59, 990_000_000, ZONE));
+        long onTime = job.periodNanos(ZonedDateTime.of(2024, 1, 1, 10, 5, 0, 0, ZONE));
+
+        assertEquals(TimeUnit.MINUTES.toNanos(5), early);
+        assertEquals(TimeUnit.MINUTES.toNanos(5), onTime);
+    }
+
+    @Test
+    void testFixedRatePeriod() throws Exception {
+        ScheduledJob job = new ScheduledJob("rateJob", scheduled("everySecond"));
+
+        assertEquals(TimeUnit.SECONDS.toNanos(1), job.periodNanos());
+    }
+
+    private static Scheduled scheduled(String method) throws NoSuchMethodException {
+        return Jobs.class.getDeclaredMethod(method).getAnnotation(Scheduled.class);
+    }
+
+    static class Jobs {
+
+        @Scheduled(cron = "0 */5 * * * *", zone = "UTC")
+        void everyFiveMinutes() {
+        }
+
+        @Scheduled(fixedRate = 1000)
+        void everySecond() {
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.tbox.dapper.store;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbox.dapper.context.TraceContext;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 进程内追踪记录存储单元测试
+ */
+class TraceStoreTest {
+
+    @BeforeEach
+    void setUp() {
+        TraceStore.configure(true, 2, 10, 3, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TraceContext.removeContext();
+        TraceStore.configure(true, 100, 10, 10, 256);
+    }
+
+    @Test
+    void testKeepsSlowestPerEndpoint() {
+        for (int i = 1; i <= 10; i++) {
+            record("GET /api/orders/{id}", "/api/orders/" + i, 200, null, i);
+        }
+
+        List<TraceRecord> slowest = TraceStore.slowest(0L, Long.MAX_VALUE, null, 50);
+        assertEquals(3, slowest.size());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), slowest.get(0).getDurationNanos());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(8), slowest.get(2).getDurationNanos());
+        assertEquals("/api/orders/10", slowest.get(0).getPath());
+
+        EndpointTraceStats stats = TraceStore.endpoints().iterator().next();
+        assertEquals(10, stats.getCount());
+    }
+
+    @Test
+    void testRecentErrorsAndFind() {
+        String traceId = null;
+        for (int i = 0; i < 6; i++) {
+            traceId = record("POST /api/pay", "/api/pay", 500, "HTTP 500", 1);
+        }
+
+        // 环形缓冲只保留最近4条
+        assertEquals(4, TraceStore.recentErrors(0L, Long.MAX_VALUE, null, 50).size());
+        List<TraceRecord> found = TraceStore.find(traceId);
+        assertFalse(found.isEmpty());
+        assertEquals("HTTP 500", found.get(0).getError());
+        assertEquals(6, TraceStore.endpoints().iterator().next().getErrors());
+    }
+
+    @Test
+    void testEndpointLimit() {
+        record("GET /a", "/a", 200, null, 1);
+        record("GET /b", "/b", 200, null, 1);
+        record("GET /c", "/c", 200, null, 1);
+
+        assertEquals(3, TraceStore.endpoints().size());
+        assertTrue(TraceStore.endpoints().stream().anyMatch(s -> TraceStore.OTHER.equals(s.getName())));
+    }
+
+    @Test
+    void testConcurrentWritesKeepGlobalSlowest() throws InterruptedException {
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            executor.submit(() -> {
+                try {
+                    for (int i = 1; i <= perThread; i++) {
+                        record("GET /hot", "/hot", 200, null, offset + i);
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+
+        List<TraceRecord> slowest = TraceStore.slowest(0L, Long.MAX_VALUE, null, 50);
+        assertEquals(3, slowest.size());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(threads * perThread), slowest.get(0).getDurationNanos());
+    }
+
+    private static String record(String endpoint, String path, int status, String error, long millis) {
+        TraceContext context = TraceContext.createRootContext("app");
+        TraceStore.record(context, endpoint, path, status, error, TimeUnit.MILLISECONDS.toNanos(millis));
+        TraceContext.removeContext();
+        return context.getTraceId();
+    }
+}
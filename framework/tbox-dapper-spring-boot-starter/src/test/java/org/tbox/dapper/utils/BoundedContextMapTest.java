@@ -0,0 +1,64 @@
+package org.tbox.dapper.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BoundedContextMap 单元测试
+ */
+class BoundedContextMapTest {
+
+    @Test
+    void testEvictsOldestWhenFull() {
+        BoundedContextMap<String, String> map = new BoundedContextMap<>("test.full", 100, 1, TimeUnit.HOURS);
+        for (int i = 0; i < 150; i++) {
+            map.put("k" + i, "v" + i);
+        }
+        assertEquals(100, map.size());
+        assertNull(map.get("k0"));
+        assertEquals("v149", map.get("k149"));
+        assertEquals(50, map.getEvictedCount());
+    }
+
+    @Test
+    void testExpiredEntryNotReturned() throws InterruptedException {
+        BoundedContextMap<String, String> map = new BoundedContextMap<>("test.ttl", 100, 10, TimeUnit.MILLISECONDS);
+        map.put("a", "1");
+        Thread.sleep(20);
+        assertNull(map.get("a"));
+        assertEquals(1, map.getExpiredCount());
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void testBoundedWhenCallersNeverRemove() {
+        int max = 1000;
+        BoundedContextMap<Integer, Object> map = new BoundedContextMap<>("test.leak", max, 1, TimeUnit.HOURS);
+        Object value = new Object();
+        for (int i = 0; i < 1_000_000; i++) {
+            map.put(i, value);
+            if ((i & 1) == 0) {
+                map.remove(i);
+            }
+            assertTrue(map.size() <= max);
+            assertTrue(map.queuedSize() <= max * 2, "写入顺序队列超出上限: " + map.queuedSize());
+        }
+    }
+
+    @Test
+    void testLongLivedHeadDoesNotPinQueue() {
+        int max = 100;
+        BoundedContextMap<Integer, Object> map = new BoundedContextMap<>("test.head", max, 1, TimeUnit.HOURS);
+        Object value = new Object();
+        map.put(-1, value);
+        for (int i = 0; i < 100_000; i++) {
+            map.put(i, value);
+            map.remove(i);
+            assertTrue(map.queuedSize() <= max * 2);
+        }
+        assertSame(value, map.get(-1));
+    }
+}
@@ -0,0 +1,95 @@
+package org.tbox.dapper.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CompiledPathMatcher 单元测试
+ */
+class CompiledPathMatcherTest {
+
+    @Test
+    void testExactMatch() {
+        CompiledPathMatcher matcher = new CompiledPathMatcher("/error", "/favicon.ico");
+        assertTrue(matcher.matches("/error"));
+        assertTrue(matcher.matches("/favicon.ico"));
+        assertFalse(matcher.matches("/error/detail"));
+        assertFalse(matcher.matches("/errors"));
+        assertFalse(matcher.matches("/"));
+    }
+
+    @Test
+    void testDoubleWildcard_MatchesZeroOrMoreSegments() {
+        CompiledPathMatcher matcher = new CompiledPathMatcher("/actuator/**");
+        assertTrue(matcher.matches("/actuator"));
+        assertTrue(matcher.matches("/actuator/health"));
+        assertTrue(matcher.matches("/actuator/metrics/jvm.memory.used"));
+        assertFalse(matcher.matches("/actuatorx"));
+        assertFalse(matcher.matches("/api/actuator"));
+    }
+
+    @Test
+    void testDoubleWildcard_InMiddle() {
+        CompiledPathMatcher matcher = new CompiledPathMatcher("/api/**/export");
+        assertTrue(matcher.matches("/api/export"));
+        assertTrue(matcher.matches("/api/v1/order/export"));
+        assertFalse(matcher.matches("/api/v1/order/exports"));
+    }
+
+    @Test
+    void testSingleWildcardAndVariable_MatchExactlyOneSegment() {
+        CompiledPathMatcher matcher = new CompiledPathMatcher("/api/*/health", "/users/{id}");
+        assertTrue(matcher.matches("/api/v1/health"));
+        assertFalse(matcher.matches("/api/health"));
+        assertFalse(matcher.matches("/api/v1/v2/health"));
+        assertTrue(matcher.matches("/users/42"));
+        assertFalse(matcher.matches("/users/42/orders"));
+    }
+
+    @Test
+    void testGlobInSegment() {
+        CompiledPathMatcher matcher = new CompiledPathMatcher("/static/*.js", "/v?/ping");
+        assertTrue(matcher.matches("/static/app.js"));
+        assertFalse(matcher.matches("/static/app.css"));
+        assertFalse(matcher.matches("/static/js/app.js"));
+        assertTrue(matcher.matches("/v1/ping"));
+        assertFalse(matcher.matches("/v10/ping"));
+    }
+
+    @Test
+    void testRedundantSlashesIgnored() {
+        CompiledPathMatcher matcher = new CompiledPathMatcher("/api/v1/status");
+        assertTrue(matcher.matches("/api//v1/status/"));
+        assertTrue(matcher.matches("api/v1/status"));
+    }
+
+    @Test
+    void testMatchIndex_ReturnsLowestMatchingIndex() {
+        CompiledPathMatcher matcher = new CompiledPathMatcher("/api/orders/**", "/api/**", "/api/orders/list");
+        assertEquals(0, matcher.matchIndex("/api/orders/list"));
+        assertEquals(1, matcher.matchIndex("/api/users"));
+        assertEquals(-1, matcher.matchIndex("/web/index"));
+        assertEquals("/api/**", matcher.getPattern(1));
+    }
+
+    @Test
+    void testManyPatterns() {
+        String[] patterns = new String[500];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = "/service" + i + "/**";
+        }
+        CompiledPathMatcher matcher = new CompiledPathMatcher(patterns);
+        assertEquals(499, matcher.matchIndex("/service499/a/b"));
+        assertEquals(0, matcher.matchIndex("/service0"));
+        assertFalse(matcher.matches("/service500/a"));
+    }
+
+    @Test
+    void testNullAndEmpty() {
+        CompiledPathMatcher matcher = new CompiledPathMatcher((String[]) null);
+        assertFalse(matcher.matches("/any"));
+        assertFalse(new CompiledPathMatcher("/a", null, "").matches(null));
+        assertEquals(0, matcher.size());
+    }
+}
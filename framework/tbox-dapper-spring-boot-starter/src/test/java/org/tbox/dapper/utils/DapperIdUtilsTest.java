@@ -171,4 +171,19 @@ class DapperIdUtilsTest {
             fail("应该存在私有构造函数");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGenerateHexSpanId_FixedWidth() {
+        for (int i = 0; i < 1000; i++) {
+            String spanId = DapperIdUtils.generateHexSpanId();
+            assertEquals(16, spanId.length());
+            assertTrue(spanId.matches("[0-9a-f]{16}"), "SpanId应为16位十六进制: " + spanId);
+        }
+    }
+
+    @Test
+    void testToHex_PadsLeadingZeros() {
+        assertEquals("0000000000000001", DapperIdUtils.toHex(1L));
+        assertEquals("ffffffffffffffff", DapperIdUtils.toHex(-1L));
+    }
+}
@@ -0,0 +1,26 @@
+package org.tbox.dapper.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * DurationFormat 单元测试
+ */
+class DurationFormatTest {
+
+    @Test
+    void testMillisKeepsMicrosecondPrecision() {
+        assertEquals("0.000", DurationFormat.millis(0L));
+        assertEquals("0.000", DurationFormat.millis(999L));
+        assertEquals("0.001", DurationFormat.millis(1_000L));
+        assertEquals("0.350", DurationFormat.millis(350_000L));
+        assertEquals("1.234", DurationFormat.millis(1_234_567L));
+        assertEquals("1500.020", DurationFormat.millis(1_500_020_000L));
+    }
+
+    @Test
+    void testNegativeIsZero() {
+        assertEquals("0.000", DurationFormat.millis(-5L));
+    }
+}
@@ -0,0 +1,100 @@
+package org.tbox.dapper.web;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerMapping;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.logging.TraceLogBuffer;
+import org.tbox.dapper.store.TraceRecord;
+import org.tbox.dapper.store.TraceStore;
+import org.tbox.dapper.utils.CompiledPathMatcher;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TracerWebInterceptor 单元测试
+ */
+class TracerWebInterceptorTest {
+
+    private final TracerWebInterceptor interceptor =
+            new TracerWebInterceptor(new TracerProperties(), new CompiledPathMatcher("/internal/ping"));
+
+    @AfterEach
+    void tearDown() {
+        TraceContext.removeContext();
+    }
+
+    @Test
+    void testExcludedVerdict_MatchedByRequestUri() throws Exception {
+        MockHttpServletRequest excluded = request("/internal/ping");
+        interceptor.preHandle(excluded, new MockHttpServletResponse(), null);
+        assertNull(excluded.getAttribute(TracerWebInterceptor.TRACE_CONTEXT_ATTRIBUTE));
+
+        // 同一映射模式、不同URI（如带上下文路径）的请求按各自的URI判定
+        MockHttpServletRequest traced = request("/app/internal/ping");
+        traced.setContextPath("/app");
+        interceptor.preHandle(traced, new MockHttpServletResponse(), null);
+        assertNotNull(traced.getAttribute(TracerWebInterceptor.TRACE_CONTEXT_ATTRIBUTE));
+    }
+
+    @Test
+    void testHandledException_FlushesBufferedLogs() throws Exception {
+        AtomicInteger replayed = new AtomicInteger();
+        TraceLogBuffer.Sink sink = new TraceLogBuffer.Sink() {
+            @Override
+            public void replay(TraceLogBuffer.Event event) {
+                replayed.incrementAndGet();
+            }
+
+            @Override
+            public void beforeReplay(int count, long dropped) {
+            }
+        };
+        TraceLogBuffer.install(sink, 16, 1000, 0L);
+        try {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            interceptor.preHandle(request, response, null);
+            TraceLogBuffer.active().record("logger", "DEBUG", "loading order", null, null);
+
+            // 全局异常处理器处理后响应状态为200，异常记录在请求属性中
+            request.setAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE, new IllegalStateException("biz"));
+            interceptor.afterCompletion(request, response, null, null);
+
+            assertEquals(1, replayed.get());
+        } finally {
+            TraceLogBuffer.uninstall(sink);
+        }
+    }
+
+    @Test
+    void testHandledException_RecordedAsError() throws Exception {
+        TraceStore.configure(true, 100, 10, 10, 256);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        String traceId = TraceContext.getCurrentContext().getTraceId();
+
+        // 参数校验失败由异常处理器返回400
+        request.setAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE, new IllegalArgumentException("invalid"));
+        response.setStatus(400);
+        interceptor.afterCompletion(request, response, null, null);
+
+        List<TraceRecord> records = TraceStore.find(traceId);
+        assertEquals(1, records.size());
+        assertEquals("IllegalArgumentException", records.get(0).getError());
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/internal/ping");
+        return request;
+    }
+}
@@ -0,0 +1,68 @@
+package org.tbox.dapper.web.payload;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BoundedJsonWriter 单元测试
+ */
+class BoundedJsonWriterTest {
+
+    @Test
+    void testWithinBudget_ReturnsFullJson() {
+        assertEquals("{\"a\":1}", BoundedJsonWriter.toJson(Collections.singletonMap("a", 1), 100));
+        assertEquals("null", BoundedJsonWriter.toJson(null, 100));
+    }
+
+    @Test
+    void testUnlimited_ReturnsFullJson() {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(i);
+        }
+        String json = BoundedJsonWriter.toJson(list, 0);
+        assertTrue(json.endsWith("9999]"));
+    }
+
+    @Test
+    void testOverBudget_TruncatesAndStopsSerializing() {
+        AtomicInteger serialized = new AtomicInteger();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            items.add(new Item(serialized));
+        }
+
+        String json = BoundedJsonWriter.toJson(items, 100);
+
+        assertTrue(json.startsWith("[{\"value\":\"item\"}"));
+        assertTrue(json.contains("已截断"));
+        // Jackson内部缓冲约4000字符，超过后即停止遍历
+        assertTrue(serialized.get() < 1000, "序列化应提前终止: " + serialized.get());
+    }
+
+    @Test
+    void testRepeatedTruncation_IsIndependent() {
+        String first = BoundedJsonWriter.toJson(Collections.nCopies(1000, "abcdef"), 50);
+        String second = BoundedJsonWriter.toJson(Collections.nCopies(1000, "abcdef"), 50);
+        assertEquals(first, second);
+    }
+
+    static class Item {
+        private final AtomicInteger counter;
+
+        Item(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        public String getValue() {
+            counter.incrementAndGet();
+            return "item";
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.tbox.dapper.web.payload;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.utils.CompiledPathMatcher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PayloadCaptureFilter 单元测试
+ */
+class PayloadCaptureFilterTest {
+
+    @Test
+    void testBodiesPassThroughUnchanged() throws Exception {
+        TracerProperties properties = new TracerProperties();
+        properties.setMaxResponseLength(8);
+        properties.getPayload().setMaxRequestLength(8);
+        PayloadCaptureFilter filter = new PayloadCaptureFilter(properties, new CompiledPathMatcher("/actuator/**"), null);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+        request.setContentType("application/json");
+        request.setContent("{\"id\":1234567890}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> readBody = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, resp) -> {
+            readBody.set(req.getReader().lines().collect(Collectors.joining()));
+            resp.setContentType("application/json");
+            resp.getWriter().write("{\"result\":\"ok-ok-ok\"}");
+        });
+
+        // 捕获上限只影响日志，业务读取和客户端收到的内容保持完整
+        assertEquals("{\"id\":1234567890}", readBody.get());
+        assertEquals("{\"result\":\"ok-ok-ok\"}", response.getContentAsString());
+    }
+
+    @Test
+    void testAsyncResponse_LoggedOnCompleteWithWriterFlushed() throws Exception {
+        Logger logger = (Logger) LoggerFactory.getLogger(PayloadCaptureFilter.class);
+        Level level = logger.getLevel();
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        try {
+            PayloadCaptureFilter filter = new PayloadCaptureFilter(new TracerProperties(), new CompiledPathMatcher(), null);
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+            request.setAsyncSupported(true);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filter.doFilter(request, response, (req, resp) -> {
+                req.startAsync();
+                // 异步处理通过Writer写出且未刷新
+                resp.getWriter().write("{\"result\":\"async\"}");
+            });
+            assertTrue(appender.list.isEmpty());
+
+            request.getAsyncContext().complete();
+            assertTrue(appender.list.stream().anyMatch(e -> e.getFormattedMessage().contains("{\"result\":\"async\"}")),
+                    "异步完成后应输出完整的响应结果");
+        } finally {
+            logger.detachAppender(appender);
+            logger.setLevel(level);
+        }
+    }
+
+    @Test
+    void testCaptureBuffer_TruncatesAtLimit() {
+        CaptureBuffer buffer = CaptureBuffer.acquire(0, 4);
+        byte[] bytes = "abcdefgh".getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+        buffer.write('i');
+
+        assertEquals("abcd... (共9字节已截断)", buffer.toString(StandardCharsets.UTF_8));
+        buffer.release();
+
+        // 同一线程归还后复用同一缓冲
+        assertSame(buffer, CaptureBuffer.acquire(0, 4));
+        assertTrue(buffer.isEmpty());
+        buffer.release();
+    }
+}
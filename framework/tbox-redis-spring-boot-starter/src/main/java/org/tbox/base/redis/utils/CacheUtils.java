@@ -3,6 +3,7 @@ package org.tbox.base.redis.utils;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.tbox.base.core.context.ApplicationContextHolder;
+import org.tbox.redis.cache.TwoLevelCacheManager;
 
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -10,6 +11,7 @@ import java.util.function.Function;
 public class CacheUtils {
 
     private static volatile RedissonClient redissonClient;
+    private static volatile TwoLevelCacheManager twoLevelCacheManager;
 
     private static RedissonClient getRedissonClient() {
         if (redissonClient == null) {
@@ -22,6 +24,17 @@ public class CacheUtils {
         return redissonClient;
     }
 
+    private static TwoLevelCacheManager getTwoLevelCacheManager() {
+        if (twoLevelCacheManager == null) {
+            synchronized (CacheUtils.class) {
+                if (twoLevelCacheManager == null) {
+                    twoLevelCacheManager = ApplicationContextHolder.getBean(TwoLevelCacheManager.class);
+                }
+            }
+        }
+        return twoLevelCacheManager;
+    }
+
     /**
      * 带缓存的查询（防止缓存穿透）
      */
@@ -90,4 +103,19 @@ public class CacheUtils {
             }
         }
     }
+
+    /**
+     * 二级缓存查询（进程内缓存 + Redis），适合读多写少的热点数据
+     * 需开启 tbox.redis.cache.enabled，过期时间等按缓存名称配置；null值同样缓存（防止穿透）
+     */
+    public static <T> T getWithLocal(String cacheName, String key, Function<String, T> dbFallback) {
+        return getTwoLevelCacheManager().getCache(cacheName).get(key, dbFallback);
+    }
+
+    /**
+     * 删除二级缓存，并通知所有节点失效进程内缓存，数据更新后调用
+     */
+    public static void evictTwoLevel(String cacheName, String key) {
+        getTwoLevelCacheManager().getCache(cacheName).evict(key);
+    }
 }
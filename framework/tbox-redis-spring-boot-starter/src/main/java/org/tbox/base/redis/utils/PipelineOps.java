@@ -0,0 +1,213 @@
+package org.tbox.base.redis.utils;
+
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 管道中可执行的命令，由 {@link RedisUtils#pipeline(java.util.function.Consumer)} 提供
+ * 每条命令返回一个 {@link Response}，管道执行完成后通过 {@link Response#get()} 读取该命令的结果；
+ * 管道中收到的是连接返回的原始结果，RedisTemplate在连接之外做的转换（如DEL的删除数转为Boolean）由对应的Response完成
+ *
+ * <pre>
+ * List&lt;PipelineOps.Response&lt;Product&gt;&gt; products = new ArrayList&lt;&gt;();
+ * RedisUtils.pipeline(ops -&gt; ids.forEach(id -&gt; products.add(ops.get("product:" + id))));
+ * Product first = products.get(0).get();
+ * </pre>
+ */
+public final class PipelineOps {
+
+    private final RedisOperations<String, Object> operations;
+    private final List<Response<?>> responses = new ArrayList<>();
+    private boolean completed;
+
+    PipelineOps(RedisOperations<String, Object> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * 获取值
+     */
+    public <T> Response<T> get(String key) {
+        operations.opsForValue().get(key);
+        return next();
+    }
+
+    /**
+     * 设置值
+     */
+    public Response<Boolean> set(String key, Object value) {
+        operations.opsForValue().set(key, value);
+        return next();
+    }
+
+    /**
+     * 设置值并指定过期时间
+     */
+    public Response<Boolean> set(String key, Object value, long timeout, TimeUnit timeUnit) {
+        operations.opsForValue().set(key, value, timeout, timeUnit);
+        return next();
+    }
+
+    /**
+     * 自增指定值
+     */
+    public Response<Long> increment(String key, long delta) {
+        operations.opsForValue().increment(key, delta);
+        return next();
+    }
+
+    /**
+     * 删除键
+     */
+    public Response<Boolean> delete(String key) {
+        operations.delete(key);
+        return next(PipelineOps::deleted);
+    }
+
+    /**
+     * 设置过期时间
+     */
+    public Response<Boolean> expire(String key, long timeout, TimeUnit timeUnit) {
+        operations.expire(key, timeout, timeUnit);
+        return next();
+    }
+
+    /**
+     * 设置Hash字段值
+     */
+    public Response<Boolean> hSet(String key, String field, Object value) {
+        operations.opsForHash().put(key, field, value);
+        return next();
+    }
+
+    /**
+     * 获取Hash字段值
+     */
+    public <T> Response<T> hGet(String key, String field) {
+        operations.opsForHash().get(key, field);
+        return next();
+    }
+
+    /**
+     * 获取Hash所有字段值
+     */
+    public Response<Map<Object, Object>> hGetAll(String key) {
+        operations.opsForHash().entries(key);
+        return next();
+    }
+
+    /**
+     * 添加ZSet元素
+     */
+    public Response<Boolean> zAdd(String key, Object value, double score) {
+        operations.opsForZSet().add(key, value, score);
+        return next();
+    }
+
+    /**
+     * 获取ZSet元素分数
+     */
+    public Response<Double> zScore(String key, Object value) {
+        operations.opsForZSet().score(key, value);
+        return next();
+    }
+
+    /**
+     * 增加ZSet元素分数
+     */
+    public Response<Double> zIncrementScore(String key, Object value, double delta) {
+        operations.opsForZSet().incrementScore(key, value, delta);
+        return next();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Response<T> next() {
+        return next(result -> (T) result);
+    }
+
+    private <T> Response<T> next(Function<Object, T> converter) {
+        if (completed) {
+            throw new IllegalStateException("Pipeline already executed");
+        }
+        Response<T> response = new Response<>(converter);
+        responses.add(response);
+        return response;
+    }
+
+    /**
+     * DEL返回删除的键数
+     */
+    private static Boolean deleted(Object result) {
+        return result instanceof Number ? ((Number) result).longValue() > 0 : (Boolean) result;
+    }
+
+    /**
+     * 在管道中执行命令并填充各命令的结果
+     *
+     * @return 按命令顺序排列的所有结果
+     */
+    static List<Object> execute(RedisTemplate<String, Object> template, Consumer<PipelineOps> commands) {
+        PipelineOps[] holder = new PipelineOps[1];
+        List<Object> results = template.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                holder[0] = new PipelineOps((RedisOperations<String, Object>) operations);
+                commands.accept(holder[0]);
+                return null;
+            }
+        });
+        holder[0].complete(results);
+        return results;
+    }
+
+    /**
+     * 管道执行完成，按命令顺序填充结果
+     */
+    void complete(List<Object> results) {
+        completed = true;
+        if (results.size() != responses.size()) {
+            throw new IllegalStateException("Pipeline returned " + results.size()
+                    + " results for " + responses.size() + " commands");
+        }
+        for (int i = 0; i < results.size(); i++) {
+            responses.get(i).set(results.get(i));
+        }
+    }
+
+    /**
+     * 管道中一条命令的结果
+     */
+    public static final class Response<T> {
+        private final Function<Object, T> converter;
+        private T value;
+        private boolean done;
+
+        private Response(Function<Object, T> converter) {
+            this.converter = converter;
+        }
+
+        private void set(Object result) {
+            this.value = converter.apply(result);
+            this.done = true;
+        }
+
+        /**
+         * 获取命令结果，管道执行完成前调用时抛出异常
+         */
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("Pipeline not executed yet");
+            }
+            return value;
+        }
+    }
+}
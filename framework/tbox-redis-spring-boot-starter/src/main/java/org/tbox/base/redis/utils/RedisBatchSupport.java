@@ -0,0 +1,294 @@
+package org.tbox.base.redis.utils;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * 多键批量命令的执行支持，供 {@link RedisUtils} 的批量方法使用
+ * <ul>
+ *     <li>单机/哨兵：所有键在一个管道中执行，一次往返</li>
+ *     <li>集群：按槽位分组，同一主节点负责的槽位合并到一个管道中（多键命令按槽位拆分），各节点并行执行，
+ *     往返次数从键数量降为主节点数量</li>
+ *     <li>不支持管道的集群连接（Jedis集群）：同样按节点分组并行，组内每个槽位/键直接执行，由客户端按槽位路由</li>
+ * </ul>
+ * 是否为集群、是否支持管道按连接工厂只检查一次，集群节点信息缓存一段时间后刷新
+ */
+final class RedisBatchSupport {
+
+    // 各节点的管道并行执行，调用线程执行其中一组，线程池满时退化为调用线程依次执行
+    private static volatile ThreadPoolExecutor executor;
+    // 节点信息的缓存时间，期间槽位迁移时由客户端按重定向处理
+    private static final long NODES_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final Map<RedisConnectionFactory, Topology> TOPOLOGIES = new WeakHashMap<>();
+
+    private RedisBatchSupport() {
+    }
+
+    /**
+     * 对一组键执行批量命令，返回与键顺序一致的结果
+     *
+     * @param template RedisTemplate
+     * @param keys     键列表
+     * @param multiKey 命令是否为多键命令（如MGET/MSET）：是时每个槽位分组一条命令，结果为该组各键的值列表；
+     *                 否时每个键一条命令，结果为单个值
+     * @param command  对同一槽位的键发送命令；在管道中执行时返回值被忽略，不支持管道时直接执行，
+     *                 需返回该组各键的值列表（多键命令为命令结果，写命令可返回null）
+     */
+    static List<Object> execute(RedisTemplate<String, Object> template, List<String> keys, boolean multiKey,
+                                BiFunction<RedisOperations<String, Object>, List<String>, Object> command) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Topology topology = topology(template);
+        List<List<List<Integer>>> groups = group(keys, topology.nodes(template));
+
+        boolean pipelined = topology.pipelined;
+        Object[] values = new Object[keys.size()];
+        if (groups.size() == 1) {
+            executeGroup(template, keys, multiKey, pipelined, command, groups.get(0), values);
+            return Arrays.asList(values);
+        }
+        List<Future<?>> futures = new ArrayList<>(groups.size() - 1);
+        for (int i = 1; i < groups.size(); i++) {
+            List<List<Integer>> group = groups.get(i);
+            futures.add(getExecutor().submit(() -> executeGroup(template, keys, multiKey, pipelined, command, group, values)));
+        }
+        executeGroup(template, keys, multiKey, pipelined, command, groups.get(0), values);
+        for (Future<?> future : futures) {
+            await(future);
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * 连接是否支持管道，不支持（Jedis集群）时抛出异常
+     */
+    static void requirePipeline(RedisTemplate<String, Object> template) {
+        if (!topology(template).pipelined) {
+            throw new InvalidDataAccessApiUsageException(
+                    "Pipeline is not supported by the redis cluster connection (Jedis), use Lettuce or Redisson instead");
+        }
+    }
+
+    /**
+     * 按槽位和负责该槽位的主节点分组
+     *
+     * @param keys  键列表
+     * @param nodes 集群节点，非集群时为null
+     * @return 节点分组 -> 槽位分组 -> 键下标
+     */
+    static List<List<List<Integer>>> group(List<String> keys, Iterable<RedisClusterNode> nodes) {
+        if (nodes == null) {
+            List<Integer> indexes = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                indexes.add(i);
+            }
+            List<List<List<Integer>>> groups = new ArrayList<>(1);
+            groups.add(Collections.singletonList(indexes));
+            return groups;
+        }
+        List<RedisClusterNode> masters = new ArrayList<>();
+        for (RedisClusterNode node : nodes) {
+            if (node.isMaster()) {
+                masters.add(node);
+            }
+        }
+        Map<Integer, List<Integer>> slots = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            slots.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(keys.get(i)), s -> new ArrayList<>()).add(i);
+        }
+        // 找不到负责节点的槽位（如正在迁移）单独成组，由客户端按重定向处理
+        Map<Object, List<List<Integer>>> byNode = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Integer>> entry : slots.entrySet()) {
+            Object owner = entry.getKey();
+            for (RedisClusterNode master : masters) {
+                if (master.servesSlot(entry.getKey())) {
+                    owner = master;
+                    break;
+                }
+            }
+            byNode.computeIfAbsent(owner, n -> new ArrayList<>()).add(entry.getValue());
+        }
+        return new ArrayList<>(byNode.values());
+    }
+
+    private static void executeGroup(RedisTemplate<String, Object> template, List<String> keys, boolean multiKey,
+                                     boolean pipelined,
+                                     BiFunction<RedisOperations<String, Object>, List<String>, Object> command,
+                                     List<List<Integer>> group, Object[] values) {
+        List<List<String>> slotKeys = new ArrayList<>(group.size());
+        for (List<Integer> indexes : group) {
+            List<String> list = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                list.add(keys.get(index));
+            }
+            slotKeys.add(list);
+        }
+        if (!pipelined) {
+            for (int i = 0; i < group.size(); i++) {
+                fill(group.get(i), command.apply(template, slotKeys.get(i)), values);
+            }
+            return;
+        }
+        List<Object> results = template.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                for (List<String> list : slotKeys) {
+                    command.apply((RedisOperations<String, Object>) operations, list);
+                }
+                return null;
+            }
+        });
+
+        int position = 0;
+        for (List<Integer> indexes : group) {
+            if (multiKey) {
+                fill(indexes, results.get(position++), values);
+            } else {
+                for (Integer index : indexes) {
+                    values[index] = results.get(position++);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按键填充一个槽位分组的值列表，写命令（如MSET）只返回一个状态，不按键填充
+     */
+    private static void fill(List<Integer> indexes, Object slotValues, Object[] values) {
+        if (slotValues instanceof List) {
+            for (int i = 0; i < indexes.size(); i++) {
+                values[indexes.get(i)] = ((List<?>) slotValues).get(i);
+            }
+        }
+    }
+
+    private static Topology topology(RedisTemplate<String, Object> template) {
+        RedisConnectionFactory factory = template.getConnectionFactory();
+        if (factory == null) {
+            throw new IllegalStateException("RedisConnectionFactory is required");
+        }
+        synchronized (TOPOLOGIES) {
+            return TOPOLOGIES.computeIfAbsent(factory, Topology::resolve);
+        }
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvalidDataAccessApiUsageException("Interrupted while waiting for redis batch", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new InvalidDataAccessApiUsageException("Redis batch failed", cause);
+        }
+    }
+
+    private static ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            synchronized (RedisBatchSupport.class) {
+                if (executor == null) {
+                    int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+                    AtomicInteger sequence = new AtomicInteger();
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(threads * 16), r -> {
+                                Thread t = new Thread(r, "tbox-redis-batch-" + sequence.incrementAndGet());
+                                t.setDaemon(true);
+                                return t;
+                            }, new ThreadPoolExecutor.CallerRunsPolicy());
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = pool;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 连接工厂的集群信息
+     */
+    private static final class Topology {
+        final boolean cluster;
+        // JedisClusterConnection不支持管道，openPipeline时抛出UnsupportedOperationException
+        final boolean pipelined;
+        private volatile Iterable<RedisClusterNode> nodes;
+        private volatile long refreshedAt;
+
+        private Topology(boolean cluster, boolean pipelined) {
+            this.cluster = cluster;
+            this.pipelined = pipelined;
+        }
+
+        static Topology resolve(RedisConnectionFactory factory) {
+            RedisConnection connection = factory.getConnection();
+            try {
+                if (!(connection instanceof RedisClusterConnection)) {
+                    return new Topology(false, true);
+                }
+                try {
+                    connection.openPipeline();
+                    connection.closePipeline();
+                    return new Topology(true, true);
+                } catch (UnsupportedOperationException e) {
+                    return new Topology(true, false);
+                }
+            } finally {
+                connection.close();
+            }
+        }
+
+        /**
+         * 集群节点，非集群时返回null
+         */
+        Iterable<RedisClusterNode> nodes(RedisTemplate<String, Object> template) {
+            if (!cluster) {
+                return null;
+            }
+            long now = System.nanoTime();
+            Iterable<RedisClusterNode> current = nodes;
+            if (current == null || now - refreshedAt > NODES_TTL_NANOS) {
+                current = template.execute((RedisCallback<Iterable<RedisClusterNode>>) connection ->
+                        ((RedisClusterConnection) connection).clusterGetNodes());
+                nodes = current;
+                refreshedAt = now;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * 转换为列表，保持集合的迭代顺序
+     */
+    static List<String> toList(Collection<String> keys) {
+        return keys instanceof List ? (List<String>) keys : new ArrayList<>(keys);
+    }
+}
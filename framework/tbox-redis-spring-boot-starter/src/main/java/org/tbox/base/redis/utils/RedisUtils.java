@@ -6,12 +6,16 @@ import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
 import org.tbox.base.core.context.ApplicationContextHolder;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Redis缓存工具类，提供各种数据类型的操作
@@ -350,6 +354,112 @@ public final class RedisUtils {
         getRedisTemplate().opsForZSet().removeRangeByScore(key, min, max);
     }
 
+    // ==================== 批量操作 ====================
+
+    /**
+     * 批量获取值，返回与键顺序一致的列表，不存在的键对应null
+     * 单机一次往返；集群按槽位分组，同一主节点的分组合并在一个管道中，各节点并行执行
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> mGet(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return (List<T>) RedisBatchSupport.execute(getRedisTemplate(), RedisBatchSupport.toList(keys), true,
+                (operations, slotKeys) -> operations.opsForValue().multiGet(slotKeys));
+    }
+
+    /**
+     * 批量设置值（MSET），集群按槽位拆分
+     */
+    public static void mSet(Map<String, ?> map) {
+        if (map == null || map.isEmpty()) {
+            return;
+        }
+        RedisBatchSupport.execute(getRedisTemplate(), new ArrayList<>(map.keySet()), true, (operations, slotKeys) -> {
+            Map<String, Object> slotMap = new LinkedHashMap<>();
+            for (String key : slotKeys) {
+                slotMap.put(key, map.get(key));
+            }
+            operations.opsForValue().multiSet(slotMap);
+            return null;
+        });
+    }
+
+    /**
+     * 批量设置值并指定过期时间，每个键一条带过期时间的SET，在管道中执行
+     */
+    public static void mSet(Map<String, ?> map, long timeout, TimeUnit timeUnit) {
+        if (map == null || map.isEmpty()) {
+            return;
+        }
+        RedisBatchSupport.execute(getRedisTemplate(), new ArrayList<>(map.keySet()), false, (operations, slotKeys) -> {
+            for (String key : slotKeys) {
+                operations.opsForValue().set(key, map.get(key), timeout, timeUnit);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 批量获取多个Hash的所有字段值，返回按键顺序排列的Map，不存在的键对应空Map
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Map<Object, Object>> hGetAll(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        List<String> list = RedisBatchSupport.toList(keys);
+        List<Object> values = RedisBatchSupport.execute(getRedisTemplate(), list, false, (operations, slotKeys) -> {
+            List<Object> slotValues = new ArrayList<>(slotKeys.size());
+            for (String key : slotKeys) {
+                slotValues.add(operations.opsForHash().entries(key));
+            }
+            return slotValues;
+        });
+        Map<String, Map<Object, Object>> result = new LinkedHashMap<>(list.size() * 2);
+        for (int i = 0; i < list.size(); i++) {
+            Map<Object, Object> entries = (Map<Object, Object>) values.get(i);
+            result.put(list.get(i), entries != null ? entries : Collections.emptyMap());
+        }
+        return result;
+    }
+
+    /**
+     * 批量获取同一元素在多个ZSet中的分数，返回按键顺序排列的Map，元素不存在时对应null
+     */
+    public static Map<String, Double> zScore(Collection<String> keys, Object value) {
+        if (keys == null || keys.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        List<String> list = RedisBatchSupport.toList(keys);
+        List<Object> values = RedisBatchSupport.execute(getRedisTemplate(), list, false, (operations, slotKeys) -> {
+            List<Object> slotValues = new ArrayList<>(slotKeys.size());
+            for (String key : slotKeys) {
+                slotValues.add(operations.opsForZSet().score(key, value));
+            }
+            return slotValues;
+        });
+        Map<String, Double> result = new LinkedHashMap<>(list.size() * 2);
+        for (int i = 0; i < list.size(); i++) {
+            result.put(list.get(i), (Double) values.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 在一个管道中执行多条命令，只需一次往返
+     * 每条命令返回 {@link PipelineOps.Response}，本方法返回后可读取各自的结果；集群中的键由客户端按节点路由，
+     * Jedis集群不支持管道，调用时抛出异常
+     *
+     * @param commands 在管道中发送命令
+     * @return 按命令顺序排列的所有结果
+     */
+    public static List<Object> pipeline(Consumer<PipelineOps> commands) {
+        RedisBatchSupport.requirePipeline(getRedisTemplate());
+        return PipelineOps.execute(getRedisTemplate(), commands);
+    }
+
     // ==================== Lua脚本执行 ====================
 
     /**
@@ -0,0 +1,32 @@
+package org.tbox.redis.cache;
+
+import java.io.Serializable;
+
+/**
+ * 带版本号的缓存条目，同时用于一级缓存和Redis中保存的值
+ * 版本号来自Redis中每个键的版本计数器，每次写入或删除时递增；失效消息携带新版本号，
+ * 各节点只失效版本更低的本地条目
+ */
+public class CacheEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long version;
+    private Object value;
+
+    private CacheEntry() {
+    }
+
+    public CacheEntry(long version, Object value) {
+        this.version = version;
+        this.value = value;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,116 @@
+package org.tbox.redis.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存的命中统计，按级别分别记录
+ */
+public final class CacheStats {
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localMisses = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    void localHit() {
+        localHits.increment();
+    }
+
+    void localMiss() {
+        localMisses.increment();
+    }
+
+    void remoteHit() {
+        remoteHits.increment();
+    }
+
+    void remoteMiss() {
+        remoteMisses.increment();
+    }
+
+    void load(boolean failed) {
+        loads.increment();
+        if (failed) {
+            loadFailures.increment();
+        }
+    }
+
+    void invalidation() {
+        invalidations.increment();
+    }
+
+    public long getLocalHits() {
+        return localHits.sum();
+    }
+
+    public long getLocalMisses() {
+        return localMisses.sum();
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getRemoteMisses() {
+        return remoteMisses.sum();
+    }
+
+    /**
+     * 调用加载函数（查数据库）的次数
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    /**
+     * 收到的失效消息数（含本节点发出的）
+     */
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * 一级缓存命中率，没有请求时为0
+     */
+    public double getLocalHitRatio() {
+        return ratio(getLocalHits(), getLocalMisses());
+    }
+
+    /**
+     * 一级缓存未命中的请求中Redis的命中率，没有请求时为0
+     */
+    public double getRemoteHitRatio() {
+        return ratio(getRemoteHits(), getRemoteMisses());
+    }
+
+    /**
+     * 汇总信息
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("localHits", getLocalHits());
+        map.put("localMisses", getLocalMisses());
+        map.put("localHitRatio", Math.round(getLocalHitRatio() * 1000D) / 1000D);
+        map.put("remoteHits", getRemoteHits());
+        map.put("remoteMisses", getRemoteMisses());
+        map.put("remoteHitRatio", Math.round(getRemoteHitRatio() * 1000D) / 1000D);
+        map.put("loads", getLoads());
+        map.put("loadFailures", getLoadFailures());
+        map.put("invalidations", getInvalidations());
+        return map;
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0D : hits / (double) total;
+    }
+}
@@ -0,0 +1,220 @@
+package org.tbox.redis.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内一级缓存：分段LRU（SLRU）淘汰 + 每个条目单独的过期时间
+ * <ul>
+ *     <li>新条目进入试用区，再次命中后晋升到保护区（占容量的80%），保护区满时最久未访问的条目降回试用区</li>
+ *     <li>超出容量时优先淘汰试用区中最久未访问的条目，只读取一次的扫描式访问不会挤掉热点数据</li>
+ *     <li>按键的哈希分为多个分片，每个分片单独加锁；每个分片维护一个失效代数，
+ *     加载开始后分片内发生过失效时不写入加载结果，避免用旧值覆盖</li>
+ * </ul>
+ */
+final class LocalCache {
+
+    private static final int MAX_SHARDS = 16;
+    private static final int MIN_SHARD_CAPACITY = 64;
+
+    private final Shard[] shards;
+    private final int mask;
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize 最大条目数，不大于0时不缓存任何条目
+     */
+    LocalCache(int maxSize) {
+        int count = Math.max(1, Math.min(MAX_SHARDS, Integer.highestOneBit(Math.max(1, maxSize / MIN_SHARD_CAPACITY))));
+        this.shards = new Shard[count];
+        this.mask = count - 1;
+        int base = Math.max(0, maxSize) / count;
+        int remainder = Math.max(0, maxSize) % count;
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(base + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * 获取未过期的条目，不存在或已过期时返回null
+     */
+    CacheEntry get(String key) {
+        return shard(key).get(key, System.nanoTime());
+    }
+
+    /**
+     * 当前的失效代数，开始加载前获取，写入时传给 {@link #putIfCurrent}
+     */
+    long generation(String key) {
+        return shard(key).generation();
+    }
+
+    /**
+     * 分片在加载期间没有发生过失效时写入
+     *
+     * @return 是否写入
+     */
+    boolean putIfCurrent(String key, CacheEntry entry, long ttlNanos, long generation) {
+        return shard(key).put(key, entry, ttlNanos, generation);
+    }
+
+    /**
+     * 写入条目，已有版本更新的条目时不覆盖
+     */
+    void put(String key, CacheEntry entry, long ttlNanos) {
+        shard(key).put(key, entry, ttlNanos, -1L);
+    }
+
+    /**
+     * 失效版本低于指定版本的条目，并使分片内进行中的加载不再写入
+     *
+     * @param version 新版本，小于0时无条件失效
+     */
+    void invalidate(String key, long version) {
+        shard(key).invalidate(key, version);
+    }
+
+    /**
+     * 清空所有条目
+     */
+    void clear() {
+        for (Shard shard : shards) {
+            shard.clear();
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * 因容量淘汰的条目数（不含过期和失效）
+     */
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+    private Shard shard(String key) {
+        int h = key.hashCode();
+        return shards[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Node {
+        final CacheEntry entry;
+        final long expireAt;
+
+        Node(CacheEntry entry, long expireAt) {
+            this.entry = entry;
+            this.expireAt = expireAt;
+        }
+    }
+
+    private final class Shard {
+        private final int capacity;
+        private final int protectedCapacity;
+        private final LinkedHashMap<String, Node> probation = new LinkedHashMap<>(16, 0.75F, true);
+        private final LinkedHashMap<String, Node> protect = new LinkedHashMap<>(16, 0.75F, true);
+        private long generation;
+
+        Shard(int capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = capacity * 4 / 5;
+        }
+
+        synchronized CacheEntry get(String key, long now) {
+            Node node = protect.get(key);
+            if (node == null) {
+                node = probation.remove(key);
+                if (node == null) {
+                    return null;
+                }
+                if (node.expireAt - now <= 0) {
+                    return null;
+                }
+                promote(key, node);
+                return node.entry;
+            }
+            if (node.expireAt - now <= 0) {
+                protect.remove(key);
+                return null;
+            }
+            return node.entry;
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        synchronized boolean put(String key, CacheEntry entry, long ttlNanos, long expectedGeneration) {
+            if (capacity <= 0 || ttlNanos <= 0 || (expectedGeneration >= 0 && expectedGeneration != generation)) {
+                return false;
+            }
+            Node node = new Node(entry, System.nanoTime() + ttlNanos);
+            Node existing = protect.get(key);
+            if (existing != null) {
+                if (existing.entry.getVersion() > entry.getVersion()) {
+                    return false;
+                }
+                protect.put(key, node);
+                return true;
+            }
+            existing = probation.get(key);
+            if (existing != null && existing.entry.getVersion() > entry.getVersion()) {
+                return false;
+            }
+            probation.put(key, node);
+            evictIfNeeded();
+            return true;
+        }
+
+        synchronized void invalidate(String key, long version) {
+            generation++;
+            Node node = protect.get(key);
+            Map<String, Node> owner = protect;
+            if (node == null) {
+                node = probation.get(key);
+                owner = probation;
+            }
+            if (node != null && (version < 0 || node.entry.getVersion() < version)) {
+                owner.remove(key);
+            }
+        }
+
+        synchronized void clear() {
+            generation++;
+            probation.clear();
+            protect.clear();
+        }
+
+        synchronized int size() {
+            return probation.size() + protect.size();
+        }
+
+        private void promote(String key, Node node) {
+            protect.put(key, node);
+            if (protect.size() > protectedCapacity) {
+                Iterator<Map.Entry<String, Node>> eldest = protect.entrySet().iterator();
+                Map.Entry<String, Node> demoted = eldest.next();
+                eldest.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+            evictIfNeeded();
+        }
+
+        private void evictIfNeeded() {
+            while (probation.size() + protect.size() > capacity) {
+                Map<String, Node> victims = probation.isEmpty() ? protect : probation;
+                Iterator<Map.Entry<String, Node>> eldest = victims.entrySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package org.tbox.redis.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.tbox.redis.cache.config.TwoLevelCacheProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 二级缓存：进程内一级缓存（{@link LocalCache}）+ Redis二级缓存
+ * <ul>
+ *     <li>读取：一级缓存 -> Redis -> 加载函数，同一节点同一个键同时只有一个线程加载，其他线程等待结果</li>
+ *     <li>版本：Redis中每个键有一个版本计数器，写入和删除时递增；加载结果只在版本未变化时写入Redis，
+ *     加载期间被其他节点更新或删除的键不会被旧值重新填充</li>
+ *     <li>失效：写入和删除后通过发布/订阅通知所有节点，各节点失效版本更低的本地条目</li>
+ * </ul>
+ */
+public class TwoLevelCache {
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    /**
+     * 读取条目和当前版本
+     * KEYS: 数据键、版本键
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ_SCRIPT = new DefaultRedisScript<>(
+            "return {redis.call('GET', KEYS[1]) or '', redis.call('GET', KEYS[2]) or '0'}", List.class);
+
+    /**
+     * 版本未变化时写入条目，返回1；版本已变化时返回0
+     * KEYS: 数据键、版本键；ARGV: 加载前的版本、条目、条目过期毫秒数、版本键过期毫秒数
+     */
+    private static final RedisScript<Long> POPULATE_SCRIPT = new DefaultRedisScript<>(
+            "local v = tonumber(redis.call('GET', KEYS[2]) or '0') " +
+            "if v ~= tonumber(ARGV[1]) then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+            "if v > 0 then redis.call('PEXPIRE', KEYS[2], ARGV[4]) end " +
+            "return 1", Long.class);
+
+    /**
+     * 递增版本并删除条目，返回新版本
+     * KEYS: 数据键、版本键；ARGV: 版本键过期毫秒数
+     */
+    private static final RedisScript<Long> BUMP_SCRIPT = new DefaultRedisScript<>(
+            "local v = redis.call('INCR', KEYS[2]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[1]) " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return v", Long.class);
+
+    private final String name;
+    private final String keyPrefix;
+    private final String channel;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisSerializer<Object> valueSerializer;
+    private final LocalCache local;
+    private final CacheStats stats = new CacheStats();
+    private final ConcurrentMap<String, Loading> loading = new ConcurrentHashMap<>();
+
+    private final long localTtlNanos;
+    private final long redisTtlMillis;
+    private final long nullTtlMillis;
+    // 版本键需比条目（含各节点一级缓存中的副本）存活更久，否则计数器重置后新版本可能低于旧条目的版本
+    private final long versionTtlMillis;
+
+    TwoLevelCache(String name, TwoLevelCacheProperties.Spec spec, String keyPrefix, String channel,
+                  RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate) {
+        this.name = name;
+        this.keyPrefix = keyPrefix + name + ":{";
+        this.channel = channel;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.valueSerializer = valueSerializer(redisTemplate);
+        this.local = new LocalCache(spec.getLocalMaxSize());
+        this.localTtlNanos = spec.getLocalTtl().toNanos();
+        this.redisTtlMillis = spec.getRedisTtl().toMillis();
+        this.nullTtlMillis = spec.getNullTtl().toMillis();
+        this.versionTtlMillis = Math.max(redisTtlMillis, nullTtlMillis) + spec.getLocalTtl().toMillis();
+    }
+
+    /**
+     * 获取缓存值，两级缓存都未命中时调用加载函数并写入两级缓存
+     *
+     * @param key    键
+     * @param loader 加载函数（如查数据库），返回null时按null-ttl缓存
+     * @throws IllegalStateException 加载函数中再次获取同一个键
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Function<String, T> loader) {
+        CacheEntry entry = local.get(key);
+        if (entry != null) {
+            stats.localHit();
+            return (T) entry.getValue();
+        }
+        stats.localMiss();
+
+        Loading future = new Loading();
+        Loading running = loading.putIfAbsent(key, future);
+        if (running != null) {
+            // 加载函数中再次获取同一个键时等待自己的结果会永久阻塞
+            if (running.owner == Thread.currentThread()) {
+                throw new IllegalStateException("Recursive load: cache=" + name + ", key=" + key);
+            }
+            return (T) await(running).getValue();
+        }
+        try {
+            entry = load(key, loader);
+            future.complete(entry);
+            return (T) entry.getValue();
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 获取缓存值，不调用加载函数，两级缓存都没有时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getIfPresent(String key) {
+        CacheEntry entry = local.get(key);
+        if (entry != null) {
+            stats.localHit();
+            return (T) entry.getValue();
+        }
+        stats.localMiss();
+        long generation = local.generation(key);
+        entry = readRemote(key).entry;
+        if (entry == null) {
+            stats.remoteMiss();
+            return null;
+        }
+        stats.remoteHit();
+        local.putIfCurrent(key, entry, localTtlNanos(entry), generation);
+        return (T) entry.getValue();
+    }
+
+    /**
+     * 写入缓存值并通知其他节点失效
+     */
+    public void put(String key, Object value) {
+        // 写入期间收到其他节点更新版本的失效消息时不写入一级缓存，避免旧值留在本地
+        long generation = local.generation(key);
+        long version = bump(key);
+        CacheEntry entry = new CacheEntry(version, value);
+        if (populate(key, entry, version)) {
+            local.putIfCurrent(key, entry, localTtlNanos(entry), generation);
+        }
+        local.invalidate(key, version);
+        publish(key, version);
+    }
+
+    /**
+     * 删除缓存值并通知其他节点失效，数据更新后调用
+     */
+    public void evict(String key) {
+        long version = bump(key);
+        local.invalidate(key, version);
+        publish(key, version);
+    }
+
+    /**
+     * 清空本节点的一级缓存
+     */
+    public void clearLocal() {
+        local.clear();
+    }
+
+    /**
+     * 处理失效消息
+     */
+    void onInvalidation(String key, long version) {
+        stats.invalidation();
+        local.invalidate(key, version);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * 一级缓存当前条目数
+     */
+    public int getLocalSize() {
+        return local.size();
+    }
+
+    /**
+     * 一级缓存因容量淘汰的条目数
+     */
+    public long getLocalEvictions() {
+        return local.getEvictions();
+    }
+
+    private CacheEntry load(String key, Function<String, ?> loader) {
+        long generation = local.generation(key);
+        Remote remote = readRemote(key);
+        CacheEntry entry = remote.entry;
+        if (entry != null) {
+            stats.remoteHit();
+            local.putIfCurrent(key, entry, localTtlNanos(entry), generation);
+            return entry;
+        }
+        stats.remoteMiss();
+
+        long version = remote.version;
+        Object value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            stats.load(true);
+            throw e;
+        }
+        stats.load(false);
+        entry = new CacheEntry(version, value);
+        if (populate(key, entry, version)) {
+            local.putIfCurrent(key, entry, localTtlNanos(entry), generation);
+        }
+        return entry;
+    }
+
+    /**
+     * 一次往返读取Redis中的条目和版本，条目不存在时用版本判断加载期间是否被更新
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Remote readRemote(String key) {
+        List<?> result = stringRedisTemplate.execute(READ_SCRIPT, RedisSerializer.byteArray(),
+                (RedisSerializer) RedisSerializer.byteArray(), keys(key));
+        if (result == null || result.size() < 2) {
+            return new Remote(null, 0L);
+        }
+        long version = Long.parseLong(new String((byte[]) result.get(1), StandardCharsets.UTF_8));
+        byte[] raw = (byte[]) result.get(0);
+        Object value = raw.length > 0 ? valueSerializer.deserialize(raw) : null;
+        if (value instanceof CacheEntry) {
+            return new Remote((CacheEntry) value, version);
+        }
+        if (value != null && log.isDebugEnabled()) {
+            log.debug("[twoLevelCache] 忽略非CacheEntry的值: cache={}, key={}, type={}", name, key, value.getClass().getName());
+        }
+        return new Remote(null, version);
+    }
+
+    /**
+     * 版本未变化时写入Redis，null值在null-ttl为0时不写入
+     */
+    private boolean populate(String key, CacheEntry entry, long version) {
+        long ttl = entry.getValue() == null ? nullTtlMillis : redisTtlMillis;
+        if (ttl <= 0) {
+            return false;
+        }
+        Long stored = stringRedisTemplate.execute(POPULATE_SCRIPT, RedisSerializer.byteArray(), null, keys(key),
+                bytes(version), valueSerializer.serialize(entry), bytes(ttl), bytes(versionTtlMillis));
+        return stored != null && stored == 1L;
+    }
+
+    private long bump(String key) {
+        Long version = stringRedisTemplate.execute(BUMP_SCRIPT, RedisSerializer.byteArray(), null, keys(key),
+                bytes(versionTtlMillis));
+        return version != null ? version : 0L;
+    }
+
+    private void publish(String key, long version) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, TwoLevelCacheManager.message(name, key, version));
+        } catch (RuntimeException e) {
+            // 发送失败时其他节点的一级缓存在local-ttl后过期
+            log.warn("[twoLevelCache] 发送失效消息失败: cache={}, key={}, error={}", name, key, e.getMessage());
+        }
+    }
+
+    private long localTtlNanos(CacheEntry entry) {
+        if (entry.getValue() == null) {
+            return Math.min(localTtlNanos, nullTtlMillis * 1_000_000L);
+        }
+        return localTtlNanos;
+    }
+
+    private String dataKey(String key) {
+        return keyPrefix + key + '}';
+    }
+
+    /**
+     * 版本键与数据键使用相同的哈希标签，集群中位于同一个槽位
+     */
+    private String versionKey(String key) {
+        return keyPrefix + key + "}:v";
+    }
+
+    private List<String> keys(String key) {
+        return Arrays.asList(dataKey(key), versionKey(key));
+    }
+
+    private static byte[] bytes(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 条目按RedisTemplate的值序列化方式保存，键和脚本参数统一按字符串处理
+     */
+    @SuppressWarnings("unchecked")
+    private static RedisSerializer<Object> valueSerializer(RedisTemplate<String, Object> redisTemplate) {
+        RedisSerializer<?> serializer = redisTemplate.getValueSerializer();
+        return serializer != null ? (RedisSerializer<Object>) serializer : RedisSerializer.java();
+    }
+
+    private static CacheEntry await(CompletableFuture<CacheEntry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 进行中的加载，记录加载线程用于发现重入
+     */
+    private static final class Loading extends CompletableFuture<CacheEntry> {
+        final Thread owner = Thread.currentThread();
+    }
+
+    private static final class Remote {
+        final CacheEntry entry;
+        final long version;
+
+        Remote(CacheEntry entry, long version) {
+            this.entry = entry;
+            this.version = version;
+        }
+    }
+}
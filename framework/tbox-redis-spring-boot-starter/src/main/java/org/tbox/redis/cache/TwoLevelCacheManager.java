@@ -0,0 +1,109 @@
+package org.tbox.redis.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.tbox.redis.cache.config.TwoLevelCacheProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 二级缓存管理：按名称创建缓存（使用该名称的配置），并接收失效消息分发给对应的缓存
+ * 失效消息格式为 版本|缓存名称|键
+ */
+public class TwoLevelCacheManager implements MessageListener {
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    private static final char SEPARATOR = '|';
+
+    private final TwoLevelCacheProperties properties;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Collection<Consumer<TwoLevelCache>> listeners = new CopyOnWriteArrayList<>();
+
+    public TwoLevelCacheManager(TwoLevelCacheProperties properties, RedisTemplate<String, Object> redisTemplate,
+                                StringRedisTemplate stringRedisTemplate) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * 获取（或创建）指定名称的缓存
+     *
+     * @param name 缓存名称，不能包含 '|'
+     */
+    public TwoLevelCache getCache(String name) {
+        if (name == null || name.isEmpty() || name.indexOf(SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("Invalid cache name: " + name);
+        }
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        synchronized (listeners) {
+            cache = caches.get(name);
+            if (cache == null) {
+                cache = new TwoLevelCache(name, properties.getSpec(name), properties.getKeyPrefix(),
+                        properties.getChannel(), redisTemplate, stringRedisTemplate);
+                caches.put(name, cache);
+                for (Consumer<TwoLevelCache> listener : listeners) {
+                    listener.accept(cache);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * 获取已创建的所有缓存
+     */
+    public Collection<TwoLevelCache> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+
+    /**
+     * 对已创建和之后创建的每个缓存执行一次回调，用于注册指标
+     */
+    public void forEachCache(Consumer<TwoLevelCache> listener) {
+        synchronized (listeners) {
+            listeners.add(listener);
+            caches.values().forEach(listener);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : body.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            log.warn("[twoLevelCache] 无法解析的失效消息: {}", body);
+            return;
+        }
+        // 本节点没有创建的缓存没有本地条目，无需处理
+        TwoLevelCache cache = caches.get(body.substring(first + 1, second));
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.onInvalidation(body.substring(second + 1), Long.parseLong(body.substring(0, first)));
+        } catch (NumberFormatException e) {
+            log.warn("[twoLevelCache] 无法解析的失效消息: {}", body);
+        }
+    }
+
+    static String message(String name, String key, long version) {
+        return String.valueOf(version) + SEPARATOR + name + SEPARATOR + key;
+    }
+}
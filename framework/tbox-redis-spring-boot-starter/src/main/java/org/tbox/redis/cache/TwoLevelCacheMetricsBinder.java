@@ -0,0 +1,60 @@
+package org.tbox.redis.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 将二级缓存统计注册为Micrometer指标 {@code tbox.cache.*}（标签cache，请求数另有标签level=local/redis、result=hit/miss）
+ * 所有指标均为函数式指标，只在抓取时读取统计数据，启动后新创建的缓存在创建时补充注册
+ */
+public class TwoLevelCacheMetricsBinder implements MeterBinder {
+
+    private static final String PREFIX = "tbox.cache";
+
+    private final TwoLevelCacheManager cacheManager;
+
+    public TwoLevelCacheMetricsBinder(TwoLevelCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cacheManager.forEachCache(cache -> register(registry, cache));
+    }
+
+    private static void register(MeterRegistry registry, TwoLevelCache cache) {
+        Tags tags = Tags.of("cache", cache.getName());
+        CacheStats stats = cache.getStats();
+
+        requests(registry, tags, "local", "hit", stats, CacheStats::getLocalHits);
+        requests(registry, tags, "local", "miss", stats, CacheStats::getLocalMisses);
+        requests(registry, tags, "redis", "hit", stats, CacheStats::getRemoteHits);
+        requests(registry, tags, "redis", "miss", stats, CacheStats::getRemoteMisses);
+        Gauge.builder(PREFIX + ".hit.ratio", stats, CacheStats::getLocalHitRatio)
+                .tags(tags).tag("level", "local").description("命中率").register(registry);
+        Gauge.builder(PREFIX + ".hit.ratio", stats, CacheStats::getRemoteHitRatio)
+                .tags(tags).tag("level", "redis").description("命中率").register(registry);
+
+        FunctionCounter.builder(PREFIX + ".loads", stats, CacheStats::getLoads)
+                .tags(tags).description("两级缓存都未命中时调用加载函数的次数").register(registry);
+        FunctionCounter.builder(PREFIX + ".load.failures", stats, CacheStats::getLoadFailures)
+                .tags(tags).description("加载函数抛出异常的次数").register(registry);
+        FunctionCounter.builder(PREFIX + ".invalidations", stats, CacheStats::getInvalidations)
+                .tags(tags).description("收到的失效消息数").register(registry);
+        FunctionCounter.builder(PREFIX + ".local.evictions", cache, TwoLevelCache::getLocalEvictions)
+                .tags(tags).description("一级缓存因容量淘汰的条目数").register(registry);
+        Gauge.builder(PREFIX + ".local.size", cache, TwoLevelCache::getLocalSize)
+                .tags(tags).description("一级缓存条目数").register(registry);
+    }
+
+    private static void requests(MeterRegistry registry, Tags tags, String level, String result, CacheStats stats,
+                                 ToDoubleFunction<CacheStats> count) {
+        FunctionCounter.builder(PREFIX + ".requests", stats, count)
+                .tags(tags).tag("level", level).tag("result", result).description("缓存请求数").register(registry);
+    }
+}
@@ -0,0 +1,69 @@
+package org.tbox.redis.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 订阅二级缓存失效消息频道
+ * 容器中已有唯一的 {@link RedisMessageListenerContainer} 时把监听器注册到该容器，否则创建一个内部容器，
+ * 内部容器不注册为Bean，不影响应用按类型注入自己的容器
+ */
+public class TwoLevelCacheSubscriber implements SmartInitializingSingleton, DisposableBean {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final ChannelTopic topic;
+    private final RedisConnectionFactory connectionFactory;
+    private final ObjectProvider<RedisMessageListenerContainer> containers;
+    private RedisMessageListenerContainer container;
+    private boolean internal;
+
+    public TwoLevelCacheSubscriber(TwoLevelCacheManager cacheManager, String channel,
+                                   RedisConnectionFactory connectionFactory,
+                                   ObjectProvider<RedisMessageListenerContainer> containers) {
+        this.cacheManager = cacheManager;
+        this.topic = new ChannelTopic(channel);
+        this.connectionFactory = connectionFactory;
+        this.containers = containers;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        RedisMessageListenerContainer shared = containers.getIfUnique();
+        if (shared != null) {
+            container = shared;
+        } else {
+            container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.afterPropertiesSet();
+            internal = true;
+        }
+        container.addMessageListener(cacheManager, topic);
+        if (internal) {
+            container.start();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (container == null) {
+            return;
+        }
+        if (internal) {
+            container.destroy();
+        } else {
+            container.removeMessageListener(cacheManager, topic);
+        }
+        container = null;
+    }
+
+    /**
+     * 是否使用内部创建的容器
+     */
+    boolean isInternal() {
+        return internal;
+    }
+}
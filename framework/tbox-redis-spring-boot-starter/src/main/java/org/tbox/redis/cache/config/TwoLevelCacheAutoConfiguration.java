@@ -0,0 +1,64 @@
+package org.tbox.redis.cache.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.tbox.redis.cache.TwoLevelCacheManager;
+import org.tbox.redis.cache.TwoLevelCacheMetricsBinder;
+import org.tbox.redis.cache.TwoLevelCacheSubscriber;
+
+/**
+ * 二级缓存自动配置，需设置 tbox.redis.cache.enabled=true
+ */
+@Configuration
+@ConditionalOnClass(RedisTemplate.class)
+@ConditionalOnProperty(prefix = TwoLevelCacheProperties.PREFIX, name = "enabled", havingValue = "true")
+@AutoConfigureAfter(RedisAutoConfiguration.class)
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
+public class TwoLevelCacheAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @SuppressWarnings("unchecked")
+    public TwoLevelCacheManager twoLevelCacheManager(TwoLevelCacheProperties properties,
+                                                     @Qualifier("redisTemplate") RedisTemplate<?, ?> redisTemplate,
+                                                     StringRedisTemplate stringRedisTemplate) {
+        return new TwoLevelCacheManager(properties, (RedisTemplate<String, Object>) redisTemplate, stringRedisTemplate);
+    }
+
+    /**
+     * 订阅失效消息频道，优先复用应用中的监听容器
+     */
+    @Bean
+    public TwoLevelCacheSubscriber twoLevelCacheSubscriber(TwoLevelCacheManager twoLevelCacheManager,
+                                                           TwoLevelCacheProperties properties,
+                                                           RedisConnectionFactory connectionFactory,
+                                                           ObjectProvider<RedisMessageListenerContainer> containers) {
+        return new TwoLevelCacheSubscriber(twoLevelCacheManager, properties.getChannel(), connectionFactory, containers);
+    }
+
+    /**
+     * Micrometer指标，需引入micrometer
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class TwoLevelCacheMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public TwoLevelCacheMetricsBinder twoLevelCacheMetricsBinder(TwoLevelCacheManager twoLevelCacheManager) {
+            return new TwoLevelCacheMetricsBinder(twoLevelCacheManager);
+        }
+    }
+}
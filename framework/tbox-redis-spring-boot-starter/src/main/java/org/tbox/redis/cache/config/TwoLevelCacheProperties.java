@@ -0,0 +1,165 @@
+package org.tbox.redis.cache.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 二级缓存（进程内 + Redis）配置
+ */
+@ConfigurationProperties(prefix = TwoLevelCacheProperties.PREFIX)
+public class TwoLevelCacheProperties {
+
+    public static final String PREFIX = "tbox.redis.cache";
+
+    /**
+     * 是否启用二级缓存，启用后订阅失效消息频道
+     */
+    private boolean enabled = false;
+
+    /**
+     * Redis中键的前缀，实际的键为 前缀 + 缓存名称 + ":{" + key + "}"
+     */
+    private String keyPrefix = "tbox:cache:";
+
+    /**
+     * 失效消息的发布/订阅频道，同一组应用需配置相同的频道
+     */
+    private String channel = "tbox:cache:invalidate";
+
+    /**
+     * 默认配置，未单独配置的缓存以及单独配置中未设置的项使用此配置
+     */
+    private Spec defaults = Spec.defaults();
+
+    /**
+     * 按缓存名称单独配置
+     */
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    /**
+     * 获取指定缓存的配置，未设置的项使用默认配置
+     */
+    public Spec getSpec(String name) {
+        Spec spec = caches.get(name);
+        return spec == null ? defaults : spec.merge(defaults);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public Spec getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Spec defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Spec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, Spec> caches) {
+        this.caches = caches;
+    }
+
+    /**
+     * 单个缓存的配置
+     */
+    public static class Spec {
+
+        /**
+         * 一级缓存最大条目数，0表示不使用一级缓存
+         */
+        private Integer localMaxSize;
+
+        /**
+         * 一级缓存条目的过期时间，也是收不到失效消息（如连接中断）时本地数据的最长滞后时间
+         */
+        private Duration localTtl;
+
+        /**
+         * Redis中条目的过期时间
+         */
+        private Duration redisTtl;
+
+        /**
+         * 加载结果为null时的缓存时间（防止缓存穿透），0表示不缓存null
+         */
+        private Duration nullTtl;
+
+        static Spec defaults() {
+            Spec spec = new Spec();
+            spec.localMaxSize = 1000;
+            spec.localTtl = Duration.ofMinutes(1);
+            spec.redisTtl = Duration.ofMinutes(30);
+            spec.nullTtl = Duration.ofMinutes(2);
+            return spec;
+        }
+
+        Spec merge(Spec defaults) {
+            Spec spec = new Spec();
+            spec.localMaxSize = localMaxSize != null ? localMaxSize : defaults.localMaxSize;
+            spec.localTtl = localTtl != null ? localTtl : defaults.localTtl;
+            spec.redisTtl = redisTtl != null ? redisTtl : defaults.redisTtl;
+            spec.nullTtl = nullTtl != null ? nullTtl : defaults.nullTtl;
+            return spec;
+        }
+
+        public Integer getLocalMaxSize() {
+            return localMaxSize;
+        }
+
+        public void setLocalMaxSize(Integer localMaxSize) {
+            this.localMaxSize = localMaxSize;
+        }
+
+        public Duration getLocalTtl() {
+            return localTtl;
+        }
+
+        public void setLocalTtl(Duration localTtl) {
+            this.localTtl = localTtl;
+        }
+
+        public Duration getRedisTtl() {
+            return redisTtl;
+        }
+
+        public void setRedisTtl(Duration redisTtl) {
+            this.redisTtl = redisTtl;
+        }
+
+        public Duration getNullTtl() {
+            return nullTtl;
+        }
+
+        public void setNullTtl(Duration nullTtl) {
+            this.nullTtl = nullTtl;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.tbox.base.redis.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisBatchSupportTest {
+
+    private static final List<RedisClusterNode> NODES = Arrays.asList(
+            master("10.0.0.1", 0, 8191),
+            master("10.0.0.2", 8192, 16383),
+            RedisClusterNode.newRedisClusterNode().listeningAt("10.0.0.3", 6379)
+                    .promotedAs(RedisNode.NodeType.SLAVE).serving(new RedisClusterNode.SlotRange(0, 8191)).build());
+
+    @Test
+    void shouldUseSingleGroupWithoutCluster() {
+        List<List<List<Integer>>> groups = RedisBatchSupport.group(Arrays.asList("a", "b", "c"), null);
+        assertEquals(1, groups.size());
+        assertEquals(Collections.singletonList(Arrays.asList(0, 1, 2)), groups.get(0));
+    }
+
+    @Test
+    void shouldGroupBySlotAndMasterNode() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            keys.add("{user:1}:" + i);
+            keys.add("product:" + i);
+        }
+        List<List<List<Integer>>> groups = RedisBatchSupport.group(keys, NODES);
+
+        assertEquals(2, groups.size());
+        int total = 0;
+        for (List<List<Integer>> node : groups) {
+            boolean low = ClusterSlotHashUtil.calculateSlot(keys.get(node.get(0).get(0))) <= 8191;
+            for (List<Integer> slot : node) {
+                int expected = ClusterSlotHashUtil.calculateSlot(keys.get(slot.get(0)));
+                for (Integer index : slot) {
+                    int actual = ClusterSlotHashUtil.calculateSlot(keys.get(index));
+                    assertEquals(expected, actual);
+                    assertEquals(low, actual <= 8191);
+                }
+                total += slot.size();
+            }
+        }
+        assertEquals(keys.size(), total);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepKeyOrderAcrossParallelNodeGroups() {
+        RedisConnectionFactory factory = factory(mock(RedisClusterConnection.class));
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        when(template.getConnectionFactory()).thenReturn(factory);
+        when(template.execute(any(RedisCallback.class))).thenReturn(NODES);
+        AtomicInteger pipelines = new AtomicInteger();
+        when(template.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            pipelines.incrementAndGet();
+            List<Object> results = new ArrayList<>();
+            RedisOperations<String, Object> operations = mock(RedisOperations.class);
+            ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+            when(operations.opsForValue()).thenReturn(valueOperations);
+            when(valueOperations.multiGet(anyList())).thenAnswer(call -> {
+                List<String> slotKeys = call.getArgument(0);
+                List<Object> values = new ArrayList<>();
+                for (String key : slotKeys) {
+                    values.add("v:" + key);
+                }
+                results.add(values);
+                return null;
+            });
+            ((SessionCallback<Object>) invocation.getArgument(0)).execute(operations);
+            return results;
+        });
+
+        List<String> keys = Arrays.asList("product:1", "{order}:1", "product:2", "{order}:2", "product:3");
+        List<Object> values = RedisBatchSupport.execute(template, keys, true,
+                (operations, slotKeys) -> operations.opsForValue().multiGet(slotKeys));
+
+        assertEquals(Arrays.asList("v:product:1", "v:{order}:1", "v:product:2", "v:{order}:2", "v:product:3"), values);
+        assertEquals(2, pipelines.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldExecuteWithoutPipelineOnJedisCluster() {
+        RedisClusterConnection connection = mock(RedisClusterConnection.class);
+        doThrow(new UnsupportedOperationException("Pipeline is currently not supported for JedisClusterConnection"))
+                .when(connection).openPipeline();
+        RedisConnectionFactory factory = factory(connection);
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        when(template.getConnectionFactory()).thenReturn(factory);
+        when(template.execute(any(RedisCallback.class))).thenReturn(NODES);
+
+        List<String> keys = Arrays.asList("product:1", "{order}:1", "product:2");
+        for (int i = 0; i < 2; i++) {
+            List<Object> values = RedisBatchSupport.execute(template, keys, true, (operations, slotKeys) -> {
+                assertTrue(operations == template);
+                List<Object> slotValues = new ArrayList<>();
+                slotKeys.forEach(key -> slotValues.add("v:" + key));
+                return slotValues;
+            });
+            assertEquals(Arrays.asList("v:product:1", "v:{order}:1", "v:product:2"), values);
+        }
+
+        verify(template, never()).executePipelined(any(SessionCallback.class));
+        // 集群信息按连接工厂只检查一次，节点信息在缓存时间内复用
+        verify(factory, times(1)).getConnection();
+        verify(template, times(1)).execute(any(RedisCallback.class));
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> RedisBatchSupport.requirePipeline(template));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldConvertRawPipelineResults() {
+        RedisConnection connection = mock(RedisConnection.class);
+        JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer();
+        // 连接在管道中返回的原始结果：DEL为删除数，SET为Boolean，GET为序列化后的值
+        when(connection.closePipeline()).thenReturn(Arrays.asList(1L, 0L, Boolean.TRUE, serializer.serialize("x"), 3L));
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(factory(connection));
+        template.setKeySerializer(StringRedisSerializer.UTF_8);
+        template.setValueSerializer(serializer);
+        template.afterPropertiesSet();
+
+        List<PipelineOps.Response<?>> responses = new ArrayList<>();
+        PipelineOps.execute(template, ops -> {
+            responses.add(ops.delete("a"));
+            responses.add(ops.delete("b"));
+            responses.add(ops.set("c", "x"));
+            responses.add(ops.get("c"));
+            responses.add(ops.increment("d", 3));
+        });
+
+        Boolean deleted = (Boolean) responses.get(0).get();
+        assertEquals(Boolean.TRUE, deleted);
+        assertEquals(Boolean.FALSE, responses.get(1).get());
+        assertEquals(Boolean.TRUE, responses.get(2).get());
+        assertEquals("x", responses.get(3).get());
+        assertEquals(3L, responses.get(4).get());
+        verify(connection).openPipeline();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFillPipelineResponsesInOrder() {
+        PipelineOps ops = new PipelineOps(mock(RedisOperations.class, invocation -> {
+            Class<?> type = invocation.getMethod().getReturnType();
+            return type.isInterface() ? mock(type) : null;
+        }));
+        PipelineOps.Response<String> value = ops.get("a");
+        PipelineOps.Response<Double> score = ops.zScore("rank", "u1");
+        assertThrows(IllegalStateException.class, value::get);
+
+        ops.complete(Arrays.asList("x", 1.5D));
+        assertEquals("x", value.get());
+        assertEquals(1.5D, score.get());
+        assertThrows(IllegalStateException.class, () -> ops.get("b"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRejectMismatchedPipelineResults() {
+        PipelineOps ops = new PipelineOps(mock(RedisOperations.class, invocation -> {
+            Class<?> type = invocation.getMethod().getReturnType();
+            return type.isInterface() ? mock(type) : null;
+        }));
+        ops.get("a");
+        ops.get("b");
+        assertThrows(IllegalStateException.class, () -> ops.complete(Collections.singletonList("x")));
+    }
+
+    private static RedisConnectionFactory factory(RedisConnection connection) {
+        RedisConnectionFactory factory = mock(RedisConnectionFactory.class);
+        when(factory.getConnection()).thenReturn(connection);
+        return factory;
+    }
+
+    private static RedisClusterNode master(String host, int from, int to) {
+        return RedisClusterNode.newRedisClusterNode().listeningAt(host, 6379)
+                .promotedAs(RedisNode.NodeType.MASTER).serving(new RedisClusterNode.SlotRange(from, to)).build();
+    }
+}
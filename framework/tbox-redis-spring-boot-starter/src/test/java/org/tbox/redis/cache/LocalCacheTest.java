@@ -0,0 +1,89 @@
+package org.tbox.redis.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalCacheTest {
+
+    private static final long TTL = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void shouldKeepHotEntriesDuringScan() {
+        LocalCache cache = new LocalCache(10);
+        for (int i = 0; i < 5; i++) {
+            cache.put("hot:" + i, new CacheEntry(0, i), TTL);
+            assertNotNull(cache.get("hot:" + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            cache.put("scan:" + i, new CacheEntry(0, i), TTL);
+        }
+
+        assertEquals(10, cache.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, cache.get("hot:" + i).getValue());
+        }
+        assertEquals(95, cache.getEvictions());
+    }
+
+    @Test
+    void shouldExpireEntries() throws InterruptedException {
+        LocalCache cache = new LocalCache(10);
+        cache.put("a", new CacheEntry(0, "v"), TimeUnit.MILLISECONDS.toNanos(5));
+        assertNotNull(cache.get("a"));
+        Thread.sleep(10);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void shouldSkipLoadStartedBeforeInvalidation() {
+        LocalCache cache = new LocalCache(10);
+        long generation = cache.generation("a");
+        cache.invalidate("a", 2);
+
+        assertFalse(cache.putIfCurrent("a", new CacheEntry(1, "old"), TTL, generation));
+        assertNull(cache.get("a"));
+        assertTrue(cache.putIfCurrent("a", new CacheEntry(2, "new"), TTL, cache.generation("a")));
+    }
+
+    @Test
+    void shouldOnlyInvalidateOlderVersions() {
+        LocalCache cache = new LocalCache(10);
+        cache.put("a", new CacheEntry(3, "v3"), TTL);
+
+        cache.invalidate("a", 3);
+        assertEquals("v3", cache.get("a").getValue());
+        cache.put("a", new CacheEntry(2, "v2"), TTL);
+        assertEquals("v3", cache.get("a").getValue());
+
+        cache.invalidate("a", 4);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void shouldRejectStaleVersion() {
+        LocalCache cache = new LocalCache(10);
+        cache.put("a", new CacheEntry(5, "v5"), TTL);
+        cache.put("a", new CacheEntry(4, "v4"), TTL);
+        assertEquals("v5", cache.get("a").getValue());
+
+        // 已晋升到保护区的条目同样不被旧版本覆盖
+        assertFalse(cache.putIfCurrent("a", new CacheEntry(3, "v3"), TTL, cache.generation("a")));
+        assertEquals("v5", cache.get("a").getValue());
+        assertTrue(cache.putIfCurrent("a", new CacheEntry(6, "v6"), TTL, cache.generation("a")));
+        assertEquals("v6", cache.get("a").getValue());
+    }
+
+    @Test
+    void shouldNotCacheWhenSizeIsZero() {
+        LocalCache cache = new LocalCache(0);
+        cache.put("a", new CacheEntry(0, "v"), TTL);
+        assertNull(cache.get("a"));
+    }
+}
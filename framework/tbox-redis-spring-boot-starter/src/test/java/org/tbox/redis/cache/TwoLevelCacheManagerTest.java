@@ -0,0 +1,82 @@
+package org.tbox.redis.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.tbox.redis.cache.config.TwoLevelCacheProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TwoLevelCacheManagerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldDispatchInvalidationToCache() {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(new TwoLevelCacheProperties(),
+                mock(RedisTemplate.class), mock(StringRedisTemplate.class));
+        TwoLevelCache cache = manager.getCache("config");
+        assertSame(cache, manager.getCache("config"));
+
+        manager.onMessage(message(TwoLevelCacheManager.message("config", "a|b", 3)), null);
+        manager.onMessage(message(TwoLevelCacheManager.message("other", "a", 3)), null);
+        manager.onMessage(message("broken"), null);
+        manager.onMessage(message("x|config|a"), null);
+
+        assertEquals(1, cache.getStats().getInvalidations());
+        assertThrows(IllegalArgumentException.class, () -> manager.getCache("a|b"));
+        assertThrows(IllegalArgumentException.class, () -> manager.getCache(null));
+        assertThrows(IllegalArgumentException.class, () -> manager.getCache(""));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSubscribeOnExistingListenerContainer() throws Exception {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(new TwoLevelCacheProperties(),
+                mock(RedisTemplate.class), mock(StringRedisTemplate.class));
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        ObjectProvider<RedisMessageListenerContainer> containers = mock(ObjectProvider.class);
+        when(containers.getIfUnique()).thenReturn(container);
+        TwoLevelCacheSubscriber subscriber = new TwoLevelCacheSubscriber(manager, "tbox:cache:invalidate",
+                mock(RedisConnectionFactory.class), containers);
+
+        subscriber.afterSingletonsInstantiated();
+        assertFalse(subscriber.isInternal());
+        verify(container).addMessageListener(manager, new ChannelTopic("tbox:cache:invalidate"));
+
+        subscriber.destroy();
+        verify(container).removeMessageListener(manager, new ChannelTopic("tbox:cache:invalidate"));
+    }
+
+    @Test
+    void shouldMergeSpecWithDefaults() {
+        TwoLevelCacheProperties properties = new TwoLevelCacheProperties();
+        TwoLevelCacheProperties.Spec spec = new TwoLevelCacheProperties.Spec();
+        spec.setLocalTtl(Duration.ofMinutes(5));
+        properties.getCaches().put("config", spec);
+
+        TwoLevelCacheProperties.Spec merged = properties.getSpec("config");
+        assertEquals(Duration.ofMinutes(5), merged.getLocalTtl());
+        assertEquals(1000, merged.getLocalMaxSize());
+        assertEquals(Duration.ofMinutes(30), merged.getRedisTtl());
+        assertSame(properties.getDefaults(), properties.getSpec("other"));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("tbox:cache:invalidate".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,132 @@
+package org.tbox.redis.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.tbox.redis.cache.config.TwoLevelCacheProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class TwoLevelCacheTest {
+
+    private final FakeRedis redis = new FakeRedis();
+
+    @SuppressWarnings("unchecked")
+    private final TwoLevelCache cache = new TwoLevelCache("config", new TwoLevelCacheProperties().getDefaults(),
+            "tbox:cache:", "tbox:cache:invalidate", mock(RedisTemplate.class), redis);
+
+    @Test
+    void shouldNotCachePutOverwrittenBeforeLocalWrite() {
+        // 本节点写入Redis后、写入一级缓存前，其他节点写入了更新的版本并通知失效
+        redis.afterPopulate = () -> {
+            long version = redis.bump("config", "a");
+            cache.onInvalidation("a", version);
+        };
+        cache.put("a", "stale");
+
+        assertEquals(0, cache.getLocalSize());
+        assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    void shouldKeepNewerEntryOnDelayedInvalidation() {
+        cache.put("a", "v1");
+        cache.put("a", "v2");
+
+        // 第一次写入的失效消息晚于第二次写入到达
+        cache.onInvalidation("a", 1);
+        assertEquals("v2", cache.getIfPresent("a"));
+        assertEquals(1, cache.getStats().getLocalHits());
+
+        cache.onInvalidation("a", 3);
+        assertEquals(0, cache.getLocalSize());
+    }
+
+    @Test
+    void shouldNotCacheLoadInvalidatedDuringLoad() {
+        assertEquals("loaded", cache.get("a", key -> {
+            cache.onInvalidation(key, 1);
+            return "loaded";
+        }));
+
+        assertEquals(0, cache.getLocalSize());
+        assertEquals(1, cache.getStats().getLoads());
+    }
+
+    @Test
+    void shouldRecordRemoteStatsForGetIfPresent() {
+        assertNull(cache.getIfPresent("a"));
+        cache.put("a", "v");
+        cache.clearLocal();
+        assertEquals("v", cache.getIfPresent("a"));
+
+        assertEquals(1, cache.getStats().getRemoteHits());
+        assertEquals(1, cache.getStats().getRemoteMisses());
+    }
+
+    @Test
+    void shouldFailFastOnRecursiveLoad() {
+        assertThrows(IllegalStateException.class, () -> cache.get("a", key -> cache.get(key, k -> "inner")));
+
+        assertEquals("v", cache.get("a", key -> "v"));
+    }
+
+    /**
+     * 按参数个数区分读取、写入和递增版本脚本的内存实现
+     */
+    private static final class FakeRedis extends StringRedisTemplate {
+        private final Map<String, byte[]> data = new HashMap<>();
+        private final Map<String, Long> versions = new HashMap<>();
+        Runnable afterPopulate;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, RedisSerializer<?> argsSerializer,
+                             RedisSerializer<T> resultSerializer, List<String> keys, Object... args) {
+            String dataKey = keys.get(0);
+            long version = versions.getOrDefault(dataKey, 0L);
+            if (args.length == 0) {
+                byte[] raw = data.getOrDefault(dataKey, new byte[0]);
+                return (T) Arrays.asList(raw, Long.toString(version).getBytes(StandardCharsets.UTF_8));
+            }
+            if (args.length == 1) {
+                versions.put(dataKey, version + 1);
+                data.remove(dataKey);
+                return (T) Long.valueOf(version + 1);
+            }
+            if (version != Long.parseLong(new String((byte[]) args[0], StandardCharsets.UTF_8))) {
+                return (T) Long.valueOf(0L);
+            }
+            data.put(dataKey, (byte[]) args[1]);
+            if (afterPopulate != null) {
+                Runnable hook = afterPopulate;
+                afterPopulate = null;
+                hook.run();
+            }
+            return (T) Long.valueOf(1L);
+        }
+
+        @Override
+        public void convertAndSend(String channel, Object message) {
+        }
+
+        long bump(String name, String key) {
+            String dataKey = "tbox:cache:" + name + ":{" + key + '}';
+            long version = versions.getOrDefault(dataKey, 0L) + 1;
+            versions.put(dataKey, version);
+            data.remove(dataKey);
+            return version;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# 构建并运行基准测试，附带GC分配统计（-prof gc），结果与 baseline/jmh-result.json 比较
+#
+#   ./run.sh                          运行全部基准
+#   ./run.sh TraceContextBenchmark    只运行匹配的基准，其余参数原样传给JMH
+#   SKIP_BUILD=1 ./run.sh             跳过构建，使用已有的 target/benchmarks.jar
+#   UPDATE_BASELINE=1 ./run.sh        运行后用本次结果覆盖基线
+#   COMPARE_OPTS="-Dtime.threshold=-1" ./run.sh   在其他机器上只比较分配字节数
+set -euo pipefail
+
+cd "$(dirname "$0")"
+
+if [ "${SKIP_BUILD:-0}" != "1" ]; then
+    # -am 同时构建框架模块，避免使用本地仓库中旧版本的starter
+    mvn -B -q -f ../pom.xml -Pbenchmark -pl tbox-benchmarks -am package -DskipTests
+fi
+
+PATTERN="${1:-.*}"
+[ $# -gt 0 ] && shift
+
+RESULT=target/jmh-result.json
+java -jar target/benchmarks.jar "$PATTERN" -prof gc -rf json -rff "$RESULT" "$@"
+
+if [ "${UPDATE_BASELINE:-0}" = "1" ]; then
+    cp "$RESULT" baseline/jmh-result.json
+    echo "Baseline updated: baseline/jmh-result.json"
+elif [ -f baseline/jmh-result.json ]; then
+    java ${COMPARE_OPTS:-} -cp target/benchmarks.jar org.tbox.benchmarks.BaselineCompare baseline/jmh-result.json "$RESULT"
+fi
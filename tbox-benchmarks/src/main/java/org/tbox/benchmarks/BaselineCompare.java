@@ -0,0 +1,106 @@
+package org.tbox.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 比较两次JMH结果（-rf json），输出每个基准的耗时和单次分配字节数（-prof gc 的 gc.alloc.rate.norm）变化
+ * 耗时变慢超过阈值或单次分配增加超过阈值时以退出码1结束，可直接用于CI
+ * <p>
+ * 用法：java -cp benchmarks.jar org.tbox.benchmarks.BaselineCompare baseline.json current.json
+ * <p>
+ * 阈值：-Dtime.threshold=0.25（耗时增加比例，负数表示不比较耗时），-Dalloc.threshold=16（单次分配增加的字节数）
+ */
+public final class BaselineCompare {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    private BaselineCompare() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BaselineCompare <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        double timeThreshold = Double.parseDouble(System.getProperty("time.threshold", "0.25"));
+        double allocThreshold = Double.parseDouble(System.getProperty("alloc.threshold", "16"));
+
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %12s %12s %8s %10s %10s%n",
+                "Benchmark", "base ns/op", "ns/op", "diff", "base B/op", "B/op");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("%-70s %12s %12.2f %8s %10s %10s%n",
+                        entry.getKey(), "-", now.score, "new", "-", format(now.alloc));
+                continue;
+            }
+            double diff = base.score > 0 ? (now.score - base.score) / base.score : 0;
+            boolean slower = timeThreshold >= 0 && diff > timeThreshold;
+            boolean allocating = !Double.isNaN(now.alloc) && !Double.isNaN(base.alloc)
+                    && now.alloc - base.alloc > allocThreshold;
+            if (slower || allocating) {
+                regressions++;
+            }
+            System.out.printf("%-70s %12.2f %12.2f %+7.0f%% %10s %10s%s%n",
+                    entry.getKey(), base.score, now.score, diff * 100, format(base.alloc), format(now.alloc),
+                    slower || allocating ? "  <-- REGRESSION" : "");
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed (time > +%.0f%% or allocation > +%.0f B/op)%n",
+                    regressions, timeThreshold * 100, allocThreshold);
+            System.exit(1);
+        }
+    }
+
+    private static String format(double alloc) {
+        return Double.isNaN(alloc) ? "-" : String.format("%.0f", alloc);
+    }
+
+    /**
+     * 读取JMH结果，以“基准名 参数”为键
+     */
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(shortName(node.path("benchmark").asText()));
+            JsonNode params = node.path("params");
+            Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> param = fields.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            double score = node.path("primaryMetric").path("score").asDouble();
+            JsonNode alloc = node.path("secondaryMetrics").path(ALLOC_METRIC).path("score");
+            results.put(key.toString(), new Result(score, alloc.isMissingNode() ? Double.NaN : alloc.asDouble()));
+        }
+        return results;
+    }
+
+    private static String shortName(String benchmark) {
+        int method = benchmark.lastIndexOf('.');
+        int type = method > 0 ? benchmark.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? benchmark.substring(type + 1) : benchmark;
+    }
+
+    private static final class Result {
+        final double score;
+        final double alloc;
+
+        Result(double score, double alloc) {
+            this.score = score;
+            this.alloc = alloc;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.tbox.benchmarks.dapper;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.mq.kafka.TracingKafkaProducerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TracingKafkaProducerInterceptor#onSend} 写入追踪消息头的开销
+ * 消息头会累积，每次发送都创建新的消息，createRecord 为创建消息本身的成本
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KafkaProducerBenchmark {
+
+    /**
+     * 发送线程是否有追踪上下文，没有时开启新的追踪
+     */
+    @Param({"true", "false"})
+    private boolean traced;
+
+    private TracingKafkaProducerInterceptor interceptor;
+    private final Object value = "{\"orderId\":1001}";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        interceptor = new TracingKafkaProducerInterceptor("benchmark");
+        if (traced) {
+            TraceContext.createRootContext("benchmark");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TraceContext.removeContext();
+    }
+
+    @Benchmark
+    public ProducerRecord<String, Object> createRecord() {
+        return new ProducerRecord<>("orders", "1001", value);
+    }
+
+    @Benchmark
+    public ProducerRecord<String, Object> onSend() {
+        return interceptor.onSend(new ProducerRecord<>("orders", "1001", value));
+    }
+}
@@ -0,0 +1,81 @@
+package org.tbox.benchmarks.dapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+import org.tbox.dapper.context.TraceContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 切换线程绑定的追踪上下文时的MDC更新开销
+ * mdcEnabled=false 时只设置ThreadLocal，作为对照
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MdcUpdateBenchmark {
+
+    @Param({"true", "false"})
+    private boolean mdcEnabled;
+
+    /**
+     * MDC中是否有业务自己写入的键，有时移除追踪键不能整体清空MDC
+     */
+    @Param({"false", "true"})
+    private boolean userKeys;
+
+    private TraceContext parent;
+    private TraceContext child;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TraceContext.setMdcEnabled(mdcEnabled);
+        if (userKeys) {
+            MDC.put("userId", "10001");
+        }
+        parent = TraceContext.createRootContext("benchmark");
+        child = TraceContext.createChildContext();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TraceContext.removeContext();
+        MDC.clear();
+        TraceContext.setMdcEnabled(true);
+    }
+
+    /**
+     * 同一追踪内切换Span（如异步任务执行前后），只有spanId和parentSpanId变化
+     */
+    @Benchmark
+    public TraceContext switchSpan() {
+        TraceContext.setCurrentContext(child);
+        TraceContext.setCurrentContext(parent);
+        return parent;
+    }
+
+    /**
+     * 线程从空闲到处理请求再回到空闲，写入并移除全部追踪键
+     */
+    @Benchmark
+    public TraceContext bindAndRemove() {
+        TraceContext.setCurrentContext(child);
+        TraceContext.removeContext();
+        return child;
+    }
+}
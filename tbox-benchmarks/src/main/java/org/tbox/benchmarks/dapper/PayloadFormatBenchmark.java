@@ -0,0 +1,128 @@
+package org.tbox.benchmarks.dapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tbox.base.core.utils.JsonUtils;
+import org.tbox.dapper.web.payload.BoundedJsonWriter;
+import org.tbox.dapper.web.aspect.WebTraceAspect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WebTraceAspect} 出入参日志的序列化开销
+ * bounded 为切面使用的有长度上限的序列化，full 为完整序列化后再截断，作为对照
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PayloadFormatBenchmark {
+
+    /**
+     * 响应中的明细条数，1条约100字符
+     */
+    @Param({"1", "1000"})
+    private int items;
+
+    /**
+     * 最大字符数，与 tbox.tracer.max-response-length 默认值一致
+     */
+    @Param({"2048"})
+    private int maxLength;
+
+    private Object[] args;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<OrderItem> list = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            list.add(new OrderItem(1000L + i, "SKU-" + i, "测试商品名称" + i, i % 5 + 1, 1999L + i));
+        }
+        args = new Object[]{1001L, new Order(1001L, "vip", list)};
+    }
+
+    @Benchmark
+    public String bounded() {
+        return BoundedJsonWriter.toJson(args, maxLength);
+    }
+
+    @Benchmark
+    public String full() {
+        String json = JsonUtils.toJson(args);
+        return json.length() > maxLength ? json.substring(0, maxLength) : json;
+    }
+
+    public static class Order {
+        private final long orderId;
+        private final String type;
+        private final List<OrderItem> items;
+
+        Order(long orderId, String type, List<OrderItem> items) {
+            this.orderId = orderId;
+            this.type = type;
+            this.items = items;
+        }
+
+        public long getOrderId() {
+            return orderId;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public List<OrderItem> getItems() {
+            return items;
+        }
+    }
+
+    public static class OrderItem {
+        private final long id;
+        private final String sku;
+        private final String name;
+        private final int quantity;
+        private final long price;
+
+        OrderItem(long id, String sku, String name, int quantity, long price) {
+            this.id = id;
+            this.sku = sku;
+            this.name = name;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getSku() {
+            return sku;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public long getPrice() {
+            return price;
+        }
+    }
+}
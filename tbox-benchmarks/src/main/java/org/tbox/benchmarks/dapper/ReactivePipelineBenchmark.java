@@ -0,0 +1,135 @@
+package org.tbox.benchmarks.dapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Subscription;
+import org.slf4j.MDC;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TraceScope;
+import org.tbox.dapper.context.TraceSnapshot;
+import org.tbox.dapper.reactive.ReactorTraceContext;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应式链路中的追踪上下文传递开销
+ * 一个请求的处理链路：16个元素经过 map / filter / map / reduce，最后在一个位置打印日志（读取MDC中的traceId）
+ * <ul>
+ *     <li>NONE：不传递追踪上下文，作为对照</li>
+ *     <li>CONTEXT：快照写入Reactor Context，只在日志位置激活（本组件的做法）</li>
+ *     <li>EACH_OPERATOR：通过 Hooks.onEachOperator 在每个算子的每个元素上恢复ThreadLocal和MDC（常见的做法）</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReactivePipelineBenchmark {
+
+    private static final String HOOK_KEY = "benchmark-mdc";
+
+    @Param({"NONE", "CONTEXT", "EACH_OPERATOR"})
+    private String mode;
+
+    private TraceSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        snapshot = TraceContext.detached(null, "benchmark").snapshot();
+        if ("EACH_OPERATOR".equals(mode)) {
+            Hooks.onEachOperator(HOOK_KEY, Operators.lift((scannable, subscriber) -> new MdcSubscriber<>(subscriber)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Hooks.resetOnEachOperator(HOOK_KEY);
+        TraceContext.removeContext();
+        MDC.clear();
+    }
+
+    @Benchmark
+    public void pipeline(Blackhole blackhole) {
+        Flux<Integer> flux = Flux.range(0, 16)
+                .map(i -> i + 1)
+                .filter(i -> (i & 1) == 0)
+                .map(i -> i * 3);
+        if ("CONTEXT".equals(mode)) {
+            flux.reduce(0, Integer::sum)
+                    .doOnEach(ReactorTraceContext.onNext(sum -> blackhole.consume(MDC.get(TraceContext.MDC_TRACE_ID))))
+                    .contextWrite(ctx -> ctx.put(ReactorTraceContext.KEY, snapshot))
+                    .subscribe(blackhole::consume);
+        } else if ("EACH_OPERATOR".equals(mode)) {
+            flux.reduce(0, Integer::sum)
+                    .doOnNext(sum -> blackhole.consume(MDC.get(TraceContext.MDC_TRACE_ID)))
+                    .contextWrite(ctx -> ctx.put(ReactorTraceContext.KEY, snapshot))
+                    .subscribe(blackhole::consume);
+        } else {
+            flux.reduce(0, Integer::sum)
+                    .doOnNext(sum -> blackhole.consume(MDC.get(TraceContext.MDC_TRACE_ID)))
+                    .subscribe(blackhole::consume);
+        }
+    }
+
+    /**
+     * 每个元素到达时从Context激活快照，传递给下游后恢复
+     */
+    private static final class MdcSubscriber<T> implements CoreSubscriber<T> {
+        private final CoreSubscriber<? super T> actual;
+
+        MdcSubscriber(CoreSubscriber<? super T> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            actual.onSubscribe(s);
+        }
+
+        @Override
+        public void onNext(T t) {
+            TraceSnapshot snapshot = ReactorTraceContext.get(actual.currentContext());
+            if (snapshot == null) {
+                actual.onNext(t);
+                return;
+            }
+            try (TraceScope ignored = snapshot.activate()) {
+                actual.onNext(t);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            actual.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            actual.onComplete();
+        }
+    }
+}
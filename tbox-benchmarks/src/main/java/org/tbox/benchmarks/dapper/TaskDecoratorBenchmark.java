@@ -0,0 +1,76 @@
+package org.tbox.benchmarks.dapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tbox.dapper.concurrent.ExecutorTaskStats;
+import org.tbox.dapper.concurrent.TracingTaskDecorator;
+import org.tbox.dapper.context.TraceContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TracingTaskDecorator} 包装任务并执行的开销
+ * 在提交线程上直接执行包装后的任务，不包含线程切换，只测量捕获快照、激活上下文和恢复上下文的成本
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TaskDecoratorBenchmark {
+
+    /**
+     * 提交线程是否有追踪上下文
+     */
+    @Param({"true", "false"})
+    private boolean traced;
+
+    /**
+     * 是否同时记录排队时间和执行时间
+     */
+    @Param({"false", "true"})
+    private boolean stats;
+
+    private TracingTaskDecorator decorator;
+    private Runnable task;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        decorator = new TracingTaskDecorator(stats ? ExecutorTaskStats.of("benchmark") : null);
+        task = () -> counter++;
+        if (traced) {
+            TraceContext.createRootContext("benchmark");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TraceContext.removeContext();
+    }
+
+    @Benchmark
+    public void direct(Blackhole blackhole) {
+        task.run();
+        blackhole.consume(counter);
+    }
+
+    @Benchmark
+    public void decorateAndRun(Blackhole blackhole) {
+        decorator.decorate(task).run();
+        blackhole.consume(counter);
+    }
+}
@@ -0,0 +1,80 @@
+package org.tbox.benchmarks.dapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tbox.dapper.context.SpanIdFormat;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.context.TraceSnapshot;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TraceContext} 创建、子上下文和移除的开销（包括MDC写入）
+ * spanIdFormat 分别对应随机十六进制和“父SpanId.序号”两种Span ID格式
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TraceContextBenchmark {
+
+    private static final String APP_NAME = "benchmark";
+
+    @Param({"RANDOM", "DOTTED"})
+    private SpanIdFormat spanIdFormat;
+
+    private TraceContext parent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TraceContext.setSpanIdFormat(spanIdFormat);
+        parent = TraceContext.createRootContext(APP_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TraceContext.removeContext();
+        TraceContext.setSpanIdFormat(SpanIdFormat.RANDOM);
+    }
+
+    /**
+     * 入口创建根上下文，结束时移除
+     */
+    @Benchmark
+    public TraceContext createRootAndRemove() {
+        TraceContext context = TraceContext.createRootContext(APP_NAME);
+        TraceContext.removeContext();
+        return context;
+    }
+
+    /**
+     * 在已有上下文中创建子上下文，再切回父上下文
+     */
+    @Benchmark
+    public TraceContext createChildAndRestore() {
+        TraceContext child = TraceContext.createChildContext();
+        TraceContext.setCurrentContext(parent);
+        return child;
+    }
+
+    /**
+     * 为发往下游的调用（如消息发送）生成Span，不绑定线程、不写MDC
+     */
+    @Benchmark
+    public TraceSnapshot nextSpan() {
+        return TraceContext.nextSpan(APP_NAME);
+    }
+}
@@ -0,0 +1,91 @@
+package org.tbox.benchmarks.dapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.tbox.dapper.annotation.Traced;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.method.TracedMethodInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Traced} 方法追踪单次调用开销
+ * direct 为不经过代理的直接调用，proxied 为经过 {@link TracedMethodInterceptor} 的代理调用，
+ * 二者之差即为追踪开销（含代理本身）；proxiedWithoutTags 不提取参数作为附加信息；
+ * mode 分别对应无追踪上下文、未采样和采样三种情况
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TracedMethodBenchmark {
+
+    @Param({"none", "unsampled", "sampled"})
+    private String mode;
+
+    private OrderService target;
+    private OrderService proxy;
+    private long orderId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = new OrderService();
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(new DefaultPointcutAdvisor(TracedMethodInterceptor.pointcut(), new TracedMethodInterceptor()));
+        proxy = (OrderService) factory.getProxy();
+
+        if (!"none".equals(mode)) {
+            TraceContext context = TraceContext.createRootContext("benchmark");
+            context.setSampled("sampled".equals(mode));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TraceContext.removeContext();
+    }
+
+    @Benchmark
+    public String direct() {
+        return target.create(++orderId, "vip");
+    }
+
+    @Benchmark
+    public String proxiedWithoutTags() {
+        return proxy.plain(++orderId, "vip");
+    }
+
+    @Benchmark
+    public String proxied() {
+        return proxy.create(++orderId, "vip");
+    }
+
+    public static class OrderService {
+
+        @Traced(value = "order.create", tags = {"orderId=#orderId", "type=#p1"})
+        public String create(long orderId, String type) {
+            return type;
+        }
+
+        @Traced("order.plain")
+        public String plain(long orderId, String type) {
+            return type;
+        }
+    }
+}
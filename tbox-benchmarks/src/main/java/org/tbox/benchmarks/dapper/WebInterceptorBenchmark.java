@@ -0,0 +1,81 @@
+package org.tbox.benchmarks.dapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import org.tbox.dapper.config.TracerProperties;
+import org.tbox.dapper.context.TraceContext;
+import org.tbox.dapper.web.TracerWebInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TracerWebInterceptor} 一次请求的 preHandle + afterCompletion 开销
+ * 请求和响应对象复用，每次调用后清空属性和响应头，不计入创建Mock对象的成本
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WebInterceptorBenchmark {
+
+    private static final String PATTERN = "/api/orders/{id}";
+
+    /**
+     * none：入口请求，创建根上下文；traceparent：上游传入W3C追踪头
+     */
+    @Param({"none", "traceparent"})
+    private String upstream;
+
+    private TracerWebInterceptor interceptor;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TracerProperties properties = new TracerProperties();
+        properties.setApplicationName("benchmark");
+        interceptor = new TracerWebInterceptor(properties);
+
+        request = new MockHttpServletRequest("GET", "/api/orders/1001");
+        request.setQueryString("detail=true");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("User-Agent", "benchmark");
+        if ("traceparent".equals(upstream)) {
+            request.addHeader("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TraceContext.removeContext();
+    }
+
+    @Benchmark
+    public int preHandleAndAfterCompletion() throws Exception {
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, PATTERN);
+        interceptor.preHandle(request, response, null);
+        response.setStatus(200);
+        interceptor.afterCompletion(request, response, null, null);
+        int headers = response.getHeaderNames().size();
+        request.clearAttributes();
+        response.reset();
+        return headers;
+    }
+}